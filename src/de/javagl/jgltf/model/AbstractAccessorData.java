@@ -116,6 +116,64 @@ public abstract class AbstractAccessorData implements AccessorData {
     }
 
 
+    /**
+     * Returns whether the elements of this data are tightly packed, meaning
+     * that the byte stride between two elements is equal to the size of
+     * one element
+     *
+     * @return Whether the elements are tightly packed
+     */
+    public final boolean isTightlyPacked() {
+        return byteStridePerElement
+                == numComponentsPerElement * numBytesPerComponent;
+    }
+
+    /**
+     * Validate that the specified range of elements is contained in this
+     * data, and that an array with the given length can hold all
+     * components of these elements
+     *
+     * @param firstElement The index of the first element
+     * @param count        The number of elements
+     * @param arrayLength  The length of the array
+     * @throws IndexOutOfBoundsException If the range is not valid
+     */
+    protected final void validateRange(
+            int firstElement, int count, int arrayLength) {
+        if (firstElement < 0 || count < 0
+                || firstElement > numElements - count) {
+            throw new IndexOutOfBoundsException("Cannot access " + count
+                    + " elements starting at " + firstElement
+                    + ", the number of elements is " + numElements);
+        }
+        if ((long) count * numComponentsPerElement > arrayLength) {
+            throw new IndexOutOfBoundsException("The array must have a "
+                    + "length of at least " + count * numComponentsPerElement
+                    + ", but has a length of " + arrayLength);
+        }
+    }
+
+    /**
+     * Creates a slice of the underlying byte buffer that starts at the
+     * specified element and contains the given number of elements. The
+     * slice will have the same byte order as the underlying buffer. The
+     * position and limit of the underlying buffer are not modified.
+     *
+     * @param firstElement The index of the first element
+     * @param count        The number of elements
+     * @return The slice
+     */
+    protected final ByteBuffer createElementsSlice(
+            int firstElement, int count) {
+        int start = getByteIndex(firstElement, 0);
+        int length = count == 0 ? 0 : (count - 1) * byteStridePerElement
+                + numComponentsPerElement * numBytesPerComponent;
+        ByteBuffer duplicate = bufferViewByteBuffer.duplicate();
+        duplicate.limit(start + length);
+        duplicate.position(start);
+        return duplicate.slice().order(bufferViewByteBuffer.order());
+    }
+
     /**
      * Returns the underlying byte buffer
      *
@@ -351,15 +351,50 @@ public class AccessorDatas {
     }
 
     /**
-     * Creates an {@link AccessorFloatData} for the given {@link AccessorModel}
+     * Creates an {@link AccessorFloatData} for the given {@link AccessorModel}.
+     * <br>
+     * <br>
+     * If the {@link AccessorModel#getComponentType() component type} of the
+     * given accessor model is <code>GL_BYTE</code>,
+     * <code>GL_UNSIGNED_BYTE</code>, <code>GL_SHORT</code> or
+     * <code>GL_UNSIGNED_SHORT</code>, as allowed by the
+     * <code>KHR_mesh_quantization</code> extension, then the returned
+     * instance will convert the values into <code>float</code> values,
+     * taking into account whether the accessor model is
+     * {@link AccessorModel#isNormalized() normalized}.<br>
+     * <br>
+     * The instance is obtained from
+     * {@link AccessorModel#getAccessorFloatData()}, so that accessor models
+     * that store this instance return the same one with each call.
      *
      * @param accessorModel The {@link AccessorModel}
      * @return The {@link AccessorFloatData}
      * @throws IllegalArgumentException If the
      *                                  {@link AccessorModel#getComponentType() component type} of the given
-     *                                  accessorModel is not <code>GL_FLOAT</code>
+     *                                  accessorModel is not one of the types mentioned above
+     * @see #isFloatCompatibleType(int)
      */
     public static AccessorFloatData createFloat(AccessorModel accessorModel) {
+        return accessorModel.getAccessorFloatData();
+    }
+
+    /**
+     * Creates a new {@link AccessorFloatData} for the given
+     * {@link AccessorModel}, as described in
+     * {@link #createFloat(AccessorModel)}
+     *
+     * @param accessorModel The {@link AccessorModel}
+     * @return The {@link AccessorFloatData}
+     * @throws IllegalArgumentException If the component type of the
+     *                                  accessor model can not be converted to <code>float</code> values
+     */
+    static AccessorFloatData createNewFloat(AccessorModel accessorModel) {
+        if (isFloatType(accessorModel.getComponentType())) {
+            AccessorData accessorData = accessorModel.getAccessorData();
+            if (accessorData instanceof AccessorFloatData) {
+                return (AccessorFloatData) accessorData;
+            }
+        }
         BufferViewModel bufferViewModel = accessorModel.getBufferViewModel();
         return createFloat(accessorModel, bufferViewModel.getBufferViewData());
     }
@@ -372,7 +407,8 @@ public class AccessorDatas {
      *                             {@link BufferViewModel} referenced by the {@link AccessorModel}
      * @return The {@link AccessorFloatData}
      * @throws NullPointerException     If any argument is <code>null</code>
-     * @throws IllegalArgumentException If the
+     * @throws IllegalArgumentException If the component type of the
+     *                                  accessor model can not be converted to <code>float</code> values
      */
     private static AccessorFloatData createFloat(
             AccessorModel accessorModel, ByteBuffer bufferViewByteBuffer) {
@@ -381,7 +417,49 @@ public class AccessorDatas {
                 accessorModel.getByteOffset(),
                 accessorModel.getCount(),
                 accessorModel.getElementType().getNumComponents(),
-                accessorModel.getByteStride());
+                accessorModel.getByteStride(),
+                accessorModel.isNormalized());
+    }
+
+    /**
+     * Returns whether data with the given component type can be accessed
+     * as an {@link AccessorFloatData}. This is the case for
+     * <code>GL_FLOAT</code>, and for the types that are allowed by the
+     * <code>KHR_mesh_quantization</code> extension, namely
+     * <code>GL_BYTE</code>, <code>GL_UNSIGNED_BYTE</code>,
+     * <code>GL_SHORT</code> and <code>GL_UNSIGNED_SHORT</code>.
+     *
+     * @param type The type constant
+     * @return Whether the type can be accessed as <code>float</code> data
+     */
+    public static boolean isFloatCompatibleType(int type) {
+        return isFloatType(type) || isByteType(type) || isShortType(type);
+    }
+
+    /**
+     * Returns the size in bytes of one component with the given type,
+     * which must be a {@link #isFloatCompatibleType(int) float-compatible}
+     * type
+     *
+     * @param type The type constant
+     * @return The component size in bytes
+     * @throws IllegalArgumentException If the given type is not a
+     *                                  float-compatible type
+     */
+    static int getQuantizedComponentSizeInBytes(int type) {
+        if (isFloatType(type)) {
+            return 4;
+        }
+        if (isShortType(type)) {
+            return 2;
+        }
+        if (isByteType(type)) {
+            return 1;
+        }
+        throw new IllegalArgumentException(
+                "The type is not GL_FLOAT, GL_BYTE, GL_UNSIGNED_BYTE, " +
+                        "GL_SHORT or GL_UNSIGNED_SHORT, but " +
+                        GltfConstants.stringFor(type));
     }
 
     /**
@@ -418,32 +496,7 @@ public class AccessorDatas {
      * @throws IllegalArgumentException If the given model has an unknown type
      */
     public static Number[] computeMin(AccessorData accessorData) {
-        if (accessorData instanceof AccessorByteData) {
-            AccessorByteData accessorByteData =
-                    (AccessorByteData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorByteData.computeMinInt());
-        }
-        if (accessorData instanceof AccessorShortData) {
-            AccessorShortData accessorShortData =
-                    (AccessorShortData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorShortData.computeMinInt());
-        }
-        if (accessorData instanceof AccessorIntData) {
-            AccessorIntData accessorIntData =
-                    (AccessorIntData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorIntData.computeMinLong());
-        }
-        if (accessorData instanceof AccessorFloatData) {
-            AccessorFloatData accessorFloatData =
-                    (AccessorFloatData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorFloatData.computeMin());
-        }
-        throw new IllegalArgumentException(
-                "Invalid data type: " + accessorData);
+        return AccessorMinMax.compute(accessorData).getMin();
     }
 
     /**
@@ -455,32 +508,7 @@ public class AccessorDatas {
      * @throws IllegalArgumentException If the given model has an unknown type
      */
     public static Number[] computeMax(AccessorData accessorData) {
-        if (accessorData instanceof AccessorByteData) {
-            AccessorByteData accessorByteData =
-                    (AccessorByteData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorByteData.computeMaxInt());
-        }
-        if (accessorData instanceof AccessorShortData) {
-            AccessorShortData accessorShortData =
-                    (AccessorShortData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorShortData.computeMaxInt());
-        }
-        if (accessorData instanceof AccessorIntData) {
-            AccessorIntData accessorIntData =
-                    (AccessorIntData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorIntData.computeMaxLong());
-        }
-        if (accessorData instanceof AccessorFloatData) {
-            AccessorFloatData accessorFloatData =
-                    (AccessorFloatData) accessorData;
-            return NumberArrays.asNumbers(
-                    accessorFloatData.computeMax());
-        }
-        throw new IllegalArgumentException(
-                "Invalid data type: " + accessorData);
+        return AccessorMinMax.compute(accessorData).getMax();
     }
 
     /**
@@ -2,6 +2,7 @@ package de.javagl.jgltf.model;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -11,11 +12,31 @@ import java.util.Locale;
  * accessor, depending on the accessor parameters.<br>
  * <br>
  * This data consists of several elements (for example, 3D float vectors),
- * which consist of several components (for example, the 3 float values).
+ * which consist of several components (for example, the 3 float values).<br>
+ * <br>
+ * The data may also be stored as <code>GL_BYTE</code>,
+ * <code>GL_UNSIGNED_BYTE</code>, <code>GL_SHORT</code> or
+ * <code>GL_UNSIGNED_SHORT</code> components, as allowed by the
+ * <code>KHR_mesh_quantization</code> extension. In this case, the
+ * components are converted to <code>float</code> values when they are
+ * read, and converted back when they are written. For normalized
+ * components, the conversion follows the rules of the glTF
+ * specification, mapping the integer values to the range [-1,1] or
+ * [0,1], respectively.
  */
 public final class AccessorFloatData
         extends AbstractAccessorData
         implements AccessorData {
+    /**
+     * The component type, as a GL constant
+     */
+    private final int componentType;
+
+    /**
+     * Whether integer components are normalized
+     */
+    private final boolean normalized;
+
     /**
      * Creates a new instance for accessing the data in the given
      * byte buffer, according to the rules described by the given
@@ -39,14 +60,85 @@ public final class AccessorFloatData
     public AccessorFloatData(int componentType,
                              ByteBuffer bufferViewByteBuffer, int byteOffset, int numElements,
                              int numComponentsPerElement, Integer byteStride) {
+        this(validateFloatType(componentType), bufferViewByteBuffer,
+                byteOffset, numElements, numComponentsPerElement, byteStride,
+                false);
+    }
+
+    /**
+     * Creates a new instance for accessing the data in the given
+     * byte buffer, according to the rules described by the given
+     * accessor parameters. The component type may be <code>GL_FLOAT</code>,
+     * or one of the integer types that are allowed by the
+     * <code>KHR_mesh_quantization</code> extension, namely
+     * <code>GL_BYTE</code>, <code>GL_UNSIGNED_BYTE</code>,
+     * <code>GL_SHORT</code> or <code>GL_UNSIGNED_SHORT</code>.
+     *
+     * @param componentType           The component type
+     * @param bufferViewByteBuffer    The byte buffer of the buffer view
+     * @param byteOffset              The byte offset in the buffer view
+     * @param numElements             The number of elements
+     * @param numComponentsPerElement The number of components per element
+     * @param byteStride              The byte stride between two elements. If this
+     *                                is <code>null</code> or <code>0</code>, then the stride will
+     *                                be the size of one element.
+     * @param normalized              Whether integer components are normalized
+     * @throws NullPointerException     If the bufferViewByteBuffer is
+     *                                  <code>null</code>
+     * @throws IllegalArgumentException If the component type is not
+     *                                  one of the types mentioned above
+     * @throws IllegalArgumentException If the given byte buffer does not
+     *                                  have a sufficient capacity to provide the data for the accessor
+     */
+    public AccessorFloatData(int componentType,
+                             ByteBuffer bufferViewByteBuffer, int byteOffset, int numElements,
+                             int numComponentsPerElement, Integer byteStride,
+                             boolean normalized) {
         super(float.class, bufferViewByteBuffer, byteOffset, numElements,
-                numComponentsPerElement, Float.BYTES, byteStride);
-        AccessorDatas.validateFloatType(componentType);
+                numComponentsPerElement,
+                AccessorDatas.getQuantizedComponentSizeInBytes(componentType),
+                byteStride);
+        this.componentType = componentType;
+        this.normalized = normalized;
 
         AccessorDatas.validateCapacity(byteOffset, getNumElements(),
                 getByteStridePerElement(), bufferViewByteBuffer.capacity());
     }
 
+    /**
+     * Validate the given type with
+     * {@link AccessorDatas#validateFloatType(int)}, and return it
+     *
+     * @param componentType The component type
+     * @return The component type
+     * @throws IllegalArgumentException If the type is not
+     *                                  <code>GL_FLOAT</code>
+     */
+    private static int validateFloatType(int componentType) {
+        AccessorDatas.validateFloatType(componentType);
+        return componentType;
+    }
+
+    /**
+     * Returns the component type of the underlying data, as a GL constant.
+     * This is <code>GL_FLOAT</code>, unless this instance provides access
+     * to quantized data.
+     *
+     * @return The component type
+     */
+    public int getStorageComponentType() {
+        return componentType;
+    }
+
+    /**
+     * Returns whether the underlying integer components are normalized
+     *
+     * @return Whether the components are normalized
+     */
+    public boolean isNormalized() {
+        return normalized;
+    }
+
     /**
      * Returns the value of the specified component of the specified element
      *
@@ -58,7 +150,27 @@ public final class AccessorFloatData
      */
     public float get(int elementIndex, int componentIndex) {
         int byteIndex = getByteIndex(elementIndex, componentIndex);
-        return getBufferViewByteBuffer().getFloat(byteIndex);
+        ByteBuffer buffer = getBufferViewByteBuffer();
+        switch (componentType) {
+            case GltfConstants.GL_BYTE: {
+                float value = buffer.get(byteIndex);
+                return normalized ? Math.max(value / 127.0f, -1.0f) : value;
+            }
+            case GltfConstants.GL_UNSIGNED_BYTE: {
+                float value = buffer.get(byteIndex) & 0xFF;
+                return normalized ? value / 255.0f : value;
+            }
+            case GltfConstants.GL_SHORT: {
+                float value = buffer.getShort(byteIndex);
+                return normalized ? Math.max(value / 32767.0f, -1.0f) : value;
+            }
+            case GltfConstants.GL_UNSIGNED_SHORT: {
+                float value = buffer.getShort(byteIndex) & 0xFFFF;
+                return normalized ? value / 65535.0f : value;
+            }
+            default:
+                return buffer.getFloat(byteIndex);
+        }
     }
 
     /**
@@ -88,7 +200,45 @@ public final class AccessorFloatData
      */
     public void set(int elementIndex, int componentIndex, float value) {
         int byteIndex = getByteIndex(elementIndex, componentIndex);
-        getBufferViewByteBuffer().putFloat(byteIndex, value);
+        ByteBuffer buffer = getBufferViewByteBuffer();
+        switch (componentType) {
+            case GltfConstants.GL_BYTE:
+                buffer.put(byteIndex,
+                        (byte) quantize(value, -128, 127, 127.0f));
+                break;
+            case GltfConstants.GL_UNSIGNED_BYTE:
+                buffer.put(byteIndex,
+                        (byte) quantize(value, 0, 255, 255.0f));
+                break;
+            case GltfConstants.GL_SHORT:
+                buffer.putShort(byteIndex,
+                        (short) quantize(value, -32768, 32767, 32767.0f));
+                break;
+            case GltfConstants.GL_UNSIGNED_SHORT:
+                buffer.putShort(byteIndex,
+                        (short) quantize(value, 0, 65535, 65535.0f));
+                break;
+            default:
+                buffer.putFloat(byteIndex, value);
+                break;
+        }
+    }
+
+    /**
+     * Convert the given value into an integer value in the given range.
+     * If this data is normalized, then the value is multiplied with the
+     * given scale before it is rounded.
+     *
+     * @param value The value
+     * @param min   The minimum integer value
+     * @param max   The maximum integer value
+     * @param scale The scale for normalized values
+     * @return The integer value
+     */
+    private int quantize(float value, int min, int max, float scale) {
+        float scaled = normalized ? value * scale : value;
+        int result = Math.round(scaled);
+        return Math.max(min, Math.min(max, result));
     }
 
     /**
@@ -108,6 +258,111 @@ public final class AccessorFloatData
     }
 
 
+    /**
+     * Read the components of the specified elements into the given array.
+     * The components of the first element will be written to index 0 of
+     * the array, and the array must have a length of at least
+     * <code>count * getNumComponentsPerElement()</code>.<br>
+     * <br>
+     * If the data is stored as tightly packed <code>GL_FLOAT</code>
+     * values, then the data will be copied with a single bulk transfer.
+     *
+     * @param dst          The target array
+     * @param firstElement The index of the first element
+     * @param count        The number of elements
+     * @throws IndexOutOfBoundsException If the range of elements is not
+     *                                   valid, or the array is too small
+     */
+    public void readInto(float[] dst, int firstElement, int count) {
+        validateRange(firstElement, count, dst.length);
+        int nc = getNumComponentsPerElement();
+        if (componentType == GltfConstants.GL_FLOAT) {
+            if (isTightlyPacked()) {
+                createElementsSlice(firstElement, count)
+                        .asFloatBuffer().get(dst, 0, count * nc);
+                return;
+            }
+            ByteBuffer buffer = getBufferViewByteBuffer();
+            int stride = getByteStridePerElement();
+            int byteIndex = getByteIndex(firstElement, 0);
+            int index = 0;
+            for (int e = 0; e < count; e++) {
+                for (int c = 0; c < nc; c++) {
+                    dst[index++] = buffer.getFloat(byteIndex + c * Float.BYTES);
+                }
+                byteIndex += stride;
+            }
+            return;
+        }
+        int index = 0;
+        for (int e = firstElement; e < firstElement + count; e++) {
+            for (int c = 0; c < nc; c++) {
+                dst[index++] = get(e, c);
+            }
+        }
+    }
+
+    /**
+     * Write the components from the given array into the specified
+     * elements. The components of the first element are taken from
+     * index 0 of the array, and the array must have a length of at least
+     * <code>count * getNumComponentsPerElement()</code>.<br>
+     * <br>
+     * If the data is stored as tightly packed <code>GL_FLOAT</code>
+     * values, then the data will be copied with a single bulk transfer.
+     *
+     * @param src          The source array
+     * @param firstElement The index of the first element
+     * @param count        The number of elements
+     * @throws IndexOutOfBoundsException If the range of elements is not
+     *                                   valid, or the array is too small
+     */
+    public void writeFrom(float[] src, int firstElement, int count) {
+        validateRange(firstElement, count, src.length);
+        int nc = getNumComponentsPerElement();
+        if (componentType == GltfConstants.GL_FLOAT) {
+            if (isTightlyPacked()) {
+                createElementsSlice(firstElement, count)
+                        .asFloatBuffer().put(src, 0, count * nc);
+                return;
+            }
+            ByteBuffer buffer = getBufferViewByteBuffer();
+            int stride = getByteStridePerElement();
+            int byteIndex = getByteIndex(firstElement, 0);
+            int index = 0;
+            for (int e = 0; e < count; e++) {
+                for (int c = 0; c < nc; c++) {
+                    buffer.putFloat(byteIndex + c * Float.BYTES, src[index++]);
+                }
+                byteIndex += stride;
+            }
+            return;
+        }
+        int index = 0;
+        for (int e = firstElement; e < firstElement + count; e++) {
+            for (int c = 0; c < nc; c++) {
+                set(e, c, src[index++]);
+            }
+        }
+    }
+
+    /**
+     * Returns a <code>FloatBuffer</code> view on the data, if the data is
+     * stored as {@link #isTightlyPacked() tightly packed}
+     * <code>GL_FLOAT</code> values. The buffer will contain the components
+     * of all elements, and changes in the buffer will be visible in this
+     * data. If the data is strided or quantized, then <code>null</code>
+     * will be returned.
+     *
+     * @return The <code>FloatBuffer</code>, or <code>null</code>
+     */
+    public FloatBuffer asFloatBuffer() {
+        if (componentType != GltfConstants.GL_FLOAT || !isTightlyPacked()) {
+            return null;
+        }
+        return createElementsSlice(0, getNumElements()).asFloatBuffer();
+    }
+
     /**
      * Returns an array containing the minimum component values of all elements
      * of this accessor data. This will be an array whose length is the
@@ -147,7 +402,7 @@ public final class AccessorFloatData
     @Override
     public ByteBuffer createByteBuffer() {
         int totalNumComponents = getTotalNumComponents();
-        int totalBytes = totalNumComponents * getNumBytesPerComponent();
+        int totalBytes = totalNumComponents * Float.BYTES;
         ByteBuffer result = ByteBuffer.allocateDirect(totalBytes)
                 .order(ByteOrder.nativeOrder());
         for (int i = 0; i < totalNumComponents; i++) {
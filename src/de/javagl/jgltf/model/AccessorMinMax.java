@@ -0,0 +1,515 @@
+package de.javagl.jgltf.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The minimum and maximum component values of an {@link AccessorData}.<br>
+ * <br>
+ * Instances of this class are created with {@link #compute(AccessorData)},
+ * which computes the minimum and the maximum in a single pass over the
+ * data. Large accessor data is split into ranges of elements that are
+ * processed in parallel, using the common <code>ForkJoinPool</code>.<br>
+ * <br>
+ * The values are stored as primitive arrays. For <code>float</code> data,
+ * these are the (possibly dequantized) <code>float</code> values. For
+ * integral data, these are the integral values, taking into account
+ * whether the data is unsigned.
+ */
+public final class AccessorMinMax {
+    /**
+     * The number of elements below which the computation is not split
+     * into parallel tasks
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * The number of elements that are read with one bulk read
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The minimum values for <code>float</code> data
+     */
+    private final float[] minFloat;
+
+    /**
+     * The maximum values for <code>float</code> data
+     */
+    private final float[] maxFloat;
+
+    /**
+     * The minimum values for integral data
+     */
+    private final long[] minLong;
+
+    /**
+     * The maximum values for integral data
+     */
+    private final long[] maxLong;
+
+    /**
+     * The type of the accessor data, as one of the classes
+     * <code>AccessorByteData</code>, <code>AccessorShortData</code>,
+     * <code>AccessorIntData</code> or <code>AccessorFloatData</code>
+     */
+    private final Class<?> dataType;
+
+    /**
+     * Creates a new instance for <code>float</code> data
+     *
+     * @param min The minimum values
+     * @param max The maximum values
+     */
+    private AccessorMinMax(float[] min, float[] max) {
+        this.dataType = AccessorFloatData.class;
+        this.minFloat = min;
+        this.maxFloat = max;
+        this.minLong = null;
+        this.maxLong = null;
+    }
+
+    /**
+     * Creates a new instance for integral data
+     *
+     * @param dataType The type of the accessor data
+     * @param min      The minimum values
+     * @param max      The maximum values
+     */
+    private AccessorMinMax(Class<?> dataType, long[] min, long[] max) {
+        this.dataType = dataType;
+        this.minFloat = null;
+        this.maxFloat = null;
+        this.minLong = min;
+        this.maxLong = max;
+    }
+
+    /**
+     * Compute the minimum and maximum component values of the given
+     * {@link AccessorData}.<br>
+     * <br>
+     * For empty data, the minimum will be the largest and the maximum will
+     * be the smallest value of the respective type, as in the
+     * <code>computeMin</code> and <code>computeMax</code> methods of the
+     * accessor data classes.
+     *
+     * @param accessorData The {@link AccessorData}
+     * @return The {@link AccessorMinMax}
+     * @throws IllegalArgumentException If the given data has an unknown type
+     */
+    public static AccessorMinMax compute(AccessorData accessorData) {
+        if (accessorData instanceof AccessorFloatData) {
+            AccessorFloatData floatData = (AccessorFloatData) accessorData;
+            float[] result = invoke(new FloatTask(
+                    floatData, 0, floatData.getNumElements()));
+            int n = floatData.getNumComponentsPerElement();
+            return new AccessorMinMax(
+                    Arrays.copyOfRange(result, 0, n),
+                    Arrays.copyOfRange(result, n, n + n));
+        }
+        long initialMin;
+        long initialMax;
+        if (accessorData instanceof AccessorIntData) {
+            initialMin = Long.MAX_VALUE;
+            initialMax = Long.MIN_VALUE;
+        } else if (accessorData instanceof AccessorByteData
+                || accessorData instanceof AccessorShortData) {
+            initialMin = Integer.MAX_VALUE;
+            initialMax = Integer.MIN_VALUE;
+        } else {
+            throw new IllegalArgumentException(
+                    "Invalid data type: " + accessorData);
+        }
+        long[] result = invoke(new IntegralTask(accessorData,
+                0, accessorData.getNumElements(), initialMin, initialMax));
+        int n = accessorData.getNumComponentsPerElement();
+        return new AccessorMinMax(accessorData.getClass(),
+                Arrays.copyOfRange(result, 0, n),
+                Arrays.copyOfRange(result, n, n + n));
+    }
+
+    /**
+     * Invoke the given task, in the common pool if it is large enough
+     * to be split, and directly otherwise
+     *
+     * @param <T>  The result type
+     * @param task The task
+     * @return The result
+     */
+    private static <T> T invoke(RangeTask<T> task) {
+        if (task.count() < PARALLEL_THRESHOLD) {
+            return task.compute();
+        }
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Returns the number of components per element
+     *
+     * @return The number of components
+     */
+    public int getNumComponents() {
+        return minFloat != null ? minFloat.length : minLong.length;
+    }
+
+    /**
+     * Write the minimum values into the given array, converted to
+     * <code>float</code>. If the given array is <code>null</code> or
+     * too small, then a new array will be created and returned.
+     *
+     * @param result The array that will store the result
+     * @return The result
+     */
+    public float[] getMinFloat(float[] result) {
+        return toFloat(minFloat, minLong, result);
+    }
+
+    /**
+     * Write the maximum values into the given array, converted to
+     * <code>float</code>. If the given array is <code>null</code> or
+     * too small, then a new array will be created and returned.
+     *
+     * @param result The array that will store the result
+     * @return The result
+     */
+    public float[] getMaxFloat(float[] result) {
+        return toFloat(maxFloat, maxLong, result);
+    }
+
+    /**
+     * Returns a new array containing the minimum values. The type of the
+     * elements is the same as for <code>AccessorDatas#computeMin</code>.
+     *
+     * @return The minimum values
+     */
+    public Number[] getMin() {
+        return toNumbers(minFloat, minLong);
+    }
+
+    /**
+     * Returns a new array containing the maximum values. The type of the
+     * elements is the same as for <code>AccessorDatas#computeMax</code>.
+     *
+     * @return The maximum values
+     */
+    public Number[] getMax() {
+        return toNumbers(maxFloat, maxLong);
+    }
+
+    /**
+     * Convert the given values into <code>float</code> values
+     *
+     * @param floats The float values, or <code>null</code>
+     * @param longs  The long values, used if the float values are
+     *               <code>null</code>
+     * @param result The optional result array
+     * @return The result
+     */
+    private static float[] toFloat(
+            float[] floats, long[] longs, float[] result) {
+        int n = floats != null ? floats.length : longs.length;
+        if (result == null || result.length < n) {
+            result = new float[n];
+        }
+        for (int i = 0; i < n; i++) {
+            result[i] = floats != null ? floats[i] : (float) longs[i];
+        }
+        return result;
+    }
+
+    /**
+     * Convert the given values into numbers of the type that matches
+     * the type of the accessor data
+     *
+     * @param floats The float values, or <code>null</code>
+     * @param longs  The long values, used if the float values are
+     *               <code>null</code>
+     * @return The numbers
+     */
+    private Number[] toNumbers(float[] floats, long[] longs) {
+        if (floats != null) {
+            return NumberArrays.asNumbers(floats);
+        }
+        if (dataType == AccessorIntData.class) {
+            return NumberArrays.asNumbers(longs);
+        }
+        int[] ints = new int[longs.length];
+        for (int i = 0; i < longs.length; i++) {
+            ints[i] = (int) longs[i];
+        }
+        return NumberArrays.asNumbers(ints);
+    }
+
+    /**
+     * Base class for the tasks that process a range of elements. The
+     * result of a task is an array that contains the minimum values,
+     * followed by the maximum values.
+     *
+     * @param <T> The result type
+     */
+    private static abstract class RangeTask<T> extends RecursiveTask<T> {
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The index of the first element
+         */
+        final int first;
+
+        /**
+         * The index after the last element
+         */
+        final int last;
+
+        /**
+         * Creates a new instance
+         *
+         * @param first The index of the first element
+         * @param last  The index after the last element
+         */
+        RangeTask(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * Returns the number of elements in the range
+         *
+         * @return The number of elements
+         */
+        final int count() {
+            return last - first;
+        }
+
+        @Override
+        protected final T compute() {
+            if (count() < PARALLEL_THRESHOLD) {
+                return computeDirectly();
+            }
+            int middle = first + count() / 2;
+            RangeTask<T> left = create(first, middle);
+            RangeTask<T> right = create(middle, last);
+            left.fork();
+            T rightResult = right.compute();
+            T leftResult = left.join();
+            return combine(leftResult, rightResult);
+        }
+
+        /**
+         * Create a task for the given range
+         *
+         * @param first The index of the first element
+         * @param last  The index after the last element
+         * @return The task
+         */
+        abstract RangeTask<T> create(int first, int last);
+
+        /**
+         * Compute the result for the range of this task
+         *
+         * @return The result
+         */
+        abstract T computeDirectly();
+
+        /**
+         * Combine the given results. The first one may be modified and
+         * returned.
+         *
+         * @param a The first result
+         * @param b The second result
+         * @return The combined result
+         */
+        abstract T combine(T a, T b);
+    }
+
+    /**
+     * A task computing the minimum and maximum of {@link AccessorFloatData}
+     */
+    private static final class FloatTask extends RangeTask<float[]> {
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The accessor data
+         */
+        private final AccessorFloatData data;
+
+        /**
+         * Creates a new instance
+         *
+         * @param data  The accessor data
+         * @param first The index of the first element
+         * @param last  The index after the last element
+         */
+        FloatTask(AccessorFloatData data, int first, int last) {
+            super(first, last);
+            this.data = data;
+        }
+
+        @Override
+        RangeTask<float[]> create(int first, int last) {
+            return new FloatTask(data, first, last);
+        }
+
+        @Override
+        float[] computeDirectly() {
+            int n = data.getNumComponentsPerElement();
+            float[] result = new float[n + n];
+            Arrays.fill(result, 0, n, Float.MAX_VALUE);
+            Arrays.fill(result, n, n + n, -Float.MAX_VALUE);
+            float[] chunk = new float[Math.min(CHUNK_SIZE, count()) * n];
+            for (int e = first; e < last; e += CHUNK_SIZE) {
+                int count = Math.min(CHUNK_SIZE, last - e);
+                data.readInto(chunk, e, count);
+                int index = 0;
+                for (int i = 0; i < count; i++) {
+                    for (int c = 0; c < n; c++) {
+                        float v = chunk[index++];
+                        if (v < result[c]) {
+                            result[c] = v;
+                        }
+                        if (v > result[n + c]) {
+                            result[n + c] = v;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        float[] combine(float[] a, float[] b) {
+            int n = a.length / 2;
+            for (int c = 0; c < n; c++) {
+                a[c] = Math.min(a[c], b[c]);
+                a[n + c] = Math.max(a[n + c], b[n + c]);
+            }
+            return a;
+        }
+    }
+
+    /**
+     * A task computing the minimum and maximum of
+     * {@link AccessorByteData}, {@link AccessorShortData} or
+     * {@link AccessorIntData}
+     */
+    private static final class IntegralTask extends RangeTask<long[]> {
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The accessor data
+         */
+        private final AccessorData data;
+
+        /**
+         * The initial minimum value
+         */
+        private final long initialMin;
+
+        /**
+         * The initial maximum value
+         */
+        private final long initialMax;
+
+        /**
+         * Creates a new instance
+         *
+         * @param data       The accessor data
+         * @param first      The index of the first element
+         * @param last       The index after the last element
+         * @param initialMin The initial minimum value
+         * @param initialMax The initial maximum value
+         */
+        IntegralTask(AccessorData data, int first, int last,
+                     long initialMin, long initialMax) {
+            super(first, last);
+            this.data = data;
+            this.initialMin = initialMin;
+            this.initialMax = initialMax;
+        }
+
+        @Override
+        RangeTask<long[]> create(int first, int last) {
+            return new IntegralTask(data, first, last, initialMin, initialMax);
+        }
+
+        @Override
+        long[] computeDirectly() {
+            int n = data.getNumComponentsPerElement();
+            long[] result = new long[n + n];
+            Arrays.fill(result, 0, n, initialMin);
+            Arrays.fill(result, n, n + n, initialMax);
+            int chunkLength = Math.min(CHUNK_SIZE, count()) * n;
+            if (data instanceof AccessorByteData) {
+                AccessorByteData byteData = (AccessorByteData) data;
+                int mask = byteData.isUnsigned() ? 0xFF : -1;
+                byte[] chunk = new byte[chunkLength];
+                for (int e = first; e < last; e += CHUNK_SIZE) {
+                    int count = Math.min(CHUNK_SIZE, last - e);
+                    byteData.readInto(chunk, e, count);
+                    for (int i = 0; i < count * n; i++) {
+                        update(result, i % n, chunk[i] & mask);
+                    }
+                }
+            } else if (data instanceof AccessorShortData) {
+                AccessorShortData shortData = (AccessorShortData) data;
+                int mask = shortData.isUnsigned() ? 0xFFFF : -1;
+                short[] chunk = new short[chunkLength];
+                for (int e = first; e < last; e += CHUNK_SIZE) {
+                    int count = Math.min(CHUNK_SIZE, last - e);
+                    shortData.readInto(chunk, e, count);
+                    for (int i = 0; i < count * n; i++) {
+                        update(result, i % n, chunk[i] & mask);
+                    }
+                }
+            } else {
+                AccessorIntData intData = (AccessorIntData) data;
+                long mask = intData.isUnsigned() ? 0xFFFFFFFFL : -1L;
+                int[] chunk = new int[chunkLength];
+                for (int e = first; e < last; e += CHUNK_SIZE) {
+                    int count = Math.min(CHUNK_SIZE, last - e);
+                    intData.readInto(chunk, e, count);
+                    for (int i = 0; i < count * n; i++) {
+                        update(result, i % n, chunk[i] & mask);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Update the minimum and maximum for the specified component
+         *
+         * @param result The result array
+         * @param c      The component
+         * @param v      The value
+         */
+        private static void update(long[] result, int c, long v) {
+            int n = result.length / 2;
+            if (v < result[c]) {
+                result[c] = v;
+            }
+            if (v > result[n + c]) {
+                result[n + c] = v;
+            }
+        }
+
+        @Override
+        long[] combine(long[] a, long[] b) {
+            int n = a.length / 2;
+            for (int c = 0; c < n; c++) {
+                a[c] = Math.min(a[c], b[c]);
+                a[n + c] = Math.max(a[n + c], b[n + c]);
+            }
+            return a;
+        }
+    }
+}
@@ -73,6 +73,40 @@ public interface AccessorModel extends NamedModelElement {
      */
     int getByteStride();
 
+    /**
+     * Returns whether the integer components of this accessor are
+     * normalized. If this is the case, then the values are mapped to the
+     * range [0,1] for unsigned types, or [-1,1] for signed types, when
+     * they are accessed as floating point values.<br>
+     * <br>
+     * The default implementation returns <code>false</code>, so that
+     * existing implementations of this interface remain valid.
+     *
+     * @return Whether the components are normalized
+     */
+    default boolean isNormalized() {
+        return false;
+    }
+
+    /**
+     * Returns the data of this accessor as an {@link AccessorFloatData},
+     * as described in {@link AccessorDatas#createFloat(AccessorModel)}.<br>
+     * <br>
+     * The default implementation creates a new instance with each call.
+     * Implementations may store the instance, so that repeated calls,
+     * for example, for each frame of an animation, do not allocate new
+     * objects.
+     *
+     * @return The {@link AccessorFloatData}
+     * @throws IllegalArgumentException If the
+     *                                  {@link #getComponentType() component type}
+     *                                  can not be converted to <code>float</code>
+     *                                  values
+     */
+    default AccessorFloatData getAccessorFloatData() {
+        return AccessorDatas.createNewFloat(this);
+    }
+
     /**
      * Returns the {@link AccessorData} for this accessor. The exact type
      * of the returned {@link AccessorData} object will depend on the
@@ -87,6 +121,21 @@ public interface AccessorModel extends NamedModelElement {
      */
     AccessorData getAccessorData();
 
+    /**
+     * Returns the {@link SparseAccessorData} for this accessor, if this is
+     * a sparse accessor. This allows reading the data of sparse accessors
+     * without creating a dense copy of the data, as it is done by
+     * {@link #getAccessorData()}.<br>
+     * <br>
+     * The default implementation returns <code>null</code>.
+     *
+     * @return The {@link SparseAccessorData}, or <code>null</code> if this
+     * is not a sparse accessor
+     */
+    default SparseAccessorData getSparseAccessorData() {
+        return null;
+    }
+
     /**
      * Returns the minimum components of the {@link AccessorData}. The
      * returned array will be a clone of the array that is stored internally,
@@ -2,6 +2,7 @@ package de.javagl.jgltf.model;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -156,6 +157,94 @@ public final class AccessorShortData
         return unsigned ? Short.toUnsignedInt(value) : value;
     }
 
+    /**
+     * Read the components of the specified elements into the given array.
+     * The components of the first element will be written to index 0 of
+     * the array, and the array must have a length of at least
+     * <code>count * getNumComponentsPerElement()</code>.<br>
+     * <br>
+     * If the data is {@link #isTightlyPacked() tightly packed}, then the
+     * data will be copied with a single bulk transfer.
+     *
+     * @param dst          The target array
+     * @param firstElement The index of the first element
+     * @param count        The number of elements
+     * @throws IndexOutOfBoundsException If the range of elements is not
+     *                                   valid, or the array is too small
+     */
+    public void readInto(short[] dst, int firstElement, int count) {
+        validateRange(firstElement, count, dst.length);
+        int nc = getNumComponentsPerElement();
+        if (isTightlyPacked()) {
+            createElementsSlice(firstElement, count).asShortBuffer()
+                    .get(dst, 0, count * nc);
+            return;
+        }
+        ByteBuffer buffer = getBufferViewByteBuffer();
+        int stride = getByteStridePerElement();
+        int size = getNumBytesPerComponent();
+        int byteIndex = getByteIndex(firstElement, 0);
+        int index = 0;
+        for (int e = 0; e < count; e++) {
+            for (int c = 0; c < nc; c++) {
+                dst[index++] = buffer.getShort(byteIndex + c * size);
+            }
+            byteIndex += stride;
+        }
+    }
+
+    /**
+     * Write the components from the given array into the specified
+     * elements. The components of the first element are taken from
+     * index 0 of the array, and the array must have a length of at least
+     * <code>count * getNumComponentsPerElement()</code>.<br>
+     * <br>
+     * If the data is {@link #isTightlyPacked() tightly packed}, then the
+     * data will be copied with a single bulk transfer.
+     *
+     * @param src          The source array
+     * @param firstElement The index of the first element
+     * @param count        The number of elements
+     * @throws IndexOutOfBoundsException If the range of elements is not
+     *                                   valid, or the array is too small
+     */
+    public void writeFrom(short[] src, int firstElement, int count) {
+        validateRange(firstElement, count, src.length);
+        int nc = getNumComponentsPerElement();
+        if (isTightlyPacked()) {
+            createElementsSlice(firstElement, count).asShortBuffer()
+                    .put(src, 0, count * nc);
+            return;
+        }
+        ByteBuffer buffer = getBufferViewByteBuffer();
+        int stride = getByteStridePerElement();
+        int size = getNumBytesPerComponent();
+        int byteIndex = getByteIndex(firstElement, 0);
+        int index = 0;
+        for (int e = 0; e < count; e++) {
+            for (int c = 0; c < nc; c++) {
+                buffer.putShort(byteIndex + c * size, src[index++]);
+            }
+            byteIndex += stride;
+        }
+    }
+
+    /**
+     * Returns a <code>ShortBuffer</code> view on the data, if the data is
+     * {@link #isTightlyPacked() tightly packed}. The buffer will contain
+     * the components of all elements, and changes in the buffer will be
+     * visible in this data. If the data is strided, then <code>null</code>
+     * will be returned.
+     *
+     * @return The buffer, or <code>null</code>
+     */
+    public ShortBuffer asShortBuffer() {
+        if (!isTightlyPacked()) {
+            return null;
+        }
+        return createElementsSlice(0, getNumElements()).asShortBuffer();
+    }
+
     /**
      * Returns an array containing the minimum component values of all elements
      * of this accessor data. This will be an array whose length is the
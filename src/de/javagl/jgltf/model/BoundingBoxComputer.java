@@ -15,6 +15,11 @@ public class BoundingBoxComputer {
     private static final Logger logger =
             Logger.getLogger(BoundingBoxComputer.class);
 
+    /**
+     * The number of elements that are read at once from the position data
+     */
+    private static final int CHUNK_SIZE = 4096;
+
     /**
      * The {@link GltfModel}
      */
@@ -171,16 +176,18 @@ public class BoundingBoxComputer {
                     " - expected \"VEC3\" or \"VEC4\"");
             return null;
         }
-        Class<?> componentDataType = accessorModel.getComponentDataType();
-        if (!componentDataType.equals(float.class)) {
+        int componentType = accessorModel.getComponentType();
+        if (!AccessorDatas.isFloatCompatibleType(componentType)) {
             logger.warning("Mesh primitive " + positionsAttributeName +
                     " attribute refers to an accessor with component type " +
-                    GltfConstants.stringFor(accessorModel.getComponentType()) +
-                    " - expected GL_FLOAT");
+                    GltfConstants.stringFor(componentType) +
+                    " - expected GL_FLOAT, or a type that is allowed by " +
+                    "KHR_mesh_quantization");
+            return null;
         }
 
-        AccessorData accessorData = accessorModel.getAccessorData();
-        AccessorFloatData accessorFloatData = (AccessorFloatData) accessorData;
+        AccessorFloatData accessorFloatData =
+                AccessorDatas.createFloat(accessorModel);
 
         float[] point = new float[3];
         float[] transformedPoint;
@@ -190,18 +197,30 @@ public class BoundingBoxComputer {
             transformedPoint = point;
         }
 
+        // Read the elements in chunks, to avoid the per-component
+        // overhead of accessing the underlying buffer
+        int numElements = accessorFloatData.getNumElements();
+        int chunkSize = Math.min(numElements, CHUNK_SIZE);
+        float[] chunk = new float[chunkSize * numComponents];
+
         BoundingBox boundingBox = new BoundingBox();
-        for (int e = 0; e < accessorData.getNumElements(); e++) {
-            for (int c = 0; c < 3; c++) {
-                point[c] = accessorFloatData.get(e, c);
-            }
-            if (transform != null) {
-                MathUtils.transformPoint3D(transform, point, transformedPoint);
+        for (int first = 0; first < numElements; first += chunkSize) {
+            int count = Math.min(chunkSize, numElements - first);
+            accessorFloatData.readInto(chunk, first, count);
+            for (int i = 0; i < count; i++) {
+                int offset = i * numComponents;
+                point[0] = chunk[offset];
+                point[1] = chunk[offset + 1];
+                point[2] = chunk[offset + 2];
+                if (transform != null) {
+                    MathUtils.transformPoint3D(
+                            transform, point, transformedPoint);
+                }
+                boundingBox.combine(
+                        transformedPoint[0],
+                        transformedPoint[1],
+                        transformedPoint[2]);
             }
-            boundingBox.combine(
-                    transformedPoint[0],
-                    transformedPoint[1],
-                    transformedPoint[2]);
         }
         return boundingBox;
     }
@@ -14,7 +14,11 @@ public interface BufferModel extends NamedModelElement {
     String getUri();
 
     /**
-     * Returns the length, in bytes, of the {@link #getBufferData() buffer data}
+     * Returns the length, in bytes, of the {@link #getBufferData() buffer data}.
+     * <br>
+     * For buffers that have been read from a glTF asset, this is the byte
+     * length that was declared in the glTF, and calling this method does
+     * not cause the buffer data to be loaded.
      *
      * @return The buffer length, in bytes
      */
@@ -10,6 +10,7 @@ import de.javagl.jgltf.model.animation.AnimationManager.AnimationPolicy;
 import de.javagl.jgltf.model.animation.InterpolatorType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import de.javagl.jgltf.logging.Logger;
@@ -115,13 +116,13 @@ public class GltfAnimations {
         AccessorFloatData inputFloatData = (AccessorFloatData) inputData;
 
         AccessorModel output = sampler.getOutput();
-        AccessorData outputData = output.getAccessorData();
-        if (!(outputData instanceof AccessorFloatData)) {
-            logger.warning("Output data is not an AccessorFloatData, but "
-                    + outputData.getClass());
+        if (!AccessorDatas.isFloatCompatibleType(output.getComponentType())) {
+            logger.warning("Output data can not be accessed as float data, "
+                    + "the component type is " + GltfConstants.stringFor(
+                    output.getComponentType()));
             return null;
         }
-        AccessorFloatData outputFloatData = (AccessorFloatData) outputData;
+        AccessorFloatData outputFloatData = AccessorDatas.createFloat(output);
 
         Animation modelAnimation =
                 createAnimation(inputFloatData, outputFloatData, interpolatorType);
@@ -178,10 +179,7 @@ public class GltfAnimations {
             AccessorFloatData outputData,
             InterpolatorType interpolatorType) {
         int numKeyElements = timeData.getNumElements();
-        float[] keys = new float[numKeyElements];
-        for (int e = 0; e < numKeyElements; e++) {
-            keys[e] = timeData.get(e);
-        }
+        float[] keys = Arrays.copyOf(readAll(timeData), numKeyElements);
 
         // Note: The number of components per element that is used here
         // is NOT outputData.getNumComponentsPerElement() !!!
@@ -195,19 +193,32 @@ public class GltfAnimations {
                 outputData.getTotalNumComponents();
         int numComponentsPerElement =
                 totalNumValueComponents / numKeyElements;
+        float[] allValues = readAll(outputData);
         float[][] values = new float[numKeyElements][numComponentsPerElement];
-        for (int c = 0; c < numComponentsPerElement; c++) {
-            for (int e = 0; e < numKeyElements; e++) {
-                // Access the data using the global index, computed manually 
-                // based on the computed number of components per element
-                int globalIndex = e * numComponentsPerElement + c;
-                values[e][c] = outputData.get(globalIndex);
-            }
+        for (int e = 0; e < numKeyElements; e++) {
+            // Access the data using the global index, computed manually 
+            // based on the computed number of components per element
+            System.arraycopy(allValues, e * numComponentsPerElement,
+                    values[e], 0, numComponentsPerElement);
         }
         return new Animation(
                 keys, values, interpolatorType);
     }
 
+    /**
+     * Read all components of the given {@link AccessorFloatData} into
+     * a new array
+     *
+     * @param accessorFloatData The {@link AccessorFloatData}
+     * @return The array
+     */
+    private static float[] readAll(AccessorFloatData accessorFloatData) {
+        float[] result = new float[accessorFloatData.getTotalNumComponents()];
+        accessorFloatData.readInto(
+                result, 0, accessorFloatData.getNumElements());
+        return result;
+    }
+
     /**
      * Creates an {@link AnimationListener} that writes the animation data
      * into the {@link NodeModel}, depending on the given path. If the given
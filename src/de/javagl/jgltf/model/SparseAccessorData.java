@@ -0,0 +1,413 @@
+package de.javagl.jgltf.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import de.javagl.jgltf.model.io.Buffers;
+
+/**
+ * An {@link AccessorData} for a sparse accessor, which answers reads
+ * from the sparse values for elements that are contained in the sparse
+ * indices, and from the base data otherwise, without creating a dense
+ * copy of the data.<br>
+ * <br>
+ * The base data may be <code>null</code>, in which case all elements
+ * that are not contained in the sparse indices are zero.<br>
+ * <br>
+ * Callers that need the data in a contiguous buffer can call
+ * {@link #createByteBuffer()} or {@link #densify()}.<br>
+ * <br>
+ * Note that this class does not implement one of the typed accessor data
+ * classes. The {@link AccessorModel#getAccessorData() accessor data} of a
+ * sparse accessor model is still a dense, typed accessor data, which is
+ * created on demand.
+ */
+public final class SparseAccessorData implements AccessorData {
+    /**
+     * The optional base data
+     */
+    private final AbstractAccessorData baseAccessorData;
+
+    /**
+     * The indices of the elements that are substituted, in the order in
+     * which they appear in the sparse indices
+     */
+    private final int[] rawIndices;
+
+    /**
+     * The sorted indices of the elements that are substituted
+     */
+    private final int[] indices;
+
+    /**
+     * For each index in the sorted indices, the element of the sparse
+     * values that contains the substituted value
+     */
+    private final int[] valueElements;
+
+    /**
+     * The sparse values
+     */
+    private final AbstractAccessorData valuesAccessorData;
+
+    /**
+     * The component type GL constant
+     */
+    private final int componentType;
+
+    /**
+     * The number of elements
+     */
+    private final int numElements;
+
+    /**
+     * Creates a new instance
+     *
+     * @param componentType           The component type GL constant
+     * @param numElements             The number of elements
+     * @param baseAccessorData        The optional base data. This must have
+     *                                the same component type, number of elements and number of
+     *                                components per element as the resulting data.
+     * @param indicesAccessorData     The sparse indices, with an unsigned
+     *                                integral component type
+     * @param valuesAccessorData      The sparse values, with the given
+     *                                component type
+     * @throws IllegalArgumentException If the indices do not have an
+     *                                  integral type, contain an index that is not smaller than the
+     *                                  number of elements, or the values have a different type or
+     *                                  fewer elements than the indices
+     */
+    public SparseAccessorData(int componentType, int numElements,
+                              AccessorData baseAccessorData,
+                              AccessorData indicesAccessorData,
+                              AccessorData valuesAccessorData) {
+        if (valuesAccessorData.getNumElements()
+                < indicesAccessorData.getNumElements()) {
+            throw new IllegalArgumentException("There are "
+                    + indicesAccessorData.getNumElements()
+                    + " sparse indices, but only "
+                    + valuesAccessorData.getNumElements() + " values");
+        }
+        Class<?> dataType =
+                Accessors.getDataTypeForAccessorComponentType(componentType);
+        if (valuesAccessorData.getComponentType() != dataType) {
+            throw new IllegalArgumentException("The sparse values have "
+                    + "the type " + valuesAccessorData.getComponentType()
+                    + ", expected " + dataType);
+        }
+        this.componentType = componentType;
+        this.numElements = numElements;
+        this.baseAccessorData = (AbstractAccessorData) baseAccessorData;
+        this.valuesAccessorData = (AbstractAccessorData) valuesAccessorData;
+
+        this.rawIndices = extractIndices(indicesAccessorData);
+        this.indices = new int[rawIndices.length];
+        this.valueElements = new int[rawIndices.length];
+        boolean sorted = true;
+        for (int i = 0; i < rawIndices.length; i++) {
+            int index = rawIndices[i];
+            if (index < 0 || index >= numElements) {
+                throw new IllegalArgumentException("Sparse index " + index
+                        + " is not valid for " + numElements + " elements");
+            }
+            if (i > 0 && index <= rawIndices[i - 1]) {
+                sorted = false;
+            }
+        }
+        if (sorted) {
+            System.arraycopy(rawIndices, 0, indices, 0, rawIndices.length);
+            for (int i = 0; i < rawIndices.length; i++) {
+                valueElements[i] = i;
+            }
+        } else {
+            // The specification requires the indices to be strictly
+            // increasing. If they are not, sort them, keeping the last
+            // value for duplicate indices
+            long[] keys = new long[rawIndices.length];
+            for (int i = 0; i < rawIndices.length; i++) {
+                keys[i] = ((long) rawIndices[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                int index = (int) (keys[i] >>> 32);
+                if (n > 0 && indices[n - 1] == index) {
+                    n--;
+                }
+                indices[n] = index;
+                valueElements[n] = (int) keys[i];
+                n++;
+            }
+            Arrays.fill(indices, n, indices.length, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Extract the indices from the given {@link AccessorData}, which must
+     * contain an integral type
+     *
+     * @param accessorData The {@link AccessorData}
+     * @return The indices
+     * @throws IllegalArgumentException If the given data does not contain
+     *                                  an integral type
+     */
+    private static int[] extractIndices(AccessorData accessorData) {
+        int numElements = accessorData.getNumElements();
+        int[] indices = new int[numElements];
+        if (accessorData instanceof AccessorByteData) {
+            AccessorByteData accessorByteData =
+                    (AccessorByteData) accessorData;
+            for (int i = 0; i < numElements; i++) {
+                indices[i] = accessorByteData.getInt(i, 0);
+            }
+        } else if (accessorData instanceof AccessorShortData) {
+            AccessorShortData accessorShortData =
+                    (AccessorShortData) accessorData;
+            for (int i = 0; i < numElements; i++) {
+                indices[i] = accessorShortData.getInt(i, 0);
+            }
+        } else if (accessorData instanceof AccessorIntData) {
+            AccessorIntData accessorIntData =
+                    (AccessorIntData) accessorData;
+            accessorIntData.readInto(indices, 0, numElements);
+        } else {
+            throw new IllegalArgumentException("Invalid type for indices: "
+                    + accessorData.getComponentType());
+        }
+        return indices;
+    }
+
+    @Override
+    public Class<?> getComponentType() {
+        return valuesAccessorData.getComponentType();
+    }
+
+    @Override
+    public int getNumElements() {
+        return numElements;
+    }
+
+    @Override
+    public int getNumComponentsPerElement() {
+        return valuesAccessorData.getNumComponentsPerElement();
+    }
+
+    @Override
+    public int getTotalNumComponents() {
+        return numElements * getNumComponentsPerElement();
+    }
+
+    /**
+     * Returns the base {@link AccessorData}, or <code>null</code> if
+     * the sparse accessor does not have base data
+     *
+     * @return The base data
+     */
+    public AccessorData getBaseAccessorData() {
+        return baseAccessorData;
+    }
+
+    /**
+     * Returns the {@link AccessorData} containing the sparse values. The
+     * element with index <code>i</code> of this data contains the value
+     * of the element {@link #getSparseIndex(int) getSparseIndex(i)}.
+     *
+     * @return The sparse values
+     */
+    public AccessorData getSparseValues() {
+        return valuesAccessorData;
+    }
+
+    /**
+     * Returns the number of sparse elements
+     *
+     * @return The number of sparse elements
+     */
+    public int getNumSparseElements() {
+        return rawIndices.length;
+    }
+
+    /**
+     * Returns the index of the element that is substituted by the
+     * element with the given index in the {@link #getSparseValues()
+     * sparse values}
+     *
+     * @param sparseElementIndex The index of the sparse element
+     * @return The element index
+     * @throws IndexOutOfBoundsException If the index is negative or
+     *                                   not smaller than {@link #getNumSparseElements()}
+     */
+    public int getSparseIndex(int sparseElementIndex) {
+        return rawIndices[sparseElementIndex];
+    }
+
+    /**
+     * Returns the index of the element in the sparse values for the
+     * given element, or a negative value if the element is not
+     * substituted
+     *
+     * @param elementIndex The element index
+     * @return The index in the sparse values
+     */
+    private int findValueElement(int elementIndex) {
+        int i = Arrays.binarySearch(indices, elementIndex);
+        if (i < 0) {
+            return -1;
+        }
+        return valueElements[i];
+    }
+
+    /**
+     * Returns the specified component, converted to <code>float</code>.
+     * For integral types, this is the value that is returned by the
+     * <code>getInt</code> method of the accessor data.
+     *
+     * @param elementIndex   The element index
+     * @param componentIndex The component index
+     * @return The value
+     */
+    public float getFloat(int elementIndex, int componentIndex) {
+        int valueElement = findValueElement(elementIndex);
+        if (valueElement >= 0) {
+            return readFloat(valuesAccessorData, valueElement, componentIndex);
+        }
+        if (baseAccessorData == null) {
+            return 0.0f;
+        }
+        return readFloat(baseAccessorData, elementIndex, componentIndex);
+    }
+
+    /**
+     * Returns the specified component of integral data, as it would be
+     * returned by the <code>getInt</code> method of the accessor data
+     *
+     * @param elementIndex   The element index
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IllegalStateException If the data has a <code>float</code>
+     *                               component type
+     */
+    public int getInt(int elementIndex, int componentIndex) {
+        int valueElement = findValueElement(elementIndex);
+        if (valueElement >= 0) {
+            return readInt(valuesAccessorData, valueElement, componentIndex);
+        }
+        if (baseAccessorData == null) {
+            return 0;
+        }
+        return readInt(baseAccessorData, elementIndex, componentIndex);
+    }
+
+    /**
+     * Read the specified component from the given data as a float
+     *
+     * @param data           The data
+     * @param elementIndex   The element index
+     * @param componentIndex The component index
+     * @return The value
+     */
+    private static float readFloat(
+            AccessorData data, int elementIndex, int componentIndex) {
+        if (data instanceof AccessorFloatData) {
+            return ((AccessorFloatData) data).get(
+                    elementIndex, componentIndex);
+        }
+        if (data instanceof AccessorIntData) {
+            return ((AccessorIntData) data).getLong(
+                    elementIndex, componentIndex);
+        }
+        return readInt(data, elementIndex, componentIndex);
+    }
+
+    /**
+     * Read the specified component from the given integral data
+     *
+     * @param data           The data
+     * @param elementIndex   The element index
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IllegalStateException If the data is <code>float</code> data
+     */
+    private static int readInt(
+            AccessorData data, int elementIndex, int componentIndex) {
+        if (data instanceof AccessorByteData) {
+            return ((AccessorByteData) data).getInt(
+                    elementIndex, componentIndex);
+        }
+        if (data instanceof AccessorShortData) {
+            return ((AccessorShortData) data).getInt(
+                    elementIndex, componentIndex);
+        }
+        if (data instanceof AccessorIntData) {
+            return ((AccessorIntData) data).get(
+                    elementIndex, componentIndex);
+        }
+        throw new IllegalStateException(
+                "Cannot read integral values from " + data);
+    }
+
+    /**
+     * Creates a new, direct byte buffer with little-endian byte order
+     * that contains the dense data, with all elements tightly packed
+     *
+     * @return The byte buffer
+     */
+    @Override
+    public ByteBuffer createByteBuffer() {
+        int elementSize = valuesAccessorData.getNumComponentsPerElement()
+                * Accessors.getNumBytesForAccessorComponentType(componentType);
+        ByteBuffer result = Buffers.create(numElements * elementSize);
+        if (baseAccessorData != null) {
+            copyElements(baseAccessorData, 0, result, 0,
+                    numElements, elementSize);
+        }
+        for (int i = 0; i < rawIndices.length; i++) {
+            copyElements(valuesAccessorData, i,
+                    result, rawIndices[i] * elementSize, 1, elementSize);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a dense, typed {@link AccessorData} that contains the same
+     * values as this data. The returned data will be an
+     * {@link AccessorByteData}, {@link AccessorShortData},
+     * {@link AccessorIntData} or {@link AccessorFloatData}, depending on
+     * the component type, and refer to a newly created buffer.
+     *
+     * @return The dense {@link AccessorData}
+     */
+    public AccessorData densify() {
+        return AccessorDatas.create(componentType, createByteBuffer(), 0,
+                numElements, getNumComponentsPerElement(), null);
+    }
+
+    /**
+     * Copy the raw bytes of the specified elements of the given data into
+     * the given target buffer, tightly packed
+     *
+     * @param data         The source data
+     * @param firstElement The first element
+     * @param target       The target buffer
+     * @param targetOffset The byte offset in the target buffer
+     * @param count        The number of elements
+     * @param elementSize  The size of one element, in bytes
+     */
+    private static void copyElements(AbstractAccessorData data,
+                                     int firstElement, ByteBuffer target, int targetOffset,
+                                     int count, int elementSize) {
+        ByteBuffer source = data.createElementsSlice(firstElement, count);
+        ByteBuffer dst = target.duplicate();
+        dst.position(targetOffset);
+        if (data.isTightlyPacked()) {
+            dst.put(source);
+            return;
+        }
+        int stride = data.getByteStridePerElement();
+        for (int e = 0; e < count; e++) {
+            source.limit(e * stride + elementSize);
+            source.position(e * stride);
+            dst.put(source);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package de.javagl.jgltf.model.impl;
 
 import de.javagl.jgltf.model.*;
 
+import java.util.function.Supplier;
+
 /**
  * Implementation of an {@link AccessorModel}
  */
@@ -37,20 +39,35 @@ public final class DefaultAccessorModel extends AbstractNamedModelElement
      */
     private int byteStride;
 
+    /**
+     * Whether the integer components are normalized
+     */
+    private boolean normalized;
+
     /**
      * The {@link AccessorData}
      */
     private AccessorData accessorData;
 
     /**
-     * The minimum components
+     * The {@link AccessorFloatData}, created lazily
+     */
+    private AccessorFloatData accessorFloatData;
+
+    /**
+     * The supplier for the {@link SparseAccessorData}
+     */
+    private Supplier<? extends SparseAccessorData> sparseAccessorDataSupplier;
+
+    /**
+     * The {@link SparseAccessorData} that was obtained from the supplier
      */
-    private Number[] max;
+    private volatile SparseAccessorData sparseAccessorData;
 
     /**
-     * The maximum components
+     * The minimum and maximum components, computed lazily
      */
-    private Number[] min;
+    private volatile AccessorMinMax minMax;
 
     /**
      * Creates a new instance
@@ -96,6 +113,29 @@ public final class DefaultAccessorModel extends AbstractNamedModelElement
         this.byteStride = byteStride;
     }
 
+    /**
+     * Set whether the integer components of this accessor are normalized
+     *
+     * @param normalized Whether the components are normalized
+     */
+    public void setNormalized(boolean normalized) {
+        this.normalized = normalized;
+    }
+
+    /**
+     * Set the supplier for the {@link SparseAccessorData} of this model.
+     * If this is not <code>null</code>, then the given supplier will be
+     * called (once, in a thread-safe way) when the
+     * {@link #getSparseAccessorData() sparse accessor data} is accessed
+     * for the first time.
+     *
+     * @param sparseAccessorDataSupplier The supplier
+     */
+    public void setSparseAccessorDataSupplier(
+            Supplier<? extends SparseAccessorData> sparseAccessorDataSupplier) {
+        this.sparseAccessorDataSupplier = sparseAccessorDataSupplier;
+    }
+
     @Override
     public BufferViewModel getBufferViewModel() {
         return bufferViewModel;
@@ -142,6 +182,11 @@ public final class DefaultAccessorModel extends AbstractNamedModelElement
         return byteStride;
     }
 
+    @Override
+    public boolean isNormalized() {
+        return normalized;
+    }
+
     @Override
     public AccessorData getAccessorData() {
         if (accessorData == null) {
@@ -150,21 +195,78 @@ public final class DefaultAccessorModel extends AbstractNamedModelElement
         return accessorData;
     }
 
+    @Override
+    public AccessorFloatData getAccessorFloatData() {
+        if (accessorFloatData == null) {
+            accessorFloatData = AccessorModel.super.getAccessorFloatData();
+        }
+        return accessorFloatData;
+    }
+
+    @Override
+    public SparseAccessorData getSparseAccessorData() {
+        SparseAccessorData result = sparseAccessorData;
+        if (result == null && sparseAccessorDataSupplier != null) {
+            synchronized (this) {
+                result = sparseAccessorData;
+                if (result == null) {
+                    result = sparseAccessorDataSupplier.get();
+                    sparseAccessorData = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the {@link AccessorMinMax} for the data of this accessor,
+     * computing it if it was not computed yet
+     *
+     * @return The {@link AccessorMinMax}
+     */
+    private AccessorMinMax getMinMax() {
+        AccessorMinMax result = minMax;
+        if (result == null) {
+            result = AccessorMinMax.compute(getAccessorData());
+            minMax = result;
+        }
+        return result;
+    }
 
     @Override
     public Number[] getMin() {
-        if (min == null) {
-            min = AccessorDatas.computeMin(getAccessorData());
-        }
-        return min.clone();
+        return getMinMax().getMin();
     }
 
     @Override
     public Number[] getMax() {
-        if (max == null) {
-            max = AccessorDatas.computeMax(getAccessorData());
-        }
-        return max.clone();
+        return getMinMax().getMax();
+    }
+
+    /**
+     * Write the minimum component values into the given array, converted
+     * to <code>float</code>, without creating boxed values. If the given
+     * array is <code>null</code> or too small, then a new array will be
+     * created and returned.
+     *
+     * @param result The array that will store the result
+     * @return The result
+     */
+    public float[] getMinFloat(float[] result) {
+        return getMinMax().getMinFloat(result);
+    }
+
+    /**
+     * Write the maximum component values into the given array, converted
+     * to <code>float</code>, without creating boxed values. If the given
+     * array is <code>null</code> or too small, then a new array will be
+     * created and returned.
+     *
+     * @param result The array that will store the result
+     * @return The result
+     */
+    public float[] getMaxFloat(float[] result) {
+        return getMinMax().getMaxFloat(result);
     }
 
 }
@@ -4,6 +4,7 @@ import de.javagl.jgltf.model.BufferModel;
 import de.javagl.jgltf.model.io.Buffers;
 
 import java.nio.ByteBuffer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of a {@link BufferModel}
@@ -18,7 +19,19 @@ public final class DefaultBufferModel extends AbstractNamedModelElement
     /**
      * The actual data of the buffer
      */
-    private ByteBuffer bufferData;
+    private volatile ByteBuffer bufferData;
+
+    /**
+     * The optional supplier for the buffer data, which will be called
+     * when the data is accessed for the first time
+     */
+    private Supplier<? extends ByteBuffer> bufferDataSupplier;
+
+    /**
+     * The optional byte length of the buffer, as it was declared in the
+     * glTF, which is known before the buffer data is obtained
+     */
+    private Integer byteLength;
 
     /**
      * Creates a new instance
@@ -45,6 +58,55 @@ public final class DefaultBufferModel extends AbstractNamedModelElement
         this.bufferData = bufferData;
     }
 
+    /**
+     * Set the supplier for the data of this buffer. If no
+     * {@link #setBufferData(ByteBuffer) buffer data} was set, then the
+     * given supplier will be called (once, in a thread-safe way) when the
+     * data is accessed for the first time, and the result will be stored
+     * as the buffer data.
+     *
+     * @param bufferDataSupplier The supplier for the buffer data
+     */
+    public void setBufferDataSupplier(
+            Supplier<? extends ByteBuffer> bufferDataSupplier) {
+        this.bufferDataSupplier = bufferDataSupplier;
+    }
+
+    /**
+     * Set the byte length of this buffer, as it was declared in the glTF.
+     * If this is not <code>null</code>, then it will be returned by
+     * {@link #getByteLength()}, without obtaining the buffer data from
+     * the {@link #setBufferDataSupplier(Supplier) buffer data supplier}.
+     * If it is <code>null</code>, then the byte length is the capacity
+     * of the buffer data.
+     *
+     * @param byteLength The byte length
+     */
+    public void setByteLength(Integer byteLength) {
+        this.byteLength = byteLength;
+    }
+
+    /**
+     * Returns the buffer data, obtaining it from the
+     * {@link #setBufferDataSupplier(Supplier) buffer data supplier}
+     * if it was not obtained yet
+     *
+     * @return The buffer data
+     */
+    private ByteBuffer obtainBufferData() {
+        ByteBuffer result = bufferData;
+        if (result == null && bufferDataSupplier != null) {
+            synchronized (this) {
+                result = bufferData;
+                if (result == null) {
+                    result = bufferDataSupplier.get();
+                    bufferData = result;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public String getUri() {
         return uri;
@@ -52,12 +114,19 @@ public final class DefaultBufferModel extends AbstractNamedModelElement
 
     @Override
     public int getByteLength() {
-        return bufferData.capacity();
+        if (byteLength != null) {
+            return byteLength;
+        }
+        ByteBuffer data = obtainBufferData();
+        if (data == null) {
+            return 0;
+        }
+        return data.capacity();
     }
 
     @Override
     public ByteBuffer getBufferData() {
-        return Buffers.createSlice(bufferData);
+        return Buffers.createSlice(obtainBufferData());
     }
 
 }
@@ -6,6 +6,7 @@ import de.javagl.jgltf.model.io.Buffers;
 
 import java.nio.ByteBuffer;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of a {@link BufferViewModel}
@@ -50,6 +51,17 @@ public final class DefaultBufferViewModel extends AbstractNamedModelElement
      */
     private boolean sparseSubstitutionApplied;
 
+    /**
+     * An optional supplier for the data of this buffer view, for the case
+     * that the data is not a slice of the data of the {@link BufferModel}
+     */
+    private Supplier<? extends ByteBuffer> bufferViewDataSupplier;
+
+    /**
+     * The data that was obtained from the bufferViewDataSupplier
+     */
+    private volatile ByteBuffer suppliedBufferViewData;
+
     /**
      * Creates a new instance
      *
@@ -73,6 +85,45 @@ public final class DefaultBufferViewModel extends AbstractNamedModelElement
         this.sparseSubstitutionCallback = sparseSubstitutionCallback;
     }
 
+    /**
+     * Set the supplier for the data of this buffer view. If this is not
+     * <code>null</code>, then the given supplier will be called (once, in
+     * a thread-safe way) when the {@link #getBufferViewData() buffer view
+     * data} is accessed for the first time, and the result will be used
+     * instead of the data of the {@link BufferModel}. This is used for
+     * buffer views whose data has to be decoded, for example.<br>
+     * <br>
+     * The buffer returned by the supplier must contain
+     * {@link #getByteLength()} bytes.
+     *
+     * @param bufferViewDataSupplier The supplier for the buffer view data
+     */
+    public void setBufferViewDataSupplier(
+            Supplier<? extends ByteBuffer> bufferViewDataSupplier) {
+        this.bufferViewDataSupplier = bufferViewDataSupplier;
+    }
+
+    /**
+     * Returns the buffer view data that is obtained from the
+     * {@link #setBufferViewDataSupplier(Supplier) buffer view data supplier},
+     * obtaining it if it was not obtained yet
+     *
+     * @return The buffer view data
+     */
+    private ByteBuffer obtainSuppliedBufferViewData() {
+        ByteBuffer result = suppliedBufferViewData;
+        if (result == null) {
+            synchronized (this) {
+                result = suppliedBufferViewData;
+                if (result == null) {
+                    result = bufferViewDataSupplier.get();
+                    suppliedBufferViewData = result;
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Set the {@link BufferModel} for this model
      *
@@ -114,9 +165,17 @@ public final class DefaultBufferViewModel extends AbstractNamedModelElement
 
     @Override
     public ByteBuffer getBufferViewData() {
-        ByteBuffer bufferData = bufferModel.getBufferData();
-        ByteBuffer bufferViewData =
-                Buffers.createSlice(bufferData, getByteOffset(), getByteLength());
+        ByteBuffer bufferViewData;
+        if (bufferViewDataSupplier != null) {
+            ByteBuffer suppliedData =
+                    Buffers.createSlice(obtainSuppliedBufferViewData());
+            bufferViewData = Buffers.createSlice(
+                    suppliedData, 0, getByteLength());
+        } else {
+            ByteBuffer bufferData = bufferModel.getBufferData();
+            bufferViewData = Buffers.createSlice(
+                    bufferData, getByteOffset(), getByteLength());
+        }
         if (sparseSubstitutionCallback != null && !sparseSubstitutionApplied) {
             sparseSubstitutionCallback.accept(bufferViewData);
             sparseSubstitutionApplied = true;
@@ -5,6 +5,7 @@ import de.javagl.jgltf.model.ImageModel;
 import de.javagl.jgltf.model.io.Buffers;
 
 import java.nio.ByteBuffer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of a {@link ImageModel}
@@ -29,7 +30,13 @@ public final class DefaultImageModel extends AbstractNamedModelElement
     /**
      * The image data
      */
-    private ByteBuffer imageData;
+    private volatile ByteBuffer imageData;
+
+    /**
+     * The optional supplier for the image data, which will be called
+     * when the data is accessed for the first time
+     */
+    private Supplier<? extends ByteBuffer> imageDataSupplier;
 
     /**
      * Creates a new instance
@@ -72,6 +79,41 @@ public final class DefaultImageModel extends AbstractNamedModelElement
         this.imageData = imageData;
     }
 
+    /**
+     * Set the supplier for the data of this image. If no
+     * {@link #setImageData(ByteBuffer) image data} was set, then the
+     * given supplier will be called (once, in a thread-safe way) when the
+     * data is accessed for the first time, and the result will be stored
+     * as the image data.
+     *
+     * @param imageDataSupplier The supplier for the image data
+     */
+    public void setImageDataSupplier(
+            Supplier<? extends ByteBuffer> imageDataSupplier) {
+        this.imageDataSupplier = imageDataSupplier;
+    }
+
+    /**
+     * Returns the image data, obtaining it from the
+     * {@link #setImageDataSupplier(Supplier) image data supplier}
+     * if it was not obtained yet
+     *
+     * @return The image data
+     */
+    private ByteBuffer obtainImageData() {
+        ByteBuffer result = imageData;
+        if (result == null && imageDataSupplier != null) {
+            synchronized (this) {
+                result = imageData;
+                if (result == null) {
+                    result = imageDataSupplier.get();
+                    imageData = result;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public String getUri() {
         return uri;
@@ -89,10 +131,14 @@ public final class DefaultImageModel extends AbstractNamedModelElement
 
     @Override
     public ByteBuffer getImageData() {
-        if (imageData == null) {
+        ByteBuffer result = obtainImageData();
+        if (result == null) {
+            if (bufferViewModel == null) {
+                return null;
+            }
             return bufferViewModel.getBufferViewData();
         }
-        return Buffers.createSlice(imageData);
+        return Buffers.createSlice(result);
     }
 
 
@@ -36,6 +36,7 @@ public class UriStrings {
             if (!existingUriStrings.contains(uri)) {
                 return uri;
             }
+            counter++;
         }
     }
 
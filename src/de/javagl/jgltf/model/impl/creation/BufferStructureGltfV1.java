@@ -59,8 +59,9 @@ public class BufferStructureGltfV1 {
         accessor.setByteStride(accessorModel.getByteStride());
 
         AccessorData accessorData = accessorModel.getAccessorData();
-        accessor.setMax(AccessorDatas.computeMax(accessorData));
-        accessor.setMin(AccessorDatas.computeMin(accessorData));
+        AccessorMinMax minMax = AccessorMinMax.compute(accessorData);
+        accessor.setMax(minMax.getMax());
+        accessor.setMin(minMax.getMin());
 
         return accessor;
     }
@@ -54,10 +54,14 @@ public class BufferStructureGltfV2 {
         accessor.setComponentType(accessorModel.getComponentType());
         accessor.setCount(accessorModel.getCount());
         accessor.setType(accessorModel.getElementType().toString());
+        if (accessorModel.isNormalized()) {
+            accessor.setNormalized(true);
+        }
 
         AccessorData accessorData = accessorModel.getAccessorData();
-        accessor.setMax(AccessorDatas.computeMax(accessorData));
-        accessor.setMin(AccessorDatas.computeMin(accessorData));
+        AccessorMinMax minMax = AccessorMinMax.compute(accessorData);
+        accessor.setMax(minMax.getMax());
+        accessor.setMin(minMax.getMin());
 
         return accessor;
     }
@@ -0,0 +1,814 @@
+package de.javagl.jgltf.model.impl.creation;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+import de.javagl.jgltf.impl.v2.Accessor;
+import de.javagl.jgltf.impl.v2.Buffer;
+import de.javagl.jgltf.impl.v2.BufferView;
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.impl.v2.Image;
+import de.javagl.jgltf.impl.v2.Mesh;
+import de.javagl.jgltf.impl.v2.MeshPrimitive;
+import de.javagl.jgltf.impl.v2.Node;
+import de.javagl.jgltf.logging.Logger;
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.MeshModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.NodeModel;
+import de.javagl.jgltf.model.Optionals;
+import de.javagl.jgltf.model.impl.UriStrings;
+import de.javagl.jgltf.model.io.GltfReferenceResolver;
+import de.javagl.jgltf.model.io.IO;
+import de.javagl.jgltf.model.io.v2.GltfAssetV2;
+import de.javagl.jgltf.model.v2.GltfModelV2;
+
+/**
+ * A class for creating levels of detail for the meshes of a
+ * {@link GltfModelV2}, using the <code>MSFT_lod</code> extension.<br>
+ * <br>
+ * The {@link #create(GltfModelV2)} method creates a new {@link GltfModelV2}
+ * that contains the simplified meshes, which are created with a
+ * {@link MeshPrimitiveSimplifier} and optimized with a
+ * {@link MeshPrimitiveOptimizer}. For each node that has a mesh, one new
+ * node is created for each level of detail, with the same transform and
+ * the simplified mesh. These nodes are referred to by the
+ * <code>MSFT_lod</code> extension object of the original node. The
+ * resulting model can be written with the <code>GltfModelWriter</code>,
+ * like any other model.<br>
+ * <br>
+ * The mesh primitives are simplified in parallel.<br>
+ * <br>
+ * <b>This class is only intended for internal use!</b>
+ */
+public final class MeshLodCreatorV2 {
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+            Logger.getLogger(MeshLodCreatorV2.class);
+
+    /**
+     * The name of the extension
+     */
+    public static final String EXTENSION_NAME = "MSFT_lod";
+
+    /**
+     * The name of the property in the <code>extras</code> of a node that
+     * contains the screen coverages
+     */
+    public static final String SCREEN_COVERAGE_NAME = "MSFT_screencoverage";
+
+    /**
+     * The {@link MeshPrimitiveSimplifier}
+     */
+    private final MeshPrimitiveSimplifier meshPrimitiveSimplifier;
+
+    /**
+     * The {@link MeshPrimitiveOptimizer}
+     */
+    private final MeshPrimitiveOptimizer meshPrimitiveOptimizer;
+
+    /**
+     * The target ratios of triangles for the levels of detail
+     */
+    private float[] ratios;
+
+    /**
+     * The optional screen coverages
+     */
+    private float[] screenCoverages;
+
+    /**
+     * The executor for the simplification
+     */
+    private Executor executor;
+
+    /**
+     * Default constructor
+     */
+    public MeshLodCreatorV2() {
+        this.meshPrimitiveSimplifier = new MeshPrimitiveSimplifier();
+        this.meshPrimitiveOptimizer = new MeshPrimitiveOptimizer();
+        this.ratios = new float[]{0.5f, 0.25f};
+    }
+
+    /**
+     * Returns the {@link MeshPrimitiveSimplifier} that is used for
+     * creating the levels of detail, so that it may be configured
+     *
+     * @return The {@link MeshPrimitiveSimplifier}
+     */
+    public MeshPrimitiveSimplifier getMeshPrimitiveSimplifier() {
+        return meshPrimitiveSimplifier;
+    }
+
+    /**
+     * Returns the {@link MeshPrimitiveOptimizer} that is used for
+     * optimizing the levels of detail, so that it may be configured
+     *
+     * @return The {@link MeshPrimitiveOptimizer}
+     */
+    public MeshPrimitiveOptimizer getMeshPrimitiveOptimizer() {
+        return meshPrimitiveOptimizer;
+    }
+
+    /**
+     * Set the target ratios of triangles for the levels of detail. There
+     * will be one level of detail for each ratio, which refers to the
+     * number of triangles of the original mesh primitives. The default
+     * ratios are 0.5 and 0.25.
+     *
+     * @param ratios The ratios, which should be decreasing
+     * @throws IllegalArgumentException If no ratios are given, or one of
+     *                                  the ratios is not in (0,1]
+     */
+    public void setRatios(float... ratios) {
+        if (ratios.length == 0) {
+            throw new IllegalArgumentException("No ratios have been given");
+        }
+        for (float ratio : ratios) {
+            if (!(ratio > 0.0f && ratio <= 1.0f)) {
+                throw new IllegalArgumentException(
+                        "The ratio must be in (0,1], but is " + ratio);
+            }
+        }
+        this.ratios = ratios.clone();
+    }
+
+    /**
+     * Set the screen coverages that will be stored in the
+     * <code>MSFT_screencoverage</code> property of the <code>extras</code>
+     * of the nodes. If this is not <code>null</code>, then it must contain
+     * one more element than the {@link #setRatios(float...) ratios}: The
+     * screen coverage for the original mesh, the screen coverage for each
+     * level of detail, and the screen coverage below which the node is not
+     * rendered at all. By default, no screen coverages are stored.
+     *
+     * @param screenCoverages The optional screen coverages
+     */
+    public void setScreenCoverages(float... screenCoverages) {
+        this.screenCoverages =
+                screenCoverages == null ? null : screenCoverages.clone();
+    }
+
+    /**
+     * Set the executor that will be used for simplifying the mesh
+     * primitives. If this is <code>null</code>, then the
+     * {@link GltfReferenceResolver#getDefaultExecutor() default executor}
+     * will be used.
+     *
+     * @param executor The executor
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Create a new {@link GltfModelV2} that contains levels of detail for
+     * the meshes of the given model.<br>
+     * <br>
+     * Only mesh primitives that consist of triangles and have
+     * <code>POSITION</code> attributes with 3D float-compatible values
+     * are simplified. Other mesh primitives are contained unmodified in
+     * all levels of detail. Mesh primitives that do not contain any
+     * triangles after the simplification are omitted. Nodes that already
+     * have an <code>MSFT_lod</code> extension object are not modified.
+     * <br>
+     * <br>
+     * The data of the levels of detail is stored in a new buffer. The
+     * data of the existing buffers and images is shared with the given
+     * model.
+     *
+     * @param gltfModel The {@link GltfModelV2}
+     * @return The new {@link GltfModelV2}
+     * @throws IllegalArgumentException If the number of
+     *                                  {@link #setScreenCoverages(float...) screen coverages} does not
+     *                                  match the number of ratios
+     * @throws CompletionException      If the simplification of one of the
+     *                                  mesh primitives caused an exception. This exception will have
+     *                                  the original exception as its cause.
+     */
+    public GltfModelV2 create(GltfModelV2 gltfModel) {
+        if (screenCoverages != null
+                && screenCoverages.length != ratios.length + 1) {
+            throw new IllegalArgumentException("Expected "
+                    + (ratios.length + 1) + " screen coverages, but found "
+                    + screenCoverages.length);
+        }
+        GlTF inputGltf = gltfModel.getGltf();
+        GlTF gltf = copy(inputGltf);
+        List<Node> nodes = Optionals.of(gltf.getNodes());
+        List<Mesh> meshes = Optionals.of(gltf.getMeshes());
+        Map<Integer, MeshModel> meshModels = collectMeshModels(gltfModel);
+
+        // Start the simplification of the mesh primitives of all meshes
+        // that are used by nodes that do not have levels of detail yet
+        Map<Integer, List<CompletableFuture<List<LodData>>>> meshFutures =
+                new TreeMap<>();
+        for (Node node : nodes) {
+            Integer meshIndex = node.getMesh();
+            if (meshIndex == null || hasLodExtension(node)
+                    || meshFutures.containsKey(meshIndex)) {
+                continue;
+            }
+            List<CompletableFuture<List<LodData>>> futures = new ArrayList<>();
+            for (MeshPrimitiveModel meshPrimitiveModel :
+                    meshModels.get(meshIndex).getMeshPrimitiveModels()) {
+                futures.add(createLodDatas(meshPrimitiveModel));
+            }
+            meshFutures.put(meshIndex, futures);
+        }
+        List<CompletableFuture<List<LodData>>> allFutures =
+                meshFutures.values().stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList());
+        CompletableFuture.allOf(
+                allFutures.toArray(new CompletableFuture<?>[0])).join();
+
+        // Store the data of all levels of detail in one buffer structure
+        BufferStructureBuilder builder = new BufferStructureBuilder();
+        Map<Integer, Integer> meshLodCounts = new LinkedHashMap<>();
+        for (Entry<Integer, List<CompletableFuture<List<LodData>>>> entry :
+                meshFutures.entrySet()) {
+            int meshIndex = entry.getKey();
+            List<MeshPrimitiveModel> meshPrimitiveModels =
+                    meshModels.get(meshIndex).getMeshPrimitiveModels();
+            List<List<LodData>> primitiveLodDatas = new ArrayList<>();
+            for (CompletableFuture<List<LodData>> future : entry.getValue()) {
+                primitiveLodDatas.add(future.join());
+            }
+            int lodCount = computeLodCount(primitiveLodDatas);
+            for (int lod = 0; lod < lodCount; lod++) {
+                for (int p = 0; p < meshPrimitiveModels.size(); p++) {
+                    List<LodData> lodDatas = primitiveLodDatas.get(p);
+                    if (lodDatas == null) {
+                        continue;
+                    }
+                    LodData lodData = lodDatas.get(lod);
+                    if (lodData.indices.length > 0) {
+                        MeshPrimitiveOptimizer.addRemappedPrimitive(builder,
+                                createPrefix(meshIndex, lod, p),
+                                meshPrimitiveModels.get(p), lodData.indices,
+                                lodData.remap, lodData.vertexCount);
+                    }
+                }
+            }
+            if (lodCount > 0) {
+                meshLodCounts.put(meshIndex, lodCount);
+            }
+        }
+
+        ByteBuffer lodBufferData = null;
+        String lodBufferUri = null;
+        if (builder.getNumAccessorModels() > 0) {
+            Set<String> existingUriStrings =
+                    Optionals.of(gltf.getBuffers()).stream()
+                    .map(Buffer::getUri)
+                    .filter(uri -> uri != null && !IO.isDataUriString(uri))
+                    .collect(Collectors.toSet());
+            lodBufferUri = UriStrings.createBufferUriString(existingUriStrings);
+            builder.createBufferModel("lods", lodBufferUri);
+            BufferStructure bufferStructure = builder.build();
+            Map<String, Integer> accessorIndices =
+                    addBufferStructure(gltf, bufferStructure);
+            lodBufferData = bufferStructure.getBufferModels().get(0)
+                    .getBufferData();
+
+            Map<Integer, List<Integer>> lodMeshIndices = new HashMap<>();
+            for (Entry<Integer, Integer> entry : meshLodCounts.entrySet()) {
+                int meshIndex = entry.getKey();
+                List<Integer> indices = new ArrayList<>();
+                for (int lod = 0; lod < entry.getValue(); lod++) {
+                    indices.add(meshes.size());
+                    meshes.add(createLodMesh(meshes.get(meshIndex),
+                            meshModels.get(meshIndex), meshIndex, lod,
+                            accessorIndices));
+                }
+                lodMeshIndices.put(meshIndex, indices);
+            }
+            addLodNodes(nodes, lodMeshIndices);
+            if (!Optionals.of(gltf.getExtensionsUsed())
+                    .contains(EXTENSION_NAME)) {
+                gltf.addExtensionsUsed(EXTENSION_NAME);
+            }
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Created levels of detail for "
+                    + meshLodCounts.size() + " meshes");
+        }
+        return createGltfModel(gltfModel, gltf, lodBufferUri, lodBufferData);
+    }
+
+    /**
+     * Collect the {@link MeshModel} instances of the given model, by the
+     * indices of the corresponding meshes
+     *
+     * @param gltfModel The {@link GltfModelV2}
+     * @return The mapping from mesh indices to {@link MeshModel} instances
+     */
+    private static Map<Integer, MeshModel> collectMeshModels(
+            GltfModelV2 gltfModel) {
+        List<Node> nodes = Optionals.of(gltfModel.getGltf().getNodes());
+        List<NodeModel> nodeModels = gltfModel.getNodeModels();
+        Map<Integer, MeshModel> meshModels = new HashMap<>();
+        for (int n = 0; n < nodes.size(); n++) {
+            Integer meshIndex = nodes.get(n).getMesh();
+            List<MeshModel> nodeMeshModels = nodeModels.get(n).getMeshModels();
+            if (meshIndex != null && !nodeMeshModels.isEmpty()) {
+                meshModels.put(meshIndex, nodeMeshModels.get(0));
+            }
+        }
+        return meshModels;
+    }
+
+    /**
+     * Returns whether the given node already has an <code>MSFT_lod</code>
+     * extension object
+     *
+     * @param node The {@link Node}
+     * @return Whether the node has levels of detail
+     */
+    private static boolean hasLodExtension(Node node) {
+        Map<String, Object> extensions = node.getExtensions();
+        return extensions != null && extensions.containsKey(EXTENSION_NAME);
+    }
+
+    /**
+     * Start the creation of the levels of detail of the given mesh
+     * primitive. If the mesh primitive cannot be simplified, then the
+     * future will be completed with <code>null</code>.
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @return The future that provides the data of each level of detail
+     */
+    private CompletableFuture<List<LodData>> createLodDatas(
+            MeshPrimitiveModel meshPrimitiveModel) {
+        if (!isSimplifiable(meshPrimitiveModel)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Executor lodExecutor = executor != null ? executor
+                : GltfReferenceResolver.getDefaultExecutor();
+        return CompletableFuture.supplyAsync(() -> {
+            List<int[]> chain = meshPrimitiveSimplifier.simplifyChain(
+                    meshPrimitiveModel, ratios);
+            float[] positions =
+                    MeshPrimitiveOptimizer.readPositions(meshPrimitiveModel);
+            int vertexCount = positions.length / 3;
+            List<LodData> lodDatas = new ArrayList<>();
+            for (int[] indices : chain) {
+                if (indices.length == 0) {
+                    lodDatas.add(new LodData(indices, null, 0));
+                    continue;
+                }
+                int[] optimized = meshPrimitiveOptimizer.optimizeIndices(
+                        indices, vertexCount, positions);
+                int[] remap = MeshOptimizers.optimizeVertexFetch(
+                        optimized, vertexCount);
+                lodDatas.add(new LodData(optimized, remap,
+                        MeshPrimitiveOptimizer.computeVertexCount(remap)));
+            }
+            return lodDatas;
+        }, lodExecutor);
+    }
+
+    /**
+     * Returns whether the given mesh primitive can be simplified, which
+     * is the case when it consists of triangles and has a
+     * <code>POSITION</code> attribute with 3D float-compatible values
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @return Whether the mesh primitive can be simplified
+     */
+    private static boolean isSimplifiable(
+            MeshPrimitiveModel meshPrimitiveModel) {
+        if (meshPrimitiveModel.getMode() != GltfConstants.GL_TRIANGLES) {
+            return false;
+        }
+        AccessorModel positionsAccessorModel =
+                meshPrimitiveModel.getAttributes().get("POSITION");
+        return positionsAccessorModel != null
+                && positionsAccessorModel.getElementType() == ElementType.VEC3
+                && AccessorDatas.isFloatCompatibleType(
+                positionsAccessorModel.getComponentType());
+    }
+
+    /**
+     * Compute the number of levels of detail that can be created for
+     * a mesh with mesh primitives that have the given levels of detail.
+     * This is the number of levels until all simplified mesh primitives
+     * are empty. If none of the mesh primitives can be simplified, then
+     * this is 0.
+     *
+     * @param primitiveLodDatas The data of the levels of detail of each
+     *                          mesh primitive, or <code>null</code> for
+     *                          mesh primitives that cannot be simplified
+     * @return The number of levels of detail
+     */
+    private int computeLodCount(List<List<LodData>> primitiveLodDatas) {
+        int lodCount = 0;
+        for (int lod = 0; lod < ratios.length; lod++) {
+            boolean nonEmpty = false;
+            for (List<LodData> lodDatas : primitiveLodDatas) {
+                if (lodDatas != null && lodDatas.get(lod).indices.length > 0) {
+                    nonEmpty = true;
+                    break;
+                }
+            }
+            if (!nonEmpty) {
+                break;
+            }
+            lodCount++;
+        }
+        return lodCount;
+    }
+
+    /**
+     * Create the prefix for the IDs of the accessors of the given level
+     * of detail of the given mesh primitive
+     *
+     * @param meshIndex      The mesh index
+     * @param lod            The level of detail, starting at 0
+     * @param primitiveIndex The mesh primitive index
+     * @return The prefix
+     */
+    private static String createPrefix(
+            int meshIndex, int lod, int primitiveIndex) {
+        return "mesh" + meshIndex + "_lod" + (lod + 1)
+                + "_primitive" + primitiveIndex + "_";
+    }
+
+    /**
+     * Add the accessors, buffer views and buffers of the given
+     * {@link BufferStructure} to the given {@link GlTF}, and return
+     * the mapping from the accessor IDs to the accessor indices
+     *
+     * @param gltf            The {@link GlTF}
+     * @param bufferStructure The {@link BufferStructure}
+     * @return The accessor indices
+     */
+    private static Map<String, Integer> addBufferStructure(
+            GlTF gltf, BufferStructure bufferStructure) {
+        List<Accessor> accessors =
+                new ArrayList<>(Optionals.of(gltf.getAccessors()));
+        List<BufferView> bufferViews =
+                new ArrayList<>(Optionals.of(gltf.getBufferViews()));
+        List<Buffer> buffers =
+                new ArrayList<>(Optionals.of(gltf.getBuffers()));
+        int bufferViewOffset = bufferViews.size();
+        int bufferOffset = buffers.size();
+
+        Map<String, Integer> accessorIndices = new HashMap<>();
+        List<AccessorModel> accessorModels =
+                bufferStructure.getAccessorModels();
+        List<Accessor> newAccessors =
+                BufferStructureGltfV2.createAccessors(bufferStructure);
+        for (int i = 0; i < newAccessors.size(); i++) {
+            Accessor accessor = newAccessors.get(i);
+            accessor.setBufferView(accessor.getBufferView() + bufferViewOffset);
+            String id = bufferStructure.getAccessorId(accessorModels.get(i));
+            accessorIndices.put(id, accessors.size());
+            accessors.add(accessor);
+        }
+        for (BufferView bufferView :
+                BufferStructureGltfV2.createBufferViews(bufferStructure)) {
+            bufferView.setBuffer(bufferView.getBuffer() + bufferOffset);
+            bufferViews.add(bufferView);
+        }
+        buffers.addAll(BufferStructureGltfV2.createBuffers(bufferStructure));
+        gltf.setAccessors(accessors);
+        gltf.setBufferViews(bufferViews);
+        gltf.setBuffers(buffers);
+        return accessorIndices;
+    }
+
+    /**
+     * Create the {@link Mesh} for the given level of detail of the given
+     * mesh
+     *
+     * @param mesh            The original {@link Mesh}
+     * @param meshModel       The original {@link MeshModel}
+     * @param meshIndex       The mesh index
+     * @param lod             The level of detail, starting at 0
+     * @param accessorIndices The accessor indices
+     * @return The new {@link Mesh}
+     */
+    private static Mesh createLodMesh(Mesh mesh, MeshModel meshModel,
+                                      int meshIndex, int lod, Map<String, Integer> accessorIndices) {
+        Mesh lodMesh = new Mesh();
+        lodMesh.setName(createLodName(mesh.getName(),
+                "mesh" + meshIndex, lod));
+        if (mesh.getWeights() != null) {
+            lodMesh.setWeights(new ArrayList<>(mesh.getWeights()));
+        }
+        List<MeshPrimitive> primitives = mesh.getPrimitives();
+        List<MeshPrimitiveModel> meshPrimitiveModels =
+                meshModel.getMeshPrimitiveModels();
+        for (int p = 0; p < primitives.size(); p++) {
+            MeshPrimitive primitive = primitives.get(p);
+            MeshPrimitiveModel meshPrimitiveModel = meshPrimitiveModels.get(p);
+            if (!isSimplifiable(meshPrimitiveModel)) {
+                lodMesh.addPrimitives(copy(primitive));
+                continue;
+            }
+            String prefix = createPrefix(meshIndex, lod, p);
+            Integer indices = accessorIndices.get(prefix + "indices");
+            if (indices == null) {
+                // The mesh primitive was empty in this level of detail
+                continue;
+            }
+            MeshPrimitive lodPrimitive = new MeshPrimitive();
+            lodPrimitive.setIndices(indices);
+            lodPrimitive.setMode(GltfConstants.GL_TRIANGLES);
+            lodPrimitive.setMaterial(primitive.getMaterial());
+            lodPrimitive.setExtras(primitive.getExtras());
+            for (String name : meshPrimitiveModel.getAttributes().keySet()) {
+                lodPrimitive.addAttributes(name,
+                        accessorIndices.get(prefix + "attribute_" + name));
+            }
+            List<Map<String, AccessorModel>> targets =
+                    meshPrimitiveModel.getTargets();
+            for (int i = 0; i < targets.size(); i++) {
+                Map<String, Integer> target = new LinkedHashMap<>();
+                for (String name : targets.get(i).keySet()) {
+                    target.put(name, accessorIndices.get(
+                            prefix + "target" + i + "_" + name));
+                }
+                lodPrimitive.addTargets(target);
+            }
+            lodMesh.addPrimitives(lodPrimitive);
+        }
+        return lodMesh;
+    }
+
+    /**
+     * Create the nodes for the levels of detail of all nodes that refer
+     * to a mesh that has levels of detail, and add the
+     * <code>MSFT_lod</code> extension objects to the original nodes
+     *
+     * @param nodes          The nodes
+     * @param lodMeshIndices The indices of the meshes for the levels
+     *                       of detail, for each original mesh index
+     */
+    private void addLodNodes(List<Node> nodes,
+                             Map<Integer, List<Integer>> lodMeshIndices) {
+        int nodeCount = nodes.size();
+        for (int n = 0; n < nodeCount; n++) {
+            Node node = nodes.get(n);
+            if (node.getMesh() == null || hasLodExtension(node)) {
+                continue;
+            }
+            List<Integer> meshIndices = lodMeshIndices.get(node.getMesh());
+            if (meshIndices == null) {
+                continue;
+            }
+            List<Integer> ids = new ArrayList<>();
+            for (int lod = 0; lod < meshIndices.size(); lod++) {
+                Node lodNode = new Node();
+                lodNode.setName(createLodName(node.getName(), "node" + n, lod));
+                lodNode.setMesh(meshIndices.get(lod));
+                lodNode.setSkin(node.getSkin());
+                lodNode.setMatrix(Optionals.clone(node.getMatrix()));
+                lodNode.setTranslation(Optionals.clone(node.getTranslation()));
+                lodNode.setRotation(Optionals.clone(node.getRotation()));
+                lodNode.setScale(Optionals.clone(node.getScale()));
+                if (node.getWeights() != null) {
+                    lodNode.setWeights(new ArrayList<>(node.getWeights()));
+                }
+                ids.add(nodes.size());
+                nodes.add(lodNode);
+            }
+            Node lodBaseNode = copy(node);
+            Map<String, Object> extension = new LinkedHashMap<>();
+            extension.put("ids", ids);
+            lodBaseNode.addExtensions(EXTENSION_NAME, extension);
+            if (screenCoverages != null) {
+                addScreenCoverages(lodBaseNode, ids.size() + 1);
+            }
+            nodes.set(n, lodBaseNode);
+        }
+    }
+
+    /**
+     * Store the given number of screen coverages in the
+     * <code>MSFT_screencoverage</code> property of the <code>extras</code>
+     * of the given node
+     *
+     * @param node  The {@link Node}
+     * @param count The number of screen coverages
+     */
+    private void addScreenCoverages(Node node, int count) {
+        Object extras = node.getExtras();
+        if (extras != null && !(extras instanceof Map<?, ?>)) {
+            logger.warning("Cannot store screen coverages in the extras of "
+                    + "node " + node.getName() + ", which are not an object");
+            return;
+        }
+        Map<Object, Object> newExtras = new LinkedHashMap<>();
+        if (extras != null) {
+            newExtras.putAll((Map<?, ?>) extras);
+        }
+        List<Float> coverages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            coverages.add(screenCoverages[i]);
+        }
+        newExtras.put(SCREEN_COVERAGE_NAME, coverages);
+        node.setExtras(newExtras);
+    }
+
+    /**
+     * Create the name for the given level of detail of an element with the
+     * given name
+     *
+     * @param name        The name, may be <code>null</code>
+     * @param defaultName The name to use if the name is <code>null</code>
+     * @param lod         The level of detail, starting at 0
+     * @return The name
+     */
+    private static String createLodName(
+            String name, String defaultName, int lod) {
+        return (name != null ? name : defaultName) + "_LOD" + (lod + 1);
+    }
+
+    /**
+     * Create a new {@link GltfModelV2} for the given glTF, containing the
+     * data of the buffers and images of the given model, and the given
+     * buffer data for the levels of detail
+     *
+     * @param gltfModel     The original {@link GltfModelV2}
+     * @param gltf          The new {@link GlTF}
+     * @param lodBufferUri  The URI of the buffer for the levels of detail
+     * @param lodBufferData The data of the buffer for the levels of detail
+     * @return The new {@link GltfModelV2}
+     */
+    private static GltfModelV2 createGltfModel(GltfModelV2 gltfModel,
+                                               GlTF gltf, String lodBufferUri, ByteBuffer lodBufferData) {
+        GlTF inputGltf = gltfModel.getGltf();
+        List<Buffer> buffers = Optionals.of(inputGltf.getBuffers());
+        List<BufferModel> bufferModels = gltfModel.getBufferModels();
+        Map<String, ByteBuffer> referenceDatas = new HashMap<>();
+        ByteBuffer binaryData = null;
+        for (int i = 0; i < buffers.size(); i++) {
+            String uri = buffers.get(i).getUri();
+            if (uri == null) {
+                if (i == 0) {
+                    binaryData = bufferModels.get(i).getBufferData();
+                }
+            } else if (!IO.isDataUriString(uri)) {
+                referenceDatas.put(uri, bufferModels.get(i).getBufferData());
+            }
+        }
+        List<Image> images = Optionals.of(inputGltf.getImages());
+        for (int i = 0; i < images.size(); i++) {
+            String uri = images.get(i).getUri();
+            if (uri != null && !IO.isDataUriString(uri)) {
+                referenceDatas.put(uri,
+                        gltfModel.getImageModels().get(i).getImageData());
+            }
+        }
+        if (lodBufferUri != null) {
+            referenceDatas.put(lodBufferUri, lodBufferData);
+        }
+        GltfAssetV2 gltfAsset = new GltfAssetV2(gltf, binaryData);
+        gltfAsset.setReferenceResolver(referenceDatas::get);
+        return new GltfModelV2(gltfAsset);
+    }
+
+    /**
+     * Creates a copy of the given {@link GlTF}, where the lists of meshes
+     * and nodes are new lists, if they are not <code>null</code>, so that
+     * they may be modified. The elements of these lists, and all other
+     * elements, are <b>shared</b> between the given glTF and the copy, and
+     * must not be modified.
+     *
+     * @param gltf The input
+     * @return The copy
+     */
+    private static GlTF copy(GlTF gltf) {
+        GlTF copy = new GlTF();
+        copy.setExtensions(gltf.getExtensions());
+        copy.setExtras(gltf.getExtras());
+        copy.setExtensionsUsed(gltf.getExtensionsUsed());
+        copy.setExtensionsRequired(gltf.getExtensionsRequired());
+        copy.setAccessors(gltf.getAccessors());
+        copy.setAnimations(gltf.getAnimations());
+        copy.setAsset(gltf.getAsset());
+        copy.setBuffers(gltf.getBuffers());
+        copy.setBufferViews(gltf.getBufferViews());
+        copy.setCameras(gltf.getCameras());
+        copy.setImages(gltf.getImages());
+        copy.setMaterials(gltf.getMaterials());
+        copy.setMeshes(copyList(gltf.getMeshes()));
+        copy.setNodes(copyList(gltf.getNodes()));
+        copy.setSamplers(gltf.getSamplers());
+        copy.setScene(gltf.getScene());
+        copy.setScenes(gltf.getScenes());
+        copy.setSkins(gltf.getSkins());
+        copy.setTextures(gltf.getTextures());
+        return copy;
+    }
+
+    /**
+     * Creates a new list containing the elements of the given list, or
+     * <code>null</code> if the given list is <code>null</code>
+     *
+     * @param <T>  The element type
+     * @param list The list
+     * @return The new list
+     */
+    private static <T> List<T> copyList(List<T> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+
+    /**
+     * Creates a shallow copy of the given {@link Node}
+     *
+     * @param node The {@link Node}
+     * @return The copy
+     */
+    private static Node copy(Node node) {
+        Node copy = new Node();
+        if (node.getExtensions() != null) {
+            copy.setExtensions(new LinkedHashMap<>(node.getExtensions()));
+        }
+        copy.setExtras(node.getExtras());
+        copy.setName(node.getName());
+        copy.setCamera(node.getCamera());
+        copy.setChildren(node.getChildren());
+        copy.setSkin(node.getSkin());
+        copy.setMatrix(node.getMatrix());
+        copy.setMesh(node.getMesh());
+        copy.setRotation(node.getRotation());
+        copy.setScale(node.getScale());
+        copy.setTranslation(node.getTranslation());
+        copy.setWeights(node.getWeights());
+        return copy;
+    }
+
+    /**
+     * Creates a shallow copy of the given {@link MeshPrimitive}
+     *
+     * @param primitive The {@link MeshPrimitive}
+     * @return The copy
+     */
+    private static MeshPrimitive copy(MeshPrimitive primitive) {
+        MeshPrimitive copy = new MeshPrimitive();
+        copy.setExtensions(primitive.getExtensions());
+        copy.setExtras(primitive.getExtras());
+        copy.setAttributes(primitive.getAttributes());
+        copy.setIndices(primitive.getIndices());
+        copy.setMaterial(primitive.getMaterial());
+        copy.setMode(primitive.getMode());
+        copy.setTargets(primitive.getTargets());
+        return copy;
+    }
+
+    /**
+     * The data of one level of detail of a mesh primitive
+     */
+    private static final class LodData {
+        /**
+         * The optimized indices, referring to the remapped vertices
+         */
+        private final int[] indices;
+
+        /**
+         * The remapping from the original vertices to the used vertices
+         */
+        private final int[] remap;
+
+        /**
+         * The number of used vertices
+         */
+        private final int vertexCount;
+
+        /**
+         * Creates a new instance
+         *
+         * @param indices     The indices
+         * @param remap       The vertex remapping
+         * @param vertexCount The number of used vertices
+         */
+        LodData(int[] indices, int[] remap, int vertexCount) {
+            this.indices = indices;
+            this.remap = remap;
+            this.vertexCount = vertexCount;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package de.javagl.jgltf.model.impl.creation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Methods for optimizing the indices of triangle meshes for rendering.<br>
+ * <br>
+ * All methods operate on arrays containing the indices of triangles, where
+ * three consecutive indices describe one triangle. The methods implement
+ * <ul>
+ *   <li>
+ *     vertex cache optimization with the Tipsify algorithm, from
+ *     "Fast Triangle Reordering for Vertex Locality and Reduced Overdraw"
+ *     by Sander, Nehab and Barczak (2007),
+ *   </li>
+ *   <li>
+ *     overdraw optimization, by sorting clusters of triangles so that
+ *     clusters that face away from the center of the mesh are rendered
+ *     first, as described in the same paper,
+ *   </li>
+ *   <li>
+ *     vertex fetch optimization, by renumbering the vertices in the order
+ *     in which they are first used,
+ *   </li>
+ *   <li>
+ *     and the computation of the average cache miss ratio (ACMR) and
+ *     the average transformed vertex ratio (ATVR) for a FIFO cache.
+ *   </li>
+ * </ul>
+ * <br>
+ * <b>This class is only intended for internal use!</b>
+ */
+public final class MeshOptimizers {
+    /**
+     * Reorder the given triangles so that the vertices are likely to be
+     * found in a post-transform vertex cache with the given size.<br>
+     * <br>
+     * If the given list of boundaries is not <code>null</code>, then it
+     * will receive the indices of the triangles where the algorithm had
+     * to continue at a vertex that was not in the cache. These are the
+     * boundaries of clusters that may be reordered with
+     * {@link #optimizeOverdraw} without a larger effect on the cache
+     * efficiency. The first boundary will always be 0.
+     *
+     * @param indices     The indices
+     * @param vertexCount The number of vertices
+     * @param cacheSize   The size of the vertex cache
+     * @param boundaries  The optional list that receives the triangle
+     *                    indices of the cluster boundaries
+     * @return The reordered indices
+     * @throws IllegalArgumentException If the number of indices is not
+     *                                  divisible by 3, or an index is not smaller than the vertex count
+     */
+    public static int[] optimizeVertexCache(int[] indices, int vertexCount,
+                                            int cacheSize, List<Integer> boundaries) {
+        validate(indices, vertexCount);
+        int numTriangles = indices.length / 3;
+
+        // The number of triangles that refer to each vertex. This is
+        // decremented whenever a triangle is emitted
+        int[] liveCounts = new int[vertexCount];
+        for (int index : indices) {
+            liveCounts[index]++;
+        }
+
+        // The vertex-triangle adjacency, in compressed row form
+        int[] offsets = new int[vertexCount + 1];
+        int maxDegree = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] = offsets[v] + liveCounts[v];
+            maxDegree = Math.max(maxDegree, liveCounts[v]);
+        }
+        int[] adjacency = new int[indices.length];
+        int[] fill = Arrays.copyOf(offsets, vertexCount);
+        for (int i = 0; i < indices.length; i++) {
+            adjacency[fill[indices[i]]++] = i / 3;
+        }
+
+        int[] cacheTimes = new int[vertexCount];
+        int timestamp = cacheSize + 1;
+        int[] deadEnds = new int[indices.length];
+        int numDeadEnds = 0;
+        boolean[] emitted = new boolean[numTriangles];
+        int[] candidates = new int[maxDegree * 3];
+        int[] result = new int[indices.length];
+        int numResult = 0;
+
+        int cursor = 0;
+        int fanning = -1;
+        while (true) {
+            if (fanning == -1) {
+                // Continue with the most recently used vertex that still
+                // has remaining triangles, or with the next vertex in the
+                // original order that still has remaining triangles
+                while (fanning == -1 && numDeadEnds > 0) {
+                    int v = deadEnds[--numDeadEnds];
+                    if (liveCounts[v] > 0) {
+                        fanning = v;
+                    }
+                }
+                while (fanning == -1 && cursor < vertexCount) {
+                    int v = cursor++;
+                    if (liveCounts[v] > 0) {
+                        fanning = v;
+                    }
+                }
+                if (fanning == -1) {
+                    break;
+                }
+                if (boundaries != null) {
+                    boundaries.add(numResult / 3);
+                }
+            }
+
+            int numCandidates = 0;
+            for (int j = offsets[fanning]; j < offsets[fanning + 1]; j++) {
+                int t = adjacency[j];
+                if (emitted[t]) {
+                    continue;
+                }
+                for (int k = 0; k < 3; k++) {
+                    int v = indices[t * 3 + k];
+                    result[numResult++] = v;
+                    deadEnds[numDeadEnds++] = v;
+                    candidates[numCandidates++] = v;
+                    liveCounts[v]--;
+                    if (timestamp - cacheTimes[v] > cacheSize) {
+                        cacheTimes[v] = timestamp;
+                        timestamp++;
+                    }
+                }
+                emitted[t] = true;
+            }
+
+            // Select the next fanning vertex among the candidates,
+            // preferring vertices that will still be in the cache
+            int next = -1;
+            int bestPriority = -1;
+            for (int c = 0; c < numCandidates; c++) {
+                int v = candidates[c];
+                if (liveCounts[v] <= 0) {
+                    continue;
+                }
+                int priority = 0;
+                int age = timestamp - cacheTimes[v];
+                if (age + 2 * liveCounts[v] <= cacheSize) {
+                    priority = age;
+                }
+                if (priority > bestPriority) {
+                    bestPriority = priority;
+                    next = v;
+                }
+            }
+            fanning = next;
+        }
+        return result;
+    }
+
+    /**
+     * Reorder clusters of the given triangles to reduce overdraw.<br>
+     * <br>
+     * The given indices are usually the result of
+     * {@link #optimizeVertexCache}, and the given boundaries are the ones
+     * that have been computed by this method. Each cluster between two
+     * boundaries is split further, as long as the ACMR of the resulting
+     * clusters does not exceed the ACMR of the original cluster multiplied
+     * with the given threshold. The clusters are then sorted so that
+     * clusters that face away from the centroid of the mesh are rendered
+     * first, because they are likely to occlude other clusters.
+     *
+     * @param indices    The indices
+     * @param positions  The vertex positions, as 3 floats per vertex
+     * @param boundaries The triangle indices of the cluster boundaries
+     * @param cacheSize  The size of the vertex cache
+     * @param threshold  The threshold for the ACMR increase. For example,
+     *                   a threshold of 1.05 allows an increase of 5%.
+     * @return The reordered indices
+     * @throws IllegalArgumentException If the number of indices is not
+     *                                  divisible by 3, or an index does not refer to a position
+     */
+    public static int[] optimizeOverdraw(int[] indices, float[] positions,
+                                         List<Integer> boundaries, int cacheSize, float threshold) {
+        int vertexCount = positions.length / 3;
+        validate(indices, vertexCount);
+        int numTriangles = indices.length / 3;
+        if (numTriangles == 0) {
+            return indices.clone();
+        }
+        List<Integer> clusters = computeSoftBoundaries(
+                indices, vertexCount, boundaries, cacheSize, threshold);
+        int numClusters = clusters.size();
+
+        // Compute the centroid of the mesh
+        double[] meshCentroid = new double[3];
+        for (int index : indices) {
+            for (int c = 0; c < 3; c++) {
+                meshCentroid[c] += positions[index * 3 + c];
+            }
+        }
+        for (int c = 0; c < 3; c++) {
+            meshCentroid[c] /= indices.length;
+        }
+
+        // Compute the sort key for each cluster: The distance of its
+        // area-weighted centroid from the mesh centroid, along the
+        // average normal of the cluster
+        double[] sortKeys = new double[numClusters];
+        for (int i = 0; i < numClusters; i++) {
+            int start = clusters.get(i);
+            int end = i + 1 < numClusters ? clusters.get(i + 1) : numTriangles;
+            double[] centroid = new double[3];
+            double[] normal = new double[3];
+            double totalArea = 0;
+            for (int t = start; t < end; t++) {
+                int i0 = indices[t * 3 + 0] * 3;
+                int i1 = indices[t * 3 + 1] * 3;
+                int i2 = indices[t * 3 + 2] * 3;
+                double e1x = positions[i1 + 0] - positions[i0 + 0];
+                double e1y = positions[i1 + 1] - positions[i0 + 1];
+                double e1z = positions[i1 + 2] - positions[i0 + 2];
+                double e2x = positions[i2 + 0] - positions[i0 + 0];
+                double e2y = positions[i2 + 1] - positions[i0 + 1];
+                double e2z = positions[i2 + 2] - positions[i0 + 2];
+                double nx = e1y * e2z - e1z * e2y;
+                double ny = e1z * e2x - e1x * e2z;
+                double nz = e1x * e2y - e1y * e2x;
+                double area = Math.sqrt(nx * nx + ny * ny + nz * nz);
+                for (int c = 0; c < 3; c++) {
+                    double center = (positions[i0 + c]
+                            + positions[i1 + c] + positions[i2 + c]) / 3.0;
+                    centroid[c] += center * area;
+                }
+                normal[0] += nx;
+                normal[1] += ny;
+                normal[2] += nz;
+                totalArea += area;
+            }
+            double normalLength = Math.sqrt(normal[0] * normal[0]
+                    + normal[1] * normal[1] + normal[2] * normal[2]);
+            if (totalArea > 0 && normalLength > 0) {
+                double key = 0;
+                for (int c = 0; c < 3; c++) {
+                    double d = centroid[c] / totalArea - meshCentroid[c];
+                    key += d * normal[c] / normalLength;
+                }
+                sortKeys[i] = key;
+            }
+        }
+
+        Integer[] order = new Integer[numClusters];
+        for (int i = 0; i < numClusters; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(sortKeys[b], sortKeys[a]));
+
+        int[] result = new int[indices.length];
+        int numResult = 0;
+        for (int i : order) {
+            int start = clusters.get(i);
+            int end = i + 1 < numClusters ? clusters.get(i + 1) : numTriangles;
+            int length = (end - start) * 3;
+            System.arraycopy(indices, start * 3, result, numResult, length);
+            numResult += length;
+        }
+        return result;
+    }
+
+    /**
+     * Split the clusters that are given by the hard boundaries into
+     * smaller clusters, as long as this does not increase the ACMR of
+     * each cluster by more than the given threshold
+     *
+     * @param indices       The indices
+     * @param vertexCount   The vertex count
+     * @param hardBoundaries The hard boundaries
+     * @param cacheSize     The cache size
+     * @param threshold     The threshold
+     * @return The boundaries of all clusters
+     */
+    private static List<Integer> computeSoftBoundaries(int[] indices,
+                                                       int vertexCount, List<Integer> hardBoundaries,
+                                                       int cacheSize, float threshold) {
+        int numTriangles = indices.length / 3;
+        List<Integer> hard = new ArrayList<>(hardBoundaries);
+        if (hard.isEmpty() || hard.get(0) != 0) {
+            hard.add(0, 0);
+        }
+        List<Integer> result = new ArrayList<>();
+        int[] cacheTimes = new int[vertexCount];
+        int[] timestamp = { cacheSize + 1 };
+        for (int h = 0; h < hard.size(); h++) {
+            int start = hard.get(h);
+            int end = h + 1 < hard.size() ? hard.get(h + 1) : numTriangles;
+            if (start >= end) {
+                continue;
+            }
+
+            // Compute the ACMR of the whole cluster
+            timestamp[0] += cacheSize + 1;
+            int clusterMisses = 0;
+            for (int t = start; t < end; t++) {
+                clusterMisses += countMisses(
+                        indices, t, cacheTimes, timestamp, cacheSize);
+            }
+            float clusterAcmr = (float) clusterMisses / (end - start);
+
+            // Split the cluster wherever the ACMR of the part that
+            // was processed until now is small enough
+            result.add(start);
+            timestamp[0] += cacheSize + 1;
+            int misses = 0;
+            int count = 0;
+            for (int t = start; t < end; t++) {
+                misses += countMisses(
+                        indices, t, cacheTimes, timestamp, cacheSize);
+                count++;
+                if (t + 1 < end
+                        && misses <= clusterAcmr * threshold * count) {
+                    result.add(t + 1);
+                    timestamp[0] += cacheSize + 1;
+                    misses = 0;
+                    count = 0;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Simulate the FIFO cache for the specified triangle, and return the
+     * number of cache misses
+     *
+     * @param indices    The indices
+     * @param triangle   The triangle index
+     * @param cacheTimes The times at which the vertices entered the cache
+     * @param timestamp  The current timestamp, stored in a 1-element array
+     * @param cacheSize  The cache size
+     * @return The number of cache misses
+     */
+    private static int countMisses(int[] indices, int triangle,
+                                   int[] cacheTimes, int[] timestamp, int cacheSize) {
+        int misses = 0;
+        for (int k = 0; k < 3; k++) {
+            int v = indices[triangle * 3 + k];
+            if (timestamp[0] - cacheTimes[v] > cacheSize) {
+                cacheTimes[v] = timestamp[0];
+                timestamp[0]++;
+                misses++;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Renumber the vertices in the order in which they are first used by
+     * the given indices, which are modified in place.<br>
+     * <br>
+     * The result is an array that contains, for each old vertex index,
+     * the new vertex index, or -1 if the vertex is not used.
+     *
+     * @param indices     The indices
+     * @param vertexCount The number of vertices
+     * @return The remapping of the vertices
+     * @throws IllegalArgumentException If an index is not smaller than the
+     *                                  vertex count
+     */
+    public static int[] optimizeVertexFetch(int[] indices, int vertexCount) {
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            if (index < 0 || index >= vertexCount) {
+                throw new IllegalArgumentException("Index " + index
+                        + " is not valid for " + vertexCount + " vertices");
+            }
+            if (remap[index] == -1) {
+                remap[index] = next++;
+            }
+            indices[i] = remap[index];
+        }
+        return remap;
+    }
+
+    /**
+     * Compute the average cache miss ratio (ACMR) of the given triangles,
+     * which is the number of vertex cache misses per triangle, for a FIFO
+     * cache with the given size. The best possible value is about 0.5
+     * for large, regular meshes, and the worst value is 3.0.
+     *
+     * @param indices     The indices
+     * @param vertexCount The number of vertices
+     * @param cacheSize   The cache size
+     * @return The ACMR, or 0.0 if there are no triangles
+     */
+    public static float computeAcmr(
+            int[] indices, int vertexCount, int cacheSize) {
+        int numTriangles = indices.length / 3;
+        if (numTriangles == 0) {
+            return 0.0f;
+        }
+        return (float) computeMisses(indices, vertexCount, cacheSize)
+                / numTriangles;
+    }
+
+    /**
+     * Compute the average transformed vertex ratio (ATVR) of the given
+     * triangles, which is the number of vertex cache misses per vertex
+     * that is referenced by the triangles, for a FIFO cache with the given
+     * size. The best possible value is 1.0.
+     *
+     * @param indices     The indices
+     * @param vertexCount The number of vertices
+     * @param cacheSize   The cache size
+     * @return The ATVR, or 0.0 if there are no triangles
+     */
+    public static float computeAtvr(
+            int[] indices, int vertexCount, int cacheSize) {
+        boolean[] used = new boolean[vertexCount];
+        int numUsed = 0;
+        for (int index : indices) {
+            if (!used[index]) {
+                used[index] = true;
+                numUsed++;
+            }
+        }
+        if (numUsed == 0) {
+            return 0.0f;
+        }
+        return (float) computeMisses(indices, vertexCount, cacheSize)
+                / numUsed;
+    }
+
+    /**
+     * Compute the number of cache misses for the given triangles, for a
+     * FIFO cache with the given size
+     *
+     * @param indices     The indices
+     * @param vertexCount The number of vertices
+     * @param cacheSize   The cache size
+     * @return The number of misses
+     */
+    private static int computeMisses(
+            int[] indices, int vertexCount, int cacheSize) {
+        validate(indices, vertexCount);
+        int[] cacheTimes = new int[vertexCount];
+        int[] timestamp = { cacheSize + 1 };
+        int misses = 0;
+        for (int t = 0; t < indices.length / 3; t++) {
+            misses += countMisses(
+                    indices, t, cacheTimes, timestamp, cacheSize);
+        }
+        return misses;
+    }
+
+    /**
+     * Validate the given indices
+     *
+     * @param indices     The indices
+     * @param vertexCount The number of vertices
+     * @throws IllegalArgumentException If the number of indices is not
+     *                                  divisible by 3, or an index is not smaller than the vertex count
+     */
+    static void validate(int[] indices, int vertexCount) {
+        if (indices.length % 3 != 0) {
+            throw new IllegalArgumentException("The number of indices must "
+                    + "be divisible by 3, but is " + indices.length);
+        }
+        for (int index : indices) {
+            if (index < 0 || index >= vertexCount) {
+                throw new IllegalArgumentException("Index " + index
+                        + " is not valid for " + vertexCount + " vertices");
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MeshOptimizers() {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,136 @@
+package de.javagl.jgltf.model.impl.creation;
+
+import java.util.Locale;
+
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+
+/**
+ * The result of optimizing a {@link MeshPrimitiveModel} with a
+ * {@link MeshPrimitiveOptimizer}. It contains the optimized
+ * {@link MeshPrimitiveModel}, the {@link BufferStructure} that contains
+ * its data, and the vertex cache statistics before and after the
+ * optimization.<br>
+ * <br>
+ * <b>This class is only intended for internal use!</b>
+ */
+public final class MeshPrimitiveOptimization {
+    /**
+     * The optimized {@link MeshPrimitiveModel}
+     */
+    private final MeshPrimitiveModel meshPrimitiveModel;
+
+    /**
+     * The {@link BufferStructure}
+     */
+    private final BufferStructure bufferStructure;
+
+    /**
+     * The ACMR before the optimization
+     */
+    private final float acmrBefore;
+
+    /**
+     * The ACMR after the optimization
+     */
+    private final float acmrAfter;
+
+    /**
+     * The ATVR before the optimization
+     */
+    private final float atvrBefore;
+
+    /**
+     * The ATVR after the optimization
+     */
+    private final float atvrAfter;
+
+    /**
+     * Creates a new instance
+     *
+     * @param meshPrimitiveModel The optimized {@link MeshPrimitiveModel}
+     * @param bufferStructure    The {@link BufferStructure}
+     * @param acmrBefore         The ACMR before the optimization
+     * @param acmrAfter          The ACMR after the optimization
+     * @param atvrBefore         The ATVR before the optimization
+     * @param atvrAfter          The ATVR after the optimization
+     */
+    MeshPrimitiveOptimization(MeshPrimitiveModel meshPrimitiveModel,
+                              BufferStructure bufferStructure,
+                              float acmrBefore, float acmrAfter,
+                              float atvrBefore, float atvrAfter) {
+        this.meshPrimitiveModel = meshPrimitiveModel;
+        this.bufferStructure = bufferStructure;
+        this.acmrBefore = acmrBefore;
+        this.acmrAfter = acmrAfter;
+        this.atvrBefore = atvrBefore;
+        this.atvrAfter = atvrAfter;
+    }
+
+    /**
+     * Returns the optimized {@link MeshPrimitiveModel}. Its attributes,
+     * morph targets and indices refer to the accessors of the
+     * {@link #getBufferStructure() buffer structure}.
+     *
+     * @return The {@link MeshPrimitiveModel}
+     */
+    public MeshPrimitiveModel getMeshPrimitiveModel() {
+        return meshPrimitiveModel;
+    }
+
+    /**
+     * Returns the {@link BufferStructure} that contains the data of the
+     * optimized {@link MeshPrimitiveModel}
+     *
+     * @return The {@link BufferStructure}
+     */
+    public BufferStructure getBufferStructure() {
+        return bufferStructure;
+    }
+
+    /**
+     * Returns the average cache miss ratio (number of vertex cache misses
+     * per triangle) before the optimization
+     *
+     * @return The ACMR
+     */
+    public float getAcmrBefore() {
+        return acmrBefore;
+    }
+
+    /**
+     * Returns the average cache miss ratio (number of vertex cache misses
+     * per triangle) after the optimization
+     *
+     * @return The ACMR
+     */
+    public float getAcmrAfter() {
+        return acmrAfter;
+    }
+
+    /**
+     * Returns the average transformed vertex ratio (number of vertex cache
+     * misses per used vertex) before the optimization
+     *
+     * @return The ATVR
+     */
+    public float getAtvrBefore() {
+        return atvrBefore;
+    }
+
+    /**
+     * Returns the average transformed vertex ratio (number of vertex cache
+     * misses per used vertex) after the optimization
+     *
+     * @return The ATVR
+     */
+    public float getAtvrAfter() {
+        return atvrAfter;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH,
+                "ACMR %.3f -> %.3f, ATVR %.3f -> %.3f",
+                acmrBefore, acmrAfter, atvrBefore, atvrAfter);
+    }
+}
@@ -0,0 +1,511 @@
+package de.javagl.jgltf.model.impl.creation;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+
+import de.javagl.jgltf.logging.Logger;
+import de.javagl.jgltf.model.AccessorByteData;
+import de.javagl.jgltf.model.AccessorData;
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorIntData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorShortData;
+import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.MaterialModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+import de.javagl.jgltf.model.io.Buffers;
+
+/**
+ * A class for optimizing the index and vertex order of
+ * {@link MeshPrimitiveModel} instances for rendering.<br>
+ * <br>
+ * The optimization consists of the steps that are implemented in
+ * {@link MeshOptimizers}: The triangles are reordered for the vertex
+ * cache, clusters of triangles are reordered to reduce overdraw, and the
+ * vertices are reordered in the order of their first use. The result is a
+ * new {@link MeshPrimitiveModel}, whose data is stored in a new
+ * {@link BufferStructure}.<br>
+ * <br>
+ * <b>This class is only intended for internal use!</b>
+ */
+public final class MeshPrimitiveOptimizer {
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+            Logger.getLogger(MeshPrimitiveOptimizer.class);
+
+    /**
+     * The size of the simulated post-transform vertex cache
+     */
+    private int cacheSize;
+
+    /**
+     * The threshold for the ACMR increase that is allowed for the
+     * overdraw optimization
+     */
+    private float overdrawThreshold;
+
+    /**
+     * Default constructor
+     */
+    public MeshPrimitiveOptimizer() {
+        this.cacheSize = 16;
+        this.overdrawThreshold = 1.05f;
+    }
+
+    /**
+     * Set the size of the post-transform vertex cache that the triangles
+     * should be optimized for. The default value is 16.
+     *
+     * @param cacheSize The cache size
+     * @throws IllegalArgumentException If the cache size is smaller than 3
+     */
+    public void setCacheSize(int cacheSize) {
+        if (cacheSize < 3) {
+            throw new IllegalArgumentException(
+                    "The cache size must be at least 3, but is " + cacheSize);
+        }
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Set the threshold for the overdraw optimization. The triangles will
+     * be split into clusters that may be reordered, as long as the ACMR
+     * does not increase by more than this factor. A value of 1.0 or less
+     * disables the overdraw optimization. The default value is 1.05.
+     *
+     * @param overdrawThreshold The threshold
+     */
+    public void setOverdrawThreshold(float overdrawThreshold) {
+        this.overdrawThreshold = overdrawThreshold;
+    }
+
+    /**
+     * Optimize the given {@link MeshPrimitiveModel}.<br>
+     * <br>
+     * The overdraw optimization is only applied when the mesh primitive
+     * has a <code>POSITION</code> attribute with 3D float-compatible
+     * values. Vertices that are not referenced by any triangle are
+     * removed. The indices will have the type <code>GL_UNSIGNED_SHORT</code>
+     * if possible, and <code>GL_UNSIGNED_INT</code> otherwise.
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @return The {@link MeshPrimitiveOptimization}
+     * @throws IllegalArgumentException If the mesh primitive does not
+     *                                  consist of triangles, or does not have any attributes
+     */
+    public MeshPrimitiveOptimization optimize(
+            MeshPrimitiveModel meshPrimitiveModel) {
+        validateMode(meshPrimitiveModel);
+        int vertexCount = getVertexCount(meshPrimitiveModel);
+        int[] indices = readIndices(meshPrimitiveModel, vertexCount);
+        return optimize(meshPrimitiveModel, indices);
+    }
+
+    /**
+     * Optimize the given triangles of the given {@link MeshPrimitiveModel}.
+     * <br>
+     * <br>
+     * This is the same as {@link #optimize(MeshPrimitiveModel)}, except
+     * for the triangles: Instead of the indices of the mesh primitive,
+     * the given indices are used, which refer to the vertices of the
+     * mesh primitive. For example, these may be the indices that have
+     * been computed by a {@link MeshPrimitiveSimplifier}.
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @param indices            The indices
+     * @return The {@link MeshPrimitiveOptimization}
+     * @throws IllegalArgumentException If the mesh primitive does not
+     *                                  consist of triangles, or does not have any attributes, or
+     *                                  the indices are not valid for the vertices of the mesh primitive
+     */
+    public MeshPrimitiveOptimization optimize(
+            MeshPrimitiveModel meshPrimitiveModel, int[] indices) {
+        validateMode(meshPrimitiveModel);
+        int vertexCount = getVertexCount(meshPrimitiveModel);
+
+        float acmrBefore =
+                MeshOptimizers.computeAcmr(indices, vertexCount, cacheSize);
+        float atvrBefore =
+                MeshOptimizers.computeAtvr(indices, vertexCount, cacheSize);
+
+        int[] optimized = optimizeIndices(indices, vertexCount,
+                readPositions(meshPrimitiveModel));
+        int[] remap = MeshOptimizers.optimizeVertexFetch(
+                optimized, vertexCount);
+        int newVertexCount = computeVertexCount(remap);
+
+        float acmrAfter = MeshOptimizers.computeAcmr(
+                optimized, newVertexCount, cacheSize);
+        float atvrAfter = MeshOptimizers.computeAtvr(
+                optimized, newVertexCount, cacheSize);
+
+        BufferStructureBuilder builder = new BufferStructureBuilder();
+        addRemappedPrimitive(builder, "", meshPrimitiveModel,
+                optimized, remap, newVertexCount);
+        builder.createBufferModel("buffer", "buffer.bin");
+        BufferStructure bufferStructure = builder.build();
+        MeshPrimitiveModel result = createMeshPrimitiveModel(
+                bufferStructure, "", meshPrimitiveModel);
+
+        MeshPrimitiveOptimization optimization =
+                new MeshPrimitiveOptimization(result, bufferStructure,
+                        acmrBefore, acmrAfter, atvrBefore, atvrAfter);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Optimized mesh primitive with "
+                    + optimized.length / 3 + " triangles: " + optimization);
+        }
+        return optimization;
+    }
+
+    /**
+     * Reorder the given triangles for the vertex cache and, if the given
+     * positions are not <code>null</code>, to reduce overdraw
+     *
+     * @param indices     The indices
+     * @param vertexCount The vertex count
+     * @param positions   The optional positions
+     * @return The reordered indices
+     */
+    int[] optimizeIndices(int[] indices, int vertexCount, float[] positions) {
+        List<Integer> boundaries = new ArrayList<>();
+        int[] optimized = MeshOptimizers.optimizeVertexCache(
+                indices, vertexCount, cacheSize, boundaries);
+        if (positions != null && overdrawThreshold > 1.0f) {
+            optimized = MeshOptimizers.optimizeOverdraw(optimized,
+                    positions, boundaries, cacheSize, overdrawThreshold);
+        }
+        return optimized;
+    }
+
+    /**
+     * Ensure that the given mesh primitive consists of triangles
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @throws IllegalArgumentException If the mode is not
+     *                                  <code>GL_TRIANGLES</code>
+     */
+    static void validateMode(MeshPrimitiveModel meshPrimitiveModel) {
+        if (meshPrimitiveModel.getMode() != GltfConstants.GL_TRIANGLES) {
+            throw new IllegalArgumentException("Only GL_TRIANGLES can be "
+                    + "optimized, but the mode is "
+                    + GltfConstants.stringFor(meshPrimitiveModel.getMode()));
+        }
+    }
+
+    /**
+     * Returns the number of vertices that are used after applying the
+     * given remapping
+     *
+     * @param remap The remapping from old to new vertex indices
+     * @return The new vertex count
+     */
+    static int computeVertexCount(int[] remap) {
+        int newVertexCount = 0;
+        for (int r : remap) {
+            newVertexCount = Math.max(newVertexCount, r + 1);
+        }
+        return newVertexCount;
+    }
+
+    /**
+     * Create the accessor models for the given triangles of the given
+     * mesh primitive in the given builder. The IDs of the accessor models
+     * start with the given prefix, followed by <code>"indices"</code>,
+     * <code>"attribute_NAME"</code> or <code>"targetI_NAME"</code>.
+     *
+     * @param builder            The {@link BufferStructureBuilder}
+     * @param prefix             The prefix for the IDs
+     * @param meshPrimitiveModel The original {@link MeshPrimitiveModel}
+     * @param indices            The indices, referring to the remapped
+     *                           vertices
+     * @param remap              The vertex remapping
+     * @param newVertexCount     The new vertex count
+     */
+    static void addRemappedPrimitive(BufferStructureBuilder builder,
+                                     String prefix, MeshPrimitiveModel meshPrimitiveModel,
+                                     int[] indices, int[] remap, int newVertexCount) {
+        String indicesId = prefix + "indices";
+        builder.createAccessorModel(indicesId,
+                indicesComponentType(newVertexCount), "SCALAR",
+                createIndicesByteBuffer(indices, newVertexCount));
+        builder.createArrayElementBufferViewModel(indicesId + "_bufferView");
+
+        for (Entry<String, AccessorModel> entry :
+                meshPrimitiveModel.getAttributes().entrySet()) {
+            String id = prefix + "attribute_" + entry.getKey();
+            createRemappedAccessorModel(builder, id,
+                    entry.getValue(), remap, newVertexCount);
+        }
+        List<Map<String, AccessorModel>> targets =
+                meshPrimitiveModel.getTargets();
+        for (int i = 0; i < targets.size(); i++) {
+            for (Entry<String, AccessorModel> entry :
+                    targets.get(i).entrySet()) {
+                String id = prefix + "target" + i + "_" + entry.getKey();
+                createRemappedAccessorModel(builder, id,
+                        entry.getValue(), remap, newVertexCount);
+            }
+        }
+    }
+
+    /**
+     * Create the {@link MeshPrimitiveModel} that refers to the accessor
+     * models that have been created for the given mesh primitive with
+     * {@link #addRemappedPrimitive}, using the same prefix
+     *
+     * @param bufferStructure    The {@link BufferStructure}
+     * @param prefix             The prefix for the IDs
+     * @param meshPrimitiveModel The original {@link MeshPrimitiveModel}
+     * @return The new {@link MeshPrimitiveModel}
+     */
+    static MeshPrimitiveModel createMeshPrimitiveModel(
+            BufferStructure bufferStructure, String prefix,
+            MeshPrimitiveModel meshPrimitiveModel) {
+        Map<String, AccessorModel> accessorModels = new LinkedHashMap<>();
+        for (AccessorModel accessorModel :
+                bufferStructure.getAccessorModels()) {
+            String id = bufferStructure.getAccessorId(accessorModel);
+            if (id.startsWith(prefix)) {
+                accessorModels.put(id.substring(prefix.length()),
+                        accessorModel);
+            }
+        }
+
+        DefaultMeshPrimitiveModel result =
+                new DefaultMeshPrimitiveModel(GltfConstants.GL_TRIANGLES);
+        result.setIndices(accessorModels.get("indices"));
+        MaterialModel materialModel = meshPrimitiveModel.getMaterialModel();
+        if (materialModel != null) {
+            result.setMaterialModel(materialModel);
+        }
+        for (Entry<String, AccessorModel> entry :
+                meshPrimitiveModel.getAttributes().entrySet()) {
+            AccessorModel accessorModel =
+                    accessorModels.get("attribute_" + entry.getKey());
+            copyNormalized(entry.getValue(), accessorModel);
+            result.putAttribute(entry.getKey(), accessorModel);
+        }
+        List<Map<String, AccessorModel>> targets =
+                meshPrimitiveModel.getTargets();
+        for (int i = 0; i < targets.size(); i++) {
+            Map<String, AccessorModel> target = new LinkedHashMap<>();
+            for (Entry<String, AccessorModel> entry :
+                    targets.get(i).entrySet()) {
+                AccessorModel accessorModel = accessorModels.get(
+                        "target" + i + "_" + entry.getKey());
+                copyNormalized(entry.getValue(), accessorModel);
+                target.put(entry.getKey(), accessorModel);
+            }
+            result.addTarget(target);
+        }
+        return result;
+    }
+
+    /**
+     * Set the target accessor model to be normalized if the source
+     * accessor model is normalized
+     *
+     * @param source The source {@link AccessorModel}
+     * @param target The target {@link AccessorModel}
+     */
+    private static void copyNormalized(
+            AccessorModel source, AccessorModel target) {
+        if (source.isNormalized()) {
+            ((DefaultAccessorModel) target).setNormalized(true);
+        }
+    }
+
+    /**
+     * Create an accessor model in the given builder, containing the
+     * elements of the given accessor model in the order that is defined
+     * by the given remapping, in its own buffer view
+     *
+     * @param builder        The {@link BufferStructureBuilder}
+     * @param id             The ID of the accessor model
+     * @param accessorModel  The source {@link AccessorModel}
+     * @param remap          The remapping from old to new vertex indices
+     * @param newVertexCount The new vertex count
+     */
+    private static void createRemappedAccessorModel(
+            BufferStructureBuilder builder, String id,
+            AccessorModel accessorModel, int[] remap, int newVertexCount) {
+        ByteBuffer byteBuffer =
+                createRemappedByteBuffer(accessorModel, remap, newVertexCount);
+        ElementType elementType = accessorModel.getElementType();
+        builder.createAccessorModel(id, accessorModel.getComponentType(),
+                elementType.toString(), byteBuffer);
+        builder.createArrayBufferViewModel(id + "_bufferView");
+    }
+
+    /**
+     * Returns the number of vertices of the given mesh primitive, which is
+     * the count of its first attribute
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @return The number of vertices
+     * @throws IllegalArgumentException If there are no attributes
+     */
+    static int getVertexCount(MeshPrimitiveModel meshPrimitiveModel) {
+        Map<String, AccessorModel> attributes =
+                meshPrimitiveModel.getAttributes();
+        if (attributes.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "The mesh primitive does not have any attributes");
+        }
+        return attributes.values().iterator().next().getCount();
+    }
+
+    /**
+     * Read the indices of the given mesh primitive. If the mesh primitive
+     * does not have indices, then the sequence of vertex indices is
+     * returned.
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @param vertexCount        The vertex count
+     * @return The indices
+     */
+    static int[] readIndices(
+            MeshPrimitiveModel meshPrimitiveModel, int vertexCount) {
+        AccessorModel indicesAccessorModel = meshPrimitiveModel.getIndices();
+        if (indicesAccessorModel == null) {
+            int[] indices = new int[vertexCount - vertexCount % 3];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = i;
+            }
+            return indices;
+        }
+        AccessorData accessorData = indicesAccessorModel.getAccessorData();
+        int count = accessorData.getNumElements();
+        int[] indices = new int[count - count % 3];
+        if (accessorData instanceof AccessorByteData) {
+            AccessorByteData byteData = (AccessorByteData) accessorData;
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = byteData.getInt(i);
+            }
+        } else if (accessorData instanceof AccessorShortData) {
+            AccessorShortData shortData = (AccessorShortData) accessorData;
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = shortData.getInt(i);
+            }
+        } else if (accessorData instanceof AccessorIntData) {
+            AccessorIntData intData = (AccessorIntData) accessorData;
+            intData.readInto(indices, 0, indices.length);
+        } else {
+            throw new IllegalArgumentException(
+                    "Invalid indices type: " + accessorData.getComponentType());
+        }
+        return indices;
+    }
+
+    /**
+     * Read the positions of the given mesh primitive, as 3 floats per
+     * vertex. If the mesh primitive does not have a <code>POSITION</code>
+     * attribute with 3D float-compatible values, then <code>null</code>
+     * is returned.
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @return The positions, or <code>null</code>
+     */
+    static float[] readPositions(MeshPrimitiveModel meshPrimitiveModel) {
+        AccessorModel positionsAccessorModel =
+                meshPrimitiveModel.getAttributes().get("POSITION");
+        if (positionsAccessorModel == null
+                || positionsAccessorModel.getElementType() != ElementType.VEC3
+                || !AccessorDatas.isFloatCompatibleType(
+                positionsAccessorModel.getComponentType())) {
+            return null;
+        }
+        AccessorFloatData positionsData =
+                AccessorDatas.createFloat(positionsAccessorModel);
+        int count = positionsData.getNumElements();
+        float[] positions = new float[count * 3];
+        positionsData.readInto(positions, 0, count);
+        return positions;
+    }
+
+    /**
+     * Returns the component type for indices referring to the given
+     * number of vertices
+     *
+     * @param vertexCount The vertex count
+     * @return The component type
+     */
+    static int indicesComponentType(int vertexCount) {
+        // The maximum value of the type may not be used as an index
+        if (vertexCount <= 65535) {
+            return GltfConstants.GL_UNSIGNED_SHORT;
+        }
+        return GltfConstants.GL_UNSIGNED_INT;
+    }
+
+    /**
+     * Create the byte buffer containing the given indices, with the
+     * {@link #indicesComponentType(int) component type} for the given
+     * number of vertices
+     *
+     * @param indices     The indices
+     * @param vertexCount The vertex count
+     * @return The byte buffer
+     */
+    static ByteBuffer createIndicesByteBuffer(int[] indices, int vertexCount) {
+        if (indicesComponentType(vertexCount)
+                == GltfConstants.GL_UNSIGNED_SHORT) {
+            ByteBuffer byteBuffer = Buffers.create(indices.length * 2);
+            for (int i = 0; i < indices.length; i++) {
+                byteBuffer.putShort(i * 2, (short) indices[i]);
+            }
+            return byteBuffer;
+        }
+        ByteBuffer byteBuffer = Buffers.create(indices.length * 4);
+        byteBuffer.asIntBuffer().put(indices);
+        return byteBuffer;
+    }
+
+    /**
+     * Create a byte buffer containing the elements of the given
+     * {@link AccessorModel}, tightly packed, where the element with index
+     * <code>i</code> is stored at index <code>remap[i]</code>. Elements
+     * for which the remapping is negative are omitted.
+     *
+     * @param accessorModel  The {@link AccessorModel}
+     * @param remap          The remapping from old to new element indices
+     * @param newVertexCount The number of elements in the result
+     * @return The byte buffer
+     */
+    static ByteBuffer createRemappedByteBuffer(AccessorModel accessorModel,
+                                               int[] remap, int newVertexCount) {
+        int elementSize = accessorModel.getElementSizeInBytes();
+        int byteStride = accessorModel.getByteStride();
+        if (byteStride <= 0) {
+            byteStride = elementSize;
+        }
+        ByteBuffer source =
+                accessorModel.getBufferViewModel().getBufferViewData();
+        int byteOffset = accessorModel.getByteOffset();
+        ByteBuffer result = Buffers.create(newVertexCount * elementSize);
+        int n = Math.min(remap.length, accessorModel.getCount());
+        for (int i = 0; i < n; i++) {
+            int target = remap[i];
+            if (target < 0) {
+                continue;
+            }
+            int sourceIndex = byteOffset + i * byteStride;
+            int targetIndex = target * elementSize;
+            for (int b = 0; b < elementSize; b++) {
+                result.put(targetIndex + b, source.get(sourceIndex + b));
+            }
+        }
+        return result;
+    }
+}
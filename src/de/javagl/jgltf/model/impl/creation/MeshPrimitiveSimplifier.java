@@ -0,0 +1,240 @@
+package de.javagl.jgltf.model.impl.creation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+
+import de.javagl.jgltf.logging.Logger;
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+
+/**
+ * A class for simplifying {@link MeshPrimitiveModel} instances, in order
+ * to create lower levels of detail.<br>
+ * <br>
+ * The simplification is implemented in {@link MeshSimplifiers}. The result
+ * of the simplification are the indices of the remaining triangles, which
+ * refer to the vertices of the original mesh primitive. These indices may
+ * be passed to {@link MeshPrimitiveOptimizer#optimize(MeshPrimitiveModel,
+ * int[])} to create a new {@link MeshPrimitiveModel} that only contains
+ * the vertices that are still used.<br>
+ * <br>
+ * <b>This class is only intended for internal use!</b>
+ */
+public final class MeshPrimitiveSimplifier {
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+            Logger.getLogger(MeshPrimitiveSimplifier.class);
+
+    /**
+     * The target error, relative to the size of the mesh
+     */
+    private float targetError;
+
+    /**
+     * Whether the vertices at the border of the mesh are locked
+     */
+    private boolean lockBorder;
+
+    /**
+     * The weights of the attributes that are considered in the error
+     */
+    private final Map<String, Float> attributeWeights;
+
+    /**
+     * Default constructor
+     */
+    public MeshPrimitiveSimplifier() {
+        this.targetError = 0.01f;
+        this.lockBorder = true;
+        this.attributeWeights = new LinkedHashMap<>();
+    }
+
+    /**
+     * Set the maximum error that may be introduced by the simplification,
+     * relative to the largest extent of the mesh. The default value is
+     * 0.01, meaning that the surface may deviate by about one percent
+     * of the size of the mesh.
+     *
+     * @param targetError The target error
+     * @throws IllegalArgumentException If the target error is negative
+     */
+    public void setTargetError(float targetError) {
+        if (targetError < 0.0f) {
+            throw new IllegalArgumentException(
+                    "The target error may not be negative, but is "
+                            + targetError);
+        }
+        this.targetError = targetError;
+    }
+
+    /**
+     * Set whether the vertices at the border of the mesh should be locked.
+     * If this is <code>false</code>, then the border vertices may be moved
+     * along the border. The default value is <code>true</code>.<br>
+     * <br>
+     * Vertices that share their position with other vertices, for example,
+     * at seams of the texture coordinates, are always locked.
+     *
+     * @param lockBorder Whether the border should be locked
+     */
+    public void setLockBorder(boolean lockBorder) {
+        this.lockBorder = lockBorder;
+    }
+
+    /**
+     * Set the weight of the attribute with the given name. The squared
+     * difference of the weighted attribute values of two vertices will
+     * be added to the error when one vertex is moved onto the other. By
+     * default, only the positions are considered. Typical weights are
+     * 0.5 for <code>"NORMAL"</code> and 1.0 for <code>"COLOR_0"</code>.
+     * A weight that is not positive removes the attribute from the
+     * error computation.<br>
+     * <br>
+     * Only attributes with float-compatible values are considered.
+     *
+     * @param name   The attribute name
+     * @param weight The weight
+     */
+    public void setAttributeWeight(String name, float weight) {
+        if (weight > 0.0f) {
+            attributeWeights.put(name, weight);
+        } else {
+            attributeWeights.remove(name);
+        }
+    }
+
+    /**
+     * Simplify the given {@link MeshPrimitiveModel}, so that it contains
+     * at most the given ratio of its triangles, if this is possible
+     * without exceeding the {@link #setTargetError(float) target error}.
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @param ratio              The target ratio of triangles
+     * @return The indices of the remaining triangles
+     * @throws IllegalArgumentException If the mesh primitive does not
+     *                                  consist of triangles, or does not have a <code>POSITION</code>
+     *                                  attribute with 3D float-compatible values, or the ratio is not
+     *                                  in [0,1]
+     */
+    public int[] simplify(MeshPrimitiveModel meshPrimitiveModel, float ratio) {
+        return simplifyChain(meshPrimitiveModel, ratio).get(0);
+    }
+
+    /**
+     * Simplify the given {@link MeshPrimitiveModel} successively with the
+     * given ratios, which refer to the number of triangles of the original
+     * mesh primitive. Each level of detail is created by simplifying the
+     * previous one, so that the triangles of each level are a coarser
+     * version of the previous level.
+     *
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @param ratios             The target ratios of triangles, which
+     *                           should be decreasing
+     * @return The indices of the triangles of each level, referring to the
+     * vertices of the given mesh primitive
+     * @throws IllegalArgumentException If the mesh primitive does not
+     *                                  consist of triangles, or does not have a <code>POSITION</code>
+     *                                  attribute with 3D float-compatible values, or one of the ratios
+     *                                  is not in [0,1]
+     */
+    public List<int[]> simplifyChain(
+            MeshPrimitiveModel meshPrimitiveModel, float... ratios) {
+        MeshPrimitiveOptimizer.validateMode(meshPrimitiveModel);
+        for (float ratio : ratios) {
+            if (!(ratio >= 0.0f && ratio <= 1.0f)) {
+                throw new IllegalArgumentException(
+                        "The ratio must be in [0,1], but is " + ratio);
+            }
+        }
+        float[] positions =
+                MeshPrimitiveOptimizer.readPositions(meshPrimitiveModel);
+        if (positions == null) {
+            throw new IllegalArgumentException("The mesh primitive does not "
+                    + "have a POSITION attribute with 3D float values");
+        }
+        int vertexCount = positions.length / 3;
+        int[] indices = MeshPrimitiveOptimizer.readIndices(
+                meshPrimitiveModel, vertexCount);
+
+        int attributeCount = 0;
+        List<AccessorModel> weightedAccessorModels = new ArrayList<>();
+        List<Float> weights = new ArrayList<>();
+        for (Entry<String, Float> entry : attributeWeights.entrySet()) {
+            AccessorModel accessorModel =
+                    meshPrimitiveModel.getAttributes().get(entry.getKey());
+            if (accessorModel == null
+                    || accessorModel.getCount() != vertexCount
+                    || !AccessorDatas.isFloatCompatibleType(
+                    accessorModel.getComponentType())) {
+                continue;
+            }
+            weightedAccessorModels.add(accessorModel);
+            weights.add(entry.getValue());
+            attributeCount += accessorModel.getElementType()
+                    .getNumComponents();
+        }
+        float[] attributes = readAttributes(weightedAccessorModels, weights,
+                vertexCount, attributeCount);
+
+        List<int[]> result = new ArrayList<>();
+        int[] current = indices;
+        for (float ratio : ratios) {
+            int targetIndexCount = (int) (indices.length / 3 * ratio) * 3;
+            current = MeshSimplifiers.simplify(current, positions,
+                    vertexCount, attributes, attributeCount,
+                    targetIndexCount, targetError, lockBorder);
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine("Simplified mesh primitive with "
+                        + indices.length / 3 + " triangles to "
+                        + current.length / 3 + " triangles for ratio "
+                        + ratio);
+            }
+            result.add(current);
+        }
+        return result;
+    }
+
+    /**
+     * Read the values of the given accessor models, multiplied with the
+     * given weights, into an array that contains the given number of
+     * values for each vertex
+     *
+     * @param accessorModels The {@link AccessorModel} objects
+     * @param weights        The weights
+     * @param vertexCount    The vertex count
+     * @param attributeCount The number of attribute values per vertex
+     * @return The attributes, or <code>null</code> if there are none
+     */
+    private static float[] readAttributes(List<AccessorModel> accessorModels,
+                                          List<Float> weights, int vertexCount, int attributeCount) {
+        if (attributeCount == 0) {
+            return null;
+        }
+        float[] attributes = new float[vertexCount * attributeCount];
+        int offset = 0;
+        for (int i = 0; i < accessorModels.size(); i++) {
+            AccessorFloatData accessorData =
+                    AccessorDatas.createFloat(accessorModels.get(i));
+            int numComponents = accessorData.getNumComponentsPerElement();
+            float[] values = new float[vertexCount * numComponents];
+            accessorData.readInto(values, 0, vertexCount);
+            float weight = weights.get(i);
+            for (int v = 0; v < vertexCount; v++) {
+                for (int c = 0; c < numComponents; c++) {
+                    attributes[v * attributeCount + offset + c] =
+                            values[v * numComponents + c] * weight;
+                }
+            }
+            offset += numComponents;
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,893 @@
+package de.javagl.jgltf.model.impl.creation;
+
+import java.util.Arrays;
+
+/**
+ * Methods for simplifying triangle meshes.<br>
+ * <br>
+ * The simplification is based on the quadric error metrics that are
+ * described in "Surface Simplification Using Quadric Error Metrics" by
+ * Garland and Heckbert (1997). It collapses edges by moving one vertex
+ * onto the other one (half-edge collapses), so that the resulting
+ * triangles only refer to a subset of the original vertices, and the
+ * vertex attributes do not have to be interpolated.<br>
+ * <br>
+ * The error of a collapse consists of the quadric error of the positions,
+ * relative to the size of the mesh, and the squared difference of the
+ * (weighted) vertex attributes of both vertices. Vertices that share
+ * their position with other vertices (for example, at texture coordinate
+ * seams) are never moved. Vertices at the border of the mesh are either
+ * not moved, or only moved along the border.<br>
+ * <br>
+ * <b>This class is only intended for internal use!</b>
+ */
+public final class MeshSimplifiers {
+    /**
+     * The vertex kind for vertices at the border of the mesh
+     */
+    private static final byte KIND_BORDER = 1;
+
+    /**
+     * The vertex kind for vertices that may not be moved
+     */
+    private static final byte KIND_LOCKED = 2;
+
+    /**
+     * The number of values of one quadric
+     */
+    private static final int QUADRIC_SIZE = 10;
+
+    /**
+     * The weight of the quadrics that keep border vertices on the border
+     */
+    private static final double BORDER_WEIGHT = 10.0;
+
+    /**
+     * The minimum cosine of the angle between the normals of a triangle
+     * before and after a collapse
+     */
+    private static final double MIN_NORMAL_COSINE = 0.25;
+
+    /**
+     * Simplify the given triangles.<br>
+     * <br>
+     * The edges of the mesh will be collapsed, in the order of the errors
+     * that they cause, until the number of indices is not larger than the
+     * given target index count, or no further edge can be collapsed with
+     * an error that is at most the given target error.<br>
+     * <br>
+     * The target error is given relative to the size of the mesh: An error
+     * of 0.01 means that the simplified surface deviates by about one
+     * percent of the largest extent of the mesh from the original surface.
+     * <br>
+     * <br>
+     * The given attributes may be <code>null</code>. Otherwise, they must
+     * contain <code>attributeCount</code> values for each vertex, which
+     * are usually already multiplied with a weight. The squared distance
+     * between the attribute values is added to the error of a collapse.
+     *
+     * @param indices          The indices
+     * @param positions        The positions, 3 values per vertex
+     * @param vertexCount      The number of vertices
+     * @param attributes       The optional attributes
+     * @param attributeCount   The number of attribute values per vertex
+     * @param targetIndexCount The target number of indices
+     * @param targetError      The target error
+     * @param lockBorder       Whether vertices at the border should be
+     *                         locked. If this is <code>false</code>,
+     *                         then they may be moved along the border.
+     * @return The indices of the simplified triangles, referring to the
+     * original vertices
+     * @throws IllegalArgumentException If the number of indices is not
+     *                                  divisible by 3, or an index is not smaller than the vertex count,
+     *                                  or the arrays are too small for the given vertex count
+     */
+    public static int[] simplify(int[] indices, float[] positions,
+                                 int vertexCount, float[] attributes, int attributeCount,
+                                 int targetIndexCount, float targetError, boolean lockBorder) {
+        MeshOptimizers.validate(indices, vertexCount);
+        if (positions.length < vertexCount * 3) {
+            throw new IllegalArgumentException("Expected " + vertexCount * 3
+                    + " positions, but found " + positions.length);
+        }
+        if (attributes != null
+                && attributes.length < vertexCount * attributeCount) {
+            throw new IllegalArgumentException("Expected "
+                    + vertexCount * attributeCount
+                    + " attribute values, but found " + attributes.length);
+        }
+        if (attributes == null) {
+            attributeCount = 0;
+        }
+        double[] points = normalizePositions(positions, vertexCount);
+        int[] wedges = computeWedges(indices, positions, vertexCount);
+        int[] current = removeDegenerateTriangles(indices, wedges);
+        if (current.length <= targetIndexCount) {
+            return current;
+        }
+        byte[] kinds = computeVertexKinds(current, wedges, vertexCount);
+
+        double[] quadrics = new double[vertexCount * QUADRIC_SIZE];
+        double[] weights = new double[vertexCount];
+        computeQuadrics(current, wedges, points, !lockBorder,
+                quadrics, weights);
+
+        double maxError = (double) targetError * targetError;
+        int[] collapses = new int[vertexCount];
+        boolean[] touched = new boolean[vertexCount];
+        int[] stamps = new int[vertexCount];
+        Arrays.fill(stamps, -1);
+        int stamp = 0;
+        while (current.length > targetIndexCount) {
+            int numTriangles = current.length / 3;
+            int[] offsets = new int[vertexCount + 1];
+            int[] adjacency = computeAdjacency(current, vertexCount, offsets);
+
+            // Collect the candidate collapses, as the bits of the error
+            // (which is non-negative, so the order of the bits is the order
+            // of the values) combined with the index of the candidate. Each
+            // edge is only considered once, in the triangle where the
+            // wedges are in ascending order, or in its only triangle if it
+            // is a border edge
+            int[] candidateU = new int[current.length];
+            int[] candidateV = new int[current.length];
+            long[] candidates = new long[current.length];
+            int numCandidates = 0;
+            for (int t = 0; t < numTriangles; t++) {
+                for (int k = 0; k < 3; k++) {
+                    int a = current[t * 3 + k];
+                    int b = current[t * 3 + (k + 1) % 3];
+                    boolean lockedA = kinds[wedges[a]] == KIND_LOCKED;
+                    boolean lockedB = kinds[wedges[b]] == KIND_LOCKED;
+                    if (lockedA && lockedB) {
+                        continue;
+                    }
+                    int sharedTriangles = lockedA
+                            ? countSharedTriangles(b, a, current, offsets,
+                            adjacency, wedges)
+                            : countSharedTriangles(a, b, current, offsets,
+                            adjacency, wedges);
+                    boolean border = sharedTriangles == 1;
+                    if (wedges[a] > wedges[b] && !border) {
+                        continue;
+                    }
+                    double errorAB = Double.POSITIVE_INFINITY;
+                    if (canCollapse(a, b, wedges, kinds, border,
+                            lockBorder)) {
+                        errorAB = computeError(a, b, points, quadrics,
+                                weights, wedges, attributes, attributeCount);
+                    }
+                    double errorBA = Double.POSITIVE_INFINITY;
+                    if (canCollapse(b, a, wedges, kinds, border,
+                            lockBorder)) {
+                        errorBA = computeError(b, a, points, quadrics,
+                                weights, wedges, attributes, attributeCount);
+                    }
+                    double error = Math.min(errorAB, errorBA);
+                    if (error > maxError) {
+                        continue;
+                    }
+                    candidateU[numCandidates] = errorAB <= errorBA ? a : b;
+                    candidateV[numCandidates] = errorAB <= errorBA ? b : a;
+                    candidates[numCandidates] =
+                            ((long) Float.floatToIntBits((float) error) << 32)
+                                    | numCandidates;
+                    numCandidates++;
+                }
+            }
+            if (numCandidates == 0) {
+                break;
+            }
+            Arrays.sort(candidates, 0, numCandidates);
+
+            // Apply the collapses with the smallest errors. The vertices
+            // that are affected by a collapse are not touched again in
+            // the same pass, so that the errors remain valid
+            int trianglesToRemove = (current.length - targetIndexCount + 2) / 3;
+            int removedTriangles = 0;
+            int numCollapses = 0;
+            Arrays.fill(touched, false);
+            for (int i = 0; i < vertexCount; i++) {
+                collapses[i] = i;
+            }
+            for (int c = 0; c < numCandidates; c++) {
+                if (removedTriangles >= trianglesToRemove) {
+                    break;
+                }
+                int candidate = (int) candidates[c];
+                int u = candidateU[candidate];
+                int v = candidateV[candidate];
+                if (touched[u] || touched[v]) {
+                    continue;
+                }
+                stamp++;
+                if (!isLinkConditionSatisfied(u, v, current,
+                        offsets, adjacency, stamps, stamp)) {
+                    continue;
+                }
+                if (flipsTriangles(u, v, current, offsets, adjacency,
+                        points)) {
+                    continue;
+                }
+                collapses[u] = v;
+                addQuadric(quadrics, wedges[v], quadrics, wedges[u]);
+                weights[wedges[v]] += weights[wedges[u]];
+                for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+                    int t = adjacency[j];
+                    int i0 = current[t * 3];
+                    int i1 = current[t * 3 + 1];
+                    int i2 = current[t * 3 + 2];
+                    touched[i0] = true;
+                    touched[i1] = true;
+                    touched[i2] = true;
+                    if (i0 == v || i1 == v || i2 == v) {
+                        removedTriangles++;
+                    }
+                }
+                touched[v] = true;
+                numCollapses++;
+            }
+            if (numCollapses == 0) {
+                break;
+            }
+            for (int i = 0; i < current.length; i++) {
+                current[i] = collapses[current[i]];
+            }
+            current = removeDegenerateTriangles(current, wedges);
+        }
+        return current;
+    }
+
+    /**
+     * Returns the positions, translated and scaled so that the largest
+     * extent of the bounding box is 1.0
+     *
+     * @param positions   The positions
+     * @param vertexCount The vertex count
+     * @return The normalized positions
+     */
+    private static double[] normalizePositions(
+            float[] positions, int vertexCount) {
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE,
+                -Double.MAX_VALUE};
+        for (int v = 0; v < vertexCount; v++) {
+            for (int c = 0; c < 3; c++) {
+                double p = positions[v * 3 + c];
+                min[c] = Math.min(min[c], p);
+                max[c] = Math.max(max[c], p);
+            }
+        }
+        double extent = 0.0;
+        for (int c = 0; c < 3; c++) {
+            extent = Math.max(extent, max[c] - min[c]);
+        }
+        double scale = extent > 0.0 ? 1.0 / extent : 1.0;
+        double[] points = new double[vertexCount * 3];
+        for (int v = 0; v < vertexCount; v++) {
+            for (int c = 0; c < 3; c++) {
+                points[v * 3 + c] = (positions[v * 3 + c] - min[c]) * scale;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Compute the wedges of the vertices: For each vertex, this is the
+     * index of the first vertex that is used by a triangle and has the
+     * same position. Vertices that are not used refer to themself.
+     *
+     * @param indices     The indices
+     * @param positions   The positions
+     * @param vertexCount The vertex count
+     * @return The wedges
+     */
+    private static int[] computeWedges(
+            int[] indices, float[] positions, int vertexCount) {
+        int[] wedges = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            wedges[v] = v;
+        }
+        int capacity = Integer.highestOneBit(Math.max(vertexCount, 1)) * 4;
+        int mask = capacity - 1;
+        int[] table = new int[capacity];
+        Arrays.fill(table, -1);
+        boolean[] visited = new boolean[vertexCount];
+        for (int v : indices) {
+            if (visited[v]) {
+                continue;
+            }
+            visited[v] = true;
+            int x = Float.floatToIntBits(positions[v * 3]);
+            int y = Float.floatToIntBits(positions[v * 3 + 1]);
+            int z = Float.floatToIntBits(positions[v * 3 + 2]);
+            int hash = (x * 73856093) ^ (y * 19349663) ^ (z * 83492791);
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (true) {
+                int w = table[slot];
+                if (w == -1) {
+                    table[slot] = v;
+                    break;
+                }
+                if (Float.floatToIntBits(positions[w * 3]) == x
+                        && Float.floatToIntBits(positions[w * 3 + 1]) == y
+                        && Float.floatToIntBits(positions[w * 3 + 2]) == z) {
+                    wedges[v] = w;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return wedges;
+    }
+
+    /**
+     * Returns the indices of all triangles that do not refer to the same
+     * position more than once
+     *
+     * @param indices The indices
+     * @param wedges  The wedges
+     * @return The indices of the remaining triangles
+     */
+    private static int[] removeDegenerateTriangles(
+            int[] indices, int[] wedges) {
+        int[] result = new int[indices.length];
+        int n = 0;
+        for (int i = 0; i < indices.length; i += 3) {
+            int w0 = wedges[indices[i]];
+            int w1 = wedges[indices[i + 1]];
+            int w2 = wedges[indices[i + 2]];
+            if (w0 != w1 && w1 != w2 && w2 != w0) {
+                result[n++] = indices[i];
+                result[n++] = indices[i + 1];
+                result[n++] = indices[i + 2];
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Create the sorted array of all directed edges of the given triangles,
+     * between the wedges of the vertices. The result contains the start
+     * and end wedge of each edge, sorted by the start and then by the end.
+     *
+     * @param indices The indices
+     * @param wedges  The wedges
+     * @return The edges
+     */
+    private static int[] createSortedEdges(int[] indices, int[] wedges) {
+        long[] encoded = new long[indices.length];
+        for (int t = 0; t < indices.length; t += 3) {
+            for (int k = 0; k < 3; k++) {
+                int a = wedges[indices[t + k]];
+                int b = wedges[indices[t + (k + 1) % 3]];
+                encoded[t + k] = encodeEdge(a, b);
+            }
+        }
+        Arrays.sort(encoded);
+        int[] edges = new int[encoded.length * 2];
+        for (int i = 0; i < encoded.length; i++) {
+            edges[i * 2] = (int) (encoded[i] >>> 32);
+            edges[i * 2 + 1] = (int) encoded[i];
+        }
+        return edges;
+    }
+
+    /**
+     * Encode the given directed edge as a <code>long</code> value
+     *
+     * @param a The start
+     * @param b The end
+     * @return The encoded edge
+     */
+    private static long encodeEdge(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the number of times that the given directed edge appears in
+     * the given sorted edges
+     *
+     * @param edges The edges, as created with {@link #createSortedEdges}
+     * @param a     The start
+     * @param b     The end
+     * @return The number of occurrences
+     */
+    private static int countEdge(int[] edges, int a, int b) {
+        int low = 0;
+        int high = edges.length / 2;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int ma = edges[mid * 2];
+            int mb = edges[mid * 2 + 1];
+            if (ma < a || (ma == a && mb < b)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int count = 0;
+        for (int i = low; i < edges.length / 2; i++) {
+            if (edges[i * 2] != a || edges[i * 2 + 1] != b) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the given edge between two wedges is a border edge,
+     * meaning that it belongs to exactly one triangle
+     *
+     * @param edges The edges
+     * @param a     The first wedge
+     * @param b     The second wedge
+     * @return Whether the edge is a border edge
+     */
+    private static boolean isBorderEdge(int[] edges, int a, int b) {
+        return countEdge(edges, a, b) + countEdge(edges, b, a) == 1;
+    }
+
+    /**
+     * Compute the kinds of the wedges of all vertices. Vertices whose
+     * position is shared by multiple used vertices, and vertices at
+     * non-manifold edges, are locked. Vertices at exactly one border
+     * are border vertices. All other vertices have the kind 0, and may
+     * be moved freely.
+     *
+     * @param indices     The indices
+     * @param wedges      The wedges
+     * @param vertexCount The vertex count
+     * @return The kinds, indexed by wedge
+     */
+    private static byte[] computeVertexKinds(
+            int[] indices, int[] wedges, int vertexCount) {
+        byte[] kinds = new byte[vertexCount];
+        boolean[] used = new boolean[vertexCount];
+        for (int v : indices) {
+            used[v] = true;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            if (used[v] && wedges[v] != v) {
+                kinds[v] = KIND_LOCKED;
+                kinds[wedges[v]] = KIND_LOCKED;
+            }
+        }
+        int[] edges = createSortedEdges(indices, wedges);
+        int[] borderCounts = new int[vertexCount];
+        int numEdges = edges.length / 2;
+        int i = 0;
+        while (i < numEdges) {
+            int a = edges[i * 2];
+            int b = edges[i * 2 + 1];
+            int count = 0;
+            while (i < numEdges
+                    && edges[i * 2] == a && edges[i * 2 + 1] == b) {
+                count++;
+                i++;
+            }
+            int reverseCount = countEdge(edges, b, a);
+            if (count > 1 || reverseCount > 1) {
+                kinds[a] = KIND_LOCKED;
+                kinds[b] = KIND_LOCKED;
+            } else if (reverseCount == 0) {
+                borderCounts[a]++;
+                borderCounts[b]++;
+            }
+        }
+        for (int w = 0; w < vertexCount; w++) {
+            if (borderCounts[w] == 0 || kinds[w] == KIND_LOCKED) {
+                continue;
+            }
+            // A vertex with more than one incoming and outgoing border
+            // edge connects multiple parts of the border
+            kinds[w] = borderCounts[w] == 2 ? KIND_BORDER : KIND_LOCKED;
+        }
+        return kinds;
+    }
+
+    /**
+     * Compute the quadrics of all wedges, from the planes of the adjacent
+     * triangles, weighted by the triangle areas. If the border quadrics
+     * should be added, then the border edges will receive quadrics for
+     * the planes that are perpendicular to the triangles, in order to
+     * keep the vertices on the border.
+     *
+     * @param indices         The indices
+     * @param wedges          The wedges
+     * @param points          The normalized positions
+     * @param borderQuadrics  Whether border quadrics should be added
+     * @param quadrics        The quadrics
+     * @param weights         The weights
+     */
+    private static void computeQuadrics(int[] indices, int[] wedges,
+                                        double[] points, boolean borderQuadrics,
+                                        double[] quadrics, double[] weights) {
+        int[] edges = createSortedEdges(indices, wedges);
+        double[] normal = new double[3];
+        for (int t = 0; t < indices.length; t += 3) {
+            int w0 = wedges[indices[t]];
+            int w1 = wedges[indices[t + 1]];
+            int w2 = wedges[indices[t + 2]];
+            double area = computeNormal(points, w0, w1, w2, normal);
+            if (area == 0.0) {
+                continue;
+            }
+            double d = -dot(normal, points, w0);
+            double weight = area * 0.5;
+            addPlane(quadrics, w0, normal, d, weight);
+            addPlane(quadrics, w1, normal, d, weight);
+            addPlane(quadrics, w2, normal, d, weight);
+            weights[w0] += weight;
+            weights[w1] += weight;
+            weights[w2] += weight;
+
+            if (!borderQuadrics) {
+                continue;
+            }
+            int[] corners = {w0, w1, w2};
+            for (int k = 0; k < 3; k++) {
+                int a = corners[k];
+                int b = corners[(k + 1) % 3];
+                if (!isBorderEdge(edges, a, b)) {
+                    continue;
+                }
+                double ex = points[b * 3] - points[a * 3];
+                double ey = points[b * 3 + 1] - points[a * 3 + 1];
+                double ez = points[b * 3 + 2] - points[a * 3 + 2];
+                double length = Math.sqrt(ex * ex + ey * ey + ez * ez);
+                if (length == 0.0) {
+                    continue;
+                }
+                double[] borderNormal = {
+                        ey * normal[2] - ez * normal[1],
+                        ez * normal[0] - ex * normal[2],
+                        ex * normal[1] - ey * normal[0]
+                };
+                double borderLength = Math.sqrt(
+                        borderNormal[0] * borderNormal[0]
+                                + borderNormal[1] * borderNormal[1]
+                                + borderNormal[2] * borderNormal[2]);
+                borderNormal[0] /= borderLength;
+                borderNormal[1] /= borderLength;
+                borderNormal[2] /= borderLength;
+                double borderD = -dot(borderNormal, points, a);
+                double borderWeight = length * length * BORDER_WEIGHT;
+                addPlane(quadrics, a, borderNormal, borderD, borderWeight);
+                addPlane(quadrics, b, borderNormal, borderD, borderWeight);
+            }
+        }
+    }
+
+    /**
+     * Compute the normal of the given triangle, normalized, and return
+     * the length of the unnormalized normal, which is twice the area of
+     * the triangle
+     *
+     * @param points The points
+     * @param i0     The first vertex
+     * @param i1     The second vertex
+     * @param i2     The third vertex
+     * @param normal The normal
+     * @return The length of the unnormalized normal
+     */
+    private static double computeNormal(
+            double[] points, int i0, int i1, int i2, double[] normal) {
+        double ax = points[i1 * 3] - points[i0 * 3];
+        double ay = points[i1 * 3 + 1] - points[i0 * 3 + 1];
+        double az = points[i1 * 3 + 2] - points[i0 * 3 + 2];
+        double bx = points[i2 * 3] - points[i0 * 3];
+        double by = points[i2 * 3 + 1] - points[i0 * 3 + 1];
+        double bz = points[i2 * 3 + 2] - points[i0 * 3 + 2];
+        normal[0] = ay * bz - az * by;
+        normal[1] = az * bx - ax * bz;
+        normal[2] = ax * by - ay * bx;
+        double length = Math.sqrt(normal[0] * normal[0]
+                + normal[1] * normal[1] + normal[2] * normal[2]);
+        if (length > 0.0) {
+            normal[0] /= length;
+            normal[1] /= length;
+            normal[2] /= length;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the dot product of the given vector and the given point
+     *
+     * @param vector The vector
+     * @param points The points
+     * @param index  The index of the point
+     * @return The dot product
+     */
+    private static double dot(double[] vector, double[] points, int index) {
+        return vector[0] * points[index * 3]
+                + vector[1] * points[index * 3 + 1]
+                + vector[2] * points[index * 3 + 2];
+    }
+
+    /**
+     * Add the quadric for the given plane to the quadric with the given
+     * index
+     *
+     * @param quadrics The quadrics
+     * @param index    The index
+     * @param normal   The plane normal
+     * @param d        The plane distance
+     * @param weight   The weight
+     */
+    private static void addPlane(double[] quadrics, int index,
+                                 double[] normal, double d, double weight) {
+        double a = normal[0];
+        double b = normal[1];
+        double c = normal[2];
+        int q = index * QUADRIC_SIZE;
+        quadrics[q] += weight * a * a;
+        quadrics[q + 1] += weight * b * b;
+        quadrics[q + 2] += weight * c * c;
+        quadrics[q + 3] += weight * a * b;
+        quadrics[q + 4] += weight * a * c;
+        quadrics[q + 5] += weight * b * c;
+        quadrics[q + 6] += weight * a * d;
+        quadrics[q + 7] += weight * b * d;
+        quadrics[q + 8] += weight * c * d;
+        quadrics[q + 9] += weight * d * d;
+    }
+
+    /**
+     * Add the source quadric to the target quadric
+     *
+     * @param target      The target quadrics
+     * @param targetIndex The target index
+     * @param source      The source quadrics
+     * @param sourceIndex The source index
+     */
+    private static void addQuadric(double[] target, int targetIndex,
+                                   double[] source, int sourceIndex) {
+        for (int i = 0; i < QUADRIC_SIZE; i++) {
+            target[targetIndex * QUADRIC_SIZE + i] +=
+                    source[sourceIndex * QUADRIC_SIZE + i];
+        }
+    }
+
+    /**
+     * Evaluate the sum of the given two quadrics at the given point
+     *
+     * @param quadrics The quadrics
+     * @param q0       The first quadric index
+     * @param q1       The second quadric index
+     * @param points   The points
+     * @param p        The point index
+     * @return The quadric error
+     */
+    private static double evaluate(double[] quadrics, int q0, int q1,
+                                   double[] points, int p) {
+        int a = q0 * QUADRIC_SIZE;
+        int b = q1 * QUADRIC_SIZE;
+        double x = points[p * 3];
+        double y = points[p * 3 + 1];
+        double z = points[p * 3 + 2];
+        double error = (quadrics[a] + quadrics[b]) * x * x
+                + (quadrics[a + 1] + quadrics[b + 1]) * y * y
+                + (quadrics[a + 2] + quadrics[b + 2]) * z * z
+                + 2.0 * (quadrics[a + 3] + quadrics[b + 3]) * x * y
+                + 2.0 * (quadrics[a + 4] + quadrics[b + 4]) * x * z
+                + 2.0 * (quadrics[a + 5] + quadrics[b + 5]) * y * z
+                + 2.0 * (quadrics[a + 6] + quadrics[b + 6]) * x
+                + 2.0 * (quadrics[a + 7] + quadrics[b + 7]) * y
+                + 2.0 * (quadrics[a + 8] + quadrics[b + 8]) * z
+                + quadrics[a + 9] + quadrics[b + 9];
+        return Math.max(error, 0.0);
+    }
+
+    /**
+     * Returns whether the vertex <code>u</code> may be collapsed onto the
+     * vertex <code>v</code>
+     *
+     * @param u          The vertex to move
+     * @param v          The target vertex
+     * @param wedges     The wedges
+     * @param kinds      The vertex kinds
+     * @param border     Whether the edge is a border edge
+     * @param lockBorder Whether border vertices are locked
+     * @return Whether the collapse is allowed
+     */
+    private static boolean canCollapse(int u, int v, int[] wedges,
+                                       byte[] kinds, boolean border, boolean lockBorder) {
+        int wu = wedges[u];
+        if (wu == wedges[v]) {
+            return false;
+        }
+        byte kind = kinds[wu];
+        if (kind == KIND_LOCKED) {
+            return false;
+        }
+        if (kind == KIND_BORDER) {
+            return !lockBorder && border;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of triangles that contain the vertex
+     * <code>u</code> and a vertex with the same position as vertex
+     * <code>v</code>
+     *
+     * @param u         The first vertex
+     * @param v         The second vertex
+     * @param indices   The indices
+     * @param offsets   The adjacency offsets
+     * @param adjacency The adjacency
+     * @param wedges    The wedges
+     * @return The number of triangles
+     */
+    private static int countSharedTriangles(int u, int v, int[] indices,
+                                            int[] offsets, int[] adjacency, int[] wedges) {
+        int wv = wedges[v];
+        int count = 0;
+        for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+            int t = adjacency[j];
+            if (wedges[indices[t * 3]] == wv
+                    || wedges[indices[t * 3 + 1]] == wv
+                    || wedges[indices[t * 3 + 2]] == wv) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compute the error of collapsing vertex <code>u</code> onto vertex
+     * <code>v</code>
+     *
+     * @param u              The vertex to move
+     * @param v              The target vertex
+     * @param points         The normalized positions
+     * @param quadrics       The quadrics
+     * @param weights        The weights of the quadrics
+     * @param wedges         The wedges
+     * @param attributes     The optional attributes
+     * @param attributeCount The number of attributes per vertex
+     * @return The error
+     */
+    private static double computeError(int u, int v, double[] points,
+                                       double[] quadrics, double[] weights, int[] wedges,
+                                       float[] attributes, int attributeCount) {
+        int wu = wedges[u];
+        int wv = wedges[v];
+        double weight = weights[wu] + weights[wv];
+        double error = evaluate(quadrics, wu, wv, points, v);
+        if (weight > 0.0) {
+            error /= weight;
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            double difference = attributes[u * attributeCount + i]
+                    - attributes[v * attributeCount + i];
+            error += difference * difference;
+        }
+        return error;
+    }
+
+    /**
+     * Compute the vertex-triangle adjacency of the given triangles, in
+     * compressed row form
+     *
+     * @param indices     The indices
+     * @param vertexCount The vertex count
+     * @param offsets     The offsets, with a length of vertexCount+1
+     * @return The adjacency
+     */
+    private static int[] computeAdjacency(
+            int[] indices, int vertexCount, int[] offsets) {
+        for (int index : indices) {
+            offsets[index + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] adjacency = new int[indices.length];
+        int[] fill = Arrays.copyOf(offsets, vertexCount);
+        for (int i = 0; i < indices.length; i++) {
+            adjacency[fill[indices[i]]++] = i / 3;
+        }
+        return adjacency;
+    }
+
+    /**
+     * Returns whether collapsing the edge between <code>u</code> and
+     * <code>v</code> preserves the topology: The vertices that are adjacent
+     * to both vertices must be exactly the opposite vertices of the
+     * triangles that contain the edge.
+     *
+     * @param u         The vertex to move
+     * @param v         The target vertex
+     * @param indices   The indices
+     * @param offsets   The adjacency offsets
+     * @param adjacency The adjacency
+     * @param stamps    The stamps of the vertices
+     * @param stamp     The current stamp
+     * @return Whether the link condition is satisfied
+     */
+    private static boolean isLinkConditionSatisfied(int u, int v,
+                                                    int[] indices, int[] offsets, int[] adjacency,
+                                                    int[] stamps, int stamp) {
+        int sharedTriangles = 0;
+        for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+            int t = adjacency[j];
+            boolean containsV = false;
+            for (int k = 0; k < 3; k++) {
+                int w = indices[t * 3 + k];
+                stamps[w] = stamp;
+                containsV |= w == v;
+            }
+            if (containsV) {
+                sharedTriangles++;
+            }
+        }
+        int sharedNeighbors = 0;
+        for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+            int t = adjacency[j];
+            for (int k = 0; k < 3; k++) {
+                int w = indices[t * 3 + k];
+                if (w != u && w != v && stamps[w] == stamp) {
+                    // Count each common neighbor only once
+                    stamps[w] = stamp - 1;
+                    sharedNeighbors++;
+                }
+            }
+        }
+        return sharedNeighbors == sharedTriangles;
+    }
+
+    /**
+     * Returns whether collapsing vertex <code>u</code> onto vertex
+     * <code>v</code> would flip one of the remaining triangles around
+     * <code>u</code>, or change its normal too much
+     *
+     * @param u         The vertex to move
+     * @param v         The target vertex
+     * @param indices   The indices
+     * @param offsets   The adjacency offsets
+     * @param adjacency The adjacency
+     * @param points    The normalized positions
+     * @return Whether a triangle would be flipped
+     */
+    private static boolean flipsTriangles(int u, int v, int[] indices,
+                                          int[] offsets, int[] adjacency, double[] points) {
+        double[] before = new double[3];
+        double[] after = new double[3];
+        for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+            int t = adjacency[j];
+            int i0 = indices[t * 3];
+            int i1 = indices[t * 3 + 1];
+            int i2 = indices[t * 3 + 2];
+            if (i0 == v || i1 == v || i2 == v) {
+                continue;
+            }
+            double lengthBefore = computeNormal(points, i0, i1, i2, before);
+            if (lengthBefore == 0.0) {
+                continue;
+            }
+            double lengthAfter = computeNormal(points,
+                    i0 == u ? v : i0, i1 == u ? v : i1, i2 == u ? v : i2,
+                    after);
+            if (lengthAfter == 0.0) {
+                return true;
+            }
+            double cosine = before[0] * after[0] + before[1] * after[1]
+                    + before[2] * after[2];
+            if (cosine < MIN_NORMAL_COSINE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MeshSimplifiers() {
+        // Private constructor to prevent instantiation
+    }
+}
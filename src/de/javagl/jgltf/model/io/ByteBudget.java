@@ -0,0 +1,75 @@
+package de.javagl.jgltf.model.io;
+
+import java.io.IOException;
+
+/**
+ * A simple limit for the number of bytes that are processed at the
+ * same time.<br>
+ * <br>
+ * Callers {@link #acquire(long) acquire} the number of bytes that they
+ * are about to process, blocking until enough bytes are available, and
+ * {@link #release(long) release} them when they are done. A request
+ * that is larger than the maximum is granted when no other bytes are
+ * acquired, so that it does not block forever.
+ */
+final class ByteBudget {
+    /**
+     * The maximum number of bytes
+     */
+    private long maximumByteSize;
+
+    /**
+     * The number of bytes that are currently acquired
+     */
+    private long acquiredByteSize;
+
+    /**
+     * Creates a new instance
+     *
+     * @param maximumByteSize The maximum number of bytes
+     */
+    ByteBudget(long maximumByteSize) {
+        this.maximumByteSize = maximumByteSize;
+    }
+
+    /**
+     * Set the maximum number of bytes
+     *
+     * @param maximumByteSize The maximum number of bytes
+     */
+    synchronized void setMaximumByteSize(long maximumByteSize) {
+        this.maximumByteSize = maximumByteSize;
+        notifyAll();
+    }
+
+    /**
+     * Acquire the given number of bytes, blocking until they are available
+     *
+     * @param byteSize The number of bytes
+     * @throws IOException If the calling thread is interrupted while
+     *                     waiting
+     */
+    synchronized void acquire(long byteSize) throws IOException {
+        while (acquiredByteSize > 0
+                && acquiredByteSize + byteSize > maximumByteSize) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for "
+                        + byteSize + " bytes", e);
+            }
+        }
+        acquiredByteSize += byteSize;
+    }
+
+    /**
+     * Release the given number of bytes
+     *
+     * @param byteSize The number of bytes
+     */
+    synchronized void release(long byteSize) {
+        acquiredByteSize -= byteSize;
+        notifyAll();
+    }
+}
@@ -39,7 +39,9 @@ class ErrorReportingSettableBeanProperty extends SettableBeanProperty {
      *
      * @param delegate          The delegate
      * @param jsonErrorConsumer The consumer for {@link JsonError}s. If
-     *                          this is <code>null</code>, then errors will be ignored.
+     *                          this is <code>null</code>, then errors will be passed to the
+     *                          consumer that is stored in the deserialization context, if
+     *                          present, and ignored otherwise.
      */
     ErrorReportingSettableBeanProperty(
             SettableBeanProperty delegate,
@@ -95,8 +97,11 @@ class ErrorReportingSettableBeanProperty extends SettableBeanProperty {
         try {
             delegate.deserializeAndSet(p, ctxt, instance);
         } catch (Exception e) {
-            if (jsonErrorConsumer != null) {
-                jsonErrorConsumer.accept(new JsonError(
+            Consumer<? super JsonError> consumer =
+                    jsonErrorConsumer != null ? jsonErrorConsumer :
+                            JacksonUtils.getJsonErrorConsumer(ctxt);
+            if (consumer != null) {
+                consumer.accept(new JsonError(
                         e.getMessage(), p.getParsingContext(), e));
             }
         }
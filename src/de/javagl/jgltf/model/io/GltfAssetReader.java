@@ -9,6 +9,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -19,6 +23,11 @@ import java.util.function.Consumer;
  * of the given URI, and loaded automatically. The respective data may
  * then be obtained with {@link GltfAsset#getReferenceData(String)}.<br>
  * <br>
+ * The {@link #read(Path)} method allows reading the asset from a file.
+ * The file will be memory-mapped, so that the binary data of a binary
+ * glTF asset is a read-only view on the mapped file, and never copied
+ * into the heap.<br>
+ * <br>
  * The {@link #readWithoutReferences(URI)} and
  * {@link #readWithoutReferences(InputStream)} methods allow reading an
  * asset from a URI or an input stream, <i>without</i> resolving external
@@ -34,6 +43,10 @@ import java.util.function.Consumer;
  * <br>
  * Such a {@link GltfAsset} may then be processed further, for example,
  * by creating a {@link GltfModel} using {@link GltfModels#create(GltfAsset)}.
+ * <br>
+ * <br>
+ * Instances of this class are thread-safe, and may be shared between
+ * multiple threads that read assets concurrently.
  */
 public final class GltfAssetReader {
     /**
@@ -42,9 +55,33 @@ public final class GltfAssetReader {
     private final GltfReader gltfReader;
 
     /**
-     * The {@link GltfAsset} that was read
+     * The consumer for {@link JsonError}s that may occur while reading
+     * the glTF JSON
+     */
+    private volatile Consumer<? super JsonError> jsonErrorConsumer =
+            JacksonUtils.loggingJsonErrorConsumer();
+
+    /**
+     * The {@link GltfAsset} that was read last. This is only stored for
+     * the version queries, and never read while an asset is being read,
+     * so that one instance may be used by multiple threads.
+     */
+    private volatile GltfAsset gltfAsset;
+
+    /**
+     * The optional executor for resolving external references in parallel
+     */
+    private volatile Executor referenceResolvingExecutor;
+
+    /**
+     * Whether external references should be resolved lazily
      */
-    private GltfAsset gltfAsset;
+    private volatile boolean lazyReferenceResolving;
+
+    /**
+     * The optional {@link GltfLoadOptions}
+     */
+    private volatile GltfLoadOptions loadOptions;
 
     /**
      * Creates a new instance
@@ -61,7 +98,54 @@ public final class GltfAssetReader {
      */
     public void setJsonErrorConsumer(
             Consumer<? super JsonError> jsonErrorConsumer) {
-        gltfReader.setJsonErrorConsumer(jsonErrorConsumer);
+        this.jsonErrorConsumer = jsonErrorConsumer;
+    }
+
+    /**
+     * Set the executor that will be used for resolving the external
+     * references of assets in parallel, in the {@link #read(URI)} and
+     * {@link #read(Path)} methods. If this is <code>null</code>, then
+     * the references will be resolved sequentially, in the calling
+     * thread.
+     *
+     * @param referenceResolvingExecutor The executor
+     */
+    public void setReferenceResolvingExecutor(
+            Executor referenceResolvingExecutor) {
+        this.referenceResolvingExecutor = referenceResolvingExecutor;
+    }
+
+    /**
+     * Set whether the external references of glTF 2.0 assets should be
+     * resolved lazily in the {@link #read(URI)} and {@link #read(Path)}
+     * methods.<br>
+     * <br>
+     * If this is <code>true</code>, then the external data will not be
+     * loaded while reading the asset. Instead, it will be loaded when
+     * it is accessed for the first time, via
+     * {@link GltfAsset#getReferenceData(String)}, or the buffer- and
+     * image data of a model that was created from the asset. Assets of
+     * other versions will always resolve their references immediately.
+     *
+     * @param lazyReferenceResolving Whether references are resolved lazily
+     */
+    public void setLazyReferenceResolving(boolean lazyReferenceResolving) {
+        this.lazyReferenceResolving = lazyReferenceResolving;
+    }
+
+    /**
+     * Set the {@link GltfLoadOptions}. If the options specify that image
+     * data should be skipped, then the external image references of glTF
+     * 2.0 assets will not be resolved in the {@link #read(URI)} and
+     * {@link #read(Path)} methods.
+     *
+     * @param loadOptions The {@link GltfLoadOptions}. A copy of the given
+     *                    object will be stored. If this is <code>null</code>,
+     *                    then all references will be resolved.
+     */
+    public void setLoadOptions(GltfLoadOptions loadOptions) {
+        this.loadOptions = loadOptions == null ?
+                null : new GltfLoadOptions(loadOptions);
     }
 
     /**
@@ -72,12 +156,83 @@ public final class GltfAssetReader {
      * @throws IOException If an IO error occurs
      */
     public GltfAsset read(URI uri) throws IOException {
-        try (InputStream inputStream = uri.toURL().openStream()) {
-            readWithoutReferences(inputStream);
-            URI baseUri = IO.getParent(uri);
-            GltfReferenceResolver.resolveAll(
-                    gltfAsset.getReferences(), baseUri);
-            return gltfAsset;
+        GltfAsset readGltfAsset = readWithoutReferences(uri);
+        resolveReferences(readGltfAsset, IO.getParent(uri));
+        return readGltfAsset;
+    }
+
+    /**
+     * Read the {@link GltfAsset} from the file with the given path. The
+     * file will be memory-mapped. The binary data of the asset will be a
+     * read-only slice of the mapped file. The external references of the
+     * asset will be resolved against the parent directory of the file.
+     *
+     * @param path The path
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfAsset read(Path path) throws IOException {
+        GltfAsset readGltfAsset = readWithoutReferences(path);
+        resolveReferences(readGltfAsset, IO.getParent(path.toUri()));
+        return readGltfAsset;
+    }
+
+    /**
+     * Resolve the external references of the given asset against the
+     * given base URI, in parallel if a
+     * {@link #setReferenceResolvingExecutor(Executor) reference resolving
+     * executor} was set, or only install a resolver for resolving them
+     * when they are accessed, if
+     * {@link #setLazyReferenceResolving(boolean) lazy reference resolving}
+     * is enabled.
+     *
+     * @param gltfAsset The {@link GltfAsset}
+     * @param baseUri   The base URI
+     */
+    private void resolveReferences(GltfAsset gltfAsset, URI baseUri) {
+        if (lazyReferenceResolving && gltfAsset instanceof GltfAssetV2) {
+            GltfAssetV2 gltfAssetV2 = (GltfAssetV2) gltfAsset;
+            gltfAssetV2.setReferenceResolver(
+                    UriResolvers.createBaseUriResolver(baseUri));
+            return;
+        }
+        resolveReferences(getReferencesToResolve(gltfAsset), baseUri);
+    }
+
+    /**
+     * Returns the {@link GltfReference} objects of the given asset that
+     * have to be resolved when the references are not resolved lazily.
+     * If the {@link #setLoadOptions(GltfLoadOptions) load options} specify
+     * that image data should be skipped, then these are only the buffer
+     * references of glTF 2.0 assets.
+     *
+     * @param gltfAsset The {@link GltfAsset}
+     * @return The {@link GltfReference} objects
+     */
+    List<GltfReference> getReferencesToResolve(GltfAsset gltfAsset) {
+        GltfLoadOptions currentLoadOptions = loadOptions;
+        if (currentLoadOptions != null && currentLoadOptions.isSkipImageData()
+                && gltfAsset instanceof GltfAssetV2) {
+            GltfAssetV2 gltfAssetV2 = (GltfAssetV2) gltfAsset;
+            return gltfAssetV2.getBufferReferences();
+        }
+        return gltfAsset.getReferences();
+    }
+
+    /**
+     * Resolve the given references against the given base URI, in
+     * parallel if a {@link #setReferenceResolvingExecutor(Executor)
+     * reference resolving executor} was set
+     *
+     * @param references The {@link GltfReference} objects
+     * @param baseUri    The base URI
+     */
+    void resolveReferences(List<GltfReference> references, URI baseUri) {
+        Executor executor = referenceResolvingExecutor;
+        if (executor == null) {
+            GltfReferenceResolver.resolveAll(references, baseUri);
+        } else {
+            GltfReferenceResolver.resolveAll(references, baseUri, executor);
         }
     }
 
@@ -95,10 +250,41 @@ public final class GltfAssetReader {
      * @throws IOException If an IO error occurs
      */
     public GltfAsset readWithoutReferences(URI uri) throws IOException {
-        try (InputStream inputStream = uri.toURL().openStream()) {
-            readWithoutReferences(inputStream);
-            return gltfAsset;
-        }
+        return readWithoutReferences(IO.readToBuffer(uri));
+    }
+
+    /**
+     * Read the {@link GltfAsset} from the file with the given path. The
+     * file will be memory-mapped. The binary data of the asset will be a
+     * read-only slice of the mapped file.<br>
+     * <br>
+     * In contrast to the {@link #read(Path)} method, this method will
+     * not resolve any external references.
+     *
+     * @param path The path
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfAsset readWithoutReferences(Path path) throws IOException {
+        return readWithoutReferences(IO.map(path));
+    }
+
+    /**
+     * Read the {@link GltfAsset} from the given file channel, starting at
+     * its current position. The contents of the channel will be
+     * memory-mapped. The binary data of the asset will be a read-only
+     * slice of the mapped data. The caller is responsible for closing
+     * the given channel.<br>
+     * <br>
+     * This method will not resolve any external references.
+     *
+     * @param fileChannel The file channel
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfAsset readWithoutReferences(FileChannel fileChannel)
+            throws IOException {
+        return readWithoutReferences(IO.map(fileChannel));
     }
 
     /**
@@ -121,27 +307,52 @@ public final class GltfAssetReader {
     public GltfAsset readWithoutReferences(InputStream inputStream)
             throws IOException {
         RawGltfData rawGltfData = RawGltfDataReader.read(inputStream);
+        return readWithoutReferences(rawGltfData);
+    }
+
+    /**
+     * Read the glTF asset from the given buffer, which contains the data
+     * of a glTF- or binary glTF file. The JSON- and binary data will not
+     * be copied: The binary data of the resulting asset will be a slice
+     * of the given buffer.
+     *
+     * @param data The data
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurred
+     */
+    private GltfAsset readWithoutReferences(ByteBuffer data)
+            throws IOException {
+        RawGltfData rawGltfData = RawGltfDataReader.read(data);
+        return readWithoutReferences(rawGltfData);
+    }
+
+    /**
+     * Read the glTF asset from the given {@link RawGltfData}
+     *
+     * @param rawGltfData The {@link RawGltfData}
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurred
+     */
+    private GltfAsset readWithoutReferences(RawGltfData rawGltfData)
+            throws IOException {
         ByteBuffer jsonData = rawGltfData.getJsonData();
-        try (InputStream jsonInputStream =
-                     Buffers.createByteBufferInputStream(jsonData)) {
-            gltfReader.read(jsonInputStream);
-            int majorVersion = gltfReader.getMajorVersion();
-            if (majorVersion == 1) {
-                de.javagl.jgltf.impl.v1.GlTF gltfV1 =
-                        gltfReader.getAsGltfV1();
-                gltfAsset = new GltfAssetV1(gltfV1,
-                        rawGltfData.getBinaryData());
-            } else if (majorVersion == 2) {
-                de.javagl.jgltf.impl.v2.GlTF gltfV2 =
-                        gltfReader.getAsGltfV2();
-                gltfAsset = new GltfAssetV2(gltfV2,
-                        rawGltfData.getBinaryData());
-            } else {
-                throw new IOException(
-                        "Unsupported major version: " + majorVersion);
-            }
+        Object gltf = gltfReader.read(jsonData, jsonErrorConsumer);
+        GltfAsset readGltfAsset;
+        if (gltf instanceof de.javagl.jgltf.impl.v1.GlTF) {
+            de.javagl.jgltf.impl.v1.GlTF gltfV1 =
+                    (de.javagl.jgltf.impl.v1.GlTF) gltf;
+            readGltfAsset = new GltfAssetV1(gltfV1,
+                    rawGltfData.getBinaryData());
+        } else if (gltf instanceof de.javagl.jgltf.impl.v2.GlTF) {
+            de.javagl.jgltf.impl.v2.GlTF gltfV2 =
+                    (de.javagl.jgltf.impl.v2.GlTF) gltf;
+            readGltfAsset = new GltfAssetV2(gltfV2,
+                    rawGltfData.getBinaryData());
+        } else {
+            throw new IOException("Unsupported glTF: " + gltf);
         }
-        return gltfAsset;
+        gltfAsset = readGltfAsset;
+        return readGltfAsset;
     }
 
 
@@ -151,7 +362,14 @@ public final class GltfAssetReader {
      * @return The major version number
      */
     int getMajorVersion() {
-        return gltfReader.getMajorVersion();
+        GltfAsset currentGltfAsset = gltfAsset;
+        if (currentGltfAsset instanceof GltfAssetV1) {
+            return 1;
+        }
+        if (currentGltfAsset instanceof GltfAssetV2) {
+            return 2;
+        }
+        return 0;
     }
 
     /**
@@ -163,8 +381,9 @@ public final class GltfAssetReader {
      * @return The {@link GltfAssetV1}
      */
     GltfAssetV1 getAsGltfAssetV1() {
-        if (gltfAsset instanceof GltfAssetV1) {
-            return (GltfAssetV1) gltfAsset;
+        GltfAsset currentGltfAsset = gltfAsset;
+        if (currentGltfAsset instanceof GltfAssetV1) {
+            return (GltfAssetV1) currentGltfAsset;
         }
         return null;
     }
@@ -178,8 +397,9 @@ public final class GltfAssetReader {
      * @return The {@link GltfAssetV2}
      */
     GltfAssetV2 getAsGltfAssetV2() {
-        if (gltfAsset instanceof GltfAssetV2) {
-            return (GltfAssetV2) gltfAsset;
+        GltfAsset currentGltfAsset = gltfAsset;
+        if (currentGltfAsset instanceof GltfAssetV2) {
+            return (GltfAssetV2) currentGltfAsset;
         }
         return null;
     }
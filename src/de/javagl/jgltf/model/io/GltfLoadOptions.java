@@ -0,0 +1,202 @@
+package de.javagl.jgltf.model.io;
+
+/**
+ * Options for loading a {@link de.javagl.jgltf.model.GltfModel}, which
+ * allow skipping parts of the model that are not needed by the
+ * application. The parts that are skipped are not initialized, and the
+ * data that is only used by these parts is not read. The models for
+ * skipped accessors, meshes, nodes, scenes and skins remain in the lists
+ * of the model, so that their indices still match the indices in the
+ * glTF, but they do not refer to any other models or data.<br>
+ * <br>
+ * By default, all parts of the model are loaded.<br>
+ * <br>
+ * These options are currently only taken into account for glTF 2.0.
+ */
+public final class GltfLoadOptions {
+    /**
+     * Whether the data of images that are stored in external files or
+     * data URIs should be skipped
+     */
+    private boolean skipImageData;
+
+    /**
+     * Whether animations should be skipped
+     */
+    private boolean skipAnimations;
+
+    /**
+     * Whether skins should be skipped
+     */
+    private boolean skipSkins;
+
+    /**
+     * Whether morph targets should be skipped
+     */
+    private boolean skipMorphTargets;
+
+    /**
+     * Whether materials should be skipped
+     */
+    private boolean skipMaterials;
+
+    /**
+     * Whether all scenes except for the default scene should be skipped
+     */
+    private boolean skipNonDefaultScenes;
+
+    /**
+     * Creates a new instance with default options, which cause all
+     * parts of the model to be loaded
+     */
+    public GltfLoadOptions() {
+        // Default constructor
+    }
+
+    /**
+     * Creates a new instance that is a copy of the given one
+     *
+     * @param other The other instance
+     */
+    public GltfLoadOptions(GltfLoadOptions other) {
+        this.skipImageData = other.skipImageData;
+        this.skipAnimations = other.skipAnimations;
+        this.skipSkins = other.skipSkins;
+        this.skipMorphTargets = other.skipMorphTargets;
+        this.skipMaterials = other.skipMaterials;
+        this.skipNonDefaultScenes = other.skipNonDefaultScenes;
+    }
+
+    /**
+     * Set whether the data of images that are stored in external files
+     * or data URIs should be skipped. If this is <code>true</code>, then
+     * these files will not be read, and the
+     * {@link de.javagl.jgltf.model.ImageModel#getImageData() image data}
+     * of the corresponding image models will be <code>null</code>.
+     *
+     * @param skipImageData Whether image data should be skipped
+     */
+    public void setSkipImageData(boolean skipImageData) {
+        this.skipImageData = skipImageData;
+    }
+
+    /**
+     * Returns whether the data of images should be skipped
+     *
+     * @return Whether image data should be skipped
+     * @see #setSkipImageData(boolean)
+     */
+    public boolean isSkipImageData() {
+        return skipImageData;
+    }
+
+    /**
+     * Set whether animations should be skipped. If this is
+     * <code>true</code>, then the model will not contain any animations,
+     * and the accessors that are only used by animations will not be
+     * initialized.
+     *
+     * @param skipAnimations Whether animations should be skipped
+     */
+    public void setSkipAnimations(boolean skipAnimations) {
+        this.skipAnimations = skipAnimations;
+    }
+
+    /**
+     * Returns whether animations should be skipped
+     *
+     * @return Whether animations should be skipped
+     * @see #setSkipAnimations(boolean)
+     */
+    public boolean isSkipAnimations() {
+        return skipAnimations;
+    }
+
+    /**
+     * Set whether skins should be skipped. If this is <code>true</code>,
+     * then the nodes of the model will not have skins, and the accessors
+     * that are only used by skins will not be initialized.
+     *
+     * @param skipSkins Whether skins should be skipped
+     */
+    public void setSkipSkins(boolean skipSkins) {
+        this.skipSkins = skipSkins;
+    }
+
+    /**
+     * Returns whether skins should be skipped
+     *
+     * @return Whether skins should be skipped
+     * @see #setSkipSkins(boolean)
+     */
+    public boolean isSkipSkins() {
+        return skipSkins;
+    }
+
+    /**
+     * Set whether morph targets should be skipped. If this is
+     * <code>true</code>, then the mesh primitives of the model will not
+     * have morph targets, and the accessors that are only used by morph
+     * targets will not be initialized.
+     *
+     * @param skipMorphTargets Whether morph targets should be skipped
+     */
+    public void setSkipMorphTargets(boolean skipMorphTargets) {
+        this.skipMorphTargets = skipMorphTargets;
+    }
+
+    /**
+     * Returns whether morph targets should be skipped
+     *
+     * @return Whether morph targets should be skipped
+     * @see #setSkipMorphTargets(boolean)
+     */
+    public boolean isSkipMorphTargets() {
+        return skipMorphTargets;
+    }
+
+    /**
+     * Set whether materials should be skipped. If this is
+     * <code>true</code>, then the mesh primitives of the model will not
+     * have material models, and the model will not contain any materials.
+     *
+     * @param skipMaterials Whether materials should be skipped
+     */
+    public void setSkipMaterials(boolean skipMaterials) {
+        this.skipMaterials = skipMaterials;
+    }
+
+    /**
+     * Returns whether materials should be skipped
+     *
+     * @return Whether materials should be skipped
+     * @see #setSkipMaterials(boolean)
+     */
+    public boolean isSkipMaterials() {
+        return skipMaterials;
+    }
+
+    /**
+     * Set whether all scenes except for the default scene should be
+     * skipped. If this is <code>true</code>, then only the default scene
+     * (or the first scene, if no default scene is defined) will be
+     * initialized, together with the nodes, meshes, skins and accessors
+     * that are used by this scene.
+     *
+     * @param skipNonDefaultScenes Whether non-default scenes are skipped
+     */
+    public void setSkipNonDefaultScenes(boolean skipNonDefaultScenes) {
+        this.skipNonDefaultScenes = skipNonDefaultScenes;
+    }
+
+    /**
+     * Returns whether all scenes except for the default scene should be
+     * skipped
+     *
+     * @return Whether non-default scenes should be skipped
+     * @see #setSkipNonDefaultScenes(boolean)
+     */
+    public boolean isSkipNonDefaultScenes() {
+        return skipNonDefaultScenes;
+    }
+}
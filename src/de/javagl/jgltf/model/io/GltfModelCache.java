@@ -0,0 +1,416 @@
+package de.javagl.jgltf.model.io;
+
+import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.ImageModel;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache for {@link GltfModel} instances that have been read from URIs.<br>
+ * <br>
+ * The models are stored under their normalized URI. For files, the
+ * modification time and size of the file are stored as well, and a model
+ * is read again when the file was modified.<br>
+ * <br>
+ * The cache is bounded by a maximum byte size. The byte size of a model
+ * is computed from the byte lengths of its buffers and the sizes of the
+ * images that do not refer to a buffer view. When the total byte size
+ * exceeds the maximum, the least recently used models are evicted.
+ * Computing the byte size does not load any data: The byte lengths of
+ * the buffers are the ones that are declared in the glTF. For models that
+ * are read with
+ * {@link GltfModelReader#setLazyReferenceResolving(boolean) lazy reference
+ * resolving}, the images that do not refer to a buffer view are not
+ * counted, because their size is not known before their data is
+ * loaded.<br>
+ * <br>
+ * Instances of this class are thread-safe, and are intended to be shared
+ * by all threads of a process. When multiple threads request the same
+ * model at the same time, it is only read once, and all threads receive
+ * the same instance. This implies that the models that are returned by
+ * this cache should not be modified.
+ */
+public final class GltfModelCache {
+    /**
+     * The {@link GltfModelReader} that is used for reading models
+     */
+    private final GltfModelReader gltfModelReader;
+
+    /**
+     * The entries, in access order
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * The maximum total byte size of the cached models
+     */
+    private long maximumByteSize;
+
+    /**
+     * The current total byte size of the cached models
+     */
+    private long totalByteSize;
+
+    /**
+     * The number of requests that have been answered from the cache
+     */
+    private final AtomicLong hitCount;
+
+    /**
+     * The number of requests that caused a model to be read
+     */
+    private final AtomicLong missCount;
+
+    /**
+     * The number of models that have been evicted
+     */
+    private final AtomicLong evictionCount;
+
+    /**
+     * An entry of the cache
+     */
+    private static class Entry {
+        /**
+         * The stamp of the file that the model was read from, or
+         * <code>null</code> if the model was not read from a file
+         */
+        private final String stamp;
+
+        /**
+         * The future that is completed with the model
+         */
+        private final CompletableFuture<GltfModel> future;
+
+        /**
+         * The byte size of the model, or -1 if it is not loaded yet
+         */
+        private long byteSize;
+
+        /**
+         * Creates a new instance
+         *
+         * @param stamp The stamp
+         */
+        Entry(String stamp) {
+            this.stamp = stamp;
+            this.future = new CompletableFuture<>();
+            this.byteSize = -1;
+        }
+    }
+
+    /**
+     * Creates a new instance that uses a default {@link GltfModelReader}
+     *
+     * @param maximumByteSize The maximum total byte size of the models
+     * @throws IllegalArgumentException If the given size is negative
+     */
+    public GltfModelCache(long maximumByteSize) {
+        this(new GltfModelReader(), maximumByteSize);
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param gltfModelReader The {@link GltfModelReader} for reading models
+     * @param maximumByteSize The maximum total byte size of the models
+     * @throws IllegalArgumentException If the given size is negative
+     */
+    public GltfModelCache(
+            GltfModelReader gltfModelReader, long maximumByteSize) {
+        this.gltfModelReader = Objects.requireNonNull(gltfModelReader,
+                "The gltfModelReader may not be null");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.evictionCount = new AtomicLong();
+        setMaximumByteSize(maximumByteSize);
+    }
+
+    /**
+     * Set the maximum total byte size of the models in this cache. If the
+     * current total byte size is larger than the given size, then models
+     * will be evicted.
+     *
+     * @param maximumByteSize The maximum byte size
+     * @throws IllegalArgumentException If the given size is negative
+     */
+    public synchronized void setMaximumByteSize(long maximumByteSize) {
+        if (maximumByteSize < 0) {
+            throw new IllegalArgumentException(
+                    "The maximum byte size may not be negative, but is "
+                            + maximumByteSize);
+        }
+        this.maximumByteSize = maximumByteSize;
+        evict();
+    }
+
+    /**
+     * Returns the {@link GltfModel} for the given file, reading it if it
+     * is not contained in this cache, or the file was modified since
+     * it was read.
+     *
+     * @param path The path
+     * @return The {@link GltfModel}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfModel get(Path path) throws IOException {
+        return get(path.toUri());
+    }
+
+    /**
+     * Returns the {@link GltfModel} for the given URI, reading it if it
+     * is not contained in this cache, or the file that it refers to was
+     * modified since it was read.
+     *
+     * @param uri The URI
+     * @return The {@link GltfModel}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfModel get(URI uri) throws IOException {
+        Path path = toPath(uri);
+        String key = createKey(uri);
+        String stamp = null;
+        if (path != null) {
+            BasicFileAttributes attributes =
+                    Files.readAttributes(path, BasicFileAttributes.class);
+            stamp = attributes.lastModifiedTime().toMillis()
+                    + ":" + attributes.size();
+        }
+
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && !Objects.equals(entry.stamp, stamp)) {
+                remove(key, entry);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(stamp);
+                entries.put(key, entry);
+                load = true;
+            }
+        }
+        if (!load) {
+            hitCount.incrementAndGet();
+            return join(entry.future);
+        }
+        missCount.incrementAndGet();
+        GltfModel gltfModel;
+        long byteSize;
+        boolean lazy = gltfModelReader.isLazyReferenceResolving();
+        try {
+            if (path != null) {
+                gltfModel = gltfModelReader.read(path);
+            } else {
+                gltfModel = gltfModelReader.read(uri);
+            }
+            byteSize = computeByteSize(gltfModel, !lazy);
+        } catch (IOException | RuntimeException | Error e) {
+            synchronized (this) {
+                remove(key, entry);
+            }
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            if (entries.get(key) == entry) {
+                entry.byteSize = byteSize;
+                totalByteSize += byteSize;
+                evict();
+            }
+        }
+        entry.future.complete(gltfModel);
+        return gltfModel;
+    }
+
+    /**
+     * Remove the model for the given URI from this cache, if it is present
+     *
+     * @param uri The URI
+     */
+    public synchronized void invalidate(URI uri) {
+        String key = createKey(uri);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    /**
+     * Remove all models from this cache
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalByteSize = 0;
+    }
+
+    /**
+     * Returns the current total byte size of the models in this cache
+     *
+     * @return The total byte size
+     */
+    public synchronized long getTotalByteSize() {
+        return totalByteSize;
+    }
+
+    /**
+     * Returns the number of requests that have been answered with a
+     * model that was already contained in this cache, or that was being
+     * read by another thread
+     *
+     * @return The hit count
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests that caused a model to be read
+     *
+     * @return The miss count
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of models that have been evicted because the
+     * maximum byte size was exceeded
+     *
+     * @return The eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Returns the normalized, absolute path of the file that the given
+     * URI refers to, or <code>null</code> if it does not refer to a file
+     *
+     * @param uri The URI
+     * @return The path
+     */
+    private static Path toPath(URI uri) {
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            return Paths.get(uri).toAbsolutePath().normalize();
+        }
+        return null;
+    }
+
+    /**
+     * Creates the key under which the model for the given URI is stored
+     *
+     * @param uri The URI
+     * @return The key
+     */
+    private static String createKey(URI uri) {
+        Path path = toPath(uri);
+        if (path != null) {
+            return path.toUri().toString();
+        }
+        return uri.normalize().toString();
+    }
+
+    /**
+     * Remove the given entry that is stored under the given key. This
+     * must be called while holding the monitor of this instance.
+     *
+     * @param key   The key
+     * @param entry The entry
+     */
+    private void remove(String key, Entry entry) {
+        if (entries.remove(key, entry) && entry.byteSize > 0) {
+            totalByteSize -= entry.byteSize;
+        }
+    }
+
+    /**
+     * Evict the least recently used entries that have been loaded, until
+     * the total byte size is not larger than the maximum byte size. This
+     * must be called while holding the monitor of this instance.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator =
+                entries.entrySet().iterator();
+        while (totalByteSize > maximumByteSize && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.byteSize < 0) {
+                // Still being loaded
+                continue;
+            }
+            iterator.remove();
+            totalByteSize -= entry.byteSize;
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wait for the given future to complete, and return its result
+     *
+     * @param future The future
+     * @return The {@link GltfModel}
+     * @throws IOException If the future was completed with an IO error
+     */
+    private static GltfModel join(CompletableFuture<GltfModel> future)
+            throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Computes the byte size of the given model, as the sum of the byte
+     * lengths of its buffers and, if requested, the sizes of the images
+     * that do not refer to a buffer view. The buffer data is not accessed.
+     *
+     * @param gltfModel     The {@link GltfModel}
+     * @param includeImages Whether the image data should be counted. This
+     *                      should only be <code>true</code> if the image
+     *                      data is already loaded.
+     * @return The byte size
+     */
+    private static long computeByteSize(
+            GltfModel gltfModel, boolean includeImages) {
+        long byteSize = 0;
+        for (BufferModel bufferModel : gltfModel.getBufferModels()) {
+            byteSize += bufferModel.getByteLength();
+        }
+        if (!includeImages) {
+            return byteSize;
+        }
+        for (ImageModel imageModel : gltfModel.getImageModels()) {
+            if (imageModel.getBufferViewModel() != null) {
+                continue;
+            }
+            ByteBuffer imageData = imageModel.getImageData();
+            if (imageData != null) {
+                byteSize += imageData.capacity();
+            }
+        }
+        return byteSize;
+    }
+}
@@ -1,6 +1,7 @@
 package de.javagl.jgltf.model.io;
 
 import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.io.v1.GltfAssetV1;
 import de.javagl.jgltf.model.io.v2.GltfAssetV2;
 import de.javagl.jgltf.model.v1.GltfModelV1;
@@ -8,24 +9,77 @@ import de.javagl.jgltf.model.v2.GltfModelV2;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
- * A class for reading a {@link GltfModel} from a URI.
+ * A class for reading a {@link GltfModel} from a URI.<br>
+ * <br>
+ * Instances of this class are thread-safe, and may be shared between
+ * multiple threads that read models concurrently. The JSON deserializers
+ * are shared between all instances, and only created once.<br>
+ * <br>
+ * The {@link #readAsync(URI)} and {@link #readAll(Collection)} methods
+ * allow reading models asynchronously, on an
+ * {@link #setAsyncExecutor(Executor) executor}, where the number of bytes
+ * that are read at the same time is
+ * {@link #setMaximumInFlightByteSize(long) limited}.
  */
 public final class GltfModelReader {
     /**
      * The consumer for {@link JsonError} instances
      */
-    private Consumer<? super JsonError> jsonErrorConsumer =
+    private volatile Consumer<? super JsonError> jsonErrorConsumer =
             JsonErrorConsumers.createLogging();
 
+    /**
+     * The optional executor for resolving external references in parallel
+     */
+    private volatile Executor referenceResolvingExecutor;
+
+    /**
+     * Whether external references should be resolved lazily
+     */
+    private volatile boolean lazyReferenceResolving;
+
+    /**
+     * The optional {@link GltfLoadOptions}
+     */
+    private volatile GltfLoadOptions loadOptions;
+
+    /**
+     * The optional executor for reading models asynchronously
+     */
+    private volatile Executor asyncExecutor;
+
+    /**
+     * The limit for the number of bytes that are read asynchronously
+     * at the same time
+     */
+    private final ByteBudget inFlightByteBudget;
+
     /**
      * Default constructor
      */
     public GltfModelReader() {
-        // Default constructor
+        this.inFlightByteBudget = new ByteBudget(Long.MAX_VALUE);
     }
 
     /**
@@ -39,6 +93,372 @@ public final class GltfModelReader {
         this.jsonErrorConsumer = jsonErrorConsumer;
     }
 
+    /**
+     * Set the executor that will be used for resolving the external
+     * references (buffers and images) of models in parallel, in the
+     * {@link #read(URI)} and {@link #read(Path)} methods. If this is
+     * <code>null</code>, then the references will be resolved
+     * sequentially, in the calling thread. To use a default executor,
+     * {@link GltfReferenceResolver#getDefaultExecutor()} may be passed
+     * to this method.
+     *
+     * @param referenceResolvingExecutor The executor
+     */
+    public void setReferenceResolvingExecutor(
+            Executor referenceResolvingExecutor) {
+        this.referenceResolvingExecutor = referenceResolvingExecutor;
+    }
+
+    /**
+     * Set whether the external references (buffers and images) of glTF
+     * 2.0 models should be resolved lazily, in the {@link #read(URI)} and
+     * {@link #read(Path)} methods.<br>
+     * <br>
+     * If this is <code>true</code>, then the data of a buffer or image
+     * will be loaded when its
+     * {@link de.javagl.jgltf.model.BufferModel#getBufferData() buffer data}
+     * or {@link de.javagl.jgltf.model.ImageModel#getImageData() image data}
+     * is accessed for the first time. This is done once, in a thread-safe
+     * way. Data that is never accessed will never be loaded.
+     *
+     * @param lazyReferenceResolving Whether references are resolved lazily
+     */
+    public void setLazyReferenceResolving(boolean lazyReferenceResolving) {
+        this.lazyReferenceResolving = lazyReferenceResolving;
+    }
+
+    /**
+     * Returns whether the external references of glTF 2.0 models are
+     * resolved lazily
+     *
+     * @return Whether references are resolved lazily
+     * @see #setLazyReferenceResolving(boolean)
+     */
+    boolean isLazyReferenceResolving() {
+        return lazyReferenceResolving;
+    }
+
+    /**
+     * Set the {@link GltfLoadOptions} that determine which parts of the
+     * models should be skipped. The skipped parts will not be created,
+     * and the data that is only used by these parts will not be read.
+     *
+     * @param loadOptions The {@link GltfLoadOptions}. A copy of the given
+     *                    object will be stored. If this is <code>null</code>,
+     *                    then all parts of the models will be loaded.
+     */
+    public void setLoadOptions(GltfLoadOptions loadOptions) {
+        this.loadOptions = loadOptions == null ?
+                null : new GltfLoadOptions(loadOptions);
+    }
+
+    /**
+     * Set the executor that will be used for reading models in the
+     * {@link #readAsync(URI)} and {@link #readAll(Collection)} methods.
+     * If this is <code>null</code>, then a default executor with a
+     * number of daemon threads that is derived from the number of
+     * available processors will be used.<br>
+     * <br>
+     * Note that this should not be the same executor as the
+     * {@link #setReferenceResolvingExecutor(Executor) reference resolving
+     * executor} when it has a bounded number of threads, because the
+     * reading tasks wait for the reference resolving tasks.
+     *
+     * @param asyncExecutor The executor
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Set the maximum number of bytes that may be read at the same time
+     * by the {@link #readAsync(URI)} and {@link #readAll(Collection)}
+     * methods. The number of bytes of one read operation is estimated
+     * from the size of the file or the content length of the URI, plus
+     * the declared byte length of external buffers and the size of
+     * other external files, like textures. If the references are
+     * {@link #setLazyReferenceResolving(boolean) resolved lazily}, then
+     * the size of each reference is charged while it is resolved. When
+     * reading a model would exceed the maximum, then it is only read
+     * after other read operations have finished. By default, the number
+     * of bytes is not limited.
+     *
+     * @param maximumInFlightByteSize The maximum number of bytes
+     * @throws IllegalArgumentException If the given size is not positive
+     */
+    public void setMaximumInFlightByteSize(long maximumInFlightByteSize) {
+        if (maximumInFlightByteSize <= 0) {
+            throw new IllegalArgumentException(
+                    "The maximum in-flight byte size must be positive, "
+                            + "but is " + maximumInFlightByteSize);
+        }
+        inFlightByteBudget.setMaximumByteSize(maximumInFlightByteSize);
+    }
+
+    /**
+     * Read the {@link GltfModel} from the given URI asynchronously. The
+     * asset will be read, its references resolved, and the model created
+     * on the {@link #setAsyncExecutor(Executor) async executor}.<br>
+     * <br>
+     * If the returned future is cancelled, then the thread that reads the
+     * model will be interrupted, which causes the reading process to be
+     * aborted.
+     *
+     * @param uri The URI
+     * @return The future that will be completed with the {@link GltfModel}
+     */
+    public CompletableFuture<GltfModel> readAsync(URI uri) {
+        CompletableFuture<GltfModel> future = new CompletableFuture<>();
+        Thread[] readingThread = new Thread[1];
+        boolean[] interruptedByCancellation = new boolean[1];
+        future.whenComplete((m, t) -> {
+            if (future.isCancelled()) {
+                synchronized (readingThread) {
+                    if (readingThread[0] != null
+                            && !readingThread[0].isInterrupted()) {
+                        readingThread[0].interrupt();
+                        interruptedByCancellation[0] = true;
+                    }
+                }
+            }
+        });
+        Executor executor = asyncExecutor;
+        if (executor == null) {
+            executor = AsyncExecutorHolder.EXECUTOR;
+        }
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            synchronized (readingThread) {
+                readingThread[0] = Thread.currentThread();
+            }
+            try {
+                future.complete(readBudgeted(uri));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                synchronized (readingThread) {
+                    readingThread[0] = null;
+                    // Clear the interruption from a cancellation, but not
+                    // one that was caused by the owner of the executor
+                    if (interruptedByCancellation[0]) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Read the {@link GltfModel} instances from the given URIs
+     * asynchronously, as described in {@link #readAsync(URI)}.<br>
+     * <br>
+     * The returned future will be completed with the list of models, in
+     * the order of the given URIs, or exceptionally when one of the models
+     * could not be read. If the returned future is cancelled, then all
+     * pending read operations will be cancelled.
+     *
+     * @param uris The URIs
+     * @return The future that will be completed with the {@link GltfModel}
+     * instances
+     */
+    public CompletableFuture<List<GltfModel>> readAll(
+            Collection<? extends URI> uris) {
+        List<CompletableFuture<GltfModel>> futures = new ArrayList<>();
+        for (URI uri : uris) {
+            futures.add(readAsync(uri));
+        }
+        CompletableFuture<List<GltfModel>> result = CompletableFuture
+                .allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    List<GltfModel> gltfModels = new ArrayList<>();
+                    for (CompletableFuture<GltfModel> future : futures) {
+                        gltfModels.add(future.join());
+                    }
+                    return gltfModels;
+                });
+        result.whenComplete((m, t) -> {
+            if (t != null) {
+                for (CompletableFuture<GltfModel> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Read the {@link GltfModel} from the given URI, charging the number
+     * of bytes that are read to the in-flight byte budget.<br>
+     * <br>
+     * The model is read in three stages:
+     * <ul>
+     *   <li>
+     *     Parsing the asset, charging the size of the file or the content
+     *     length of the URI
+     *   </li>
+     *   <li>
+     *     Resolving the external references, additionally charging their
+     *     estimated size. To avoid deadlocks between readers that wait for
+     *     more bytes while holding others, the bytes of the first stage are
+     *     released, and the total number of bytes is acquired at once.
+     *   </li>
+     *   <li>
+     *     Creating the model, after which all bytes are released
+     *   </li>
+     * </ul>
+     * If the references are resolved lazily, then the data of each
+     * reference is charged while it is being resolved.
+     *
+     * @param uri The URI
+     * @return The {@link GltfModel}
+     * @throws IOException If an IO error occurs
+     */
+    private GltfModel readBudgeted(URI uri) throws IOException {
+        GltfAssetReader gltfAssetReader = createGltfAssetReader();
+        Path path = null;
+        long byteSize;
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            path = Paths.get(uri);
+            byteSize = Files.size(path);
+        } else {
+            byteSize = Math.max(0, IO.getContentLength(uri));
+        }
+        URI baseUri = IO.getParent(uri);
+        long acquiredByteSize = 0;
+        try {
+            // Parse the asset
+            inFlightByteBudget.acquire(byteSize);
+            acquiredByteSize = byteSize;
+            GltfAsset gltfAsset;
+            if (path != null) {
+                gltfAsset = gltfAssetReader.readWithoutReferences(path);
+            } else {
+                gltfAsset = gltfAssetReader.readWithoutReferences(uri);
+            }
+
+            // Resolve the references
+            Map<String, Long> declaredByteLengths =
+                    computeDeclaredByteLengths(gltfAsset);
+            if (lazyReferenceResolving && gltfAsset instanceof GltfAssetV2) {
+                GltfAssetV2 gltfAssetV2 = (GltfAssetV2) gltfAsset;
+                gltfAssetV2.setReferenceResolver(createBudgetedResolver(
+                        baseUri, declaredByteLengths));
+            } else {
+                List<GltfReference> references =
+                        gltfAssetReader.getReferencesToResolve(gltfAsset);
+                long referencesByteSize = 0;
+                for (GltfReference reference : references) {
+                    referencesByteSize += estimateByteSize(
+                            baseUri, reference.getUri(), declaredByteLengths);
+                }
+                if (referencesByteSize > 0) {
+                    inFlightByteBudget.release(acquiredByteSize);
+                    acquiredByteSize = 0;
+                    inFlightByteBudget.acquire(byteSize + referencesByteSize);
+                    acquiredByteSize = byteSize + referencesByteSize;
+                }
+                gltfAssetReader.resolveReferences(references, baseUri);
+            }
+
+            // Create the model
+            return createModel(gltfAsset);
+        } finally {
+            inFlightByteBudget.release(acquiredByteSize);
+        }
+    }
+
+    /**
+     * Create a function that resolves URI strings against the given base
+     * URI, charging the estimated size of the data to the in-flight byte
+     * budget while it is being read
+     *
+     * @param baseUri             The base URI
+     * @param declaredByteLengths The declared byte lengths of the buffers
+     * @return The resolver
+     */
+    private Function<String, ByteBuffer> createBudgetedResolver(
+            URI baseUri, Map<String, Long> declaredByteLengths) {
+        Function<String, ByteBuffer> delegate =
+                UriResolvers.createBaseUriResolver(baseUri);
+        return uriString -> {
+            long byteSize =
+                    estimateByteSize(baseUri, uriString, declaredByteLengths);
+            try {
+                inFlightByteBudget.acquire(byteSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                return delegate.apply(uriString);
+            } finally {
+                inFlightByteBudget.release(byteSize);
+            }
+        };
+    }
+
+    /**
+     * Computes a mapping from the URIs of the buffers of the given asset
+     * to their declared byte lengths
+     *
+     * @param gltfAsset The {@link GltfAsset}
+     * @return The mapping
+     */
+    private static Map<String, Long> computeDeclaredByteLengths(
+            GltfAsset gltfAsset) {
+        Map<String, Long> declaredByteLengths = new HashMap<>();
+        if (gltfAsset instanceof GltfAssetV1) {
+            GltfAssetV1 gltfAssetV1 = (GltfAssetV1) gltfAsset;
+            for (de.javagl.jgltf.impl.v1.Buffer buffer :
+                    Optionals.of(gltfAssetV1.getGltf().getBuffers()).values()) {
+                if (buffer.getUri() != null && buffer.getByteLength() != null) {
+                    declaredByteLengths.put(
+                            buffer.getUri(), (long) buffer.getByteLength());
+                }
+            }
+        } else if (gltfAsset instanceof GltfAssetV2) {
+            GltfAssetV2 gltfAssetV2 = (GltfAssetV2) gltfAsset;
+            for (de.javagl.jgltf.impl.v2.Buffer buffer :
+                    Optionals.of(gltfAssetV2.getGltf().getBuffers())) {
+                if (buffer.getUri() != null && buffer.getByteLength() != null) {
+                    declaredByteLengths.put(
+                            buffer.getUri(), (long) buffer.getByteLength());
+                }
+            }
+        }
+        return declaredByteLengths;
+    }
+
+    /**
+     * Estimate the number of bytes of the data with the given URI string.
+     * This is the declared byte length for buffers, or the size of the
+     * file or the content length of the URI otherwise. If the size can
+     * not be determined, then 0 is returned.
+     *
+     * @param baseUri             The base URI
+     * @param uriString           The URI string
+     * @param declaredByteLengths The declared byte lengths of the buffers
+     * @return The estimated number of bytes
+     */
+    private static long estimateByteSize(URI baseUri, String uriString,
+            Map<String, Long> declaredByteLengths) {
+        Long declaredByteLength = declaredByteLengths.get(uriString);
+        if (declaredByteLength != null) {
+            return declaredByteLength;
+        }
+        try {
+            URI absoluteUri = IO.makeAbsolute(baseUri, uriString);
+            if ("file".equalsIgnoreCase(absoluteUri.getScheme())) {
+                return Files.size(Paths.get(absoluteUri));
+            }
+            return Math.max(0, IO.getContentLength(absoluteUri));
+        } catch (IOException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
     /**
      * Read the {@link GltfModel} from the given URI
      *
@@ -47,12 +467,31 @@ public final class GltfModelReader {
      * @throws IOException If an IO error occurs
      */
     public GltfModel read(URI uri) throws IOException {
-        GltfAssetReader gltfAssetReader = new GltfAssetReader();
-        gltfAssetReader.setJsonErrorConsumer(jsonErrorConsumer);
+        GltfAssetReader gltfAssetReader = createGltfAssetReader();
         GltfAsset gltfAsset = gltfAssetReader.read(uri);
         return createModel(gltfAsset);
     }
 
+    /**
+     * Read the {@link GltfModel} from the file with the given path.<br>
+     * <br>
+     * The file will be memory-mapped. For binary glTF assets, the
+     * {@link de.javagl.jgltf.model.BufferModel#getBufferData() buffer data}
+     * of the binary buffer, and all buffer views referring to it, will be
+     * read-only views on the mapped file, and never be copied into the
+     * heap. External references will be resolved against the parent
+     * directory of the file.
+     *
+     * @param path The path
+     * @return The {@link GltfModel}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfModel read(Path path) throws IOException {
+        GltfAssetReader gltfAssetReader = createGltfAssetReader();
+        GltfAsset gltfAsset = gltfAssetReader.read(path);
+        return createModel(gltfAsset);
+    }
+
     /**
      * Read the {@link GltfModel} from the given URI. In contrast to the
      * {@link #read(URI)} method, this method will not resolve any
@@ -66,9 +505,29 @@ public final class GltfModelReader {
      * @throws IOException If an IO error occurs
      */
     public GltfModel readWithoutReferences(URI uri) throws IOException {
-        try (InputStream inputStream = uri.toURL().openStream()) {
-            return readWithoutReferences(inputStream);
-        }
+        GltfAssetReader gltfAssetReader = createGltfAssetReader();
+        GltfAsset gltfAsset = gltfAssetReader.readWithoutReferences(uri);
+        return createModel(gltfAsset);
+    }
+
+    /**
+     * Read the {@link GltfModel} from the given file channel, starting at
+     * its current position. The contents of the channel will be
+     * memory-mapped, as described in {@link #read(Path)}. The caller is
+     * responsible for closing the given channel. In contrast to the
+     * {@link #read(Path)} method, this method will not resolve any
+     * references that are contained in the {@link GltfModel}.
+     *
+     * @param fileChannel The file channel
+     * @return The {@link GltfModel}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfModel readWithoutReferences(FileChannel fileChannel)
+            throws IOException {
+        GltfAssetReader gltfAssetReader = createGltfAssetReader();
+        GltfAsset gltfAsset =
+                gltfAssetReader.readWithoutReferences(fileChannel);
+        return createModel(gltfAsset);
     }
 
     /**
@@ -85,13 +544,58 @@ public final class GltfModelReader {
      */
     public GltfModel readWithoutReferences(InputStream inputStream)
             throws IOException {
-        GltfAssetReader gltfAssetReader = new GltfAssetReader();
-        gltfAssetReader.setJsonErrorConsumer(jsonErrorConsumer);
+        GltfAssetReader gltfAssetReader = createGltfAssetReader();
         GltfAsset gltfAsset =
                 gltfAssetReader.readWithoutReferences(inputStream);
         return createModel(gltfAsset);
     }
 
+    /**
+     * Creates a {@link GltfAssetReader} with the configuration of this
+     * reader
+     *
+     * @return The {@link GltfAssetReader}
+     */
+    private GltfAssetReader createGltfAssetReader() {
+        GltfAssetReader gltfAssetReader = new GltfAssetReader();
+        gltfAssetReader.setJsonErrorConsumer(jsonErrorConsumer);
+        gltfAssetReader.setReferenceResolvingExecutor(
+                referenceResolvingExecutor);
+        gltfAssetReader.setLazyReferenceResolving(lazyReferenceResolving);
+        gltfAssetReader.setLoadOptions(loadOptions);
+        return gltfAssetReader;
+    }
+
+    /**
+     * Holder for the default executor for reading models asynchronously,
+     * so that it is only created when it is actually used
+     */
+    private static class AsyncExecutorHolder {
+        /**
+         * The default executor
+         */
+        private static final ExecutorService EXECUTOR =
+                createDefaultExecutor();
+
+        /**
+         * Creates the default executor, with a number of daemon threads
+         * that is derived from the number of available processors
+         *
+         * @return The executor
+         */
+        private static ExecutorService createDefaultExecutor() {
+            int numThreads =
+                    Math.max(2, Runtime.getRuntime().availableProcessors());
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(numThreads, runnable -> {
+                Thread thread = new Thread(runnable,
+                        "GltfModelReader-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
     /**
      * Creates a {@link GltfModel} instance from the given {@link GltfAsset}
      *
@@ -99,14 +603,14 @@ public final class GltfModelReader {
      * @return The {@link GltfModel}
      * @throws IOException If the given asset has an unknown version
      */
-    private static GltfModel createModel(GltfAsset gltfAsset) throws IOException {
+    private GltfModel createModel(GltfAsset gltfAsset) throws IOException {
         if (gltfAsset instanceof GltfAssetV1) {
             GltfAssetV1 gltfAssetV1 = (GltfAssetV1) gltfAsset;
             return new GltfModelV1(gltfAssetV1);
         }
         if (gltfAsset instanceof GltfAssetV2) {
             GltfAssetV2 gltfAssetV2 = (GltfAssetV2) gltfAsset;
-            return new GltfModelV2(gltfAssetV2);
+            return new GltfModelV2(gltfAssetV2, loadOptions);
         }
         throw new IOException(
                 "The glTF asset has an unknown version: " + gltfAsset);
@@ -10,14 +10,33 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * A class for writing a {@link GltfModel}. The model can be written as
  * a default glTF, consisting of a JSON file and the files that are
  * referred to via URIs, or as a binary file, or an embedded file where
- * all external references are replaced by data URIs.
+ * all external references are replaced by data URIs.<br>
+ * <br>
+ * Instances of this class are not thread-safe: The
+ * {@link #setDeduplicating(boolean) deduplication setting} and the
+ * {@link #getDeduplicatedByteSize() deduplicated byte size} of the last
+ * write operation are stored in the instance. Threads that write models
+ * concurrently should use their own instances.
  */
 public class GltfModelWriter {
+    /**
+     * Whether the data of buffers, buffer views and images is deduplicated
+     */
+    private boolean deduplicating;
+
+    /**
+     * The number of bytes that have been saved by deduplication in the
+     * last write operation
+     */
+    private long deduplicatedByteSize;
+
     /**
      * Default constructor
      */
@@ -25,6 +44,56 @@ public class GltfModelWriter {
         // Default constructor
     }
 
+    /**
+     * Set whether the data should be deduplicated when writing.<br>
+     * <br>
+     * When writing a binary glTF, the data of buffer views and images
+     * with identical contents will only be stored once in the binary
+     * buffer. When writing a default glTF, buffers and images with
+     * identical contents will refer to the same file. Embedded glTF
+     * assets are not deduplicated.<br>
+     * <br>
+     * This is currently only supported for glTF 2.0.
+     *
+     * @param deduplicating Whether data should be deduplicated
+     */
+    public void setDeduplicating(boolean deduplicating) {
+        this.deduplicating = deduplicating;
+    }
+
+    /**
+     * Returns whether the data should be deduplicated when writing
+     *
+     * @return Whether data should be deduplicated
+     * @see #setDeduplicating(boolean)
+     */
+    public boolean isDeduplicating() {
+        return deduplicating;
+    }
+
+    /**
+     * Returns the number of bytes that have been saved by deduplication
+     * in the last write operation
+     *
+     * @return The deduplicated byte size
+     * @see #setDeduplicating(boolean)
+     */
+    public long getDeduplicatedByteSize() {
+        return deduplicatedByteSize;
+    }
+
+    /**
+     * Creates a new {@link GltfModelWriterV2} with the settings of
+     * this writer
+     *
+     * @return The {@link GltfModelWriterV2}
+     */
+    private GltfModelWriterV2 createGltfModelWriterV2() {
+        GltfModelWriterV2 gltfModelWriterV2 = new GltfModelWriterV2();
+        gltfModelWriterV2.setDeduplicating(deduplicating);
+        return gltfModelWriterV2;
+    }
+
     /**
      * Write the given {@link GltfModel} to a file with the given name.
      * External references of buffers or images that are given via the
@@ -59,11 +128,14 @@ public class GltfModelWriter {
             GltfModelWriterV1 gltfModelWriterV1 =
                     new GltfModelWriterV1();
             gltfModelWriterV1.write(gltfModelV1, file);
+            deduplicatedByteSize = 0;
         } else if (gltfModel instanceof GltfModelV2) {
             GltfModelV2 gltfModelV2 = (GltfModelV2) gltfModel;
             GltfModelWriterV2 gltfModelWriterV2 =
-                    new GltfModelWriterV2();
+                    createGltfModelWriterV2();
             gltfModelWriterV2.write(gltfModelV2, file);
+            deduplicatedByteSize =
+                    gltfModelWriterV2.getDeduplicatedByteSize();
         } else {
             throw new IOException("Unsupported glTF version: " + gltfModel);
         }
@@ -79,6 +151,19 @@ public class GltfModelWriter {
      */
     public void writeBinary(GltfModel gltfModel, File file)
             throws IOException {
+        if (gltfModel instanceof GltfModelV2) {
+            GltfModelV2 gltfModelV2 = (GltfModelV2) gltfModel;
+            GltfModelWriterV2 gltfModelWriterV2 =
+                    createGltfModelWriterV2();
+            try (FileChannel fileChannel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                gltfModelWriterV2.writeBinary(gltfModelV2, fileChannel);
+                deduplicatedByteSize =
+                        gltfModelWriterV2.getDeduplicatedByteSize();
+            }
+            return;
+        }
         try (OutputStream outputStream = new FileOutputStream(file)) {
             writeBinary(gltfModel, outputStream);
         }
@@ -100,11 +185,14 @@ public class GltfModelWriter {
             GltfModelWriterV1 gltfModelWriterV1 =
                     new GltfModelWriterV1();
             gltfModelWriterV1.writeBinary(gltfModelV1, outputStream);
+            deduplicatedByteSize = 0;
         } else if (gltfModel instanceof GltfModelV2) {
             GltfModelV2 gltfModelV2 = (GltfModelV2) gltfModel;
             GltfModelWriterV2 gltfModelWriterV2 =
-                    new GltfModelWriterV2();
+                    createGltfModelWriterV2();
             gltfModelWriterV2.writeBinary(gltfModelV2, outputStream);
+            deduplicatedByteSize =
+                    gltfModelWriterV2.getDeduplicatedByteSize();
         } else {
             throw new IOException("Unsupported glTF version: " + gltfModel);
         }
@@ -142,11 +230,14 @@ public class GltfModelWriter {
             GltfModelWriterV1 gltfModelWriterV1 =
                     new GltfModelWriterV1();
             gltfModelWriterV1.writeEmbedded(gltfModelV1, outputStream);
+            deduplicatedByteSize = 0;
         } else if (gltfModel instanceof GltfModelV2) {
             GltfModelV2 gltfModelV2 = (GltfModelV2) gltfModel;
             GltfModelWriterV2 gltfModelWriterV2 =
-                    new GltfModelWriterV2();
+                    createGltfModelWriterV2();
             gltfModelWriterV2.writeEmbedded(gltfModelV2, outputStream);
+            deduplicatedByteSize =
+                    gltfModelWriterV2.getDeduplicatedByteSize();
         } else {
             throw new IOException("Unsupported glTF version: " + gltfModel);
         }
@@ -0,0 +1,336 @@
+package de.javagl.jgltf.model.io;
+
+import de.javagl.jgltf.impl.v2.Accessor;
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.impl.v2.Material;
+import de.javagl.jgltf.impl.v2.Mesh;
+import de.javagl.jgltf.impl.v2.MeshPrimitive;
+import de.javagl.jgltf.impl.v2.Node;
+import de.javagl.jgltf.model.BoundingBox;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.Optionals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Methods for probing glTF assets, to obtain a {@link GltfSummary} with
+ * basic information about the asset.<br>
+ * <br>
+ * For binary glTF files, only the header and the JSON chunk are read.
+ * The binary chunk is skipped, so that probing a large number of files
+ * only requires reading a small part of each file. For glTF files, the
+ * JSON is read, but no external references are resolved.<br>
+ * <br>
+ * The bounding box of the summary is the union of the <code>min</code>
+ * and <code>max</code> values of the <code>POSITION</code> accessors of
+ * all mesh primitives. These are mesh-local bounds: The node transforms
+ * are not applied. Positions with a non-normalized integer component
+ * type (as they are used with <code>KHR_mesh_quantization</code>) are
+ * not included, because they are only meaningful together with the
+ * transform of the node. Normalized integer positions are converted
+ * into floating point values.<br>
+ * <br>
+ * The methods of this class are thread-safe, and may be called from
+ * multiple threads to probe multiple files in parallel.
+ */
+public class GltfProbes {
+    /**
+     * The length of the header of a binary glTF
+     */
+    private static final int HEADER_LENGTH = 12;
+
+    /**
+     * The length of a chunk header of a binary glTF 2.0
+     */
+    private static final int CHUNK_HEADER_LENGTH = 8;
+
+    /**
+     * The chunk type for JSON chunks
+     */
+    private static final int CHUNK_TYPE_JSON = 0x4E4F534A;
+
+    /**
+     * Create a {@link GltfSummary} for the glTF- or binary glTF file
+     * with the given path
+     *
+     * @param path The path
+     * @return The {@link GltfSummary}
+     * @throws IOException If an IO error occurs, the file does not contain
+     *                     a valid glTF, or the glTF is not a glTF 2.0
+     */
+    public static GltfSummary probe(Path path) throws IOException {
+        try (FileChannel fileChannel =
+                     FileChannel.open(path, StandardOpenOption.READ)) {
+            return probe(fileChannel);
+        }
+    }
+
+    /**
+     * Create a {@link GltfSummary} for the glTF- or binary glTF data that
+     * is contained in the given file channel, starting at position 0.
+     * The caller is responsible for closing the given channel.
+     *
+     * @param fileChannel The file channel
+     * @return The {@link GltfSummary}
+     * @throws IOException If an IO error occurs, the channel does not
+     *                     contain a valid glTF, or the glTF is not a glTF 2.0
+     */
+    public static GltfSummary probe(FileChannel fileChannel)
+            throws IOException {
+        long size = fileChannel.size();
+        ByteBuffer jsonData;
+        long binaryDataLength = 0;
+        ByteBuffer header = read(fileChannel, 0,
+                (int) Math.min(size, HEADER_LENGTH));
+        if (header.capacity() == HEADER_LENGTH
+                && header.getInt(0)
+                == RawGltfDataReader.MAGIC_BINARY_GLTF_HEADER) {
+            int binaryVersion = header.getInt(4);
+            if (binaryVersion != 2) {
+                throw new IOException("Probing is only supported for "
+                        + "binary glTF version 2, but found version "
+                        + binaryVersion);
+            }
+            ByteBuffer chunkHeader = read(
+                    fileChannel, HEADER_LENGTH, CHUNK_HEADER_LENGTH);
+            int jsonChunkLength = chunkHeader.getInt(0);
+            int jsonChunkType = chunkHeader.getInt(4);
+            if (jsonChunkType != CHUNK_TYPE_JSON) {
+                throw new IOException("First chunk must be of type JSON ("
+                        + CHUNK_TYPE_JSON + "), but found " + jsonChunkType);
+            }
+            long jsonStart = HEADER_LENGTH + CHUNK_HEADER_LENGTH;
+            if (jsonChunkLength < 0 || jsonStart + jsonChunkLength > size) {
+                throw new IOException("Invalid JSON chunk length "
+                        + (jsonChunkLength & 0xFFFFFFFFL) + " for a file with "
+                        + size + " bytes");
+            }
+            jsonData = read(fileChannel, jsonStart, jsonChunkLength);
+            long binChunkStart = jsonStart + jsonChunkLength;
+            if (binChunkStart + CHUNK_HEADER_LENGTH <= size) {
+                ByteBuffer binChunkHeader = read(
+                        fileChannel, binChunkStart, CHUNK_HEADER_LENGTH);
+                binaryDataLength = binChunkHeader.getInt(0) & 0xFFFFFFFFL;
+            }
+        } else {
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Cannot read " + size + " bytes, "
+                        + "the maximum size is " + Integer.MAX_VALUE);
+            }
+            jsonData = read(fileChannel, 0, (int) size);
+        }
+        GltfReader gltfReader = new GltfReader();
+        Object gltf = gltfReader.read(
+                jsonData, JacksonUtils.loggingJsonErrorConsumer());
+        if (!(gltf instanceof GlTF)) {
+            throw new IOException("Probing is only supported for glTF 2.0");
+        }
+        return createSummary((GlTF) gltf, binaryDataLength);
+    }
+
+    /**
+     * Read the specified number of bytes from the given channel, starting
+     * at the given position, into a new heap buffer with little-endian
+     * byte order
+     *
+     * @param fileChannel The file channel
+     * @param position    The position
+     * @param length      The number of bytes to read
+     * @return The buffer
+     * @throws IOException If an IO error occurs, or the channel does not
+     *                     contain the requested number of bytes
+     */
+    private static ByteBuffer read(
+            FileChannel fileChannel, long position, int length)
+            throws IOException {
+        if (length < 0) {
+            throw new IOException("Invalid length: " + length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        long currentPosition = position;
+        while (buffer.hasRemaining()) {
+            int read = fileChannel.read(buffer, currentPosition);
+            if (read == -1) {
+                throw new IOException("Expected " + length + " bytes at "
+                        + position + ", but only found " + buffer.position());
+            }
+            currentPosition += read;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Create the {@link GltfSummary} for the given {@link GlTF}
+     *
+     * @param gltf             The {@link GlTF}
+     * @param binaryDataLength The length of the binary chunk
+     * @return The {@link GltfSummary}
+     * @throws IOException If a mesh primitive refers to an accessor that
+     *                     does not exist
+     */
+    private static GltfSummary createSummary(
+            GlTF gltf, long binaryDataLength) throws IOException {
+        String version = gltf.getAsset() == null ?
+                null : gltf.getAsset().getVersion();
+
+        List<String> nodeNames = new ArrayList<>();
+        for (Node node : Optionals.of(gltf.getNodes())) {
+            nodeNames.add(node.getName());
+        }
+        List<String> materialNames = new ArrayList<>();
+        for (Material material : Optionals.of(gltf.getMaterials())) {
+            materialNames.add(material.getName());
+        }
+
+        List<Accessor> accessors = Optionals.of(gltf.getAccessors());
+        List<Mesh> meshes = Optionals.of(gltf.getMeshes());
+        int meshPrimitiveCount = 0;
+        long triangleCount = 0;
+        BoundingBox boundingBox = null;
+        for (Mesh mesh : meshes) {
+            List<MeshPrimitive> meshPrimitives =
+                    Optionals.of(mesh.getPrimitives());
+            for (MeshPrimitive meshPrimitive : meshPrimitives) {
+                meshPrimitiveCount++;
+                Integer positionsIndex =
+                        Optionals.of(meshPrimitive.getAttributes())
+                                .get("POSITION");
+                Accessor positions = positionsIndex == null ?
+                        null : getAccessor(accessors, positionsIndex);
+                Integer indicesIndex = meshPrimitive.getIndices();
+                Accessor vertices = indicesIndex == null ?
+                        positions : getAccessor(accessors, indicesIndex);
+                if (vertices != null) {
+                    int mode = Optionals.of(meshPrimitive.getMode(),
+                            meshPrimitive.defaultMode());
+                    triangleCount += computeTriangleCount(
+                            mode, vertices.getCount());
+                }
+                if (positions != null && isBounded(positions)) {
+                    if (boundingBox == null) {
+                        boundingBox = new BoundingBox();
+                    }
+                    Number[] min = positions.getMin();
+                    Number[] max = positions.getMax();
+                    boundingBox.combine(toFloat(positions, min[0]),
+                            toFloat(positions, min[1]),
+                            toFloat(positions, min[2]));
+                    boundingBox.combine(toFloat(positions, max[0]),
+                            toFloat(positions, max[1]),
+                            toFloat(positions, max[2]));
+                }
+            }
+        }
+        return new GltfSummary(version, nodeNames, materialNames,
+                meshes.size(), meshPrimitiveCount, triangleCount,
+                boundingBox, binaryDataLength);
+    }
+
+    /**
+     * Returns the accessor with the given index
+     *
+     * @param accessors The accessors
+     * @param index     The index
+     * @return The {@link Accessor}
+     * @throws IOException If the index is not valid
+     */
+    private static Accessor getAccessor(List<Accessor> accessors, int index)
+            throws IOException {
+        if (index < 0 || index >= accessors.size()) {
+            throw new IOException("Invalid accessor index " + index
+                    + ", there are " + accessors.size() + " accessors");
+        }
+        return accessors.get(index);
+    }
+
+    /**
+     * Returns whether the given accessor has <code>min</code> and
+     * <code>max</code> values with at least 3 components, which can be
+     * converted into floating point values. This is the case for
+     * <code>GL_FLOAT</code> accessors and normalized integer accessors.
+     * Non-normalized integer positions, as they may be used with
+     * <code>KHR_mesh_quantization</code>, are only meaningful together
+     * with the node transforms, and are not considered to be bounded.
+     *
+     * @param accessor The {@link Accessor}
+     * @return Whether the accessor has bounds
+     */
+    private static boolean isBounded(Accessor accessor) {
+        Number[] min = accessor.getMin();
+        Number[] max = accessor.getMax();
+        if (min == null || min.length < 3 || max == null || max.length < 3) {
+            return false;
+        }
+        Integer componentType = accessor.getComponentType();
+        if (componentType == null) {
+            return false;
+        }
+        if (componentType == GltfConstants.GL_FLOAT) {
+            return true;
+        }
+        return Optionals.of(accessor.isNormalized(),
+                accessor.defaultNormalized());
+    }
+
+    /**
+     * Convert the given <code>min</code> or <code>max</code> value of the
+     * given accessor into a floating point value, applying the rules for
+     * normalized integer values if the accessor is normalized
+     *
+     * @param accessor The {@link Accessor}
+     * @param value    The value
+     * @return The floating point value
+     */
+    private static float toFloat(Accessor accessor, Number value) {
+        float f = value.floatValue();
+        switch (accessor.getComponentType()) {
+            case GltfConstants.GL_BYTE:
+                return Math.max(f / 127.0f, -1.0f);
+            case GltfConstants.GL_UNSIGNED_BYTE:
+                return f / 255.0f;
+            case GltfConstants.GL_SHORT:
+                return Math.max(f / 32767.0f, -1.0f);
+            case GltfConstants.GL_UNSIGNED_SHORT:
+                return f / 65535.0f;
+            default:
+                return f;
+        }
+    }
+
+    /**
+     * Compute the number of triangles that are described by the given
+     * number of vertices with the given rendering mode
+     *
+     * @param mode  The rendering mode
+     * @param count The number of vertices
+     * @return The number of triangles
+     */
+    private static long computeTriangleCount(int mode, int count) {
+        switch (mode) {
+            case GltfConstants.GL_TRIANGLES:
+                return count / 3;
+            case GltfConstants.GL_TRIANGLE_STRIP:
+            case GltfConstants.GL_TRIANGLE_FAN:
+                return Math.max(0, count - 2);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private GltfProbes() {
+        // Private constructor to prevent instantiation
+    }
+
+}
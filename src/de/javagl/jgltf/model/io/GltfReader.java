@@ -1,10 +1,12 @@
 package de.javagl.jgltf.model.io;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 import de.javagl.jgltf.logging.Logger;
 
@@ -13,6 +15,17 @@ import de.javagl.jgltf.logging.Logger;
  * It a allows determining the version of the glTF and returning it as
  * a properly typed object - that is, as a {@link de.javagl.jgltf.impl.v1.GlTF}
  * or a {@link de.javagl.jgltf.impl.v2.GlTF}.<br>
+ * <br>
+ * The JSON is not read into an intermediate tree. Instead, the
+ * <code>asset.version</code> is determined with a streaming parser that
+ * only skips over the other properties, and the JSON is then bound
+ * directly to the glTF class for the respective version.<br>
+ * <br>
+ * Instances of this class are stateless and thread-safe. The consumer for
+ * {@link JsonError}s is passed to each read operation, and only given to
+ * the object reader of this operation as an attribute. The underlying
+ * object readers are shared between all instances, so that the
+ * deserializers for the glTF classes are only created once.
  */
 final class GltfReader {
     /**
@@ -21,138 +34,143 @@ final class GltfReader {
     private static final Logger logger =
             Logger.getLogger(GltfReader.class);
 
-    /**
-     * A consumer for {@link JsonError}s that may occur while reading
-     * the glTF JSON
-     */
-    private Consumer<? super JsonError> jsonErrorConsumer =
-            JacksonUtils.loggingJsonErrorConsumer();
-
-    /**
-     * The Jackson object mapper
-     */
-    private final ObjectMapper objectMapper;
-
-    /**
-     * The root node that was read during the last call to {@link #read}
-     */
-    private JsonNode rootNode;
+    static {
+        // Create the object readers for the glTF classes when this class
+        // is initialized, so that the deserializers are created only once
+        JacksonUtils.createObjectReader(
+                de.javagl.jgltf.impl.v1.GlTF.class, null);
+        JacksonUtils.createObjectReader(
+                de.javagl.jgltf.impl.v2.GlTF.class, null);
+    }
 
     /**
      * Default constructor
      */
     GltfReader() {
-        objectMapper = new ObjectMapper();
-    }
-
-    /**
-     * Set the given consumer to receive {@link JsonError}s that may
-     * occur when the JSON part of the glTF is read
-     *
-     * @param jsonErrorConsumer The consumer
-     */
-    public void setJsonErrorConsumer(
-            Consumer<? super JsonError> jsonErrorConsumer) {
-        this.jsonErrorConsumer = jsonErrorConsumer;
+        // Default constructor
     }
 
     /**
      * Read the JSON data from the given input stream. The caller is
-     * responsible for closing the given stream. After this method
-     * has been called, the version of the glTF may be obtained with
-     * {@link #getVersion()}, and the actual asset may be obtained
-     * with {@link #getAsGltfV1()} or {@link #getAsGltfV2()}.
+     * responsible for closing the given stream.
      *
-     * @param inputStream The input stream
-     * @throws IOException If an IO error occurred
+     * @param inputStream       The input stream
+     * @param jsonErrorConsumer The consumer for {@link JsonError}s. If
+     *                          this is <code>null</code>, then errors will
+     *                          not be handled.
+     * @return The glTF, which is a {@link de.javagl.jgltf.impl.v1.GlTF}
+     * or a {@link de.javagl.jgltf.impl.v2.GlTF}
+     * @throws IOException If an IO error occurred, or the glTF has an
+     *                     unsupported version
      */
-    void read(InputStream inputStream) throws IOException {
-        JacksonUtils.configure(objectMapper, jsonErrorConsumer);
-        rootNode = objectMapper.readTree(inputStream);
+    Object read(InputStream inputStream,
+                Consumer<? super JsonError> jsonErrorConsumer)
+            throws IOException {
+        byte[] jsonData = IO.readStream(inputStream);
+        return read(ByteBuffer.wrap(jsonData), jsonErrorConsumer);
     }
 
     /**
-     * Returns the version of the glTF, or <code>null</code>
-     * if no glTF was read yet
+     * Read the JSON data from the given buffer, from its current position
+     * up to its limit. The position of the given buffer will not be
+     * modified.
      *
-     * @return The version string
+     * @param jsonData          The JSON data
+     * @param jsonErrorConsumer The consumer for {@link JsonError}s. If
+     *                          this is <code>null</code>, then errors will
+     *                          not be handled.
+     * @return The glTF, which is a {@link de.javagl.jgltf.impl.v1.GlTF}
+     * or a {@link de.javagl.jgltf.impl.v2.GlTF}
+     * @throws IOException If an IO error occurred, or the glTF has an
+     *                     unsupported version
      */
-    String getVersion() {
-        if (rootNode == null) {
-            return null;
+    Object read(ByteBuffer jsonData,
+                Consumer<? super JsonError> jsonErrorConsumer)
+            throws IOException {
+        String version;
+        try (JsonParser parser = createParser(jsonData)) {
+            version = readVersion(parser);
         }
-        return getVersion(rootNode);
-    }
-
-    /**
-     * Returns the major version of the glTF, or 0 of no glTF was read yet.
-     *
-     * @return The major version number
-     */
-    int getMajorVersion() {
-        if (rootNode == null) {
-            return 0;
+        Class<?> gltfClass;
+        int majorVersion = VersionUtils.computeMajorMinorPatch(version)[0];
+        if (majorVersion == 1) {
+            gltfClass = de.javagl.jgltf.impl.v1.GlTF.class;
+        } else if (majorVersion == 2) {
+            gltfClass = de.javagl.jgltf.impl.v2.GlTF.class;
+        } else {
+            throw new IOException(
+                    "Unsupported major version: " + majorVersion);
         }
-        int[] version = VersionUtils.computeMajorMinorPatch(getVersion());
-        return version[0];
-    }
-
-    /**
-     * Obtain the glTF as a {@link de.javagl.jgltf.impl.v1.GlTF},
-     * or <code>null</code> if no glTF was read yet.
-     *
-     * @return The glTF.
-     * @throws IllegalArgumentException If the glTF that was read is not
-     *                                  a valid glTF 1.0
-     */
-    de.javagl.jgltf.impl.v1.GlTF getAsGltfV1() {
-        if (rootNode == null) {
-            return null;
+        ObjectReader objectReader = JacksonUtils.createObjectReader(
+                gltfClass, jsonErrorConsumer);
+        try (JsonParser parser = createParser(jsonData)) {
+            return objectReader.readValue(parser);
         }
-        return objectMapper.convertValue(rootNode,
-                de.javagl.jgltf.impl.v1.GlTF.class);
     }
 
     /**
-     * Obtain the glTF as a {@link de.javagl.jgltf.impl.v2.GlTF},
-     * or <code>null</code> if no glTF was read yet.
+     * Create a parser for the given JSON data, from its current position
+     * up to its limit. The position of the given buffer will not be
+     * modified.
      *
-     * @return The glTF.
-     * @throws IllegalArgumentException If the glTF that was read is not
-     *                                  a valid glTF 2.0
+     * @param jsonData The JSON data
+     * @return The parser
+     * @throws IOException If the parser can not be created
      */
-    de.javagl.jgltf.impl.v2.GlTF getAsGltfV2() {
-        if (rootNode == null) {
-            return null;
+    private static JsonParser createParser(ByteBuffer jsonData)
+            throws IOException {
+        if (jsonData.hasArray()) {
+            return JacksonUtils.getJsonFactory().createParser(
+                    jsonData.array(),
+                    jsonData.arrayOffset() + jsonData.position(),
+                    jsonData.remaining());
         }
-        return objectMapper.convertValue(rootNode,
-                de.javagl.jgltf.impl.v2.GlTF.class);
+        return JacksonUtils.getJsonFactory().createParser(
+                Buffers.createByteBufferInputStream(jsonData.slice()));
     }
 
     /**
-     * Tries to obtain the <code>rootNode.asset.version</code> string. If
-     * either node is <code>null</code>, then <code>"1.0"</code> will be
-     * returned.
+     * Tries to read the <code>asset.version</code> string from the given
+     * parser, which must be positioned before the root object. All other
+     * properties will be skipped without being bound. The parsing stops
+     * as soon as the version was found. If the version can not be
+     * found, then <code>"1.0"</code> will be returned.
      *
-     * @param rootNode The root node
+     * @param parser The parser
      * @return The version
+     * @throws IOException If the JSON can not be parsed
      */
-    private static String getVersion(JsonNode rootNode) {
-        JsonNode assetNode = rootNode.get("asset");
-        if (assetNode == null) {
-            return "1.0";
-        }
-        JsonNode versionNode = assetNode.get("version");
-        if (versionNode == null) {
-            return "1.0";
+    private static String readVersion(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object, but found "
+                    + parser.getCurrentToken());
         }
-        if (!versionNode.isValueNode()) {
-            logger.warning("No valid 'version' property in 'asset'. " +
-                    "Assuming version 1.0");
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String rootFieldName = parser.getCurrentName();
+            JsonToken rootValueToken = parser.nextToken();
+            if (!"asset".equals(rootFieldName)
+                    || rootValueToken != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String assetFieldName = parser.getCurrentName();
+                JsonToken assetValueToken = parser.nextToken();
+                if (!"version".equals(assetFieldName)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (!assetValueToken.isScalarValue()) {
+                    logger.warning("No valid 'version' property in 'asset'. " +
+                            "Assuming version 1.0");
+                    return "1.0";
+                }
+                return parser.getValueAsString();
+            }
             return "1.0";
         }
-        return versionNode.asText();
+        return "1.0";
     }
 
 
-}
\ No newline at end of file
+}
@@ -2,14 +2,29 @@ package de.javagl.jgltf.model.io;
 
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.logging.Level;
 import de.javagl.jgltf.logging.Logger;
 
 /**
  * A class for resolving the external data of {@link GltfReference} objects
- * that are obtained from a {@link GltfAsset}
+ * that are obtained from a {@link GltfAsset}.<br>
+ * <br>
+ * The references may either be resolved sequentially, or in parallel,
+ * using the methods that receive an <code>Executor</code>. The time that
+ * was required for resolving each reference is reported as a
+ * <code>FINE</code> log message.
  */
 public class GltfReferenceResolver {
     /**
@@ -35,6 +50,75 @@ public class GltfReferenceResolver {
         resolveAll(references, uriResolver);
     }
 
+    /**
+     * Calls {@link #resolve(GltfReference, Function)} with each
+     * {@link GltfReference} of the given list, resolving the
+     * URIs of the references against the given base URI. The references
+     * will be resolved in parallel, using the given executor.
+     *
+     * @param references The {@link GltfReference} objects
+     * @param baseUri    The base URI that references will be resolved against
+     * @param executor   The executor. If this is <code>null</code>, then
+     *                   the {@link #getDefaultExecutor() default executor} will be used.
+     */
+    public static void resolveAll(
+            Iterable<? extends GltfReference> references, URI baseUri,
+            Executor executor) {
+        Objects.requireNonNull(references, "The references may not be null");
+        Objects.requireNonNull(baseUri, "The baseUri may not be null");
+        Function<String, ByteBuffer> uriResolver =
+                UriResolvers.createBaseUriResolver(baseUri);
+        resolveAll(references, uriResolver, executor);
+    }
+
+    /**
+     * Calls {@link #resolve(GltfReference, Function)} with each
+     * {@link GltfReference} of the given list. The references will be
+     * resolved in parallel, using the given executor. This method will
+     * block until all references have been resolved.<br>
+     * <br>
+     * The given resolver function and the
+     * {@link GltfReference#getTarget() targets} of the references must be
+     * thread-safe.
+     *
+     * @param references  The {@link GltfReference} objects
+     * @param uriResolver The function for resolving a URI string
+     *                    into a byte buffer
+     * @param executor    The executor. If this is <code>null</code>, then
+     *                    the {@link #getDefaultExecutor() default executor} will be used.
+     * @throws CompletionException If resolving one of the references
+     *                             caused an exception. This exception will have the original
+     *                             exception as its cause.
+     */
+    public static void resolveAll(
+            Iterable<? extends GltfReference> references,
+            Function<? super String, ? extends ByteBuffer> uriResolver,
+            Executor executor) {
+        Objects.requireNonNull(references, "The references may not be null");
+        Objects.requireNonNull(uriResolver, "The uriResolver may not be null");
+        Executor actualExecutor =
+                executor == null ? getDefaultExecutor() : executor;
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (GltfReference reference : references) {
+            futures.add(CompletableFuture.runAsync(
+                    () -> resolve(reference, uriResolver), actualExecutor));
+        }
+        CompletableFuture.allOf(
+                futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    /**
+     * Returns the default executor for resolving references in parallel.
+     * This is a shared executor with a fixed number of daemon threads,
+     * which is created when it is requested for the first time.
+     *
+     * @return The default executor
+     */
+    public static Executor getDefaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
     /**
      * Calls {@link #resolve(GltfReference, Function)} with each
      * {@link GltfReference} of the given list
@@ -71,14 +155,51 @@ public class GltfReferenceResolver {
         Objects.requireNonNull(uriResolver, "The uriResolver may not be null");
 
         String uri = reference.getUri();
+        long before = System.nanoTime();
         ByteBuffer byteBuffer = uriResolver.apply(uri);
+        long after = System.nanoTime();
         if (byteBuffer == null) {
             logger.warning("Could not resolve URI " + uri);
+        } else if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Resolved " + reference.getName() + " (" + uri
+                    + ", " + byteBuffer.capacity() + " bytes) in "
+                    + String.format(Locale.ENGLISH, "%.3f",
+                    (after - before) / 1e6) + " ms");
         }
         Consumer<ByteBuffer> target = reference.getTarget();
         target.accept(byteBuffer);
     }
 
+    /**
+     * Holder for the {@link #getDefaultExecutor() default executor}, so
+     * that it is only created when it is actually used
+     */
+    private static class DefaultExecutorHolder {
+        /**
+         * The default executor
+         */
+        private static final ExecutorService EXECUTOR =
+                createDefaultExecutor();
+
+        /**
+         * Creates the default executor, with a number of daemon threads
+         * that is derived from the number of available processors
+         *
+         * @return The executor
+         */
+        private static ExecutorService createDefaultExecutor() {
+            int numThreads =
+                    Math.max(4, Runtime.getRuntime().availableProcessors());
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(numThreads, runnable -> {
+                Thread thread = new Thread(runnable,
+                        "GltfReferenceResolver-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
     /**
      * Private constructor to prevent instantiation
      */
@@ -0,0 +1,184 @@
+package de.javagl.jgltf.model.io;
+
+import de.javagl.jgltf.model.BoundingBox;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A lightweight summary of a glTF 2.0 asset, containing basic information
+ * that can be obtained from the JSON part alone, without reading any
+ * buffer- or image data. Instances of this class are created with
+ * {@link GltfProbes#probe(java.nio.file.Path)}.
+ */
+public final class GltfSummary {
+    /**
+     * The version string from the asset
+     */
+    private final String version;
+
+    /**
+     * The names of the nodes
+     */
+    private final List<String> nodeNames;
+
+    /**
+     * The names of the materials
+     */
+    private final List<String> materialNames;
+
+    /**
+     * The number of meshes
+     */
+    private final int meshCount;
+
+    /**
+     * The number of mesh primitives
+     */
+    private final int meshPrimitiveCount;
+
+    /**
+     * The number of triangles
+     */
+    private final long triangleCount;
+
+    /**
+     * The bounding box
+     */
+    private final BoundingBox boundingBox;
+
+    /**
+     * The length of the binary chunk
+     */
+    private final long binaryDataLength;
+
+    /**
+     * Creates a new instance
+     *
+     * @param version            The version string
+     * @param nodeNames          The node names
+     * @param materialNames      The material names
+     * @param meshCount          The number of meshes
+     * @param meshPrimitiveCount The number of mesh primitives
+     * @param triangleCount      The number of triangles
+     * @param boundingBox        The optional bounding box
+     * @param binaryDataLength   The length of the binary chunk
+     */
+    GltfSummary(String version, List<String> nodeNames,
+                List<String> materialNames, int meshCount,
+                int meshPrimitiveCount, long triangleCount,
+                BoundingBox boundingBox, long binaryDataLength) {
+        this.version = version;
+        this.nodeNames = Collections.unmodifiableList(nodeNames);
+        this.materialNames = Collections.unmodifiableList(materialNames);
+        this.meshCount = meshCount;
+        this.meshPrimitiveCount = meshPrimitiveCount;
+        this.triangleCount = triangleCount;
+        this.boundingBox = boundingBox;
+        this.binaryDataLength = binaryDataLength;
+    }
+
+    /**
+     * Returns the version string from the <code>asset</code> of the glTF
+     *
+     * @return The version string
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns an unmodifiable list containing the names of all nodes.
+     * The list will contain <code>null</code> for nodes without a name.
+     *
+     * @return The node names
+     */
+    public List<String> getNodeNames() {
+        return nodeNames;
+    }
+
+    /**
+     * Returns an unmodifiable list containing the names of all materials.
+     * The list will contain <code>null</code> for materials without a name.
+     *
+     * @return The material names
+     */
+    public List<String> getMaterialNames() {
+        return materialNames;
+    }
+
+    /**
+     * Returns the number of meshes
+     *
+     * @return The number of meshes
+     */
+    public int getMeshCount() {
+        return meshCount;
+    }
+
+    /**
+     * Returns the total number of mesh primitives of all meshes
+     *
+     * @return The number of mesh primitives
+     */
+    public int getMeshPrimitiveCount() {
+        return meshPrimitiveCount;
+    }
+
+    /**
+     * Returns the total number of triangles of all mesh primitives with
+     * the modes <code>TRIANGLES</code>, <code>TRIANGLE_STRIP</code> and
+     * <code>TRIANGLE_FAN</code>. Meshes that are instantiated multiple
+     * times are only counted once.
+     *
+     * @return The number of triangles
+     */
+    public long getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Returns a copy of the bounding box of all <code>POSITION</code>
+     * attributes, as computed from the <code>min</code> and
+     * <code>max</code> values of their accessors. This is the union of
+     * the mesh-local bounds: The node transforms are <b>not</b> taken
+     * into account. Positions with non-normalized integer components are
+     * not included. Returns <code>null</code> if no bounding box could be
+     * determined.
+     *
+     * @return The bounding box
+     */
+    public BoundingBox getBoundingBox() {
+        if (boundingBox == null) {
+            return null;
+        }
+        BoundingBox result = new BoundingBox();
+        result.combine(boundingBox);
+        return result;
+    }
+
+    /**
+     * Returns the length of the binary chunk of a binary glTF, or 0 if
+     * the asset is not a binary glTF, or does not have a binary chunk.
+     * This chunk is not read when the summary is created.
+     *
+     * @return The binary data length
+     */
+    public long getBinaryDataLength() {
+        return binaryDataLength;
+    }
+
+    @Override
+    public String toString() {
+        return "GltfSummary{" +
+                "version=" + version +
+                ", nodes=" + nodeNames.size() +
+                ", materials=" + materialNames.size() +
+                ", meshes=" + meshCount +
+                ", meshPrimitives=" + meshPrimitiveCount +
+                ", triangles=" + triangleCount +
+                ", boundingBox=" + boundingBox +
+                ", binaryDataLength=" + binaryDataLength +
+                '}';
+    }
+}
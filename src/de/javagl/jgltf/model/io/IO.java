@@ -2,12 +2,56 @@ package de.javagl.jgltf.model.io;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.stream.IntStream;
 
 /**
  * IO utility methods
  */
 public class IO {
+    /**
+     * The marker that precedes the data in a base64 encoded data URI
+     */
+    private static final String BASE64_MARKER = "base64,";
+
+    /**
+     * The number of base64 characters that are decoded as one segment.
+     * Payloads that consist of multiple segments are decoded in parallel.
+     * This must be a multiple of 4.
+     */
+    private static final int BASE64_SEGMENT_LENGTH = 1 << 20;
+
+    /**
+     * The size of the temporary array that decoded bytes are collected
+     * in, before they are written into the target buffer. This must be
+     * a multiple of 3.
+     */
+    private static final int BASE64_CHUNK_SIZE = 3 * 4096;
+
+    /**
+     * The maximum size of a buffer that is allocated for a length that
+     * was announced by the source of the data, like the content length
+     * of a connection or the length in a binary glTF header, before the
+     * data actually arrived. Larger buffers are allocated as the data
+     * is read.
+     */
+    private static final int MAXIMUM_INITIAL_BUFFER_SIZE = 1 << 24;
+
+    /**
+     * The lookup table from (ASCII) base64 characters to their 6-bit
+     * values, containing -1 for characters that are not valid
+     */
+    private static final int[] BASE64_VALUES = createBase64Values();
+
     /**
      * Convert the given URI string into an absolute URI, resolving it
      * against the given base URI if necessary
@@ -68,12 +112,9 @@ public class IO {
         if (uriString == null) {
             return false;
         }
-        try {
-            URI uri = new URI(uriString);
-            return isDataUri(uri);
-        } catch (URISyntaxException e) {
-            return false;
-        }
+        // Only check the scheme, to avoid parsing the whole string,
+        // which may contain megabytes of base64 data
+        return uriString.regionMatches(true, 0, "data:", 0, 5);
     }
 
     /**
@@ -185,6 +226,237 @@ public class IO {
         }
     }
 
+    /**
+     * Read the data from the given URI into a byte buffer with
+     * little-endian byte order. The data may either be an actual URI,
+     * or a data URI with base64 encoded data.<br>
+     * <br>
+     * When the size of the data is known in advance - namely, for files,
+     * for connections that report a content length, and for binary glTF
+     * data - then the data will be read into a direct buffer that is
+     * allocated once, with the exact size. Otherwise, the data will be
+     * read with {@link #readStream(InputStream)}.
+     *
+     * @param uri The URI
+     * @return The byte buffer
+     * @throws IOException If an IO error occurs
+     */
+    public static ByteBuffer readToBuffer(URI uri) throws IOException {
+        if (isDataUri(uri)) {
+            return readDataUriAsBuffer(uri.toString());
+        }
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            try (FileChannel fileChannel = FileChannel.open(
+                    Paths.get(uri), StandardOpenOption.READ)) {
+                long size = fileChannel.size();
+                return readChannel(fileChannel, checkSize(size), uri);
+            }
+        }
+        URLConnection connection;
+        try {
+            connection = uri.toURL().openConnection();
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new IOException(e);
+        }
+        long contentLength = connection.getContentLengthLong();
+        try (InputStream inputStream = connection.getInputStream()) {
+            return readStreamToBuffer(inputStream, contentLength);
+        }
+    }
+
+    /**
+     * Reads the data from the given input stream into a byte buffer with
+     * little-endian byte order. The caller is responsible for closing the
+     * stream.<br>
+     * <br>
+     * If the given expected length is not negative, then the data will be
+     * read into a direct buffer with this size. Otherwise, the first bytes
+     * of the stream will be examined: If they are the header of a binary
+     * glTF, then the length that is contained in the header will be used
+     * as the size of the buffer. If the size can not be determined, then
+     * the data will be read with {@link #readStream(InputStream)}, and the
+     * result will be a buffer that wraps the resulting array.<br>
+     * <br>
+     * The expected length and the length in the header are not trusted:
+     * The buffer is allocated with a limited size, and only grows up to
+     * the announced length while the data is actually read.
+     *
+     * @param inputStream    The input stream
+     * @param expectedLength The expected length, or a negative value if
+     *                       the length is not known
+     * @return The byte buffer
+     * @throws IOException If an IO error occurs, if the stream does not
+     *                     contain the expected number of bytes, or if the
+     *                     thread that executes this method is interrupted.
+     */
+    public static ByteBuffer readStreamToBuffer(
+            InputStream inputStream, long expectedLength) throws IOException {
+        if (expectedLength >= 0) {
+            ReadableByteChannel channel = Channels.newChannel(inputStream);
+            return readChannelIncrementally(
+                    channel, new byte[0], checkSize(expectedLength));
+        }
+        int headerLength = 12;
+        byte[] header = new byte[headerLength];
+        int headerBytes = readAvailable(inputStream, header);
+        if (headerBytes == headerLength) {
+            ByteBuffer headerBuffer =
+                    ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+            int magic = headerBuffer.getInt(0);
+            int length = headerBuffer.getInt(8);
+            if (magic == RawGltfDataReader.MAGIC_BINARY_GLTF_HEADER
+                    && length >= headerLength) {
+                ReadableByteChannel channel =
+                        Channels.newChannel(inputStream);
+                return readChannelIncrementally(channel, header, length);
+            }
+        }
+        InputStream remainingInputStream = new SequenceInputStream(
+                new ByteArrayInputStream(header, 0, headerBytes),
+                inputStream);
+        byte[] data = readStream(remainingInputStream);
+        return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Read the given number of bytes from the given channel into a new,
+     * direct byte buffer with little-endian byte order
+     *
+     * @param channel The channel
+     * @param size    The number of bytes to read
+     * @param uri     An optional URI, only used for error messages
+     * @return The byte buffer
+     * @throws IOException If an IO error occurs, if the channel does not
+     *                     contain the given number of bytes, or if the
+     *                     thread that executes this method is interrupted.
+     */
+    private static ByteBuffer readChannel(
+            ReadableByteChannel channel, int size, URI uri)
+            throws IOException {
+        ByteBuffer result = Buffers.create(size);
+        fill(channel, result, uri);
+        result.position(0);
+        return result;
+    }
+
+    /**
+     * Read the given number of bytes, including the bytes of the given
+     * prefix, from the given channel into a new, direct byte buffer with
+     * little-endian byte order.<br>
+     * <br>
+     * The buffer is initially allocated with a size that is at most
+     * {@link #MAXIMUM_INITIAL_BUFFER_SIZE}, and its size is doubled each
+     * time when it is full, until it has the given size. This way, the
+     * memory that is allocated is bounded by twice the number of bytes
+     * that actually have been read, even if the given size is wrong.
+     *
+     * @param channel The channel
+     * @param prefix  The bytes that have already been read
+     * @param size    The total number of bytes to read
+     * @return The byte buffer
+     * @throws IOException If an IO error occurs, if the channel does not
+     *                     contain the given number of bytes, or if the
+     *                     thread that executes this method is interrupted.
+     */
+    private static ByteBuffer readChannelIncrementally(
+            ReadableByteChannel channel, byte[] prefix, int size)
+            throws IOException {
+        int initialSize = Math.max(prefix.length,
+                Math.min(size, MAXIMUM_INITIAL_BUFFER_SIZE));
+        ByteBuffer result = Buffers.create(initialSize);
+        result.put(prefix);
+        while (true) {
+            while (result.hasRemaining()) {
+                int read = channel.read(result);
+                if (read == -1) {
+                    throw new IOException("Expected " + size
+                            + " bytes, but only found " + result.position());
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Interrupted while reading stream",
+                            new InterruptedException());
+                }
+            }
+            if (result.capacity() >= size) {
+                break;
+            }
+            int newSize = (int) Math.min(size, 2L * result.capacity());
+            ByteBuffer newResult = Buffers.create(newSize);
+            result.flip();
+            newResult.put(result);
+            result = newResult;
+        }
+        result.position(0);
+        return result;
+    }
+
+    /**
+     * Fill the remaining space of the given buffer with data from the
+     * given channel
+     *
+     * @param channel The channel
+     * @param buffer  The buffer
+     * @param uri     An optional URI, only used for error messages
+     * @throws IOException If an IO error occurs, if the channel ends before
+     *                     the buffer is full, or if the thread that executes
+     *                     this method is interrupted.
+     */
+    private static void fill(
+            ReadableByteChannel channel, ByteBuffer buffer, URI uri)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer);
+            if (read == -1) {
+                throw new IOException("Expected " + buffer.capacity()
+                        + " bytes, but only found " + buffer.position()
+                        + (uri == null ? "" : " in " + uri));
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IOException("Interrupted while reading stream",
+                        new InterruptedException());
+            }
+        }
+    }
+
+    /**
+     * Read as many bytes as possible from the given input stream into
+     * the given array, until the array is full or the end of the stream
+     * is reached
+     *
+     * @param inputStream The input stream
+     * @param data        The array
+     * @return The number of bytes that have been read
+     * @throws IOException If an IO error occurs
+     */
+    private static int readAvailable(InputStream inputStream, byte[] data)
+            throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            int read = inputStream.read(data, offset, data.length - offset);
+            if (read == -1) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    /**
+     * Make sure that the given size can be used as the capacity of a
+     * byte buffer
+     *
+     * @param size The size
+     * @return The size, as an int
+     * @throws IOException If the size is larger than 2GB
+     */
+    private static int checkSize(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Cannot read " + size + " bytes, "
+                    + "the maximum size is " + Integer.MAX_VALUE);
+        }
+        return (int) size;
+    }
+
 
     /**
      * Read the base 64 encoded data from the given data URI string.
@@ -198,16 +470,196 @@ public class IO {
      *                                  Base64 encoded data URI string
      */
     public static byte[] readDataUri(String uriString) {
-        String encoding = "base64,";
-        int encodingIndex = uriString.indexOf(encoding);
-        if (encodingIndex < 0) {
+        int contentStartIndex = computeDataUriContentStartIndex(uriString);
+        return Base64.getDecoder().decode(
+                uriString.substring(contentStartIndex));
+    }
+
+    /**
+     * Read the base 64 encoded data from the given data URI string, and
+     * return it as a direct byte buffer with little-endian byte order.
+     * The data is assumed to start after the <code>base64,</code> part
+     * of the URI string, which must have the form
+     * <code>data:...;base64,...</code><br>
+     * <br>
+     * In contrast to {@link #readDataUri(String)}, this method does not
+     * create any intermediate copies of the data: The base64 characters
+     * are decoded directly from the given string into a buffer that
+     * is allocated with the exact size of the decoded data. Large data
+     * is decoded in parallel.
+     *
+     * @param uriString The URI string
+     * @return The byte buffer
+     * @throws IllegalArgumentException If the given string is not a valid
+     *                                  Base64 encoded data URI string
+     */
+    public static ByteBuffer readDataUriAsBuffer(String uriString) {
+        int start = computeDataUriContentStartIndex(uriString);
+        int end = computeBase64End(uriString, start);
+        int padding = uriString.length() - end;
+        int length = end - start;
+        int remainder = length % 4;
+        if (remainder == 1 || padding > 2
+                || (padding > 0 && (length + padding) % 4 != 0)) {
+            throw new IllegalArgumentException(
+                    "Invalid length of base64 data in data URI string");
+        }
+        int byteLength = length / 4 * 3
+                + (remainder == 0 ? 0 : remainder - 1);
+        ByteBuffer result = Buffers.create(byteLength);
+
+        int segments = (length + BASE64_SEGMENT_LENGTH - 1)
+                / BASE64_SEGMENT_LENGTH;
+        IntStream segmentIndices = IntStream.range(0, segments);
+        if (segments > 1) {
+            segmentIndices = segmentIndices.parallel();
+        }
+        segmentIndices.forEach(i -> {
+            int segmentStart = start + i * BASE64_SEGMENT_LENGTH;
+            int segmentEnd = Math.min(end,
+                    segmentStart + BASE64_SEGMENT_LENGTH);
+            ByteBuffer target = result.duplicate();
+            target.position(i * (BASE64_SEGMENT_LENGTH / 4 * 3));
+            decodeBase64(uriString, segmentStart, segmentEnd, target);
+        });
+        return result;
+    }
+
+    /**
+     * Returns the index in the given string where the base64 encoded data
+     * that starts at the given index ends, excluding the padding
+     *
+     * @param s     The string
+     * @param start The start index of the data
+     * @return The end index, exclusive
+     */
+    private static int computeBase64End(String s, int start) {
+        int end = s.length();
+        while (end > start && s.charAt(end - 1) == '=') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the index in the given string where the base64 encoded data
+     * of the data URI starts
+     *
+     * @param uriString The URI string
+     * @return The start index
+     * @throws IllegalArgumentException If the given string is not a
+     *                                  Base64 encoded data URI string
+     */
+    private static int computeDataUriContentStartIndex(String uriString) {
+        int commaIndex = uriString.indexOf(',');
+        int encodingIndex = commaIndex - (BASE64_MARKER.length() - 1);
+        if (encodingIndex < 0 || !uriString.startsWith(
+                BASE64_MARKER, encodingIndex)) {
             throw new IllegalArgumentException(
                     "The given URI string is not a base64 encoded "
-                            + "data URI string: " + uriString);
+                            + "data URI string: " + abbreviate(uriString));
         }
-        int contentStartIndex = encodingIndex + encoding.length();
-        return Base64.getDecoder().decode(
-                uriString.substring(contentStartIndex));
+        return commaIndex + 1;
+    }
+
+    /**
+     * Returns the given string, abbreviated to a length that is suitable
+     * for error messages
+     *
+     * @param string The string
+     * @return The abbreviated string
+     */
+    private static String abbreviate(String string) {
+        int maxLength = 100;
+        if (string.length() <= maxLength) {
+            return string;
+        }
+        return string.substring(0, maxLength) + "...";
+    }
+
+    /**
+     * Decode the (unpadded) base64 characters between the given start
+     * and end index of the given string, and write the result into the
+     * given target buffer, starting at its current position
+     *
+     * @param s      The string
+     * @param start  The start index, inclusive
+     * @param end    The end index, exclusive
+     * @param target The target buffer
+     * @throws IllegalArgumentException If the string contains characters
+     *                                  that are not valid base64 characters
+     */
+    private static void decodeBase64(
+            String s, int start, int end, ByteBuffer target) {
+        byte[] chunk = new byte[BASE64_CHUNK_SIZE];
+        int n = 0;
+        int i = start;
+        int fullEnd = end - (end - start) % 4;
+        while (i < fullEnd) {
+            int bits = (decodeBase64(s, i) << 18)
+                    | (decodeBase64(s, i + 1) << 12)
+                    | (decodeBase64(s, i + 2) << 6)
+                    | decodeBase64(s, i + 3);
+            chunk[n] = (byte) (bits >> 16);
+            chunk[n + 1] = (byte) (bits >> 8);
+            chunk[n + 2] = (byte) bits;
+            n += 3;
+            i += 4;
+            if (n == chunk.length) {
+                target.put(chunk, 0, n);
+                n = 0;
+            }
+        }
+        int remainder = end - fullEnd;
+        if (remainder >= 2) {
+            int bits = (decodeBase64(s, i) << 18)
+                    | (decodeBase64(s, i + 1) << 12);
+            if (remainder == 3) {
+                bits |= decodeBase64(s, i + 2) << 6;
+            }
+            chunk[n++] = (byte) (bits >> 16);
+            if (remainder == 3) {
+                chunk[n++] = (byte) (bits >> 8);
+            }
+        }
+        target.put(chunk, 0, n);
+    }
+
+    /**
+     * Returns the 6-bit value of the base64 character at the given index
+     * of the given string
+     *
+     * @param s     The string
+     * @param index The index
+     * @return The value
+     * @throws IllegalArgumentException If the character is not a valid
+     *                                  base64 character
+     */
+    private static int decodeBase64(String s, int index) {
+        char c = s.charAt(index);
+        int value = c < 128 ? BASE64_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException(
+                    "Illegal base64 character " + Integer.toHexString(c)
+                            + " at index " + index);
+        }
+        return value;
+    }
+
+    /**
+     * Creates the lookup table from base64 characters to their values
+     *
+     * @return The lookup table
+     */
+    private static int[] createBase64Values() {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+                + "abcdefghijklmnopqrstuvwxyz0123456789+/";
+        int[] values = new int[128];
+        Arrays.fill(values, -1);
+        for (int i = 0; i < alphabet.length(); i++) {
+            values[alphabet.charAt(i)] = i;
+        }
+        return values;
     }
 
     /**
@@ -237,6 +689,49 @@ public class IO {
         return baos.toByteArray();
     }
 
+    /**
+     * Memory-map the file with the given path. The returned buffer will be
+     * a read-only buffer with little-endian byte order, that stays valid
+     * after this method returns. Its contents will not be copied into the
+     * heap, but are paged in from the file system on demand.
+     *
+     * @param path The path of the file
+     * @return The mapped buffer
+     * @throws IOException If an IO error occurs, or the file is larger
+     *                     than 2GB
+     */
+    public static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel fileChannel =
+                     FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(fileChannel);
+        }
+    }
+
+    /**
+     * Memory-map the contents of the given file channel, from its current
+     * position up to its size. The returned buffer will be a read-only
+     * buffer with little-endian byte order, that stays valid when the
+     * channel is closed. The caller is responsible for closing the
+     * given channel.
+     *
+     * @param fileChannel The file channel
+     * @return The mapped buffer
+     * @throws IOException If an IO error occurs, or the mapped region
+     *                     is larger than 2GB
+     */
+    public static ByteBuffer map(FileChannel fileChannel) throws IOException {
+        long position = fileChannel.position();
+        long size = fileChannel.size() - position;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Cannot map " + size + " bytes, "
+                    + "the maximum size is " + Integer.MAX_VALUE);
+        }
+        ByteBuffer byteBuffer = fileChannel.map(
+                FileChannel.MapMode.READ_ONLY, position, size);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        return byteBuffer;
+    }
+
     /**
      * Read the specified number of bytes from the given input stream,
      * writing them into the given array at the given offset
@@ -1,5 +1,6 @@
 package de.javagl.jgltf.model.io;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.*;
@@ -11,6 +12,8 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import de.javagl.jgltf.logging.Logger;
 
@@ -33,6 +36,31 @@ public class JacksonUtils {
             jsonError -> logger.warning("Error: " + jsonError.getMessage() +
                     ", JSON path " + jsonError.getJsonPathString());
 
+    /**
+     * The key for the attribute of a DeserializationContext that stores
+     * the consumer for {@link JsonError}s, for object mappers that have
+     * been configured with a <code>null</code> consumer.
+     */
+    private static final String JSON_ERROR_CONSUMER_ATTRIBUTE =
+            "de.javagl.jgltf.model.io.jsonErrorConsumer";
+
+    /**
+     * The shared object mapper. This is configured to obtain the consumer
+     * for {@link JsonError}s from the attributes of the deserialization
+     * context, so that it does not have to be re-configured (and the
+     * bean deserializers do not have to be re-created) for each
+     * consumer.
+     */
+    private static final ObjectMapper SHARED_OBJECT_MAPPER =
+            createSharedObjectMapper();
+
+    /**
+     * The object readers of the {@link #SHARED_OBJECT_MAPPER}, for each
+     * type that was read until now
+     */
+    private static final Map<Class<?>, ObjectReader> SHARED_OBJECT_READERS =
+            new ConcurrentHashMap<>();
+
     /**
      * Create a DeserializationProblemHandler that may be added to an
      * ObjectMapper, and will handle unknown properties by forwarding
@@ -52,8 +80,11 @@ public class JacksonUtils {
                     JsonDeserializer<?> deserializer, Object beanOrClass,
                     String propertyName)
                     throws IOException, JsonProcessingException {
-                if (jsonErrorConsumer != null) {
-                    jsonErrorConsumer.accept(new JsonError(
+                Consumer<? super JsonError> consumer =
+                        jsonErrorConsumer != null ? jsonErrorConsumer :
+                                getJsonErrorConsumer(ctxt);
+                if (consumer != null) {
+                    consumer.accept(new JsonError(
                             "Unknown property: " + propertyName,
                             jp.getParsingContext(), null));
                 }
@@ -113,7 +144,11 @@ public class JacksonUtils {
      *
      * @param objectMapper      The object mapper
      * @param jsonErrorConsumer The consumer for {@link JsonError}s. If this
-     *                          is <code>null</code>, then the errors will not be handled.
+     *                          is <code>null</code>, then the errors will only be passed to
+     *                          a consumer that is stored in the deserialization context,
+     *                          as it is done for the readers that are created with
+     *                          {@link #createObjectReader(Class, Consumer)}, and not be
+     *                          handled otherwise.
      */
     public static void configure(
             ObjectMapper objectMapper,
@@ -148,6 +183,71 @@ public class JacksonUtils {
 
     }
 
+    /**
+     * Creates the object mapper that is shared by all readers that are
+     * created with {@link #createObjectReader(Class, Consumer)}
+     *
+     * @return The object mapper
+     */
+    private static ObjectMapper createSharedObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        configure(objectMapper, null);
+        return objectMapper;
+    }
+
+    /**
+     * Returns an object reader for the given type that forwards errors to
+     * the given consumer.<br>
+     * <br>
+     * The returned reader is immutable and thread-safe. All readers that
+     * are returned by this method share the same underlying object mapper,
+     * so that the bean introspection and the creation of the deserializers
+     * for the given type are only done once, when a reader for the type
+     * is requested for the first time.
+     *
+     * @param type              The type that should be read
+     * @param jsonErrorConsumer The consumer for {@link JsonError}s. If this
+     *                          is <code>null</code>, then the errors will not be handled.
+     * @return The object reader
+     */
+    public static ObjectReader createObjectReader(
+            Class<?> type, Consumer<? super JsonError> jsonErrorConsumer) {
+        ObjectReader objectReader = SHARED_OBJECT_READERS.computeIfAbsent(
+                type, SHARED_OBJECT_MAPPER::readerFor);
+        return objectReader.withAttribute(
+                JSON_ERROR_CONSUMER_ATTRIBUTE, jsonErrorConsumer);
+    }
+
+    /**
+     * Returns the JSON factory of the shared object mapper. This may be
+     * used for creating parsers that only have to perform a low-level
+     * inspection of the JSON. The returned factory is thread-safe.
+     *
+     * @return The JSON factory
+     */
+    public static JsonFactory getJsonFactory() {
+        return SHARED_OBJECT_MAPPER.getFactory();
+    }
+
+    /**
+     * Returns the consumer for {@link JsonError}s that was stored in the
+     * given context by an object reader that was created with
+     * {@link #createObjectReader(Class, Consumer)}, or <code>null</code>
+     * if there is no such consumer.
+     *
+     * @param ctxt The deserialization context
+     * @return The consumer
+     */
+    @SuppressWarnings("unchecked")
+    static Consumer<? super JsonError> getJsonErrorConsumer(
+            DeserializationContext ctxt) {
+        if (ctxt == null) {
+            return null;
+        }
+        return (Consumer<? super JsonError>)
+                ctxt.getAttribute(JSON_ERROR_CONSUMER_ATTRIBUTE);
+    }
+
     /**
      * Private constructor to prevent instantiation
      */
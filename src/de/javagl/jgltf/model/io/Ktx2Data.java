@@ -0,0 +1,228 @@
+package de.javagl.jgltf.model.io;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The data of a KTX2 texture container.<br>
+ * <br>
+ * Instances of this class are returned by the {@link Ktx2DataReader}.
+ * The data of the mip levels is already decompressed, unless the
+ * {@link #getSupercompressionScheme() supercompression scheme} is
+ * {@link #SUPERCOMPRESSION_BASIS_LZ}.
+ */
+public final class Ktx2Data {
+    /**
+     * The supercompression scheme indicating that the data is not
+     * supercompressed
+     */
+    public static final int SUPERCOMPRESSION_NONE = 0;
+
+    /**
+     * The supercompression scheme indicating BasisLZ
+     */
+    public static final int SUPERCOMPRESSION_BASIS_LZ = 1;
+
+    /**
+     * The supercompression scheme indicating Zstandard
+     */
+    public static final int SUPERCOMPRESSION_ZSTD = 2;
+
+    /**
+     * The supercompression scheme indicating ZLIB
+     */
+    public static final int SUPERCOMPRESSION_ZLIB = 3;
+
+    /**
+     * The Vulkan format
+     */
+    private final int vkFormat;
+
+    /**
+     * The size of the data type in bytes
+     */
+    private final int typeSize;
+
+    /**
+     * The width of the base level, in pixels
+     */
+    private final int pixelWidth;
+
+    /**
+     * The height of the base level, in pixels
+     */
+    private final int pixelHeight;
+
+    /**
+     * The depth of the base level, in pixels
+     */
+    private final int pixelDepth;
+
+    /**
+     * The number of array layers
+     */
+    private final int layerCount;
+
+    /**
+     * The number of cube map faces
+     */
+    private final int faceCount;
+
+    /**
+     * Whether the mip levels should be generated at load time
+     */
+    private final boolean generateMipmaps;
+
+    /**
+     * The supercompression scheme of the original data
+     */
+    private final int supercompressionScheme;
+
+    /**
+     * The data of the mip levels
+     */
+    private final List<ByteBuffer> levelDatas;
+
+    /**
+     * Creates a new instance
+     *
+     * @param vkFormat               The Vulkan format
+     * @param typeSize               The size of the data type
+     * @param pixelWidth             The width
+     * @param pixelHeight            The height
+     * @param pixelDepth             The depth
+     * @param layerCount             The number of array layers
+     * @param faceCount              The number of faces
+     * @param generateMipmaps        Whether mip levels should be generated
+     * @param supercompressionScheme The supercompression scheme
+     * @param levelDatas             The data of the mip levels
+     */
+    Ktx2Data(int vkFormat, int typeSize,
+             int pixelWidth, int pixelHeight, int pixelDepth,
+             int layerCount, int faceCount, boolean generateMipmaps,
+             int supercompressionScheme, List<ByteBuffer> levelDatas) {
+        this.vkFormat = vkFormat;
+        this.typeSize = typeSize;
+        this.pixelWidth = pixelWidth;
+        this.pixelHeight = pixelHeight;
+        this.pixelDepth = pixelDepth;
+        this.layerCount = layerCount;
+        this.faceCount = faceCount;
+        this.generateMipmaps = generateMipmaps;
+        this.supercompressionScheme = supercompressionScheme;
+        this.levelDatas = Collections.unmodifiableList(levelDatas);
+    }
+
+    /**
+     * Returns the Vulkan format of the data. This is <code>0</code>
+     * (<code>VK_FORMAT_UNDEFINED</code>) for Basis Universal data.
+     *
+     * @return The Vulkan format
+     */
+    public int getVkFormat() {
+        return vkFormat;
+    }
+
+    /**
+     * Returns the size of the data type, in bytes
+     *
+     * @return The type size
+     */
+    public int getTypeSize() {
+        return typeSize;
+    }
+
+    /**
+     * Returns the width of the base level, in pixels
+     *
+     * @return The width
+     */
+    public int getPixelWidth() {
+        return pixelWidth;
+    }
+
+    /**
+     * Returns the height of the base level, in pixels. This is
+     * <code>0</code> for 1D textures.
+     *
+     * @return The height
+     */
+    public int getPixelHeight() {
+        return pixelHeight;
+    }
+
+    /**
+     * Returns the depth of the base level, in pixels. This is
+     * <code>0</code> for 1D and 2D textures.
+     *
+     * @return The depth
+     */
+    public int getPixelDepth() {
+        return pixelDepth;
+    }
+
+    /**
+     * Returns the number of array layers. This is <code>0</code> if
+     * the texture is not an array texture.
+     *
+     * @return The layer count
+     */
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    /**
+     * Returns the number of faces. This is <code>6</code> for cube maps,
+     * and <code>1</code> otherwise.
+     *
+     * @return The face count
+     */
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    /**
+     * Returns whether the container only contains the base level, and
+     * the remaining mip levels should be generated at load time
+     *
+     * @return Whether mipmaps should be generated
+     */
+    public boolean isGenerateMipmaps() {
+        return generateMipmaps;
+    }
+
+    /**
+     * Returns the supercompression scheme that was used for the data in
+     * the container. This is one of the <code>SUPERCOMPRESSION_*</code>
+     * constants of this class.
+     *
+     * @return The supercompression scheme
+     */
+    public int getSupercompressionScheme() {
+        return supercompressionScheme;
+    }
+
+    /**
+     * Returns the number of mip levels that are contained in the container
+     *
+     * @return The level count
+     */
+    public int getLevelCount() {
+        return levelDatas.size();
+    }
+
+    /**
+     * Returns the data of the specified mip level, where level 0 is the
+     * base level. For 2D textures, this consists of the rows of pixels of
+     * the level, without any padding.
+     *
+     * @param level The level
+     * @return The level data
+     * @throws IndexOutOfBoundsException If the level is negative or not
+     *                                   smaller than the {@link #getLevelCount() level count}
+     */
+    public ByteBuffer getLevelData(int level) {
+        return Buffers.createSlice(levelDatas.get(level));
+    }
+}
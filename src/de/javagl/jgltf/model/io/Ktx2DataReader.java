@@ -0,0 +1,207 @@
+package de.javagl.jgltf.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A class for reading the data of a KTX2 texture container, as it is
+ * used by the <code>KHR_texture_basisu</code> extension.<br>
+ * <br>
+ * The level index of the container is parsed, and the data of all mip
+ * levels is extracted. Levels that are supercompressed with Zstandard or
+ * ZLIB are decompressed. Data that is supercompressed with BasisLZ is
+ * returned as it is, because transcoding Basis Universal data is not
+ * supported.
+ */
+public final class Ktx2DataReader {
+    /**
+     * The file identifier of KTX2 data, which is the string
+     * <code>"KTX 20"</code>, enclosed in guillemets, followed by
+     * <code>"\r\n\x1A\n"</code>
+     */
+    private static final byte[] IDENTIFIER = {
+            (byte) 0xAB, 0x4B, 0x54, 0x58, 0x20, 0x32,
+            0x30, (byte) 0xBB, 0x0D, 0x0A, 0x1A, 0x0A
+    };
+
+    /**
+     * The size of the header and the index, before the level index
+     */
+    private static final int HEADER_SIZE = 80;
+
+    /**
+     * The size of one entry of the level index
+     */
+    private static final int LEVEL_INDEX_ENTRY_SIZE = 24;
+
+    /**
+     * Returns whether the given data starts with the KTX2 file identifier.
+     * The data is checked starting at the position of the given buffer.
+     * The position of the buffer will not be changed.
+     *
+     * @param data The data
+     * @return Whether the data is KTX2 data
+     */
+    public static boolean isKtx2(ByteBuffer data) {
+        if (data == null || data.remaining() < IDENTIFIER.length) {
+            return false;
+        }
+        int position = data.position();
+        for (int i = 0; i < IDENTIFIER.length; i++) {
+            if (data.get(position + i) != IDENTIFIER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the {@link Ktx2Data} from the given buffer, from its position
+     * to its limit.<br>
+     * <br>
+     * When the data is not supercompressed, then the data of the levels
+     * will be slices of the given buffer. Otherwise, it will be the
+     * decompressed data.
+     *
+     * @param data The data
+     * @return The {@link Ktx2Data}
+     * @throws IOException If the data is not valid KTX2 data, or uses an
+     *                     unknown supercompression scheme
+     */
+    public static Ktx2Data read(ByteBuffer data) throws IOException {
+        if (!isKtx2(data)) {
+            throw new IOException("Invalid KTX2 data: Invalid identifier");
+        }
+        ByteBuffer ktx = Buffers.createSlice(data)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if (ktx.capacity() < HEADER_SIZE) {
+            throw new IOException("Invalid KTX2 data: Expected at least "
+                    + HEADER_SIZE + " bytes, but found " + ktx.capacity());
+        }
+        int vkFormat = ktx.getInt(12);
+        int typeSize = ktx.getInt(16);
+        int pixelWidth = ktx.getInt(20);
+        int pixelHeight = ktx.getInt(24);
+        int pixelDepth = ktx.getInt(28);
+        int layerCount = ktx.getInt(32);
+        int faceCount = ktx.getInt(36);
+        int headerLevelCount = ktx.getInt(40);
+        int supercompressionScheme = ktx.getInt(44);
+        if (pixelWidth <= 0 || pixelHeight < 0 || pixelDepth < 0
+                || layerCount < 0 || faceCount <= 0) {
+            throw new IOException("Invalid KTX2 data: Invalid size "
+                    + pixelWidth + "x" + pixelHeight + "x" + pixelDepth
+                    + " with " + layerCount + " layers and "
+                    + faceCount + " faces");
+        }
+        if (supercompressionScheme < Ktx2Data.SUPERCOMPRESSION_NONE
+                || supercompressionScheme > Ktx2Data.SUPERCOMPRESSION_ZLIB) {
+            throw new IOException("Unsupported KTX2 supercompression "
+                    + "scheme: " + supercompressionScheme);
+        }
+        int levelCount = Math.max(1, headerLevelCount);
+        if (levelCount > 32 || HEADER_SIZE
+                + levelCount * LEVEL_INDEX_ENTRY_SIZE > ktx.capacity()) {
+            throw new IOException("Invalid KTX2 data: Invalid level count "
+                    + headerLevelCount);
+        }
+
+        List<ByteBuffer> levelDatas = new ArrayList<>(levelCount);
+        for (int i = 0; i < levelCount; i++) {
+            int entry = HEADER_SIZE + i * LEVEL_INDEX_ENTRY_SIZE;
+            long byteOffset = ktx.getLong(entry);
+            long byteLength = ktx.getLong(entry + 8);
+            long uncompressedByteLength = ktx.getLong(entry + 16);
+            if (byteOffset < 0 || byteLength < 0
+                    || byteOffset + byteLength > ktx.capacity()
+                    || uncompressedByteLength < 0
+                    || uncompressedByteLength > Integer.MAX_VALUE) {
+                throw new IOException("Invalid KTX2 data: Level " + i
+                        + " with offset " + byteOffset + " and length "
+                        + byteLength + " is not valid for data with "
+                        + ktx.capacity() + " bytes");
+            }
+            ByteBuffer levelData = Buffers.createSlice(
+                    ktx, (int) byteOffset, (int) byteLength);
+            levelDatas.add(decompress(levelData,
+                    supercompressionScheme, (int) uncompressedByteLength));
+        }
+        return new Ktx2Data(vkFormat, typeSize,
+                pixelWidth, pixelHeight, pixelDepth, layerCount, faceCount,
+                headerLevelCount == 0, supercompressionScheme, levelDatas);
+    }
+
+    /**
+     * Decompress the given level data, depending on the given
+     * supercompression scheme
+     *
+     * @param levelData              The level data
+     * @param supercompressionScheme The supercompression scheme
+     * @param uncompressedByteLength The uncompressed length
+     * @return The decompressed data
+     * @throws IOException If the data cannot be decompressed
+     */
+    private static ByteBuffer decompress(ByteBuffer levelData,
+                                         int supercompressionScheme, int uncompressedByteLength)
+            throws IOException {
+        switch (supercompressionScheme) {
+            case Ktx2Data.SUPERCOMPRESSION_ZSTD:
+                return ZstdDecoder.decompress(
+                        levelData, uncompressedByteLength);
+            case Ktx2Data.SUPERCOMPRESSION_ZLIB:
+                return inflate(levelData, uncompressedByteLength);
+            default:
+                return levelData;
+        }
+    }
+
+    /**
+     * Decompress the given ZLIB-compressed data
+     *
+     * @param data                   The data
+     * @param uncompressedByteLength The uncompressed length
+     * @return The decompressed data
+     * @throws IOException If the data cannot be decompressed
+     */
+    private static ByteBuffer inflate(ByteBuffer data,
+                                      int uncompressedByteLength) throws IOException {
+        byte[] input = new byte[data.remaining()];
+        data.slice().get(input);
+        byte[] output = new byte[uncompressedByteLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int length = 0;
+            while (length < output.length && !inflater.finished()) {
+                int n = inflater.inflate(
+                        output, length, output.length - length);
+                if (n == 0 && (inflater.needsInput()
+                        || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != output.length || !inflater.finished()) {
+                throw new IOException("Invalid KTX2 data: ZLIB data does "
+                        + "not contain " + uncompressedByteLength + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid KTX2 data: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+        return Buffers.create(output);
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Ktx2DataReader() {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -92,6 +92,9 @@ public class MimeTypes {
      */
     private static String guessImageMimeTypeString(ByteBuffer imageData)
             throws IOException {
+        if (Ktx2DataReader.isKtx2(imageData)) {
+            return "image/ktx2";
+        }
         ImageReader imageReader = null;
         try {
             imageReader = ImageReaders.findImageReader(imageData);
@@ -164,6 +167,7 @@ public class MimeTypes {
      *   <li><code>"image/jpeg"</code> : <code>"jpg"</code></li>
      *   <li><code>"image/png"</code> : <code>"png"</code></li>
      *   <li><code>"image/gif"</code> : <code>"gif"</code></li>
+     *   <li><code>"image/ktx2"</code> : <code>"ktx2"</code></li>
      * </ul>
      * For other inputs, a warning will be printed, and <code>null</code> will
      * be returned.
@@ -182,6 +186,9 @@ public class MimeTypes {
         if ("image/gif".equals(mimeTypeString)) {
             return "gif";
         }
+        if ("image/ktx2".equals(mimeTypeString)) {
+            return "ktx2";
+        }
         logger.warning("Invalid MIME type string: " + mimeTypeString);
         return null;
     }
@@ -27,7 +27,7 @@ class RawGltfDataReader {
      * The magic binary glTF header.
      * This is an integer corresponding to the ASCII string <code>"glTF"</code>
      */
-    private static final int MAGIC_BINARY_GLTF_HEADER = 0x46546C67;
+    static final int MAGIC_BINARY_GLTF_HEADER = 0x46546C67;
 
     /**
      * The version number indicating glTF 1.0
@@ -41,33 +41,51 @@ class RawGltfDataReader {
 
     /**
      * Read the raw glTF data from the given input stream. The caller is
-     * responsible for closing the given stream.
+     * responsible for closing the given stream.<br>
+     * <br>
+     * For binary glTF data, the length from the header will be used for
+     * reading the data into a buffer that is allocated only once.
      *
      * @param inputStream The input stream
      * @return The {@link RawGltfData}
      * @throws IOException If an IO error occurs
      */
     public static RawGltfData read(InputStream inputStream) throws IOException {
-        byte[] rawData = IO.readStream(inputStream);
-        if (rawData.length >= 8) {
-            ByteBuffer data =
-                    ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN);
-            IntBuffer intData = data.asIntBuffer();
+        return read(IO.readStreamToBuffer(inputStream, -1));
+    }
+
+    /**
+     * Read the raw glTF data from the given buffer, from its current
+     * position up to its limit.<br>
+     * <br>
+     * The JSON- and binary data of the returned {@link RawGltfData} will
+     * be slices of the given buffer. No data will be copied. This allows
+     * passing in a memory-mapped buffer, so that the data of a binary
+     * glTF is never copied into the heap.
+     *
+     * @param data The buffer containing the raw glTF data
+     * @return The {@link RawGltfData}
+     * @throws IOException If an IO error occurs
+     */
+    public static RawGltfData read(ByteBuffer data) throws IOException {
+        ByteBuffer rawData =
+                Buffers.createSlice(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (rawData.capacity() >= 8) {
+            IntBuffer intData = rawData.asIntBuffer();
             int magic = intData.get(0);
             if (magic == MAGIC_BINARY_GLTF_HEADER) {
                 int version = intData.get(1);
                 if (version == BINARY_GLTF_VERSION_1) {
-                    return RawBinaryGltfDataReaderV1.readBinaryGltf(data);
+                    return RawBinaryGltfDataReaderV1.readBinaryGltf(rawData);
                 }
                 if (version == BINARY_GLTF_VERSION_2) {
-                    return RawBinaryGltfDataReaderV2.readBinaryGltf(data);
+                    return RawBinaryGltfDataReaderV2.readBinaryGltf(rawData);
                 }
                 throw new IOException(
                         "Unknown binary glTF version: " + version);
             }
         }
-        ByteBuffer jsonData = Buffers.create(rawData);
-        return new RawGltfData(jsonData, null);
+        return new RawGltfData(rawData, null);
     }
 
     /**
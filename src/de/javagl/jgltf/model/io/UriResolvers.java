@@ -34,18 +34,16 @@ public class UriResolvers {
     public static Function<String, ByteBuffer> createBaseUriResolver(
             URI baseUri) {
         Objects.requireNonNull(baseUri, "The baseUri may not be null");
-        Function<String, InputStream> inputStreamFunction =
-                uriString -> {
-                    try {
-                        URI absoluteUri = IO.makeAbsolute(baseUri, uriString);
-                        return IO.createInputStream(absoluteUri);
-                    } catch (IOException e) {
-                        logger.warning("Could not open input stream for URI "
-                                + uriString + ":  " + e.getMessage());
-                        return null;
-                    }
-                };
-        return reading(inputStreamFunction);
+        return uriString -> {
+            try {
+                URI absoluteUri = IO.makeAbsolute(baseUri, uriString);
+                return IO.readToBuffer(absoluteUri);
+            } catch (IOException e) {
+                logger.warning("Could not read data from URI "
+                        + uriString + ":  " + e.getMessage());
+                return null;
+            }
+        };
     }
 
     /**
@@ -0,0 +1,1171 @@
+package de.javagl.jgltf.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A decoder for data that was compressed with Zstandard, as described in
+ * RFC 8878.<br>
+ * <br>
+ * This is used for the supercompression of KTX2 texture data. Frames that
+ * use dictionaries are not supported. Content checksums are skipped
+ * without being verified.
+ */
+final class ZstdDecoder {
+    /**
+     * The magic number of a Zstandard frame
+     */
+    private static final int FRAME_MAGIC = 0xFD2FB528;
+
+    /**
+     * The mask for the magic number of skippable frames
+     */
+    private static final int SKIPPABLE_FRAME_MAGIC_MASK = 0xFFFFFFF0;
+
+    /**
+     * The magic number of skippable frames, masked with the
+     * {@link #SKIPPABLE_FRAME_MAGIC_MASK}
+     */
+    private static final int SKIPPABLE_FRAME_MAGIC = 0x184D2A50;
+
+    /**
+     * The maximum size of a block
+     */
+    private static final int MAX_BLOCK_SIZE = 128 * 1024;
+
+    /**
+     * The maximum number of bits of a Huffman code
+     */
+    private static final int MAX_HUFFMAN_BITS = 11;
+
+    /**
+     * The maximum accuracy log for literal length tables
+     */
+    private static final int MAX_LITERAL_LENGTH_LOG = 9;
+
+    /**
+     * The maximum accuracy log for match length tables
+     */
+    private static final int MAX_MATCH_LENGTH_LOG = 9;
+
+    /**
+     * The maximum accuracy log for offset tables
+     */
+    private static final int MAX_OFFSET_LOG = 8;
+
+    /**
+     * The baselines of the literal length codes
+     */
+    private static final int[] LITERAL_LENGTH_BASELINES = {
+            0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+            16, 18, 20, 22, 24, 28, 32, 40, 48, 64, 128, 256, 512,
+            1024, 2048, 4096, 8192, 16384, 32768, 65536
+    };
+
+    /**
+     * The number of additional bits of the literal length codes
+     */
+    private static final int[] LITERAL_LENGTH_BITS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            1, 1, 1, 1, 2, 2, 3, 3, 4, 6, 7, 8, 9, 10, 11, 12,
+            13, 14, 15, 16
+    };
+
+    /**
+     * The baselines of the match length codes
+     */
+    private static final int[] MATCH_LENGTH_BASELINES = {
+            3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18,
+            19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34,
+            35, 37, 39, 41, 43, 47, 51, 59, 67, 83, 99, 131, 259, 515,
+            1027, 2051, 4099, 8195, 16387, 32771, 65539
+    };
+
+    /**
+     * The number of additional bits of the match length codes
+     */
+    private static final int[] MATCH_LENGTH_BITS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            1, 1, 1, 1, 2, 2, 3, 3, 4, 4, 5, 7, 8, 9, 10, 11,
+            12, 13, 14, 15, 16
+    };
+
+    /**
+     * The predefined distribution of the literal length codes
+     */
+    private static final FseTable PREDEFINED_LITERAL_LENGTH_TABLE =
+            new FseTable(6, new short[]{
+                    4, 3, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 1, 1,
+                    2, 2, 2, 2, 2, 2, 2, 2, 2, 3, 2, 1, 1, 1, 1, 1,
+                    -1, -1, -1, -1
+            });
+
+    /**
+     * The predefined distribution of the match length codes
+     */
+    private static final FseTable PREDEFINED_MATCH_LENGTH_TABLE =
+            new FseTable(6, new short[]{
+                    1, 4, 3, 2, 2, 2, 2, 2, 2, 1, 1, 1, 1, 1, 1, 1,
+                    1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1,
+                    1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, -1, -1,
+                    -1, -1, -1, -1, -1
+            });
+
+    /**
+     * The predefined distribution of the offset codes
+     */
+    private static final FseTable PREDEFINED_OFFSET_TABLE =
+            new FseTable(5, new short[]{
+                    1, 1, 1, 1, 1, 1, 2, 2, 2, 1, 1, 1, 1, 1, 1, 1,
+                    1, 1, 1, 1, 1, 1, 1, 1, -1, -1, -1, -1, -1
+            });
+
+    /**
+     * The compressed input data
+     */
+    private final byte[] input;
+
+    /**
+     * The current position in the input data
+     */
+    private int inputPosition;
+
+    /**
+     * The decompressed output data
+     */
+    private final byte[] output;
+
+    /**
+     * The current position in the output data
+     */
+    private int outputPosition;
+
+    /**
+     * The literals of the current block
+     */
+    private final byte[] literals;
+
+    /**
+     * The number of literals in the current block
+     */
+    private int literalsLength;
+
+    /**
+     * The Huffman table of the previous block that contained
+     * compressed literals
+     */
+    private HuffmanTable huffmanTable;
+
+    /**
+     * The literal length table of the previous block
+     */
+    private FseTable literalLengthTable;
+
+    /**
+     * The match length table of the previous block
+     */
+    private FseTable matchLengthTable;
+
+    /**
+     * The offset table of the previous block
+     */
+    private FseTable offsetTable;
+
+    /**
+     * The repeated offsets
+     */
+    private final int[] repeatedOffsets;
+
+    /**
+     * Creates a new decoder
+     *
+     * @param input      The input data
+     * @param outputSize The size of the decompressed data
+     */
+    private ZstdDecoder(byte[] input, int outputSize) {
+        this.input = input;
+        this.output = new byte[outputSize];
+        this.literals = new byte[MAX_BLOCK_SIZE];
+        this.repeatedOffsets = new int[3];
+    }
+
+    /**
+     * Decompress the given Zstandard-compressed data.<br>
+     * <br>
+     * The data is read from the position of the given buffer up to its
+     * limit. It may consist of multiple frames, whose contents will be
+     * concatenated.
+     *
+     * @param data                The compressed data
+     * @param decompressedSize    The size of the decompressed data
+     * @return The decompressed data, as a direct buffer
+     * @throws IOException If the data is not valid Zstandard data, or the
+     *                     size of the decompressed data does not match the
+     *                     given size
+     */
+    static ByteBuffer decompress(ByteBuffer data, int decompressedSize)
+            throws IOException {
+        ByteBuffer slice = data.slice();
+        byte[] input = new byte[slice.remaining()];
+        slice.get(input);
+        ZstdDecoder decoder = new ZstdDecoder(input, decompressedSize);
+        try {
+            decoder.decodeFrames();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException(
+                    "Invalid Zstandard data: Data is truncated or corrupt",
+                    e);
+        }
+        if (decoder.outputPosition != decompressedSize) {
+            throw new IOException("Invalid Zstandard data: Expected "
+                    + decompressedSize + " bytes, but decompressed "
+                    + decoder.outputPosition + " bytes");
+        }
+        return Buffers.create(decoder.output);
+    }
+
+    /**
+     * Decode all frames of the input
+     *
+     * @throws IOException If the data is invalid
+     */
+    private void decodeFrames() throws IOException {
+        while (inputPosition < input.length) {
+            int magic = readInt(input, inputPosition);
+            inputPosition += 4;
+            if ((magic & SKIPPABLE_FRAME_MAGIC_MASK)
+                    == SKIPPABLE_FRAME_MAGIC) {
+                int frameSize = readInt(input, inputPosition);
+                inputPosition += 4;
+                if (frameSize < 0 || frameSize > input.length - inputPosition) {
+                    throw invalidData("Invalid skippable frame size");
+                }
+                inputPosition += frameSize;
+            } else if (magic == FRAME_MAGIC) {
+                decodeFrame();
+            } else {
+                throw invalidData("Invalid frame magic number: 0x"
+                        + Integer.toHexString(magic));
+            }
+        }
+    }
+
+    /**
+     * Decode a single frame, starting after its magic number
+     *
+     * @throws IOException If the data is invalid
+     */
+    private void decodeFrame() throws IOException {
+        int descriptor = input[inputPosition++] & 0xFF;
+        int frameContentSizeFlag = descriptor >>> 6;
+        boolean singleSegment = (descriptor & 0x20) != 0;
+        boolean hasChecksum = (descriptor & 0x04) != 0;
+        int dictionaryIdFlag = descriptor & 0x03;
+        if ((descriptor & 0x08) != 0) {
+            throw invalidData("Reserved bit is set in frame header");
+        }
+        if (!singleSegment) {
+            // Skip the window descriptor. The whole output is kept in
+            // memory, so the window size is not relevant here
+            inputPosition++;
+        }
+        int dictionaryIdSize = dictionaryIdFlag == 3 ? 4 : dictionaryIdFlag;
+        long dictionaryId = 0;
+        for (int i = 0; i < dictionaryIdSize; i++) {
+            dictionaryId |= (long) (input[inputPosition++] & 0xFF) << (8 * i);
+        }
+        if (dictionaryId != 0) {
+            throw invalidData("Dictionaries are not supported");
+        }
+        int frameContentSizeSize;
+        if (frameContentSizeFlag == 0) {
+            frameContentSizeSize = singleSegment ? 1 : 0;
+        } else {
+            frameContentSizeSize = 1 << frameContentSizeFlag;
+        }
+        inputPosition += frameContentSizeSize;
+
+        repeatedOffsets[0] = 1;
+        repeatedOffsets[1] = 4;
+        repeatedOffsets[2] = 8;
+        huffmanTable = null;
+        literalLengthTable = null;
+        matchLengthTable = null;
+        offsetTable = null;
+
+        boolean lastBlock = false;
+        while (!lastBlock) {
+            int blockHeader = (input[inputPosition] & 0xFF)
+                    | (input[inputPosition + 1] & 0xFF) << 8
+                    | (input[inputPosition + 2] & 0xFF) << 16;
+            inputPosition += 3;
+            lastBlock = (blockHeader & 1) != 0;
+            int blockType = (blockHeader >>> 1) & 3;
+            int blockSize = blockHeader >>> 3;
+            switch (blockType) {
+                case 0:
+                    checkOutput(blockSize);
+                    System.arraycopy(input, inputPosition,
+                            output, outputPosition, blockSize);
+                    inputPosition += blockSize;
+                    outputPosition += blockSize;
+                    break;
+                case 1:
+                    checkOutput(blockSize);
+                    byte value = input[inputPosition++];
+                    for (int i = 0; i < blockSize; i++) {
+                        output[outputPosition++] = value;
+                    }
+                    break;
+                case 2:
+                    if (blockSize > MAX_BLOCK_SIZE) {
+                        throw invalidData("Invalid block size: " + blockSize);
+                    }
+                    int blockEnd = inputPosition + blockSize;
+                    if (blockEnd > input.length) {
+                        throw invalidData("Block exceeds input size");
+                    }
+                    decodeCompressedBlock(blockEnd);
+                    inputPosition = blockEnd;
+                    break;
+                default:
+                    throw invalidData("Reserved block type");
+            }
+        }
+        if (hasChecksum) {
+            inputPosition += 4;
+        }
+    }
+
+    /**
+     * Make sure that the given number of bytes can be written to the output
+     *
+     * @param length The length
+     * @throws IOException If the output is too small
+     */
+    private void checkOutput(int length) throws IOException {
+        if (length > output.length - outputPosition) {
+            throw invalidData("Decompressed data is larger than "
+                    + output.length + " bytes");
+        }
+    }
+
+    /**
+     * Decode a compressed block, consisting of the literals section and
+     * the sequences section
+     *
+     * @param blockEnd The end of the block in the input
+     * @throws IOException If the data is invalid
+     */
+    private void decodeCompressedBlock(int blockEnd) throws IOException {
+        decodeLiterals(blockEnd);
+        decodeSequences(blockEnd);
+    }
+
+    /**
+     * Decode the literals section of a compressed block into the
+     * {@link #literals}
+     *
+     * @param blockEnd The end of the block in the input
+     * @throws IOException If the data is invalid
+     */
+    private void decodeLiterals(int blockEnd) throws IOException {
+        int header0 = input[inputPosition] & 0xFF;
+        int literalsBlockType = header0 & 3;
+        int sizeFormat = (header0 >>> 2) & 3;
+        if (literalsBlockType == 0 || literalsBlockType == 1) {
+            int regeneratedSize;
+            switch (sizeFormat) {
+                case 1:
+                    regeneratedSize = (header0 >>> 4)
+                            | (input[inputPosition + 1] & 0xFF) << 4;
+                    inputPosition += 2;
+                    break;
+                case 3:
+                    regeneratedSize = (header0 >>> 4)
+                            | (input[inputPosition + 1] & 0xFF) << 4
+                            | (input[inputPosition + 2] & 0xFF) << 12;
+                    inputPosition += 3;
+                    break;
+                default:
+                    regeneratedSize = header0 >>> 3;
+                    inputPosition += 1;
+                    break;
+            }
+            if (regeneratedSize > MAX_BLOCK_SIZE) {
+                throw invalidData("Invalid literals size");
+            }
+            if (literalsBlockType == 0) {
+                if (regeneratedSize > blockEnd - inputPosition) {
+                    throw invalidData("Literals exceed block size");
+                }
+                System.arraycopy(input, inputPosition,
+                        literals, 0, regeneratedSize);
+                inputPosition += regeneratedSize;
+            } else {
+                byte value = input[inputPosition++];
+                for (int i = 0; i < regeneratedSize; i++) {
+                    literals[i] = value;
+                }
+            }
+            literalsLength = regeneratedSize;
+            return;
+        }
+
+        int headerSize = sizeFormat <= 1 ? 3 : sizeFormat + 2;
+        int sizeBits = sizeFormat <= 1 ? 10 : 4 * sizeFormat + 6;
+        long header = 0;
+        for (int i = 0; i < headerSize; i++) {
+            header |= (long) (input[inputPosition + i] & 0xFF) << (8 * i);
+        }
+        inputPosition += headerSize;
+        int sizeMask = (1 << sizeBits) - 1;
+        int regeneratedSize = (int) (header >>> 4) & sizeMask;
+        int compressedSize = (int) (header >>> (4 + sizeBits)) & sizeMask;
+        int streamCount = sizeFormat == 0 ? 1 : 4;
+        if (regeneratedSize > MAX_BLOCK_SIZE) {
+            throw invalidData("Invalid literals size");
+        }
+        int literalsEnd = inputPosition + compressedSize;
+        if (literalsEnd > blockEnd) {
+            throw invalidData("Literals exceed block size");
+        }
+        if (literalsBlockType == 2) {
+            huffmanTable = readHuffmanTable(literalsEnd);
+        } else if (huffmanTable == null) {
+            throw invalidData("Missing Huffman table for treeless literals");
+        }
+        if (streamCount == 1) {
+            decodeHuffmanStream(inputPosition, literalsEnd, 0,
+                    regeneratedSize);
+        } else {
+            int size0 = readShort(input, inputPosition);
+            int size1 = readShort(input, inputPosition + 2);
+            int size2 = readShort(input, inputPosition + 4);
+            int start0 = inputPosition + 6;
+            int start1 = start0 + size0;
+            int start2 = start1 + size1;
+            int start3 = start2 + size2;
+            if (start3 > literalsEnd) {
+                throw invalidData("Invalid Huffman stream sizes");
+            }
+            int segmentSize = (regeneratedSize + 3) / 4;
+            if (3 * segmentSize > regeneratedSize) {
+                throw invalidData("Invalid literals size for 4 streams");
+            }
+            decodeHuffmanStream(start0, start1,
+                    0, segmentSize);
+            decodeHuffmanStream(start1, start2,
+                    segmentSize, segmentSize);
+            decodeHuffmanStream(start2, start3,
+                    2 * segmentSize, segmentSize);
+            decodeHuffmanStream(start3, literalsEnd,
+                    3 * segmentSize, regeneratedSize - 3 * segmentSize);
+        }
+        literalsLength = regeneratedSize;
+        inputPosition = literalsEnd;
+    }
+
+    /**
+     * Read the description of a Huffman table, starting at the current
+     * input position, and advance the input position to its end
+     *
+     * @param end The end of the literals section in the input
+     * @return The {@link HuffmanTable}
+     * @throws IOException If the data is invalid
+     */
+    private HuffmanTable readHuffmanTable(int end) throws IOException {
+        int header = input[inputPosition++] & 0xFF;
+        int[] weights = new int[256];
+        int weightCount;
+        if (header >= 128) {
+            weightCount = header - 127;
+            int byteCount = (weightCount + 1) / 2;
+            if (inputPosition + byteCount > end) {
+                throw invalidData("Huffman weights exceed literals size");
+            }
+            for (int i = 0; i < weightCount; i++) {
+                int b = input[inputPosition + i / 2] & 0xFF;
+                weights[i] = (i & 1) == 0 ? b >>> 4 : b & 0xF;
+            }
+            inputPosition += byteCount;
+        } else {
+            int compressedEnd = inputPosition + header;
+            if (compressedEnd > end) {
+                throw invalidData("Huffman weights exceed literals size");
+            }
+            weightCount = decodeHuffmanWeights(compressedEnd, weights);
+            inputPosition = compressedEnd;
+        }
+        return new HuffmanTable(weights, weightCount);
+    }
+
+    /**
+     * Decode the FSE-compressed weights of a Huffman table
+     *
+     * @param end     The end of the compressed weights in the input
+     * @param weights The array that will store the weights
+     * @return The number of weights
+     * @throws IOException If the data is invalid
+     */
+    private int decodeHuffmanWeights(int end, int[] weights)
+            throws IOException {
+        FseTable table = readFseTable(end, 255, 6);
+        BackwardBitReader reader =
+                new BackwardBitReader(input, inputPosition, end);
+        int state1 = reader.readBits(table.accuracyLog);
+        int state2 = reader.readBits(table.accuracyLog);
+        int count = 0;
+        while (true) {
+            if (count >= 255) {
+                throw invalidData("Too many Huffman weights");
+            }
+            weights[count++] = table.symbols[state1];
+            state1 = table.update(state1, reader);
+            if (reader.isOverflowed()) {
+                weights[count++] = table.symbols[state2];
+                break;
+            }
+            if (count >= 255) {
+                throw invalidData("Too many Huffman weights");
+            }
+            weights[count++] = table.symbols[state2];
+            state2 = table.update(state2, reader);
+            if (reader.isOverflowed()) {
+                weights[count++] = table.symbols[state1];
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Decode a Huffman-compressed stream of literals
+     *
+     * @param start        The start of the stream in the input
+     * @param end          The end of the stream in the input
+     * @param outputOffset The offset in the {@link #literals}
+     * @param count        The number of literals to decode
+     * @throws IOException If the data is invalid
+     */
+    private void decodeHuffmanStream(int start, int end, int outputOffset,
+                                     int count) throws IOException {
+        HuffmanTable table = huffmanTable;
+        BackwardBitReader reader = new BackwardBitReader(input, start, end);
+        int maxBits = table.maxBits;
+        int mask = (1 << maxBits) - 1;
+        int state = reader.readBits(maxBits);
+        for (int i = 0; i < count; i++) {
+            literals[outputOffset + i] = table.symbols[state];
+            int bits = table.bits[state];
+            state = ((state << bits) | reader.readBits(bits)) & mask;
+        }
+        // The state contained the last maxBits bits of the stream, so the
+        // reader must be exactly maxBits beyond the start of the stream
+        if (!reader.isFinished(maxBits)) {
+            throw invalidData("Huffman stream was not fully consumed");
+        }
+    }
+
+    /**
+     * Decode the sequences section of a compressed block, and execute
+     * the sequences, writing the resulting data into the output
+     *
+     * @param blockEnd The end of the block in the input
+     * @throws IOException If the data is invalid
+     */
+    private void decodeSequences(int blockEnd) throws IOException {
+        int header0 = input[inputPosition++] & 0xFF;
+        int sequenceCount;
+        if (header0 < 128) {
+            sequenceCount = header0;
+        } else if (header0 < 255) {
+            sequenceCount = ((header0 - 128) << 8)
+                    | (input[inputPosition++] & 0xFF);
+        } else {
+            sequenceCount = readShort(input, inputPosition) + 0x7F00;
+            inputPosition += 2;
+        }
+        int literalsPosition = 0;
+        if (sequenceCount > 0) {
+            int modes = input[inputPosition++] & 0xFF;
+            if ((modes & 3) != 0) {
+                throw invalidData("Reserved bits are set in sequences header");
+            }
+            literalLengthTable = readSequenceTable(modes >>> 6, blockEnd,
+                    LITERAL_LENGTH_BASELINES.length - 1,
+                    MAX_LITERAL_LENGTH_LOG,
+                    PREDEFINED_LITERAL_LENGTH_TABLE, literalLengthTable);
+            offsetTable = readSequenceTable((modes >>> 4) & 3, blockEnd,
+                    31, MAX_OFFSET_LOG,
+                    PREDEFINED_OFFSET_TABLE, offsetTable);
+            matchLengthTable = readSequenceTable((modes >>> 2) & 3, blockEnd,
+                    MATCH_LENGTH_BASELINES.length - 1,
+                    MAX_MATCH_LENGTH_LOG,
+                    PREDEFINED_MATCH_LENGTH_TABLE, matchLengthTable);
+            literalsPosition = executeSequences(sequenceCount, blockEnd);
+        }
+        int remainingLiterals = literalsLength - literalsPosition;
+        checkOutput(remainingLiterals);
+        System.arraycopy(literals, literalsPosition,
+                output, outputPosition, remainingLiterals);
+        outputPosition += remainingLiterals;
+    }
+
+    /**
+     * Decode the given number of sequences from the bitstream that starts
+     * at the current input position, and execute them
+     *
+     * @param sequenceCount The number of sequences
+     * @param blockEnd      The end of the block in the input
+     * @return The position in the {@link #literals} after the sequences
+     * @throws IOException If the data is invalid
+     */
+    private int executeSequences(int sequenceCount, int blockEnd)
+            throws IOException {
+        FseTable llTable = literalLengthTable;
+        FseTable ofTable = offsetTable;
+        FseTable mlTable = matchLengthTable;
+        BackwardBitReader reader =
+                new BackwardBitReader(input, inputPosition, blockEnd);
+        int llState = reader.readBits(llTable.accuracyLog);
+        int ofState = reader.readBits(ofTable.accuracyLog);
+        int mlState = reader.readBits(mlTable.accuracyLog);
+        int literalsPosition = 0;
+        for (int i = 0; i < sequenceCount; i++) {
+            int ofCode = ofTable.symbols[ofState];
+            int llCode = llTable.symbols[llState];
+            int mlCode = mlTable.symbols[mlState];
+            long offsetValue = (1L << ofCode) + reader.readBits(ofCode);
+            int matchLength = MATCH_LENGTH_BASELINES[mlCode]
+                    + reader.readBits(MATCH_LENGTH_BITS[mlCode]);
+            int literalLength = LITERAL_LENGTH_BASELINES[llCode]
+                    + reader.readBits(LITERAL_LENGTH_BITS[llCode]);
+            if (i < sequenceCount - 1) {
+                llState = llTable.update(llState, reader);
+                mlState = mlTable.update(mlState, reader);
+                ofState = ofTable.update(ofState, reader);
+            }
+            if (reader.isOverflowed()) {
+                throw invalidData("Sequences bitstream is truncated");
+            }
+            int offset = computeOffset(offsetValue, literalLength);
+
+            if (literalLength > literalsLength - literalsPosition) {
+                throw invalidData("Sequence exceeds the literals");
+            }
+            checkOutput(literalLength + matchLength);
+            System.arraycopy(literals, literalsPosition,
+                    output, outputPosition, literalLength);
+            literalsPosition += literalLength;
+            outputPosition += literalLength;
+
+            if (offset > outputPosition) {
+                throw invalidData("Match offset " + offset
+                        + " exceeds the decompressed data");
+            }
+            int source = outputPosition - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(output, source,
+                        output, outputPosition, matchLength);
+                outputPosition += matchLength;
+            } else {
+                for (int j = 0; j < matchLength; j++) {
+                    output[outputPosition++] = output[source + j];
+                }
+            }
+        }
+        if (!reader.isFinished(0)) {
+            throw invalidData("Sequences bitstream was not fully consumed");
+        }
+        return literalsPosition;
+    }
+
+    /**
+     * Compute the actual offset from the given offset value, and update
+     * the {@link #repeatedOffsets} accordingly
+     *
+     * @param offsetValue   The offset value
+     * @param literalLength The literal length of the sequence
+     * @return The offset
+     * @throws IOException If the offset is invalid
+     */
+    private int computeOffset(long offsetValue, int literalLength)
+            throws IOException {
+        int[] r = repeatedOffsets;
+        if (offsetValue > 3) {
+            if (offsetValue - 3 > Integer.MAX_VALUE) {
+                throw invalidData("Invalid offset");
+            }
+            int offset = (int) (offsetValue - 3);
+            r[2] = r[1];
+            r[1] = r[0];
+            r[0] = offset;
+            return offset;
+        }
+        int index = (int) offsetValue - 1;
+        if (literalLength == 0) {
+            index++;
+        }
+        if (index == 0) {
+            return r[0];
+        }
+        int offset = index == 3 ? r[0] - 1 : r[index];
+        if (offset <= 0) {
+            throw invalidData("Invalid repeated offset");
+        }
+        if (index > 1) {
+            r[2] = r[1];
+        }
+        r[1] = r[0];
+        r[0] = offset;
+        return offset;
+    }
+
+    /**
+     * Read the table for literal lengths, match lengths or offsets,
+     * depending on the given compression mode
+     *
+     * @param mode        The compression mode
+     * @param end         The end of the block in the input
+     * @param maxSymbol   The maximum symbol value
+     * @param maxLog      The maximum accuracy log
+     * @param predefined  The predefined table
+     * @param previous    The table of the previous block
+     * @return The table
+     * @throws IOException If the data is invalid
+     */
+    private FseTable readSequenceTable(int mode, int end, int maxSymbol,
+                                       int maxLog, FseTable predefined, FseTable previous)
+            throws IOException {
+        switch (mode) {
+            case 0:
+                return predefined;
+            case 1: {
+                int symbol = input[inputPosition++] & 0xFF;
+                if (symbol > maxSymbol) {
+                    throw invalidData("Invalid RLE symbol: " + symbol);
+                }
+                return FseTable.createRle(symbol);
+            }
+            case 2:
+                return readFseTable(end, maxSymbol, maxLog);
+            default:
+                if (previous == null) {
+                    throw invalidData("Missing table for repeat mode");
+                }
+                return previous;
+        }
+    }
+
+    /**
+     * Read the description of an FSE table, starting at the current input
+     * position, and advance the input position to its end
+     *
+     * @param end       The end of the data that may contain the description
+     * @param maxSymbol The maximum symbol value
+     * @param maxLog    The maximum accuracy log
+     * @return The {@link FseTable}
+     * @throws IOException If the data is invalid
+     */
+    private FseTable readFseTable(int end, int maxSymbol, int maxLog)
+            throws IOException {
+        int start = inputPosition;
+        int bitPosition = 0;
+        int accuracyLog = readForwardBits(start, bitPosition, 4) + 5;
+        bitPosition += 4;
+        if (accuracyLog > maxLog) {
+            throw invalidData("Invalid accuracy log: " + accuracyLog);
+        }
+        short[] counts = new short[maxSymbol + 1];
+        int remaining = 1 << accuracyLog;
+        int symbol = 0;
+        while (remaining > 0) {
+            if (symbol > maxSymbol) {
+                throw invalidData("Too many symbols in FSE table");
+            }
+            int bits = 32 - Integer.numberOfLeadingZeros(remaining + 1);
+            int value = readForwardBits(start, bitPosition, bits);
+            bitPosition += bits;
+            int lowerMask = (1 << (bits - 1)) - 1;
+            int threshold = (1 << bits) - 1 - (remaining + 1);
+            if ((value & lowerMask) < threshold) {
+                bitPosition--;
+                value &= lowerMask;
+            } else if (value > lowerMask) {
+                value -= threshold;
+            }
+            int count = value - 1;
+            remaining -= Math.abs(count);
+            counts[symbol++] = (short) count;
+            if (count == 0) {
+                int repeat;
+                do {
+                    repeat = readForwardBits(start, bitPosition, 2);
+                    bitPosition += 2;
+                    for (int i = 0; i < repeat; i++) {
+                        if (symbol > maxSymbol) {
+                            throw invalidData(
+                                    "Too many symbols in FSE table");
+                        }
+                        counts[symbol++] = 0;
+                    }
+                } while (repeat == 3);
+            }
+        }
+        if (remaining != 0) {
+            throw invalidData("Invalid FSE table probabilities");
+        }
+        inputPosition = start + (bitPosition + 7) / 8;
+        if (inputPosition > end) {
+            throw invalidData("FSE table description exceeds its data");
+        }
+        short[] usedCounts = new short[symbol];
+        System.arraycopy(counts, 0, usedCounts, 0, symbol);
+        return new FseTable(accuracyLog, usedCounts);
+    }
+
+    /**
+     * Read the given number of bits from a little-endian bitstream
+     *
+     * @param start       The start of the bitstream in the input
+     * @param bitPosition The bit position, relative to the start
+     * @param bits        The number of bits, at most 24
+     * @return The value
+     */
+    private int readForwardBits(int start, int bitPosition, int bits) {
+        int index = start + (bitPosition >>> 3);
+        int shift = bitPosition & 7;
+        int value = 0;
+        int byteCount = (shift + bits + 7) >>> 3;
+        for (int i = 0; i < byteCount; i++) {
+            value |= (input[index + i] & 0xFF) << (8 * i);
+        }
+        return (value >>> shift) & ((1 << bits) - 1);
+    }
+
+    /**
+     * Read a little-endian 32 bit integer from the given array
+     *
+     * @param array  The array
+     * @param offset The offset
+     * @return The value
+     */
+    private static int readInt(byte[] array, int offset) {
+        return (array[offset] & 0xFF)
+                | (array[offset + 1] & 0xFF) << 8
+                | (array[offset + 2] & 0xFF) << 16
+                | (array[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Read a little-endian unsigned 16 bit integer from the given array
+     *
+     * @param array  The array
+     * @param offset The offset
+     * @return The value
+     */
+    private static int readShort(byte[] array, int offset) {
+        return (array[offset] & 0xFF)
+                | (array[offset + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * Creates an exception for invalid data
+     *
+     * @param message The message
+     * @return The exception
+     */
+    private static IOException invalidData(String message) {
+        return new IOException("Invalid Zstandard data: " + message);
+    }
+
+    /**
+     * A decoding table for finite state entropy (FSE) coded symbols
+     */
+    private static final class FseTable {
+        /**
+         * The accuracy log
+         */
+        private final int accuracyLog;
+
+        /**
+         * The symbols for each state
+         */
+        private final int[] symbols;
+
+        /**
+         * The number of bits to read for each state
+         */
+        private final int[] bits;
+
+        /**
+         * The base value for the next state, for each state
+         */
+        private final int[] baselines;
+
+        /**
+         * Creates a table for the given normalized symbol counts
+         *
+         * @param accuracyLog The accuracy log
+         * @param counts      The normalized counts, where -1 indicates a
+         *                    probability of "less than 1"
+         */
+        FseTable(int accuracyLog, short[] counts) {
+            int tableSize = 1 << accuracyLog;
+            this.accuracyLog = accuracyLog;
+            this.symbols = new int[tableSize];
+            this.bits = new int[tableSize];
+            this.baselines = new int[tableSize];
+
+            int[] next = new int[counts.length];
+            int highThreshold = tableSize - 1;
+            for (int s = 0; s < counts.length; s++) {
+                if (counts[s] == -1) {
+                    symbols[highThreshold--] = s;
+                    next[s] = 1;
+                } else {
+                    next[s] = counts[s];
+                }
+            }
+            int step = (tableSize >>> 1) + (tableSize >>> 3) + 3;
+            int mask = tableSize - 1;
+            int position = 0;
+            for (int s = 0; s < counts.length; s++) {
+                for (int i = 0; i < counts[s]; i++) {
+                    symbols[position] = s;
+                    do {
+                        position = (position + step) & mask;
+                    } while (position > highThreshold);
+                }
+            }
+            for (int u = 0; u < tableSize; u++) {
+                int nextState = next[symbols[u]]++;
+                int n = accuracyLog
+                        - (31 - Integer.numberOfLeadingZeros(nextState));
+                bits[u] = n;
+                baselines[u] = (nextState << n) - tableSize;
+            }
+        }
+
+        /**
+         * Creates a table with an accuracy log of 0, for the given symbol
+         *
+         * @param symbol The symbol
+         */
+        private FseTable(int symbol) {
+            this.accuracyLog = 0;
+            this.symbols = new int[]{symbol};
+            this.bits = new int[1];
+            this.baselines = new int[1];
+        }
+
+        /**
+         * Creates a table that always returns the given symbol
+         *
+         * @param symbol The symbol
+         * @return The table
+         */
+        static FseTable createRle(int symbol) {
+            return new FseTable(symbol);
+        }
+
+        /**
+         * Compute the next state, reading the required bits from the
+         * given reader
+         *
+         * @param state  The current state
+         * @param reader The reader
+         * @return The next state
+         */
+        int update(int state, BackwardBitReader reader) {
+            return baselines[state] + reader.readBits(bits[state]);
+        }
+    }
+
+    /**
+     * A decoding table for Huffman-coded literals
+     */
+    private static final class HuffmanTable {
+        /**
+         * The maximum number of bits of a code
+         */
+        private final int maxBits;
+
+        /**
+         * The symbols for each state
+         */
+        private final byte[] symbols;
+
+        /**
+         * The number of bits of the code for each state
+         */
+        private final byte[] bits;
+
+        /**
+         * Creates a table from the given weights
+         *
+         * @param weights     The weights. The array must have space for one
+         *                    more weight, which is derived from the others
+         * @param weightCount The number of weights
+         * @throws IOException If the weights are invalid
+         */
+        HuffmanTable(int[] weights, int weightCount) throws IOException {
+            int total = 0;
+            for (int i = 0; i < weightCount; i++) {
+                int weight = weights[i];
+                if (weight > MAX_HUFFMAN_BITS) {
+                    throw invalidData("Invalid Huffman weight: " + weight);
+                }
+                if (weight > 0) {
+                    total += 1 << (weight - 1);
+                }
+            }
+            if (total == 0) {
+                throw invalidData("Invalid Huffman weights");
+            }
+            int maxBits = 32 - Integer.numberOfLeadingZeros(total);
+            int rest = (1 << maxBits) - total;
+            if (maxBits > MAX_HUFFMAN_BITS || Integer.bitCount(rest) != 1) {
+                throw invalidData("Invalid Huffman weights");
+            }
+            weights[weightCount] =
+                    32 - Integer.numberOfLeadingZeros(rest);
+            int symbolCount = weightCount + 1;
+
+            int[] symbolBits = new int[symbolCount];
+            int[] rankCounts = new int[maxBits + 1];
+            for (int i = 0; i < symbolCount; i++) {
+                int weight = weights[i];
+                symbolBits[i] = weight > 0 ? maxBits + 1 - weight : 0;
+                rankCounts[symbolBits[i]]++;
+            }
+            int tableSize = 1 << maxBits;
+            this.maxBits = maxBits;
+            this.symbols = new byte[tableSize];
+            this.bits = new byte[tableSize];
+            int[] rankStarts = new int[maxBits + 1];
+            int end = 0;
+            for (int b = maxBits; b >= 1; b--) {
+                rankStarts[b] = end;
+                int start = end;
+                end += rankCounts[b] << (maxBits - b);
+                for (int i = start; i < end; i++) {
+                    bits[i] = (byte) b;
+                }
+            }
+            for (int s = 0; s < symbolCount; s++) {
+                int b = symbolBits[s];
+                if (b != 0) {
+                    int length = 1 << (maxBits - b);
+                    int code = rankStarts[b];
+                    for (int i = 0; i < length; i++) {
+                        symbols[code + i] = (byte) s;
+                    }
+                    rankStarts[b] += length;
+                }
+            }
+        }
+    }
+
+    /**
+     * A reader for a bitstream that is read backwards, from the last
+     * byte to the first
+     */
+    private static final class BackwardBitReader {
+        /**
+         * The data
+         */
+        private final byte[] data;
+
+        /**
+         * The start of the bitstream in the data
+         */
+        private final int start;
+
+        /**
+         * The current bit position, relative to the start. This may become
+         * negative when more bits have been read than were available.
+         */
+        private long bitPosition;
+
+        /**
+         * Creates a new reader for the given part of the data
+         *
+         * @param data  The data
+         * @param start The start of the bitstream
+         * @param end   The end of the bitstream
+         * @throws IOException If the bitstream is empty or does not
+         *                     contain the final padding marker
+         */
+        BackwardBitReader(byte[] data, int start, int end)
+                throws IOException {
+            if (end <= start) {
+                throw invalidData("Empty bitstream");
+            }
+            int last = data[end - 1] & 0xFF;
+            if (last == 0) {
+                throw invalidData("Missing bitstream padding marker");
+            }
+            this.data = data;
+            this.start = start;
+            int highestBit = 31 - Integer.numberOfLeadingZeros(last);
+            this.bitPosition = 8L * (end - start) - (8 - highestBit);
+        }
+
+        /**
+         * Read the given number of bits. Bits before the start of the
+         * bitstream are read as zeros.
+         *
+         * @param n The number of bits, at most 31
+         * @return The value
+         */
+        int readBits(int n) {
+            if (n == 0) {
+                return 0;
+            }
+            bitPosition -= n;
+            long position = bitPosition;
+            int length = n;
+            int shift = 0;
+            if (position < 0) {
+                shift = (int) -position;
+                length -= shift;
+                position = 0;
+                if (length <= 0) {
+                    return 0;
+                }
+            }
+            int index = start + (int) (position >>> 3);
+            int bitShift = (int) (position & 7);
+            int byteCount = (bitShift + length + 7) >>> 3;
+            long value = 0;
+            for (int i = 0; i < byteCount; i++) {
+                value |= (long) (data[index + i] & 0xFF) << (8 * i);
+            }
+            value = (value >>> bitShift) & ((1L << length) - 1);
+            return (int) (value << shift);
+        }
+
+        /**
+         * Returns whether more bits have been read than were available
+         *
+         * @return Whether the reader is overflowed
+         */
+        boolean isOverflowed() {
+            return bitPosition < 0;
+        }
+
+        /**
+         * Returns whether exactly all bits have been read, plus the given
+         * number of (zero) bits before the start of the bitstream
+         *
+         * @param excessBits The number of excess bits
+         * @return Whether the reader is finished
+         */
+        boolean isFinished(int excessBits) {
+            return bitPosition == -excessBits;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package de.javagl.jgltf.model.io.v1;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import de.javagl.jgltf.impl.v1.GlTF;
 import de.javagl.jgltf.model.io.JacksonUtils;
 import de.javagl.jgltf.model.io.JsonError;
@@ -51,9 +51,9 @@ public final class GltfReaderV1 {
      * @throws IOException If an IO error occurs
      */
     public GlTF read(InputStream inputStream) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JacksonUtils.configure(objectMapper, jsonErrorConsumer);
-        return objectMapper.readValue(inputStream, GlTF.class);
+        ObjectReader objectReader =
+                JacksonUtils.createObjectReader(GlTF.class, jsonErrorConsumer);
+        return objectReader.readValue(inputStream);
     }
 
 }
@@ -0,0 +1,159 @@
+package de.javagl.jgltf.model.io.v2;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * A reader that provides a prefix, followed by the base64-encoded
+ * contents of a byte buffer. This is used for writing data URIs without
+ * creating the encoded string in memory.
+ */
+final class Base64EncodingReader extends Reader {
+    /**
+     * The base64 alphabet
+     */
+    private static final char[] BASE64_CHARS =
+            ("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"
+                    + "0123456789+/").toCharArray();
+
+    /**
+     * The prefix
+     */
+    private final String prefix;
+
+    /**
+     * The data that is encoded
+     */
+    private final ByteBuffer data;
+
+    /**
+     * The total number of characters that are provided
+     */
+    private final int length;
+
+    /**
+     * The number of prefix characters that have been read
+     */
+    private int prefixPosition;
+
+    /**
+     * The characters of a group of 3 bytes that have been encoded,
+     * but not read yet
+     */
+    private final char[] pending;
+
+    /**
+     * The index of the next pending character
+     */
+    private int pendingPosition;
+
+    /**
+     * The number of pending characters
+     */
+    private int pendingLength;
+
+    /**
+     * Creates a new instance
+     *
+     * @param prefix The prefix
+     * @param data   The data. Its contents will be encoded, from position
+     *               0 to its capacity
+     * @throws IllegalArgumentException If the resulting length is larger
+     *                                  than {@link Integer#MAX_VALUE}
+     */
+    Base64EncodingReader(String prefix, ByteBuffer data) {
+        this.prefix = prefix;
+        ByteBuffer contents = data.duplicate();
+        contents.clear();
+        this.data = contents.slice();
+        long totalLength = prefix.length()
+                + 4L * ((this.data.remaining() + 2) / 3);
+        if (totalLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "The encoded data has a length of " + totalLength
+                            + ", the maximum is " + Integer.MAX_VALUE);
+        }
+        this.length = (int) totalLength;
+        this.pending = new char[4];
+    }
+
+    /**
+     * Returns the total number of characters that are provided by
+     * this reader
+     *
+     * @return The length
+     */
+    int length() {
+        return length;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        int index = off;
+        int end = off + len;
+
+        // Copy the remaining part of the prefix
+        int prefixLength = Math.min(
+                prefix.length() - prefixPosition, end - index);
+        if (prefixLength > 0) {
+            prefix.getChars(prefixPosition,
+                    prefixPosition + prefixLength, cbuf, index);
+            prefixPosition += prefixLength;
+            index += prefixLength;
+        }
+
+        // Copy the pending characters from the last call
+        while (index < end && pendingPosition < pendingLength) {
+            cbuf[index++] = pending[pendingPosition++];
+        }
+
+        // Encode complete groups of 3 bytes directly into the target
+        while (end - index >= 4 && data.remaining() >= 3) {
+            int b0 = data.get() & 0xFF;
+            int b1 = data.get() & 0xFF;
+            int b2 = data.get() & 0xFF;
+            cbuf[index++] = BASE64_CHARS[b0 >>> 2];
+            cbuf[index++] = BASE64_CHARS[((b0 & 0x03) << 4) | (b1 >>> 4)];
+            cbuf[index++] = BASE64_CHARS[((b1 & 0x0F) << 2) | (b2 >>> 6)];
+            cbuf[index++] = BASE64_CHARS[b2 & 0x3F];
+        }
+
+        // Encode the next (possibly incomplete) group into the pending
+        // characters, and copy as many of them as possible
+        if (index < end && data.hasRemaining()) {
+            encodePending();
+            while (index < end && pendingPosition < pendingLength) {
+                cbuf[index++] = pending[pendingPosition++];
+            }
+        }
+
+        int read = index - off;
+        if (read == 0 && len > 0) {
+            return -1;
+        }
+        return read;
+    }
+
+    /**
+     * Encode the next group of up to 3 bytes into the pending characters,
+     * including the padding for the last group
+     */
+    private void encodePending() {
+        int n = Math.min(3, data.remaining());
+        int b0 = data.get() & 0xFF;
+        int b1 = n > 1 ? data.get() & 0xFF : 0;
+        int b2 = n > 2 ? data.get() & 0xFF : 0;
+        pending[0] = BASE64_CHARS[b0 >>> 2];
+        pending[1] = BASE64_CHARS[((b0 & 0x03) << 4) | (b1 >>> 4)];
+        pending[2] = n > 1 ?
+                BASE64_CHARS[((b1 & 0x0F) << 2) | (b2 >>> 6)] : '=';
+        pending[3] = n > 2 ? BASE64_CHARS[b2 & 0x3F] : '=';
+        pendingPosition = 0;
+        pendingLength = 4;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close
+    }
+}
@@ -5,16 +5,19 @@ import de.javagl.jgltf.impl.v2.BufferView;
 import de.javagl.jgltf.impl.v2.GlTF;
 import de.javagl.jgltf.impl.v2.Image;
 import de.javagl.jgltf.model.BufferModel;
-import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.GltfException;
 import de.javagl.jgltf.model.ImageModel;
 import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.io.Buffers;
 import de.javagl.jgltf.model.io.MimeTypes;
 import de.javagl.jgltf.model.v2.GltfModelV2;
+import de.javagl.jgltf.model.v2.MeshoptDecoder;
 
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.logging.Level;
 import de.javagl.jgltf.logging.Logger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +32,17 @@ final class BinaryAssetCreatorV2 {
     private static final Logger logger =
             Logger.getLogger(BinaryAssetCreatorV2.class);
 
+    /**
+     * Whether the data of buffer views and images is deduplicated
+     */
+    private boolean deduplicating;
+
+    /**
+     * The number of bytes that have been saved by deduplication in the
+     * last call to {@link #createLayout(GltfModelV2)}
+     */
+    private long deduplicatedByteSize;
+
     /**
      * Creates a new asset creator
      */
@@ -36,6 +50,27 @@ final class BinaryAssetCreatorV2 {
         // Default constructor
     }
 
+    /**
+     * Set whether the data of buffer views and images should be
+     * deduplicated, so that data with identical contents is stored only
+     * once in the binary buffer
+     *
+     * @param deduplicating Whether data should be deduplicated
+     */
+    void setDeduplicating(boolean deduplicating) {
+        this.deduplicating = deduplicating;
+    }
+
+    /**
+     * Returns the number of bytes that have been saved by deduplication
+     * when the last asset was created
+     *
+     * @return The deduplicated byte size
+     */
+    long getDeduplicatedByteSize() {
+        return deduplicatedByteSize;
+    }
+
     /**
      * Create a binary {@link GltfAssetV2} from the given {@link GltfModelV2}.
      * The resulting asset will have a {@link GlTF} that uses references to
@@ -46,39 +81,70 @@ final class BinaryAssetCreatorV2 {
      * @return The {@link GltfAssetV2}
      */
     GltfAssetV2 create(GltfModelV2 gltfModel) {
-        GlTF inputGltf = gltfModel.getGltf();
-        GlTF outputGltf = GltfUtilsV2.copy(inputGltf);
+        Layout layout = createLayout(gltfModel);
 
-        // Create the new byte buffer for the data of the "binary_glTF" Buffer
-        int binaryGltfBufferSize =
-                computeBinaryGltfBufferSize(gltfModel);
-        ByteBuffer binaryGltfByteBuffer =
-                Buffers.create(binaryGltfBufferSize);
-
-        // Create the binary Buffer, 
-        Buffer binaryGltfBuffer = new Buffer();
-        binaryGltfBuffer.setByteLength(binaryGltfBufferSize);
-        outputGltf.setBuffers(Collections.singletonList(binaryGltfBuffer));
+        // Create the new byte buffer for the data of the "binary_glTF"
+        // Buffer, and place the data from buffers and images into it
+        ByteBuffer binaryGltfByteBuffer = Buffers.create(layout.byteLength);
+        for (int i = 0; i < layout.parts.size(); i++) {
+            binaryGltfByteBuffer.position(layout.offsets[i]);
+            binaryGltfByteBuffer.put(layout.parts.get(i).slice());
+        }
+        binaryGltfByteBuffer.position(0);
+        return new GltfAssetV2(layout.gltf, binaryGltfByteBuffer);
+    }
 
-        // Create a defensive copy of the original image list
-        List<Image> oldImages = copy(outputGltf.getImages());
+    /**
+     * Compute the {@link Layout} of a binary glTF for the given
+     * {@link GltfModelV2}. This will create the {@link GlTF} for the
+     * binary glTF, with a single buffer that contains the data of all
+     * buffers and images, and compute the offsets of this data in the
+     * binary buffer. The data itself is not copied.<br>
+     * <br>
+     * If this creator is {@link #setDeduplicating(boolean) deduplicating},
+     * then the data of each buffer view and image is stored only once,
+     * and buffer views and images with identical data will refer to the
+     * same part of the binary buffer.
+     *
+     * @param gltfModel The {@link GltfModelV2}
+     * @return The {@link Layout}
+     * @throws IllegalArgumentException If the total size of the data of
+     *                                  the buffers and images exceeds 2GB
+     */
+    Layout createLayout(GltfModelV2 gltfModel) {
+        GlTF inputGltf = gltfModel.getGltf();
+        GlTF outputGltf = GltfUtilsV2.copy(inputGltf);
 
-        // Place the data from buffers and images into the new binary glTF 
-        // buffer. The mappings from IDs to offsets inside the resulting 
-        // buffer will be used to compute the offsets for the buffer views
+        // Collect the data of all buffers and images
         List<ByteBuffer> bufferDatas =
                 gltfModel.getBufferModels().stream()
                         .map(BufferModel::getBufferData)
                         .collect(Collectors.toList());
-        Map<Integer, Integer> bufferOffsets = concatBuffers(
-                bufferDatas, binaryGltfByteBuffer);
         List<ByteBuffer> imageDatas =
                 gltfModel.getImageModels().stream()
                         .map(ImageModel::getImageData)
                         .collect(Collectors.toList());
-        Map<Integer, Integer> imageOffsets = concatBuffers(
-                imageDatas, binaryGltfByteBuffer);
-        binaryGltfByteBuffer.position(0);
+        Parts parts = new Parts();
+        // The buffer view data is deduplicated separately for each
+        // alignment, so that duplicates keep the alignment of the original
+        List<DataDeduplicator<Integer>> bufferViewDeduplicators =
+                new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            bufferViewDeduplicators.add(new DataDeduplicator<>());
+        }
+        DataDeduplicator<Integer> imageDeduplicator =
+                new DataDeduplicator<>();
+
+        // When not deduplicating, store the data of all buffers
+        int[] bufferOffsets = new int[bufferDatas.size()];
+        if (!deduplicating) {
+            for (int i = 0; i < bufferDatas.size(); i++) {
+                bufferOffsets[i] = parts.add(bufferDatas.get(i));
+            }
+        }
+
+        // Create a defensive copy of the original image list
+        List<Image> oldImages = copy(outputGltf.getImages());
 
         // For all existing BufferViews, create new ones that are updated to 
         // refer to the new binary glTF buffer, with the appropriate offset
@@ -89,12 +155,25 @@ final class BinaryAssetCreatorV2 {
         for (int i = 0; i < oldBufferViews.size(); i++) {
             BufferView oldBufferView = oldBufferViews.get(i);
             BufferView newBufferView = GltfUtilsV2.copy(oldBufferView);
+            removeMeshoptExtension(newBufferView);
 
             newBufferView.setBuffer(0);
             Integer oldBufferIndex = oldBufferView.getBuffer();
             int oldByteOffset = Optionals.of(oldBufferView.getByteOffset(), 0);
-            int bufferOffset = bufferOffsets.get(oldBufferIndex);
-            int newByteOffset = oldByteOffset + bufferOffset;
+            int newByteOffset;
+            if (deduplicating) {
+                // Store the data of the buffer view at an offset that has
+                // the same remainder modulo 4 as the original offset, so
+                // that the alignment of the accessors is preserved
+                int alignment = oldByteOffset % 4;
+                ByteBuffer data = Buffers.createSlice(
+                        bufferDatas.get(oldBufferIndex),
+                        oldByteOffset, oldBufferView.getByteLength());
+                newByteOffset = bufferViewDeduplicators.get(alignment)
+                        .deduplicate(data, () -> parts.add(data, alignment));
+            } else {
+                newByteOffset = oldByteOffset + bufferOffsets[oldBufferIndex];
+            }
             newBufferView.setByteOffset(newByteOffset);
 
             newBufferViews.add(newBufferView);
@@ -108,17 +187,37 @@ final class BinaryAssetCreatorV2 {
             Image oldImage = oldImages.get(i);
             Image newImage = GltfUtilsV2.copy(oldImage);
 
+            // When the image data was not loaded, for example, because it
+            // was skipped with GltfLoadOptions#setSkipImageData, then the
+            // image keeps referring to its original URI
+            ByteBuffer imageData = imageDatas.get(i);
+            if (imageData == null) {
+                if (oldImage.getUri() == null) {
+                    throw new GltfException("The data of image " + i
+                            + " is not available");
+                }
+                logger.warning("The data of image " + i + " is not "
+                        + "available, keeping the URI " + oldImage.getUri());
+                newImages.add(newImage);
+                continue;
+            }
+
             // Create the BufferView for the image
-            ImageModel imageModel = gltfModel.getImageModels().get(i);
-            ByteBuffer imageData = imageModel.getImageData();
-            int byteLength = imageData.capacity();
-            int byteOffset = imageOffsets.get(i);
-            BufferView imageBufferView = new BufferView();
-            imageBufferView.setBuffer(0);
-            imageBufferView.setByteOffset(byteOffset);
-            imageBufferView.setByteLength(byteLength);
-
-            int newBufferViewIndex = newBufferViews.size();
+            Supplier<Integer> imageBufferViewSupplier = () -> {
+                BufferView imageBufferView = new BufferView();
+                imageBufferView.setBuffer(0);
+                imageBufferView.setByteOffset(parts.add(imageData));
+                imageBufferView.setByteLength(imageData.capacity());
+                newBufferViews.add(imageBufferView);
+                return newBufferViews.size() - 1;
+            };
+            int newBufferViewIndex;
+            if (deduplicating) {
+                newBufferViewIndex = imageDeduplicator.deduplicate(
+                        imageData, imageBufferViewSupplier);
+            } else {
+                newBufferViewIndex = imageBufferViewSupplier.get();
+            }
             newImage.setBufferView(newBufferViewIndex);
             newImage.setUri(null);
 
@@ -131,10 +230,30 @@ final class BinaryAssetCreatorV2 {
                 newImage.setMimeType(imageMimeTypeString);
             }
 
-            newBufferViews.add(imageBufferView);
             newImages.add(newImage);
         }
 
+        deduplicatedByteSize = imageDeduplicator.getSavedByteSize();
+        for (DataDeduplicator<Integer> bufferViewDeduplicator :
+                bufferViewDeduplicators) {
+            deduplicatedByteSize += bufferViewDeduplicator.getSavedByteSize();
+        }
+        if (deduplicating && logger.isLoggable(Level.FINE)) {
+            logger.fine("Deduplication saved " + deduplicatedByteSize
+                    + " bytes");
+        }
+
+        // The data of buffer views that had been compressed with
+        // EXT_meshopt_compression is stored in decoded form
+        outputGltf.removeExtensionsUsed(MeshoptDecoder.EXTENSION_NAME);
+        outputGltf.removeExtensionsRequired(MeshoptDecoder.EXTENSION_NAME);
+
+        // Create the binary Buffer
+        int binaryGltfBufferSize = parts.byteLength();
+        Buffer binaryGltfBuffer = new Buffer();
+        binaryGltfBuffer.setByteLength(binaryGltfBufferSize);
+        outputGltf.setBuffers(Collections.singletonList(binaryGltfBuffer));
+
         // Place the newly created lists into the output glTF,
         // if there have been non-null lists for them in the input
         if (inputGltf.getImages() != null) {
@@ -143,52 +262,151 @@ final class BinaryAssetCreatorV2 {
         if (!newBufferViews.isEmpty()) {
             outputGltf.setBufferViews(newBufferViews);
         }
-        return new GltfAssetV2(outputGltf, binaryGltfByteBuffer);
+        return new Layout(outputGltf, parts.parts, parts.offsets(),
+                binaryGltfBufferSize);
     }
 
-
     /**
-     * Compute the total size that is required for the binary glTF buffer
-     * for the given {@link GltfModel}, which is the sum of all buffer
-     * sizes of all buffers and images
+     * Remove the <code>EXT_meshopt_compression</code> extension object from
+     * the given {@link BufferView}, if it is present.<br>
+     * <br>
+     * The compressed data refers to one of the original buffers, which do
+     * not exist in the binary glTF. The data of the buffer view itself is
+     * taken from the <code>EXT_meshopt_compression</code> fallback buffer,
+     * which contains the decoded data.
      *
-     * @param gltfModel The {@link GltfModel}
-     * @return The total size for the binary glTF buffer
+     * @param bufferView The {@link BufferView}
      */
-    private static int computeBinaryGltfBufferSize(GltfModelV2 gltfModel) {
-        int binaryGltfBufferSize = 0;
-        for (BufferModel bufferModel : gltfModel.getBufferModels()) {
-            ByteBuffer bufferData = bufferModel.getBufferData();
-            binaryGltfBufferSize += bufferData.capacity();
+    private static void removeMeshoptExtension(BufferView bufferView) {
+        Map<String, Object> extensions = bufferView.getExtensions();
+        if (extensions == null
+                || !extensions.containsKey(MeshoptDecoder.EXTENSION_NAME)) {
+            return;
         }
-        for (ImageModel imageModel : gltfModel.getImageModels()) {
-            ByteBuffer imageData = imageModel.getImageData();
-            binaryGltfBufferSize += imageData.capacity();
+        Map<String, Object> newExtensions = new LinkedHashMap<>(extensions);
+        newExtensions.remove(MeshoptDecoder.EXTENSION_NAME);
+        if (newExtensions.isEmpty()) {
+            bufferView.setExtensions(null);
+        } else {
+            bufferView.setExtensions(newExtensions);
         }
-        return binaryGltfBufferSize;
     }
 
     /**
-     * Put the contents of all byte buffers of the given list into the given
-     * target buffer. This method assumes that the target buffer has a
-     * sufficient capacity to hold all buffers.
-     *
-     * @param buffers      The buffers
-     * @param targetBuffer The target buffer
-     * @return A mapping from each key to the offset inside the target buffer
+     * A list of parts of the binary data, with their offsets
      */
-    private static Map<Integer, Integer> concatBuffers(
-            List<? extends ByteBuffer> buffers, ByteBuffer targetBuffer) {
-        Map<Integer, Integer> offsets = new LinkedHashMap<>();
-        for (int i = 0; i < buffers.size(); i++) {
-            ByteBuffer oldByteBuffer = buffers.get(i);
-            int offset = targetBuffer.position();
-            offsets.put(i, offset);
-            targetBuffer.put(oldByteBuffer.slice());
-        }
-        return offsets;
+    private static class Parts {
+        /**
+         * The parts
+         */
+        private final List<ByteBuffer> parts = new ArrayList<>();
+
+        /**
+         * The offsets of the parts
+         */
+        private final List<Integer> offsets = new ArrayList<>();
+
+        /**
+         * The current length of the binary data
+         */
+        private long position;
+
+        /**
+         * Add the given part at the next 4-byte aligned offset
+         *
+         * @param part The part
+         * @return The offset of the part
+         * @throws IllegalArgumentException If the total size of the
+         *                                  parts exceeds 2GB
+         */
+        int add(ByteBuffer part) {
+            return add(part, 0);
+        }
+
+        /**
+         * Add the given part at the next offset whose remainder modulo 4
+         * is the given alignment
+         *
+         * @param part      The part
+         * @param alignment The alignment, in [0,3]
+         * @return The offset of the part
+         * @throws IllegalArgumentException If the total size of the
+         *                                  parts exceeds 2GB
+         */
+        int add(ByteBuffer part, int alignment) {
+            long offset = ((position - alignment + 3) & ~3L) + alignment;
+            position = offset + part.capacity();
+            if (position > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                        "The data of the buffers and images is larger "
+                                + "than " + Integer.MAX_VALUE + " bytes");
+            }
+            parts.add(part);
+            offsets.add((int) offset);
+            return (int) offset;
+        }
+
+        /**
+         * Returns the offsets of the parts
+         *
+         * @return The offsets
+         */
+        int[] offsets() {
+            return offsets.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Returns the total length of the binary data
+         *
+         * @return The length
+         */
+        int byteLength() {
+            return (int) position;
+        }
     }
 
+    /**
+     * The layout of a binary glTF, consisting of the {@link GlTF}, and
+     * the data of the buffers and images, together with their offsets
+     * in the binary buffer
+     */
+    static final class Layout {
+        /**
+         * The {@link GlTF}
+         */
+        final GlTF gltf;
+
+        /**
+         * The data of the buffers and images
+         */
+        final List<ByteBuffer> parts;
+
+        /**
+         * The offsets of the parts in the binary buffer
+         */
+        final int[] offsets;
+
+        /**
+         * The length of the binary buffer
+         */
+        final int byteLength;
+
+        /**
+         * Creates a new instance
+         *
+         * @param gltf       The {@link GlTF}
+         * @param parts      The data of the buffers and images
+         * @param offsets    The offsets of the parts in the binary buffer
+         * @param byteLength The length of the binary buffer
+         */
+        Layout(GlTF gltf, List<ByteBuffer> parts, int[] offsets,
+               int byteLength) {
+            this.gltf = gltf;
+            this.parts = parts;
+            this.offsets = offsets;
+            this.byteLength = byteLength;
+        }
+    }
 
     /**
      * Creates a copy of the given list. If the given list is <code>null</code>,
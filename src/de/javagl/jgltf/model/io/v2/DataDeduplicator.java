@@ -0,0 +1,129 @@
+package de.javagl.jgltf.model.io.v2;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A class for detecting byte buffers with identical contents.<br>
+ * <br>
+ * Each buffer is associated with a value (for example, the offset where
+ * its data was stored). When a buffer is passed to this class whose
+ * contents are equal to those of a previous buffer, then the value of
+ * the previous buffer is returned. Buffers are identified by a 64 bit
+ * hash of their contents, and compared byte-wise when the hashes match.
+ *
+ * @param <T> The value type
+ */
+final class DataDeduplicator<T> {
+    /**
+     * An entry of this deduplicator
+     *
+     * @param <T> The value type
+     */
+    private static class Entry<T> {
+        /**
+         * The data
+         */
+        private final ByteBuffer data;
+
+        /**
+         * The value
+         */
+        private final T value;
+
+        /**
+         * Creates a new instance
+         *
+         * @param data  The data
+         * @param value The value
+         */
+        Entry(ByteBuffer data, T value) {
+            this.data = data;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The entries, stored under the hashes of their data
+     */
+    private final Map<Long, List<Entry<T>>> entries;
+
+    /**
+     * The number of bytes that have been saved
+     */
+    private long savedByteSize;
+
+    /**
+     * Creates a new instance
+     */
+    DataDeduplicator() {
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Returns the value that is associated with a buffer whose contents
+     * are equal to those of the given buffer. If there is no such buffer
+     * yet, then the given supplier is called to create the value, and the
+     * value is associated with the given buffer.<br>
+     * <br>
+     * The contents of the buffer are the bytes between position 0 and its
+     * capacity. The buffer may not be modified afterwards.
+     *
+     * @param data          The data
+     * @param valueSupplier The supplier for the value
+     * @return The value
+     */
+    T deduplicate(ByteBuffer data, Supplier<? extends T> valueSupplier) {
+        ByteBuffer slice = data.slice();
+        long hash = computeHash(slice);
+        List<Entry<T>> list =
+                entries.computeIfAbsent(hash, h -> new ArrayList<>(1));
+        for (Entry<T> entry : list) {
+            if (entry.data.equals(slice)) {
+                savedByteSize += slice.remaining();
+                return entry.value;
+            }
+        }
+        T value = valueSupplier.get();
+        list.add(new Entry<>(slice, value));
+        return value;
+    }
+
+    /**
+     * Returns the total number of bytes of all buffers that have been
+     * identified as duplicates
+     *
+     * @return The saved byte size
+     */
+    long getSavedByteSize() {
+        return savedByteSize;
+    }
+
+    /**
+     * Compute a 64 bit hash of the contents of the given buffer, from its
+     * position to its limit. The position of the buffer is not changed.
+     *
+     * @param data The data
+     * @return The hash
+     */
+    private static long computeHash(ByteBuffer data) {
+        ByteBuffer buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int length = buffer.remaining();
+        long hash = 0xCBF29CE484222325L ^ length;
+        int longEnd = length & ~7;
+        for (int i = 0; i < longEnd; i += 8) {
+            hash = (hash ^ buffer.getLong(i)) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        for (int i = longEnd; i < length; i++) {
+            hash = (hash ^ (buffer.get(i) & 0xFF)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 32;
+        return hash;
+    }
+}
@@ -3,11 +3,14 @@ package de.javagl.jgltf.model.io.v2;
 import de.javagl.jgltf.impl.v2.Buffer;
 import de.javagl.jgltf.impl.v2.GlTF;
 import de.javagl.jgltf.impl.v2.Image;
+import de.javagl.jgltf.logging.Logger;
 import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.GltfException;
 import de.javagl.jgltf.model.ImageModel;
 import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.impl.UriStrings;
 import de.javagl.jgltf.model.io.GltfAsset;
+import de.javagl.jgltf.model.io.GltfLoadOptions;
 import de.javagl.jgltf.model.io.IO;
 import de.javagl.jgltf.model.v2.GltfModelV2;
 
@@ -29,6 +32,12 @@ import java.util.stream.Collectors;
  * converted to refer to their data using URIs.
  */
 final class DefaultAssetCreatorV2 {
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+            Logger.getLogger(DefaultAssetCreatorV2.class);
+
     /**
      * The {@link GltfAssetV2} that is currently being created
      */
@@ -44,6 +53,21 @@ final class DefaultAssetCreatorV2 {
      */
     private Set<String> existingImageUriStrings;
 
+    /**
+     * Whether the data of buffers and images is deduplicated
+     */
+    private boolean deduplicating;
+
+    /**
+     * The deduplicator for the buffer data, mapping to URI strings
+     */
+    private DataDeduplicator<String> bufferDeduplicator;
+
+    /**
+     * The deduplicator for the image data, mapping to URI strings
+     */
+    private DataDeduplicator<String> imageDeduplicator;
+
     /**
      * Creates a new asset creator
      */
@@ -51,6 +75,32 @@ final class DefaultAssetCreatorV2 {
         // Default constructor
     }
 
+    /**
+     * Set whether the data of buffers and images should be deduplicated.
+     * If this is <code>true</code>, then buffers or images with identical
+     * data will refer to the same URI, and the data will only be stored
+     * once.
+     *
+     * @param deduplicating Whether data should be deduplicated
+     */
+    void setDeduplicating(boolean deduplicating) {
+        this.deduplicating = deduplicating;
+    }
+
+    /**
+     * Returns the number of bytes that have been saved by deduplication
+     * when the last asset was created
+     *
+     * @return The deduplicated byte size
+     */
+    long getDeduplicatedByteSize() {
+        if (bufferDeduplicator == null) {
+            return 0;
+        }
+        return bufferDeduplicator.getSavedByteSize()
+                + imageDeduplicator.getSavedByteSize();
+    }
+
     /**
      * Create a default {@link GltfAssetV2} from the given {@link GltfModelV2}.
      *
@@ -68,6 +118,8 @@ final class DefaultAssetCreatorV2 {
         existingImageUriStrings = collectUriStrings(images, Image::getUri);
 
         this.gltfAsset = new GltfAssetV2(outputGltf, null);
+        this.bufferDeduplicator = new DataDeduplicator<>();
+        this.imageDeduplicator = new DataDeduplicator<>();
 
         for (int i = 0; i < buffers.size(); i++) {
             Buffer buffer = buffers.get(i);
@@ -109,7 +161,10 @@ final class DefaultAssetCreatorV2 {
      * reference data} in the asset.<br>
      * <br>
      * The given {@link Buffer} object will be modified accordingly, if
-     * necessary: Its URI will be set to be the new URI.
+     * necessary: Its URI will be set to be the new URI. If the data is
+     * {@link #setDeduplicating(boolean) deduplicated}, and identical to
+     * the data of a previous buffer, then the URI will be set to the URI
+     * of the previous buffer.
      *
      * @param gltfModel The {@link GltfModelV2}
      * @param index     The index of the {@link Buffer}
@@ -119,7 +174,24 @@ final class DefaultAssetCreatorV2 {
             GltfModelV2 gltfModel, int index, Buffer buffer) {
         BufferModel bufferModel = gltfModel.getBufferModels().get(index);
         ByteBuffer bufferData = bufferModel.getBufferData();
+        if (deduplicating && bufferData != null) {
+            String uriString = bufferDeduplicator.deduplicate(bufferData,
+                    () -> storeBufferData(buffer, bufferData));
+            buffer.setUri(uriString);
+        } else {
+            storeBufferData(buffer, bufferData);
+        }
+    }
 
+    /**
+     * Store the given buffer data as reference data in the current output
+     * asset, assigning a new URI to the given {@link Buffer} if necessary
+     *
+     * @param buffer     The {@link Buffer}
+     * @param bufferData The buffer data
+     * @return The URI string of the buffer
+     */
+    private String storeBufferData(Buffer buffer, ByteBuffer bufferData) {
         String oldUriString = buffer.getUri();
         String newUriString = oldUriString;
         if (oldUriString == null || IO.isDataUriString(oldUriString)) {
@@ -130,6 +202,7 @@ final class DefaultAssetCreatorV2 {
         }
 
         gltfAsset.putReferenceData(newUriString, bufferData);
+        return newUriString;
     }
 
 
@@ -145,17 +218,61 @@ final class DefaultAssetCreatorV2 {
      * The given {@link Image} object will be modified accordingly, if
      * necessary: Its URI will be set to be the new URI. If it referred
      * to a {@link Image#getBufferView() image buffer view}, then this
-     * reference will be set to be <code>null</code>.
+     * reference will be set to be <code>null</code>. If the data is
+     * {@link #setDeduplicating(boolean) deduplicated}, and identical to
+     * the data of a previous image, then the URI will be set to the URI
+     * of the previous image.<br>
+     * <br>
+     * If the image data is not available, for example, because it was
+     * skipped with {@link GltfLoadOptions#setSkipImageData(boolean)},
+     * then the image keeps its original URI, and no reference data is
+     * stored for it.
      *
      * @param gltfModel The {@link GltfModelV2}
      * @param index     The index of the {@link Image}
      * @param image     The {@link Image}
+     * @throws GltfException If the image data is not available and the
+     *                       image has no URI
      */
     private void storeImageAsDefault(
             GltfModelV2 gltfModel, int index, Image image) {
         ImageModel imageModel = gltfModel.getImageModels().get(index);
         ByteBuffer imageData = imageModel.getImageData();
+        if (imageData == null) {
+            // The image data was not loaded, for example, because it was
+            // skipped with GltfLoadOptions#setSkipImageData: Keep the URI
+            if (image.getUri() == null) {
+                throw new GltfException("The data of image " + index
+                        + " is not available");
+            }
+            logger.warning("The data of image " + index + " is not "
+                    + "available, keeping the URI " + image.getUri());
+            return;
+        }
 
+        if (image.getBufferView() != null) {
+            image.setBufferView(null);
+        }
+        if (deduplicating) {
+            String uriString = imageDeduplicator.deduplicate(imageData,
+                    () -> storeImageData(imageModel, image, imageData));
+            image.setUri(uriString);
+        } else {
+            storeImageData(imageModel, image, imageData);
+        }
+    }
+
+    /**
+     * Store the given image data as reference data in the current output
+     * asset, assigning a new URI to the given {@link Image} if necessary
+     *
+     * @param imageModel The {@link ImageModel}
+     * @param image      The {@link Image}
+     * @param imageData  The image data
+     * @return The URI string of the image
+     */
+    private String storeImageData(
+            ImageModel imageModel, Image image, ByteBuffer imageData) {
         String oldUriString = image.getUri();
         String newUriString = oldUriString;
         if (oldUriString == null || IO.isDataUriString(oldUriString)) {
@@ -165,11 +282,8 @@ final class DefaultAssetCreatorV2 {
             existingImageUriStrings.add(newUriString);
         }
 
-        if (image.getBufferView() != null) {
-            image.setBufferView(null);
-        }
-
         gltfAsset.putReferenceData(newUriString, imageData);
+        return newUriString;
     }
 
 }
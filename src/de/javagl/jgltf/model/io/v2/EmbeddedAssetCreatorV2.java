@@ -2,19 +2,24 @@ package de.javagl.jgltf.model.io.v2;
 
 import de.javagl.jgltf.impl.v2.Buffer;
 import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.impl.v2.GlTFProperty;
 import de.javagl.jgltf.impl.v2.Image;
+import de.javagl.jgltf.logging.Logger;
 import de.javagl.jgltf.model.BufferModel;
 import de.javagl.jgltf.model.GltfException;
 import de.javagl.jgltf.model.ImageModel;
 import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.io.GltfAsset;
+import de.javagl.jgltf.model.io.GltfLoadOptions;
 import de.javagl.jgltf.model.io.IO;
 import de.javagl.jgltf.model.io.MimeTypes;
 import de.javagl.jgltf.model.v2.GltfModelV2;
 
 import java.nio.ByteBuffer;
 import java.util.Base64;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A class for creating a {@link GltfAssetV2} with an "embedded" data
@@ -24,6 +29,12 @@ import java.util.List;
  * {@link Buffer} or {@link Image} objects is stored in data URIs.
  */
 final class EmbeddedAssetCreatorV2 {
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+            Logger.getLogger(EmbeddedAssetCreatorV2.class);
+
     /**
      * Creates a new asset creator
      */
@@ -46,68 +57,125 @@ final class EmbeddedAssetCreatorV2 {
      * @return The embedded {@link GltfAssetV2}
      */
     GltfAssetV2 create(GltfModelV2 gltfModel) {
+        Map<GlTFProperty, ByteBuffer> embeddedDatas = new IdentityHashMap<>();
+        GlTF outputGltf = createGltf(gltfModel, embeddedDatas);
+
+        for (Buffer buffer : Optionals.of(outputGltf.getBuffers())) {
+            ByteBuffer data = embeddedDatas.get(buffer);
+            if (data != null) {
+                buffer.setUri(buffer.getUri() + encode(data));
+            }
+        }
+        for (Image image : Optionals.of(outputGltf.getImages())) {
+            ByteBuffer data = embeddedDatas.get(image);
+            if (data != null) {
+                image.setUri(image.getUri() + encode(data));
+            }
+        }
+        return new GltfAssetV2(outputGltf, null);
+    }
+
+    /**
+     * Create the {@link GlTF} for an "embedded" data representation of
+     * the given {@link GltfModelV2}, without encoding the data.<br>
+     * <br>
+     * The URIs of {@link Buffer} and {@link Image} instances that are not
+     * yet data URIs will be replaced with the prefix of a data URI, like
+     * <code>"data:image/png;base64,"</code>, and the data that has to be
+     * appended to this prefix, in base64-encoded form, will be put into
+     * the given map.
+     *
+     * @param gltfModel     The input {@link GltfModelV2}
+     * @param embeddedDatas The map that will receive the data for the
+     *                      {@link Buffer} and {@link Image} instances
+     * @return The {@link GlTF}
+     * @throws GltfException If the MIME type of an image can not be
+     *                       determined from the image data
+     */
+    GlTF createGltf(GltfModelV2 gltfModel,
+                    Map<GlTFProperty, ByteBuffer> embeddedDatas) {
         GlTF inputGltf = gltfModel.getGltf();
         GlTF outputGltf = GltfUtilsV2.copy(inputGltf);
 
         List<Buffer> buffers = Optionals.of(outputGltf.getBuffers());
         for (int i = 0; i < buffers.size(); i++) {
             Buffer buffer = buffers.get(i);
-            convertBufferToEmbedded(gltfModel, i, buffer);
+            convertBufferToEmbedded(gltfModel, i, buffer, embeddedDatas);
         }
 
         List<Image> images = Optionals.of(outputGltf.getImages());
         for (int i = 0; i < images.size(); i++) {
             Image image = images.get(i);
-            convertImageToEmbedded(gltfModel, i, image);
+            convertImageToEmbedded(gltfModel, i, image, embeddedDatas);
         }
-
-        return new GltfAssetV2(outputGltf, null);
+        return outputGltf;
     }
 
     /**
      * Convert the given {@link Buffer} into an embedded buffer, by replacing
-     * its URI with a data URI, if the URI is not already a data URI
+     * its URI with the prefix of a data URI, if the URI is not already a
+     * data URI, and putting the buffer data into the given map
      *
-     * @param gltfModel The {@link GltfModelV2}
-     * @param index     The index of the {@link Buffer}
-     * @param buffer    The {@link Buffer}
+     * @param gltfModel     The {@link GltfModelV2}
+     * @param index         The index of the {@link Buffer}
+     * @param buffer        The {@link Buffer}
+     * @param embeddedDatas The map for the embedded data
+     * @throws GltfException If the buffer data is not available
      */
     private static void convertBufferToEmbedded(
-            GltfModelV2 gltfModel, int index, Buffer buffer) {
+            GltfModelV2 gltfModel, int index, Buffer buffer,
+            Map<GlTFProperty, ByteBuffer> embeddedDatas) {
         String uriString = buffer.getUri();
         if (IO.isDataUriString(uriString)) {
             return;
         }
         BufferModel bufferModel = gltfModel.getBufferModels().get(index);
         ByteBuffer bufferData = bufferModel.getBufferData();
+        if (bufferData == null) {
+            throw new GltfException("The data of buffer " + index
+                    + " is not available");
+        }
 
-        byte[] data = new byte[bufferData.capacity()];
-        bufferData.slice().get(data);
-        String encodedData = Base64.getEncoder().encodeToString(data);
-        String dataUriString =
-                "data:application/gltf-buffer;base64," + encodedData;
-
-        buffer.setUri(dataUriString);
+        buffer.setUri("data:application/gltf-buffer;base64,");
+        embeddedDatas.put(buffer, bufferData);
     }
 
     /**
      * Convert the given {@link Image} into an embedded image, by replacing
-     * its URI with a data URI, if the URI is not already a data URI
+     * its URI with the prefix of a data URI, if the URI is not already a
+     * data URI, and putting the image data into the given map.<br>
+     * <br>
+     * If the image data is not available, for example, because it was
+     * skipped with {@link GltfLoadOptions#setSkipImageData(boolean)},
+     * then the image keeps its original URI.
      *
-     * @param gltfModel The {@link GltfModelV2}
-     * @param index     The index of the {@link Image}
-     * @param image     The {@link Image}
+     * @param gltfModel     The {@link GltfModelV2}
+     * @param index         The index of the {@link Image}
+     * @param image         The {@link Image}
+     * @param embeddedDatas The map for the embedded data
      * @throws GltfException If the image format (and thus, the MIME type)
-     *                       can not be determined from the image data
+     *                       can not be determined from the image data, or
+     *                       the image data is not available and the image
+     *                       has no URI
      */
     private static void convertImageToEmbedded(
-            GltfModelV2 gltfModel, int index, Image image) {
+            GltfModelV2 gltfModel, int index, Image image,
+            Map<GlTFProperty, ByteBuffer> embeddedDatas) {
         String uriString = image.getUri();
         if (IO.isDataUriString(uriString)) {
             return;
         }
         ImageModel imageModel = gltfModel.getImageModels().get(index);
         ByteBuffer imageData = imageModel.getImageData();
+        if (imageData == null) {
+            if (uriString == null) {
+                throw new GltfException("The data of image " + index
+                        + " is not available");
+            }
+            logger.warning("The data of image " + index + " is not "
+                    + "available, keeping the URI " + uriString);
+            return;
+        }
 
         String uri = image.getUri();
         String imageMimeTypeString =
@@ -117,14 +185,22 @@ final class EmbeddedAssetCreatorV2 {
                     "Could not detect MIME type of image " + index);
         }
 
-        byte[] data = new byte[imageData.capacity()];
-        imageData.slice().get(data);
-        String encodedData = Base64.getEncoder().encodeToString(data);
-        String dataUriString =
-                "data:" + imageMimeTypeString + ";base64," + encodedData;
-
-        image.setUri(dataUriString);
+        image.setUri("data:" + imageMimeTypeString + ";base64,");
+        embeddedDatas.put(image, imageData);
     }
 
-
+    /**
+     * Returns the base64-encoded representation of the given data, from
+     * position 0 to its capacity
+     *
+     * @param data The data
+     * @return The encoded data
+     */
+    private static String encode(ByteBuffer data) {
+        byte[] bytes = new byte[data.capacity()];
+        ByteBuffer contents = data.duplicate();
+        contents.clear();
+        contents.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
 }
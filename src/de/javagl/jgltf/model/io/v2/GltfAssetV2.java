@@ -8,11 +8,15 @@ import de.javagl.jgltf.model.io.Buffers;
 import de.javagl.jgltf.model.io.GltfAsset;
 import de.javagl.jgltf.model.io.GltfReference;
 import de.javagl.jgltf.model.io.IO;
+import de.javagl.jgltf.model.v2.MeshoptDecoder;
 
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Implementation of the {@link GltfAsset} interface for glTF 2.0.
@@ -33,6 +37,21 @@ public final class GltfAssetV2 implements GltfAsset {
      */
     private final Map<String, ByteBuffer> referenceDatas;
 
+    /**
+     * The optional function that resolves (relative) URI strings to the
+     * associated external data when they are requested for the first time
+     */
+    private volatile Function<? super String, ? extends ByteBuffer>
+            referenceResolver;
+
+    /**
+     * The futures for the data that is resolved with the reference
+     * resolver, ensuring that each URI is resolved only once, even when
+     * its data is requested by multiple threads
+     */
+    private final Map<String, CompletableFuture<ByteBuffer>>
+            resolvedReferenceDatas;
+
     /**
      * Creates a new instance
      *
@@ -43,6 +62,7 @@ public final class GltfAssetV2 implements GltfAsset {
         this.gltf = Objects.requireNonNull(gltf, "The gltf may not be null");
         this.binaryData = binaryData;
         this.referenceDatas = new ConcurrentHashMap<>();
+        this.resolvedReferenceDatas = new ConcurrentHashMap<>();
     }
 
     /**
@@ -59,6 +79,29 @@ public final class GltfAssetV2 implements GltfAsset {
         }
     }
 
+    /**
+     * Set the function that will be used for resolving (relative) URI
+     * strings to the associated external data when this data is
+     * {@link #getReferenceData(String) requested} and was not resolved
+     * yet. The resolved data will be stored in this asset.<br>
+     * <br>
+     * This allows reading an asset without resolving its references,
+     * and loading the external data only when it is actually accessed.
+     * Each URI is resolved at most once: When the data for the same URI
+     * is requested by multiple threads, then one of them calls the
+     * resolver, and the others wait for its result. Note that
+     * {@link #getReferenceDatas()} will only contain the data that was
+     * already resolved.
+     *
+     * @param referenceResolver The reference resolver. If this is
+     *                          <code>null</code>, then no lazy resolution
+     *                          will take place.
+     */
+    public void setReferenceResolver(
+            Function<? super String, ? extends ByteBuffer> referenceResolver) {
+        this.referenceResolver = referenceResolver;
+    }
+
     @Override
     public GlTF getGltf() {
         return gltf;
@@ -92,6 +135,11 @@ public final class GltfAssetV2 implements GltfAsset {
                 // This is the binary glTF buffer
                 continue;
             }
+            if (MeshoptDecoder.isFallbackBuffer(buffer)) {
+                // The data of this buffer is obtained by decoding the
+                // buffer views that refer to it
+                continue;
+            }
             String uri = buffer.getUri();
             if (!IO.isDataUriString(uri)) {
                 Consumer<ByteBuffer> target =
@@ -133,7 +181,63 @@ public final class GltfAssetV2 implements GltfAsset {
 
     @Override
     public ByteBuffer getReferenceData(String uriString) {
-        return Buffers.createSlice(referenceDatas.get(uriString));
+        if (uriString == null) {
+            return null;
+        }
+        ByteBuffer referenceData = referenceDatas.get(uriString);
+        Function<? super String, ? extends ByteBuffer> resolver =
+                referenceResolver;
+        if (referenceData == null && resolver != null) {
+            referenceData = resolveReferenceData(uriString, resolver);
+        }
+        return Buffers.createSlice(referenceData);
+    }
+
+    /**
+     * Resolve the data for the given URI string with the given resolver,
+     * and store it in this asset.<br>
+     * <br>
+     * If the data for the given URI is already being resolved by another
+     * thread, then this will wait for the result. If the resolver throws
+     * an exception, then this exception is passed to all callers that
+     * are waiting, and the next call will try to resolve the data again.
+     *
+     * @param uriString The URI string
+     * @param resolver  The resolver
+     * @return The data, or <code>null</code> if it could not be resolved
+     */
+    private ByteBuffer resolveReferenceData(String uriString,
+            Function<? super String, ? extends ByteBuffer> resolver) {
+        CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+        CompletableFuture<ByteBuffer> existingFuture =
+                resolvedReferenceDatas.putIfAbsent(uriString, future);
+        if (existingFuture != null) {
+            try {
+                return existingFuture.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            ByteBuffer referenceData = referenceDatas.get(uriString);
+            if (referenceData == null) {
+                referenceData = resolver.apply(uriString);
+                putReferenceData(uriString, referenceData);
+            }
+            future.complete(referenceData);
+            return referenceData;
+        } catch (RuntimeException | Error e) {
+            resolvedReferenceDatas.remove(uriString, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
     }
 
     @Override
@@ -1,19 +1,19 @@
 package de.javagl.jgltf.model.io.v2;
 
 import de.javagl.jgltf.impl.v2.GlTF;
-import de.javagl.jgltf.model.io.Buffers;
 import de.javagl.jgltf.model.io.GltfAssetWriter;
-import de.javagl.jgltf.model.io.GltfWriter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.IntBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.WritableByteChannel;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A class for writing a glTF 2.0 asset in binary format to an output stream.
@@ -64,125 +64,140 @@ public final class GltfAssetWriterV2 {
      */
     public void writeBinary(GltfAssetV2 gltfAsset, OutputStream outputStream)
             throws IOException {
-        // Write the JSON representation of the glTF
-        GlTF gltf = gltfAsset.getGltf();
-        byte[] jsonData;
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            GltfWriter gltfWriter = new GltfWriter();
-            gltfWriter.setIndenting(false);
-            gltfWriter.write(gltf, baos);
-            jsonData = baos.toByteArray();
-        }
-        // Ensure 4-byte-alignment for the jsonData
-        if (jsonData.length % 4 != 0) {
-            int oldLength = jsonData.length;
-            int padding = 4 - (oldLength % 4);
-            jsonData = Arrays.copyOf(jsonData, oldLength + padding);
-            for (int i = 0; i < padding; i++) {
-                jsonData[oldLength + i] = ' ';
-            }
-        }
-
-        // Obtain the binary data, and ensure it's 4-byte aligned
-        ByteBuffer binaryData = gltfAsset.getBinaryData();
-        if (binaryData == null) {
-            binaryData = ByteBuffer.wrap(new byte[0]);
-        }
-        if (binaryData.capacity() % 4 != 0) {
-            int padding = 4 - (binaryData.capacity() % 4);
-            binaryData =
-                    Buffers.copyOf(binaryData, binaryData.capacity() + padding);
-        }
-
-        // Create the JSON chunk data
-        ChunkData jsonChunkData = new ChunkData();
-        jsonChunkData.append(jsonData.length);
-        jsonChunkData.append(CHUNK_TYPE_JSON);
-        jsonChunkData.append(ByteBuffer.wrap(jsonData));
-
-        // Create the BIN chunk data
-        ChunkData binChunkData = new ChunkData();
-        binChunkData.append(binaryData.capacity());
-        binChunkData.append(CHUNK_TYPE_BIN);
-        binChunkData.append(binaryData);
-
-        // Create the header data
-        ChunkData headerData = new ChunkData();
-        headerData.append(MAGIC_BINARY_GLTF_HEADER);
-        headerData.append(BINARY_GLTF_VERSION);
-        int length = 12 + jsonData.length + 8 + binaryData.capacity() + 8;
-        headerData.append(length);
-
-        // Finally, write the header, JSON and BIN data to the output stream 
         @SuppressWarnings("resource")
         WritableByteChannel writableByteChannel =
                 Channels.newChannel(outputStream);
-        writableByteChannel.write(headerData.get());
-        writableByteChannel.write(jsonChunkData.get());
-        writableByteChannel.write(binChunkData.get());
+        writeBinary(gltfAsset, writableByteChannel);
     }
 
     /**
-     * Utility class for collecting the data of one binary glTF 2.0 chunk
+     * Write the given {@link GltfAssetV2} as a binary glTF asset to the
+     * given channel. The caller is responsible for closing the
+     * given channel.
+     *
+     * @param gltfAsset           The {@link GltfAssetV2}
+     * @param writableByteChannel The channel
+     * @throws IOException If an IO error occurred
      */
-    private static class ChunkData {
-        /**
-         * The stream that will collect the data
-         */
-        private ByteArrayOutputStream baos;
-
-        /**
-         * Temporary buffer for int value data
-         */
-        private static final byte[] INT_DATA = new byte[4];
-
-        /**
-         * The buffer for filling the INT_DATA
-         */
-        private static final IntBuffer INT_BUFFER = ByteBuffer.wrap(INT_DATA)
-                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
-
-        /**
-         * Default constructor
-         */
-        ChunkData() {
-            baos = new ByteArrayOutputStream();
+    public void writeBinary(GltfAssetV2 gltfAsset,
+                            WritableByteChannel writableByteChannel)
+            throws IOException {
+        ByteBuffer binaryData = gltfAsset.getBinaryData();
+        if (binaryData == null) {
+            binaryData = ByteBuffer.allocate(0);
         }
+        writeBinary(gltfAsset.getGltf(),
+                Collections.singletonList(binaryData), new int[]{0},
+                binaryData.capacity(), writableByteChannel);
+    }
 
-        /**
-         * Append the given value to this data
-         *
-         * @param value The value
-         * @throws IOException If an IO error occurs
-         */
-        void append(int value) throws IOException {
-            INT_BUFFER.put(0, value);
-            baos.write(INT_DATA);
+    /**
+     * Write a binary glTF asset with the given {@link GlTF} to the given
+     * channel. The data of the BIN chunk is given as a list of parts,
+     * together with the offset of each part in the BIN chunk. The parts
+     * are written directly into the channel, with zero-bytes for the
+     * gaps between them, without ever concatenating them in memory.
+     * The caller is responsible for closing the given channel.
+     *
+     * @param gltf                The {@link GlTF}
+     * @param parts               The parts of the binary data
+     * @param offsets             The offsets of the parts, in ascending
+     *                            order
+     * @param byteLength          The length of the binary data
+     * @param writableByteChannel The channel
+     * @throws IOException If an IO error occurred, or the resulting binary
+     *                     glTF would be larger than 4GB
+     */
+    static void writeBinary(GlTF gltf, List<ByteBuffer> parts, int[] offsets,
+                            int byteLength,
+                            WritableByteChannel writableByteChannel)
+            throws IOException {
+        // Write the JSON representation of the glTF, and
+        // ensure 4-byte-alignment by padding it with spaces
+        byte[] jsonData;
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            new GltfJsonWriterV2().write(gltf, baos);
+            while (baos.size() % 4 != 0) {
+                baos.write(' ');
+            }
+            jsonData = baos.toByteArray();
         }
 
-        /**
-         * Append the given buffer to this data
-         *
-         * @param buffer The buffer
-         * @throws IOException If an IO error occurs
-         */
-        void append(ByteBuffer buffer) throws IOException {
-            @SuppressWarnings("resource")
-            WritableByteChannel writableByteChannel =
-                    Channels.newChannel(baos);
-            writableByteChannel.write(buffer.slice());
+        // The binary data will be padded with zeros to be 4-byte aligned
+        int binChunkLength = (byteLength + 3) & ~3;
+        long length = 12L + 8 + jsonData.length + 8 + binChunkLength;
+        if (length > 0xFFFFFFFFL) {
+            throw new IOException("The binary glTF would have a size of "
+                    + length + " bytes, the maximum size is 4GB");
         }
 
-        /**
-         * Returns the chunk data as a (non-direct!) buffer
-         *
-         * @return The chunk data
-         */
-        ByteBuffer get() {
-            return ByteBuffer.wrap(baos.toByteArray());
+        // Create the header, the JSON chunk, and the BIN chunk header
+        ByteBuffer header = ByteBuffer.allocate(20)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC_BINARY_GLTF_HEADER);
+        header.putInt(BINARY_GLTF_VERSION);
+        header.putInt((int) length);
+        header.putInt(jsonData.length);
+        header.putInt(CHUNK_TYPE_JSON);
+        header.flip();
+        ByteBuffer binChunkHeader = ByteBuffer.allocate(8)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        binChunkHeader.putInt(binChunkLength);
+        binChunkHeader.putInt(CHUNK_TYPE_BIN);
+        binChunkHeader.flip();
+
+        List<ByteBuffer> buffers = new ArrayList<>();
+        buffers.add(header);
+        buffers.add(ByteBuffer.wrap(jsonData));
+        buffers.add(binChunkHeader);
+
+        // Add the parts of the binary data, with the padding between them
+        int position = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            int offset = offsets[i];
+            if (offset > position) {
+                buffers.add(ByteBuffer.allocate(offset - position));
+            }
+            ByteBuffer part = parts.get(i).slice();
+            buffers.add(part);
+            position = offset + part.remaining();
         }
-
+        if (binChunkLength > position) {
+            buffers.add(ByteBuffer.allocate(binChunkLength - position));
+        }
+        writeFully(writableByteChannel, buffers);
     }
 
+    /**
+     * Write all remaining bytes of the given buffers to the given channel.
+     * If the channel is a {@link GatheringByteChannel}, then the buffers
+     * will be written with gathering writes.
+     *
+     * @param writableByteChannel The channel
+     * @param buffers             The buffers
+     * @throws IOException If an IO error occurred
+     */
+    private static void writeFully(WritableByteChannel writableByteChannel,
+                                   List<ByteBuffer> buffers) throws IOException {
+        if (writableByteChannel instanceof GatheringByteChannel) {
+            GatheringByteChannel gatheringByteChannel =
+                    (GatheringByteChannel) writableByteChannel;
+            ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+            int index = 0;
+            while (index < array.length) {
+                gatheringByteChannel.write(
+                        array, index, array.length - index);
+                while (index < array.length && !array[index].hasRemaining()) {
+                    index++;
+                }
+            }
+        } else {
+            for (ByteBuffer buffer : buffers) {
+                while (buffer.hasRemaining()) {
+                    writableByteChannel.write(buffer);
+                }
+            }
+        }
+    }
 
 }
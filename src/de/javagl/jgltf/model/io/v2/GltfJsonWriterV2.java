@@ -0,0 +1,609 @@
+package de.javagl.jgltf.model.io.v2;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.javagl.jgltf.impl.v2.Accessor;
+import de.javagl.jgltf.impl.v2.Buffer;
+import de.javagl.jgltf.impl.v2.BufferView;
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.impl.v2.GlTFChildOfRootProperty;
+import de.javagl.jgltf.impl.v2.GlTFProperty;
+import de.javagl.jgltf.impl.v2.Image;
+import de.javagl.jgltf.impl.v2.Mesh;
+import de.javagl.jgltf.impl.v2.MeshPrimitive;
+import de.javagl.jgltf.impl.v2.Node;
+import de.javagl.jgltf.impl.v2.Scene;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A class for writing a glTF 2.0 as JSON, using a
+ * {@link JsonGenerator}.<br>
+ * <br>
+ * The elements that usually occur in large numbers (accessors, buffers,
+ * buffer views, images, meshes, nodes and scenes) are written directly
+ * with the generator, without reflection-based bean serialization. All
+ * other elements, as well as extensions and extras, are written with a
+ * shared object mapper. The output is the same as the output of a
+ * {@link de.javagl.jgltf.model.io.GltfWriter} with the same indentation
+ * setting: Properties with <code>null</code> values are omitted, and all
+ * other properties are written in the same order.<br>
+ * <br>
+ * The data of {@link Buffer} and {@link Image} elements may be
+ * {@link #putEmbeddedData(GlTFProperty, ByteBuffer) embedded} into their
+ * URIs while writing, so that the data URI strings never have to be
+ * created in memory.
+ */
+final class GltfJsonWriterV2 {
+    /**
+     * The object mapper that is used for the elements that are not
+     * written directly. Its configuration matches the one of the
+     * {@link de.javagl.jgltf.model.io.GltfWriter}
+     */
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+
+    /**
+     * Whether the JSON output should be indented
+     */
+    private boolean indenting;
+
+    /**
+     * The data that is embedded into the URIs of elements
+     */
+    private final Map<GlTFProperty, ByteBuffer> embeddedDatas;
+
+    /**
+     * Interface for a method that writes a single element
+     *
+     * @param <T> The element type
+     */
+    private interface ElementWriter<T> {
+        /**
+         * Write the given element to the given generator
+         *
+         * @param generator The generator
+         * @param element   The element
+         * @throws IOException If an IO error occurs
+         */
+        void write(JsonGenerator generator, T element) throws IOException;
+    }
+
+    /**
+     * Creates the object mapper for the elements that are not written
+     * directly
+     *
+     * @return The object mapper
+     */
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setSerializationInclusion(Include.NON_NULL);
+        objectMapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return objectMapper;
+    }
+
+    /**
+     * Creates a new writer. By default, the output written by this
+     * writer will not be indented.
+     */
+    GltfJsonWriterV2() {
+        this.indenting = false;
+        this.embeddedDatas = new IdentityHashMap<>();
+    }
+
+    /**
+     * Set whether the JSON output should be indented
+     *
+     * @param indenting whether the JSON output should be indented
+     */
+    void setIndenting(boolean indenting) {
+        this.indenting = indenting;
+    }
+
+    /**
+     * Set the data that should be embedded into the URI of the given
+     * {@link Buffer} or {@link Image}. The URI of the element must be the
+     * prefix of a data URI, like <code>"data:image/png;base64,"</code>.
+     * When the element is written, the data will be base64-encoded and
+     * appended to this prefix, directly in the output.
+     *
+     * @param element The {@link Buffer} or {@link Image}
+     * @param data    The data
+     */
+    void putEmbeddedData(GlTFProperty element, ByteBuffer data) {
+        embeddedDatas.put(element, data);
+    }
+
+    /**
+     * Write the given {@link GlTF} as JSON to the given output stream.
+     * The caller is responsible for closing the given stream.
+     *
+     * @param gltf         The {@link GlTF}
+     * @param outputStream The output stream
+     * @throws IOException If an IO error occurs
+     */
+    void write(GlTF gltf, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator =
+                     OBJECT_MAPPER.getFactory().createGenerator(outputStream)) {
+            if (indenting) {
+                generator.useDefaultPrettyPrinter();
+            }
+            writeGltf(generator, gltf);
+        }
+    }
+
+    /**
+     * Write the given {@link GlTF}
+     *
+     * @param generator The generator
+     * @param gltf      The {@link GlTF}
+     * @throws IOException If an IO error occurs
+     */
+    private void writeGltf(JsonGenerator generator, GlTF gltf)
+            throws IOException {
+        generator.writeStartObject();
+        writeProperty(generator, gltf);
+        writeObject(generator, "extensionsUsed", gltf.getExtensionsUsed());
+        writeObject(generator, "extensionsRequired",
+                gltf.getExtensionsRequired());
+        writeList(generator, "accessors", gltf.getAccessors(),
+                GltfJsonWriterV2::writeAccessor);
+        writeObject(generator, "animations", gltf.getAnimations());
+        writeObject(generator, "asset", gltf.getAsset());
+        writeList(generator, "buffers", gltf.getBuffers(),
+                this::writeBuffer);
+        writeList(generator, "bufferViews", gltf.getBufferViews(),
+                GltfJsonWriterV2::writeBufferView);
+        writeObject(generator, "cameras", gltf.getCameras());
+        writeList(generator, "images", gltf.getImages(),
+                this::writeImage);
+        writeObject(generator, "materials", gltf.getMaterials());
+        writeList(generator, "meshes", gltf.getMeshes(),
+                GltfJsonWriterV2::writeMesh);
+        writeList(generator, "nodes", gltf.getNodes(),
+                GltfJsonWriterV2::writeNode);
+        writeObject(generator, "samplers", gltf.getSamplers());
+        writeInteger(generator, "scene", gltf.getScene());
+        writeList(generator, "scenes", gltf.getScenes(),
+                GltfJsonWriterV2::writeScene);
+        writeObject(generator, "skins", gltf.getSkins());
+        writeObject(generator, "textures", gltf.getTextures());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link Accessor}
+     *
+     * @param generator The generator
+     * @param accessor  The {@link Accessor}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeAccessor(
+            JsonGenerator generator, Accessor accessor) throws IOException {
+        generator.writeStartObject();
+        writeChildOfRootProperty(generator, accessor);
+        writeInteger(generator, "bufferView", accessor.getBufferView());
+        writeInteger(generator, "byteOffset", accessor.getByteOffset());
+        writeInteger(generator, "componentType",
+                accessor.getComponentType());
+        if (accessor.isNormalized() != null) {
+            generator.writeBooleanField("normalized", accessor.isNormalized());
+        }
+        writeInteger(generator, "count", accessor.getCount());
+        writeString(generator, "type", accessor.getType());
+        writeNumbers(generator, "max", accessor.getMax());
+        writeNumbers(generator, "min", accessor.getMin());
+        writeObject(generator, "sparse", accessor.getSparse());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link Buffer}
+     *
+     * @param generator The generator
+     * @param buffer    The {@link Buffer}
+     * @throws IOException If an IO error occurs
+     */
+    private void writeBuffer(
+            JsonGenerator generator, Buffer buffer) throws IOException {
+        generator.writeStartObject();
+        writeChildOfRootProperty(generator, buffer);
+        writeUri(generator, buffer, buffer.getUri());
+        writeInteger(generator, "byteLength", buffer.getByteLength());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link BufferView}
+     *
+     * @param generator  The generator
+     * @param bufferView The {@link BufferView}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeBufferView(
+            JsonGenerator generator, BufferView bufferView)
+            throws IOException {
+        generator.writeStartObject();
+        writeChildOfRootProperty(generator, bufferView);
+        writeInteger(generator, "buffer", bufferView.getBuffer());
+        writeInteger(generator, "byteOffset", bufferView.getByteOffset());
+        writeInteger(generator, "byteLength", bufferView.getByteLength());
+        writeInteger(generator, "byteStride", bufferView.getByteStride());
+        writeInteger(generator, "target", bufferView.getTarget());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link Image}
+     *
+     * @param generator The generator
+     * @param image     The {@link Image}
+     * @throws IOException If an IO error occurs
+     */
+    private void writeImage(
+            JsonGenerator generator, Image image) throws IOException {
+        generator.writeStartObject();
+        writeChildOfRootProperty(generator, image);
+        writeUri(generator, image, image.getUri());
+        writeString(generator, "mimeType", image.getMimeType());
+        writeInteger(generator, "bufferView", image.getBufferView());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link Mesh}
+     *
+     * @param generator The generator
+     * @param mesh      The {@link Mesh}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeMesh(
+            JsonGenerator generator, Mesh mesh) throws IOException {
+        generator.writeStartObject();
+        writeChildOfRootProperty(generator, mesh);
+        writeList(generator, "primitives", mesh.getPrimitives(),
+                GltfJsonWriterV2::writeMeshPrimitive);
+        writeFloats(generator, "weights", mesh.getWeights());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link MeshPrimitive}
+     *
+     * @param generator     The generator
+     * @param meshPrimitive The {@link MeshPrimitive}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeMeshPrimitive(
+            JsonGenerator generator, MeshPrimitive meshPrimitive)
+            throws IOException {
+        generator.writeStartObject();
+        writeProperty(generator, meshPrimitive);
+        Map<String, Integer> attributes = meshPrimitive.getAttributes();
+        if (attributes != null) {
+            generator.writeFieldName("attributes");
+            writeIntegerMap(generator, attributes);
+        }
+        writeInteger(generator, "indices", meshPrimitive.getIndices());
+        writeInteger(generator, "material", meshPrimitive.getMaterial());
+        writeInteger(generator, "mode", meshPrimitive.getMode());
+        writeList(generator, "targets", meshPrimitive.getTargets(),
+                GltfJsonWriterV2::writeIntegerMap);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link Node}
+     *
+     * @param generator The generator
+     * @param node      The {@link Node}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeNode(
+            JsonGenerator generator, Node node) throws IOException {
+        generator.writeStartObject();
+        writeChildOfRootProperty(generator, node);
+        writeInteger(generator, "camera", node.getCamera());
+        writeIntegers(generator, "children", node.getChildren());
+        writeInteger(generator, "skin", node.getSkin());
+        writeFloats(generator, "matrix", node.getMatrix());
+        writeInteger(generator, "mesh", node.getMesh());
+        writeFloats(generator, "rotation", node.getRotation());
+        writeFloats(generator, "scale", node.getScale());
+        writeFloats(generator, "translation", node.getTranslation());
+        writeFloats(generator, "weights", node.getWeights());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given {@link Scene}
+     *
+     * @param generator The generator
+     * @param scene     The {@link Scene}
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeScene(
+            JsonGenerator generator, Scene scene) throws IOException {
+        generator.writeStartObject();
+        writeChildOfRootProperty(generator, scene);
+        writeIntegers(generator, "nodes", scene.getNodes());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given URI of the given element, if it is not
+     * <code>null</code>. If there is embedded data for the element,
+     * then the data will be base64-encoded and appended to the URI.
+     *
+     * @param generator The generator
+     * @param element   The element
+     * @param uri       The URI
+     * @throws IOException If an IO error occurs
+     */
+    private void writeUri(JsonGenerator generator, GlTFProperty element,
+                          String uri) throws IOException {
+        if (uri == null) {
+            return;
+        }
+        ByteBuffer data = embeddedDatas.get(element);
+        if (data == null) {
+            generator.writeStringField("uri", uri);
+            return;
+        }
+        Base64EncodingReader reader = new Base64EncodingReader(uri, data);
+        generator.writeFieldName("uri");
+        generator.writeString(reader, reader.length());
+    }
+
+    /**
+     * Write the extensions, extras and name of the given
+     * {@link GlTFChildOfRootProperty}
+     *
+     * @param generator The generator
+     * @param property  The property
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeChildOfRootProperty(
+            JsonGenerator generator, GlTFChildOfRootProperty property)
+            throws IOException {
+        writeProperty(generator, property);
+        writeString(generator, "name", property.getName());
+    }
+
+    /**
+     * Write the extensions and extras of the given {@link GlTFProperty}
+     *
+     * @param generator The generator
+     * @param property  The property
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeProperty(
+            JsonGenerator generator, GlTFProperty property)
+            throws IOException {
+        writeObject(generator, "extensions", property.getExtensions());
+        writeObject(generator, "extras", property.getExtras());
+    }
+
+    /**
+     * Write the given list with the given name, if it is not
+     * <code>null</code>, using the given element writer
+     *
+     * @param <T>           The element type
+     * @param generator     The generator
+     * @param name          The field name
+     * @param list          The list
+     * @param elementWriter The element writer
+     * @throws IOException If an IO error occurs
+     */
+    private static <T> void writeList(JsonGenerator generator, String name,
+                                      List<T> list, ElementWriter<? super T> elementWriter)
+            throws IOException {
+        if (list == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(name);
+        for (T element : list) {
+            if (element == null) {
+                generator.writeNull();
+            } else {
+                elementWriter.write(generator, element);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Write the given map from strings to integers
+     *
+     * @param generator The generator
+     * @param map       The map
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeIntegerMap(
+            JsonGenerator generator, Map<String, Integer> map)
+            throws IOException {
+        generator.writeStartObject();
+        for (Entry<String, Integer> entry : map.entrySet()) {
+            generator.writeFieldName(entry.getKey());
+            Integer value = entry.getValue();
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the given object with the given name, using the object
+     * mapper, if it is not <code>null</code>
+     *
+     * @param generator The generator
+     * @param name      The field name
+     * @param value     The value
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeObject(
+            JsonGenerator generator, String name, Object value)
+            throws IOException {
+        if (value != null) {
+            generator.writeObjectField(name, value);
+        }
+    }
+
+    /**
+     * Write the given value with the given name, if it is not
+     * <code>null</code>
+     *
+     * @param generator The generator
+     * @param name      The field name
+     * @param value     The value
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeInteger(
+            JsonGenerator generator, String name, Integer value)
+            throws IOException {
+        if (value != null) {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    /**
+     * Write the given value with the given name, if it is not
+     * <code>null</code>
+     *
+     * @param generator The generator
+     * @param name      The field name
+     * @param value     The value
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeString(
+            JsonGenerator generator, String name, String value)
+            throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    /**
+     * Write the given values with the given name, if they are not
+     * <code>null</code>
+     *
+     * @param generator The generator
+     * @param name      The field name
+     * @param values    The values
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeIntegers(
+            JsonGenerator generator, String name, List<Integer> values)
+            throws IOException {
+        if (values == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(name);
+        for (Integer value : values) {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Write the given values with the given name, if they are not
+     * <code>null</code>
+     *
+     * @param generator The generator
+     * @param name      The field name
+     * @param values    The values
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeFloats(
+            JsonGenerator generator, String name, List<Float> values)
+            throws IOException {
+        if (values == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(name);
+        for (Float value : values) {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Write the given values with the given name, if they are not
+     * <code>null</code>
+     *
+     * @param generator The generator
+     * @param name      The field name
+     * @param values    The values
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeFloats(
+            JsonGenerator generator, String name, float[] values)
+            throws IOException {
+        if (values == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(name);
+        for (float value : values) {
+            generator.writeNumber(value);
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Write the given values with the given name, if they are not
+     * <code>null</code>. Each value is written with the representation
+     * of its runtime type.
+     *
+     * @param generator The generator
+     * @param name      The field name
+     * @param values    The values
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeNumbers(
+            JsonGenerator generator, String name, Number[] values)
+            throws IOException {
+        if (values == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(name);
+        for (Number value : values) {
+            if (value instanceof Integer) {
+                generator.writeNumber(value.intValue());
+            } else if (value instanceof Float) {
+                generator.writeNumber(value.floatValue());
+            } else if (value instanceof Double) {
+                generator.writeNumber(value.doubleValue());
+            } else if (value instanceof Long) {
+                generator.writeNumber(value.longValue());
+            } else if (value instanceof Short) {
+                generator.writeNumber(value.shortValue());
+            } else if (value instanceof BigDecimal) {
+                generator.writeNumber((BigDecimal) value);
+            } else if (value instanceof BigInteger) {
+                generator.writeNumber((BigInteger) value);
+            } else {
+                generator.writeObject(value);
+            }
+        }
+        generator.writeEndArray();
+    }
+}
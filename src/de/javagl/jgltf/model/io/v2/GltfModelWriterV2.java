@@ -1,22 +1,44 @@
 package de.javagl.jgltf.model.io.v2;
 
 import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.impl.v2.GlTFProperty;
 import de.javagl.jgltf.model.io.GltfAssetWriter;
 import de.javagl.jgltf.model.io.GltfModelWriter;
-import de.javagl.jgltf.model.io.GltfWriter;
 import de.javagl.jgltf.model.v2.GltfModelV2;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * A class for writing a {@link GltfModelV2}. This class contains
  * implementations for the methods of the {@link GltfModelWriter},
  * for glTF 2.0 assets. Clients should not use this class directly,
- * but only the {@link GltfModelWriter}.
+ * but only the {@link GltfModelWriter}.<br>
+ * <br>
+ * Instances of this class are not thread-safe: The
+ * {@link #setDeduplicating(boolean) deduplication setting} and the
+ * {@link #getDeduplicatedByteSize() deduplicated byte size} of the last
+ * write operation are stored in the instance. Threads that write models
+ * concurrently should use their own instances.
  */
 public final class GltfModelWriterV2 {
+    /**
+     * Whether the data of buffers, buffer views and images is deduplicated
+     */
+    private boolean deduplicating;
+
+    /**
+     * The number of bytes that have been saved by deduplication in the
+     * last write operation
+     */
+    private long deduplicatedByteSize;
+
     /**
      * Default constructor
      */
@@ -24,6 +46,41 @@ public final class GltfModelWriterV2 {
         // Default constructor
     }
 
+    /**
+     * Set whether the data should be deduplicated when writing.<br>
+     * <br>
+     * When writing a binary glTF, the data of buffer views and images
+     * with identical contents will only be stored once in the binary
+     * buffer. When writing a default glTF, buffers and images with
+     * identical contents will refer to the same file. Embedded glTF
+     * assets are not deduplicated.
+     *
+     * @param deduplicating Whether data should be deduplicated
+     */
+    public void setDeduplicating(boolean deduplicating) {
+        this.deduplicating = deduplicating;
+    }
+
+    /**
+     * Returns whether the data should be deduplicated when writing
+     *
+     * @return Whether data should be deduplicated
+     * @see #setDeduplicating(boolean)
+     */
+    public boolean isDeduplicating() {
+        return deduplicating;
+    }
+
+    /**
+     * Returns the number of bytes that have been saved by deduplication
+     * in the last write operation
+     *
+     * @return The deduplicated byte size
+     */
+    public long getDeduplicatedByteSize() {
+        return deduplicatedByteSize;
+    }
+
     /**
      * Write the given {@link GltfModelV2} to the given file. External
      * references of buffers and images that are given via the respective
@@ -38,7 +95,9 @@ public final class GltfModelWriterV2 {
     public void write(GltfModelV2 gltfModel, File file)
             throws IOException {
         DefaultAssetCreatorV2 assetCreator = new DefaultAssetCreatorV2();
+        assetCreator.setDeduplicating(deduplicating);
         GltfAssetV2 gltfAsset = assetCreator.create(gltfModel);
+        deduplicatedByteSize = assetCreator.getDeduplicatedByteSize();
         GltfAssetWriter gltfAssetWriter = new GltfAssetWriter();
         gltfAssetWriter.write(gltfAsset, file);
     }
@@ -54,16 +113,44 @@ public final class GltfModelWriterV2 {
      */
     public void writeBinary(GltfModelV2 gltfModel, OutputStream outputStream)
             throws IOException {
+        @SuppressWarnings("resource")
+        WritableByteChannel writableByteChannel =
+                Channels.newChannel(outputStream);
+        writeBinary(gltfModel, writableByteChannel);
+    }
+
+    /**
+     * Write the given {@link GltfModelV2} as a binary glTF asset to the
+     * given channel. The caller is responsible for closing the given
+     * channel.<br>
+     * <br>
+     * The data of the buffers and images is written directly into the
+     * channel, without creating a single buffer that contains the
+     * whole binary data.
+     *
+     * @param gltfModel           The {@link GltfModelV2}
+     * @param writableByteChannel The channel
+     * @throws IOException If an IO error occurs
+     */
+    public void writeBinary(GltfModelV2 gltfModel,
+                            WritableByteChannel writableByteChannel)
+            throws IOException {
         BinaryAssetCreatorV2 assetCreator = new BinaryAssetCreatorV2();
-        GltfAssetV2 gltfAsset = assetCreator.create(gltfModel);
-        GltfAssetWriterV2 gltfAssetWriter = new GltfAssetWriterV2();
-        gltfAssetWriter.writeBinary(gltfAsset, outputStream);
+        assetCreator.setDeduplicating(deduplicating);
+        BinaryAssetCreatorV2.Layout layout =
+                assetCreator.createLayout(gltfModel);
+        deduplicatedByteSize = assetCreator.getDeduplicatedByteSize();
+        GltfAssetWriterV2.writeBinary(layout.gltf, layout.parts,
+                layout.offsets, layout.byteLength, writableByteChannel);
     }
 
     /**
      * Write the given {@link GltfModelV2} as an embedded glTF asset to the
      * given output stream. The caller is responsible for closing the
-     * given stream.
+     * given stream.<br>
+     * <br>
+     * The data of the buffers and images is base64-encoded directly into
+     * the output stream, without creating the data URI strings in memory.
      *
      * @param gltfModel    The {@link GltfModelV2}
      * @param outputStream The output stream
@@ -72,9 +159,12 @@ public final class GltfModelWriterV2 {
     public void writeEmbedded(GltfModelV2 gltfModel, OutputStream outputStream)
             throws IOException {
         EmbeddedAssetCreatorV2 assetCreator = new EmbeddedAssetCreatorV2();
-        GltfAssetV2 gltfAsset = assetCreator.create(gltfModel);
-        GltfWriter gltfWriter = new GltfWriter();
-        GlTF gltf = gltfAsset.getGltf();
-        gltfWriter.write(gltf, outputStream);
+        deduplicatedByteSize = 0;
+        Map<GlTFProperty, ByteBuffer> embeddedDatas = new IdentityHashMap<>();
+        GlTF gltf = assetCreator.createGltf(gltfModel, embeddedDatas);
+        GltfJsonWriterV2 gltfJsonWriter = new GltfJsonWriterV2();
+        gltfJsonWriter.setIndenting(true);
+        embeddedDatas.forEach(gltfJsonWriter::putEmbeddedData);
+        gltfJsonWriter.write(gltf, outputStream);
     }
 }
@@ -1,6 +1,6 @@
 package de.javagl.jgltf.model.io.v2;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import de.javagl.jgltf.impl.v2.GlTF;
 import de.javagl.jgltf.model.io.JacksonUtils;
 import de.javagl.jgltf.model.io.JsonError;
@@ -50,9 +50,9 @@ public final class GltfReaderV2 {
      * @throws IOException If an IO error occurs
      */
     public GlTF read(InputStream inputStream) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        JacksonUtils.configure(objectMapper, jsonErrorConsumer);
-        return objectMapper.readValue(inputStream, GlTF.class);
+        ObjectReader objectReader =
+                JacksonUtils.createObjectReader(GlTF.class, jsonErrorConsumer);
+        return objectReader.readValue(inputStream);
     }
 
 }
@@ -1,42 +1,92 @@
 package de.javagl.jgltf.model.io.v2;
 
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import de.javagl.jgltf.impl.v2.Buffer;
 import de.javagl.jgltf.impl.v2.BufferView;
 import de.javagl.jgltf.impl.v2.GlTF;
 import de.javagl.jgltf.impl.v2.Image;
-import de.javagl.jgltf.model.GltfException;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Utility methods related to {@link GlTF}s
  */
 class GltfUtilsV2 {
     /**
-     * Creates a deep copy of the given {@link GlTF}.<br>
+     * Creates a structural copy of the given {@link GlTF}, for the
+     * creation of a new asset.<br>
      * <br>
-     * Note: Some details about the copy are not specified. E.g. whether
-     * values that are mapped to <code>null</code> are still contained
-     * in the copy. The goal of this method is to create a copy that is,
-     * as far as reasonably possible, "structurally equivalent" to the
-     * given input.
+     * The {@link Buffer}, {@link BufferView} and {@link Image} elements
+     * are copied, and stored in new lists. These are the elements that
+     * are modified by the asset creators. All other elements are
+     * <b>shared</b> between the given glTF and the copy, and must
+     * not be modified.
      *
      * @param gltf The input
      * @return The copy
-     * @throws GltfException If the copy can not be created
      */
     static GlTF copy(GlTF gltf) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.setSerializationInclusion(Include.NON_NULL);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try {
-            objectMapper.writeValue(baos, gltf);
-            return objectMapper.readValue(baos.toByteArray(), GlTF.class);
-        } catch (IOException e) {
-            throw new GltfException("Could not copy glTF", e);
+        GlTF copy = new GlTF();
+        copy.setExtensions(gltf.getExtensions());
+        copy.setExtras(gltf.getExtras());
+        copy.setExtensionsUsed(gltf.getExtensionsUsed());
+        copy.setExtensionsRequired(gltf.getExtensionsRequired());
+        copy.setAccessors(gltf.getAccessors());
+        copy.setAnimations(gltf.getAnimations());
+        copy.setAsset(gltf.getAsset());
+        copy.setBuffers(copyList(gltf.getBuffers(), GltfUtilsV2::copy));
+        copy.setBufferViews(
+                copyList(gltf.getBufferViews(), GltfUtilsV2::copy));
+        copy.setCameras(gltf.getCameras());
+        copy.setImages(copyList(gltf.getImages(), GltfUtilsV2::copy));
+        copy.setMaterials(gltf.getMaterials());
+        copy.setMeshes(gltf.getMeshes());
+        copy.setNodes(gltf.getNodes());
+        copy.setSamplers(gltf.getSamplers());
+        copy.setScene(gltf.getScene());
+        copy.setScenes(gltf.getScenes());
+        copy.setSkins(gltf.getSkins());
+        copy.setTextures(gltf.getTextures());
+        return copy;
+    }
+
+    /**
+     * Creates a new list containing copies of the elements of the given
+     * list, created with the given function. Returns <code>null</code>
+     * if the given list is <code>null</code> or empty.
+     *
+     * @param <T>    The element type
+     * @param list   The list
+     * @param copier The function that creates a copy of an element
+     * @return The new list
+     */
+    private static <T> List<T> copyList(
+            List<T> list, Function<? super T, ? extends T> copier) {
+        if (list == null || list.isEmpty()) {
+            return null;
+        }
+        List<T> result = new ArrayList<>(list.size());
+        for (T element : list) {
+            result.add(copier.apply(element));
         }
+        return result;
+    }
+
+    /**
+     * Creates a shallow copy of the given {@link Buffer}
+     *
+     * @param buffer The {@link Buffer}
+     * @return The copy
+     */
+    static Buffer copy(Buffer buffer) {
+        Buffer copy = new Buffer();
+        copy.setExtensions(buffer.getExtensions());
+        copy.setExtras(buffer.getExtras());
+        copy.setName(buffer.getName());
+        copy.setUri(buffer.getUri());
+        copy.setByteLength(buffer.getByteLength());
+        return copy;
     }
 
     /**
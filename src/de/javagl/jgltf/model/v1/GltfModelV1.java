@@ -11,7 +11,6 @@ import de.javagl.jgltf.model.gl.impl.v1.DefaultTechniqueStatesFunctionsModelV1;
 import de.javagl.jgltf.model.impl.*;
 import de.javagl.jgltf.model.impl.DefaultAnimationModel.DefaultChannel;
 import de.javagl.jgltf.model.impl.DefaultAnimationModel.DefaultSampler;
-import de.javagl.jgltf.model.io.Buffers;
 import de.javagl.jgltf.model.io.IO;
 import de.javagl.jgltf.model.io.v1.GltfAssetV1;
 import de.javagl.jgltf.model.v1.gl.DefaultModels;
@@ -348,6 +347,7 @@ public final class GltfModelV1 implements GltfModel {
         for (Buffer buffer : buffers.values()) {
             DefaultBufferModel bufferModel = new DefaultBufferModel();
             bufferModel.setUri(buffer.getUri());
+            bufferModel.setByteLength(buffer.getByteLength());
             bufferModels.add(bufferModel);
         }
     }
@@ -580,8 +580,7 @@ public final class GltfModelV1 implements GltfModel {
             } else {
                 String uri = image.getUri();
                 if (IO.isDataUriString(uri)) {
-                    byte[] data = IO.readDataUri(uri);
-                    ByteBuffer imageData = Buffers.create(data);
+                    ByteBuffer imageData = IO.readDataUriAsBuffer(uri);
                     imageModel.setImageData(imageData);
                 } else {
                     ByteBuffer imageData = gltfAsset.getReferenceData(uri);
@@ -678,8 +677,7 @@ public final class GltfModelV1 implements GltfModel {
             } else {
                 String uri = buffer.getUri();
                 if (IO.isDataUriString(uri)) {
-                    byte[] data = IO.readDataUri(uri);
-                    ByteBuffer bufferData = Buffers.create(data);
+                    ByteBuffer bufferData = IO.readDataUriAsBuffer(uri);
                     bufferModel.setBufferData(bufferData);
                 } else {
                     ByteBuffer bufferData = gltfAsset.getReferenceData(uri);
@@ -995,8 +993,7 @@ public final class GltfModelV1 implements GltfModel {
             } else {
                 String uri = shader.getUri();
                 if (IO.isDataUriString(uri)) {
-                    byte[] data = IO.readDataUri(uri);
-                    ByteBuffer shaderData = Buffers.create(data);
+                    ByteBuffer shaderData = IO.readDataUriAsBuffer(uri);
                     shaderModel.setShaderData(shaderData);
                 } else {
                     ByteBuffer shaderData = gltfAsset.getReferenceData(uri);
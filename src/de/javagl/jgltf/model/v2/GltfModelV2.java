@@ -9,6 +9,8 @@ import de.javagl.jgltf.model.impl.*;
 import de.javagl.jgltf.model.impl.DefaultAnimationModel.DefaultChannel;
 import de.javagl.jgltf.model.impl.DefaultAnimationModel.DefaultSampler;
 import de.javagl.jgltf.model.io.Buffers;
+import de.javagl.jgltf.model.io.GltfLoadOptions;
+import de.javagl.jgltf.model.io.GltfReferenceResolver;
 import de.javagl.jgltf.model.io.IO;
 import de.javagl.jgltf.model.io.v2.GltfAssetV2;
 import de.javagl.jgltf.model.v2.gl.Materials;
@@ -16,13 +18,20 @@ import de.javagl.jgltf.model.v2.gl.Materials;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
-import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.logging.Level;
 import de.javagl.jgltf.logging.Logger;
 
 /**
  * Implementation of a {@link GltfModel}, based on a {@link GlTF glTF 2.0}.<br>
+ * <br>
+ * Mesh primitives that are compressed with the
+ * <code>KHR_draco_mesh_compression</code> extension are not decoded. The
+ * accessors of such primitives do not contain the mesh data.
  */
 public final class GltfModelV2 implements GltfModel {
     /**
@@ -31,6 +40,12 @@ public final class GltfModelV2 implements GltfModel {
     private static final Logger logger =
             Logger.getLogger(GltfModelV2.class);
 
+    /**
+     * The name of the extension for Draco-compressed mesh primitives
+     */
+    private static final String DRACO_EXTENSION_NAME =
+            "KHR_draco_mesh_compression";
+
     /**
      * The {@link GltfAssetV2} of this model
      */
@@ -71,6 +86,12 @@ public final class GltfModelV2 implements GltfModel {
      */
     private final List<DefaultBufferViewModel> bufferViewModels;
 
+    /**
+     * The {@link BufferViewModel} instances whose data is compressed,
+     * and decoded when it is accessed for the first time
+     */
+    private final List<DefaultBufferViewModel> compressedBufferViewModels;
+
     /**
      * The {@link CameraModel} instances that have been created from
      * the {@link Camera} references of {@link Node} instances
@@ -125,12 +146,57 @@ public final class GltfModelV2 implements GltfModel {
      */
     private final MaterialModelHandler materialModelHandler;
 
+    /**
+     * The {@link GltfLoadOptions} that determine which parts of the
+     * model are skipped
+     */
+    private final GltfLoadOptions loadOptions;
+
+    /**
+     * Whether the scene with the respective index is used
+     */
+    private final boolean[] usedScenes;
+
+    /**
+     * Whether the node with the respective index is used
+     */
+    private final boolean[] usedNodes;
+
+    /**
+     * Whether the mesh with the respective index is used
+     */
+    private final boolean[] usedMeshes;
+
+    /**
+     * Whether the skin with the respective index is used
+     */
+    private final boolean[] usedSkins;
+
+    /**
+     * Whether the accessor with the respective index is used
+     */
+    private final boolean[] usedAccessors;
+
     /**
      * Creates a new model for the given glTF
      *
      * @param gltfAsset The {@link GltfAssetV2}
      */
     public GltfModelV2(GltfAssetV2 gltfAsset) {
+        this(gltfAsset, null);
+    }
+
+    /**
+     * Creates a new model for the given glTF, skipping the parts that
+     * are specified by the given {@link GltfLoadOptions}. The elements
+     * that are skipped are not contained in the lists that are returned
+     * by this model.
+     *
+     * @param gltfAsset   The {@link GltfAssetV2}
+     * @param loadOptions The optional {@link GltfLoadOptions}. If this is
+     *                    <code>null</code>, then all parts will be loaded.
+     */
+    public GltfModelV2(GltfAssetV2 gltfAsset, GltfLoadOptions loadOptions) {
         this.gltfAsset = Objects.requireNonNull(gltfAsset,
                 "The gltfAsset may not be null");
         this.gltf = gltfAsset.getGltf();
@@ -146,6 +212,7 @@ public final class GltfModelV2 implements GltfModel {
         this.animationModels = new ArrayList<>();
         this.bufferModels = new ArrayList<>();
         this.bufferViewModels = new ArrayList<>();
+        this.compressedBufferViewModels = new ArrayList<>();
         this.cameraModels = new ArrayList<>();
         this.imageModels = new ArrayList<>();
         this.materialModels = new ArrayList<>();
@@ -157,6 +224,14 @@ public final class GltfModelV2 implements GltfModel {
 
         this.materialModelHandler = new MaterialModelHandler();
 
+        this.loadOptions = loadOptions == null ?
+                new GltfLoadOptions() : new GltfLoadOptions(loadOptions);
+        this.usedScenes = computeUsedScenes();
+        this.usedNodes = computeUsedNodes();
+        this.usedMeshes = computeUsedMeshes();
+        this.usedSkins = computeUsedSkins();
+        this.usedAccessors = computeUsedAccessors();
+
         createAccessorModels();
         createAnimationModels();
         createBufferModels();
@@ -182,8 +257,219 @@ public final class GltfModelV2 implements GltfModel {
 
         instantiateCameraModels();
         instantiateMaterialModels();
+
+        removeUnusedModels();
+    }
+
+    /**
+     * Compute which scenes are used, according to the load options
+     *
+     * @return Whether the scene with the respective index is used
+     */
+    private boolean[] computeUsedScenes() {
+        List<Scene> scenes = Optionals.of(gltf.getScenes());
+        boolean[] used = new boolean[scenes.size()];
+        if (!loadOptions.isSkipNonDefaultScenes() || scenes.isEmpty()) {
+            Arrays.fill(used, true);
+            return used;
+        }
+        int sceneIndex = Optionals.of(gltf.getScene(), 0);
+        used[sceneIndex] = true;
+        return used;
+    }
+
+    /**
+     * Compute which nodes are used, according to the load options. If
+     * non-default scenes are skipped, these are the nodes that are
+     * reachable from the used scenes, including the joints of skins.
+     *
+     * @return Whether the node with the respective index is used
+     */
+    private boolean[] computeUsedNodes() {
+        List<Node> nodes = Optionals.of(gltf.getNodes());
+        List<Scene> scenes = Optionals.of(gltf.getScenes());
+        boolean[] used = new boolean[nodes.size()];
+        if (!loadOptions.isSkipNonDefaultScenes() || scenes.isEmpty()) {
+            Arrays.fill(used, true);
+            return used;
+        }
+        List<Skin> skins = Optionals.of(gltf.getSkins());
+        Deque<Integer> stack = new ArrayDeque<>();
+        for (int i = 0; i < scenes.size(); i++) {
+            if (usedScenes[i]) {
+                stack.addAll(Optionals.of(scenes.get(i).getNodes()));
+            }
+        }
+        while (!stack.isEmpty()) {
+            int nodeIndex = stack.pop();
+            if (used[nodeIndex]) {
+                continue;
+            }
+            used[nodeIndex] = true;
+            Node node = nodes.get(nodeIndex);
+            stack.addAll(Optionals.of(node.getChildren()));
+            Integer skinIndex = node.getSkin();
+            if (skinIndex != null && !loadOptions.isSkipSkins()) {
+                Skin skin = skins.get(skinIndex);
+                stack.addAll(Optionals.of(skin.getJoints()));
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Compute which meshes are used, according to the load options
+     *
+     * @return Whether the mesh with the respective index is used
+     */
+    private boolean[] computeUsedMeshes() {
+        List<Mesh> meshes = Optionals.of(gltf.getMeshes());
+        boolean[] used = new boolean[meshes.size()];
+        if (!loadOptions.isSkipNonDefaultScenes()) {
+            Arrays.fill(used, true);
+            return used;
+        }
+        List<Node> nodes = Optionals.of(gltf.getNodes());
+        for (int i = 0; i < nodes.size(); i++) {
+            Integer meshIndex = nodes.get(i).getMesh();
+            if (usedNodes[i] && meshIndex != null) {
+                used[meshIndex] = true;
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Compute which skins are used, according to the load options
+     *
+     * @return Whether the skin with the respective index is used
+     */
+    private boolean[] computeUsedSkins() {
+        List<Skin> skins = Optionals.of(gltf.getSkins());
+        boolean[] used = new boolean[skins.size()];
+        if (loadOptions.isSkipSkins()) {
+            return used;
+        }
+        if (!loadOptions.isSkipNonDefaultScenes()) {
+            Arrays.fill(used, true);
+            return used;
+        }
+        List<Node> nodes = Optionals.of(gltf.getNodes());
+        for (int i = 0; i < nodes.size(); i++) {
+            Integer skinIndex = nodes.get(i).getSkin();
+            if (usedNodes[i] && skinIndex != null) {
+                used[skinIndex] = true;
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Compute which accessors are used, according to the load options.
+     * If no parts of the model are skipped, then all accessors are used.
+     * Otherwise, these are the accessors that are used by the used meshes,
+     * skins and animations.
+     *
+     * @return Whether the accessor with the respective index is used
+     */
+    private boolean[] computeUsedAccessors() {
+        List<Accessor> accessors = Optionals.of(gltf.getAccessors());
+        boolean[] used = new boolean[accessors.size()];
+        if (!loadOptions.isSkipNonDefaultScenes()
+                && !loadOptions.isSkipAnimations()
+                && !loadOptions.isSkipSkins()
+                && !loadOptions.isSkipMorphTargets()) {
+            Arrays.fill(used, true);
+            return used;
+        }
+        List<Mesh> meshes = Optionals.of(gltf.getMeshes());
+        for (int i = 0; i < meshes.size(); i++) {
+            if (!usedMeshes[i]) {
+                continue;
+            }
+            List<MeshPrimitive> meshPrimitives =
+                    Optionals.of(meshes.get(i).getPrimitives());
+            for (MeshPrimitive meshPrimitive : meshPrimitives) {
+                markUsed(used, meshPrimitive.getIndices());
+                Map<String, Integer> attributes =
+                        Optionals.of(meshPrimitive.getAttributes());
+                attributes.values().forEach(a -> markUsed(used, a));
+                if (!loadOptions.isSkipMorphTargets()) {
+                    List<Map<String, Integer>> morphTargets =
+                            Optionals.of(meshPrimitive.getTargets());
+                    for (Map<String, Integer> morphTarget : morphTargets) {
+                        morphTarget.values().forEach(a -> markUsed(used, a));
+                    }
+                }
+            }
+        }
+        List<Skin> skins = Optionals.of(gltf.getSkins());
+        for (int i = 0; i < skins.size(); i++) {
+            if (usedSkins[i]) {
+                markUsed(used, skins.get(i).getInverseBindMatrices());
+            }
+        }
+        if (!loadOptions.isSkipAnimations()) {
+            List<Animation> animations = Optionals.of(gltf.getAnimations());
+            for (Animation animation : animations) {
+                List<AnimationSampler> samplers =
+                        Optionals.of(animation.getSamplers());
+                List<AnimationChannel> channels =
+                        Optionals.of(animation.getChannels());
+                for (AnimationChannel channel : channels) {
+                    if (!isUsedTarget(channel)) {
+                        continue;
+                    }
+                    AnimationSampler sampler =
+                            samplers.get(channel.getSampler());
+                    markUsed(used, sampler.getInput());
+                    markUsed(used, sampler.getOutput());
+                }
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Set the given index in the given array to <code>true</code>, if
+     * the index is not <code>null</code>
+     *
+     * @param used  The array
+     * @param index The index
+     */
+    private static void markUsed(boolean[] used, Integer index) {
+        if (index != null) {
+            used[index] = true;
+        }
     }
 
+    /**
+     * Returns whether the target node of the given animation channel
+     * is used
+     *
+     * @param animationChannel The {@link AnimationChannel}
+     * @return Whether the target is used
+     */
+    private boolean isUsedTarget(AnimationChannel animationChannel) {
+        Integer nodeIndex = animationChannel.getTarget().getNode();
+        return nodeIndex == null || usedNodes[nodeIndex];
+    }
+
+    /**
+     * Remove the animation models if animations are skipped, according to
+     * the load options.<br>
+     * <br>
+     * The other models that are not used are not removed: They remain in
+     * the lists of this model, but are not initialized. Removing them would
+     * change the indices of the remaining models, which have to match the
+     * indices in the glTF, for example, for the joints of skins or for
+     * writing the model.
+     */
+    private void removeUnusedModels() {
+        if (loadOptions.isSkipAnimations()) {
+            animationModels.clear();
+        }
+    }
 
     /**
      * Create the {@link AccessorModel} instances
@@ -197,6 +483,9 @@ public final class GltfModelV2 implements GltfModel {
             ElementType elementType = ElementType.forString(accessor.getType());
             DefaultAccessorModel accessorModel = new DefaultAccessorModel(
                     componentType, count, elementType);
+            accessorModel.setNormalized(
+                    Optionals.of(accessor.isNormalized(),
+                            accessor.defaultNormalized()));
             accessorModels.add(accessorModel);
         }
     }
@@ -220,6 +509,7 @@ public final class GltfModelV2 implements GltfModel {
             Buffer buffer = buffers.get(i);
             DefaultBufferModel bufferModel = new DefaultBufferModel();
             bufferModel.setUri(buffer.getUri());
+            bufferModel.setByteLength(buffer.getByteLength());
             bufferModels.add(bufferModel);
         }
     }
@@ -349,6 +639,9 @@ public final class GltfModelV2 implements GltfModel {
     private void initAccessorModels() {
         List<Accessor> accessors = Optionals.of(gltf.getAccessors());
         for (int i = 0; i < accessors.size(); i++) {
+            if (!usedAccessors[i]) {
+                continue;
+            }
             Accessor accessor = accessors.get(i);
             DefaultAccessorModel accessorModel = accessorModels.get(i);
 
@@ -420,58 +713,36 @@ public final class GltfModelV2 implements GltfModel {
      */
     private void initSparseAccessorModel(int accessorIndex,
                                          Accessor accessor, DefaultAccessorModel accessorModel) {
+        // The SparseAccessorData answers reads from the sparse values
+        // and the base data. It is only created when it is accessed
+        accessorModel.setSparseAccessorDataSupplier(
+                () -> createSparseAccessorData(accessor, accessorModel));
+
         // When the (sparse!) Accessor already refers to a BufferView,
-        // then this BufferView has to be replaced with a new one,
-        // to which the data substitution will be applied 
+        // then this BufferView has to be replaced with a new one, which
+        // contains the dense data. This data is only created when the
+        // buffer view data is accessed
         int count = accessorModel.getCount();
         int elementSizeInBytes = accessorModel.getElementSizeInBytes();
         int byteLength = elementSizeInBytes * count;
-        ByteBuffer bufferData = Buffers.create(byteLength);
         String uriString = "buffer_for_accessor" + accessorIndex + ".bin";
+        DefaultBufferModel bufferModel = new DefaultBufferModel();
+        bufferModel.setUri(uriString);
+        bufferModel.setByteLength(byteLength);
+        bufferModel.setBufferDataSupplier(() ->
+        {
+            logger.fine("Creating dense data for sparse accessor "
+                    + accessorIndex);
+            return accessorModel.getSparseAccessorData().createByteBuffer();
+        });
         DefaultBufferViewModel denseBufferViewModel =
-                createBufferViewModel(uriString, bufferData);
+                new DefaultBufferViewModel(null);
+        denseBufferViewModel.setByteOffset(0);
+        denseBufferViewModel.setByteLength(byteLength);
+        denseBufferViewModel.setBufferModel(bufferModel);
         accessorModel.setBufferViewModel(denseBufferViewModel);
         accessorModel.setByteOffset(0);
-
-        Integer bufferViewIndex = accessor.getBufferView();
-        if (bufferViewIndex != null) {
-            // If the accessor refers to a BufferView, then the corresponding
-            // data serves as the basis for the initialization of the values, 
-            // before the sparse substitution is applied
-            Consumer<ByteBuffer> sparseSubstitutionCallback = denseByteBuffer ->
-            {
-                logger.fine("Substituting sparse accessor data,"
-                        + " based on existing buffer view");
-
-                DefaultBufferViewModel baseBufferViewModel =
-                        bufferViewModels.get(bufferViewIndex);
-                ByteBuffer baseBufferViewData =
-                        baseBufferViewModel.getBufferViewData();
-                AccessorData baseAccessorData = AccessorDatas.create(
-                        accessorModel, baseBufferViewData);
-                AccessorData denseAccessorData =
-                        AccessorDatas.create(accessorModel, bufferData);
-                substituteSparseAccessorData(accessor, accessorModel,
-                        denseAccessorData, baseAccessorData);
-            };
-            denseBufferViewModel.setSparseSubstitutionCallback(
-                    sparseSubstitutionCallback);
-        } else {
-            // When the sparse accessor does not yet refer to a BufferView,
-            // then a new one is created, 
-            Consumer<ByteBuffer> sparseSubstitutionCallback = denseByteBuffer ->
-            {
-                logger.fine("Substituting sparse accessor data, "
-                        + "without an existing buffer view");
-
-                AccessorData denseAccessorData =
-                        AccessorDatas.create(accessorModel, bufferData);
-                substituteSparseAccessorData(accessor, accessorModel,
-                        denseAccessorData, null);
-            };
-            denseBufferViewModel.setSparseSubstitutionCallback(
-                    sparseSubstitutionCallback);
-        }
+        accessorModel.setByteStride(elementSizeInBytes);
     }
 
     /**
@@ -501,22 +772,15 @@ public final class GltfModelV2 implements GltfModel {
     }
 
     /**
-     * Substitute the sparse accessor data in the given dense
-     * {@link AccessorData} for the given {@link AccessorModel}
-     * based on the sparse accessor data that is defined in the given
-     * {@link Accessor}.
+     * Create the {@link SparseAccessorData} for the given sparse
+     * {@link Accessor}
      *
-     * @param accessor          The {@link Accessor}
-     * @param accessorModel     The {@link AccessorModel}
-     * @param denseAccessorData The dense {@link AccessorData}
-     * @param baseAccessorData  The optional {@link AccessorData} that contains
-     *                          the base data. If this is not <code>null</code>, then it will be used
-     *                          to initialize the {@link AccessorData}, before the sparse data
-     *                          substitution takes place
-     */
-    private void substituteSparseAccessorData(
-            Accessor accessor, AccessorModel accessorModel,
-            AccessorData denseAccessorData, AccessorData baseAccessorData) {
+     * @param accessor      The {@link Accessor}
+     * @param accessorModel The {@link AccessorModel}
+     * @return The {@link SparseAccessorData}
+     */
+    private SparseAccessorData createSparseAccessorData(
+            Accessor accessor, AccessorModel accessorModel) {
         AccessorSparse accessorSparse = accessor.getSparse();
         int count = accessorSparse.getCount();
 
@@ -532,11 +796,24 @@ public final class GltfModelV2 implements GltfModel {
                         accessorModel.getComponentType(),
                         elementType.getNumComponents(), count);
 
-        AccessorSparseUtils.substituteAccessorData(
-                denseAccessorData,
-                baseAccessorData,
-                sparseIndicesAccessorData,
-                sparseValuesAccessorData);
+        // If the accessor refers to a BufferView, then the corresponding
+        // data serves as the basis for the values that are not substituted
+        AccessorData baseAccessorData = null;
+        Integer bufferViewIndex = accessor.getBufferView();
+        if (bufferViewIndex != null) {
+            BufferViewModel baseBufferViewModel =
+                    bufferViewModels.get(bufferViewIndex);
+            int byteOffset = Optionals.of(accessor.getByteOffset(), 0);
+            Integer byteStride = baseBufferViewModel.getByteStride();
+            baseAccessorData = AccessorDatas.create(
+                    accessorModel.getComponentType(),
+                    baseBufferViewModel.getBufferViewData(), byteOffset,
+                    accessorModel.getCount(), elementType.getNumComponents(),
+                    byteStride);
+        }
+        return new SparseAccessorData(accessorModel.getComponentType(),
+                accessorModel.getCount(), baseAccessorData,
+                sparseIndicesAccessorData, sparseValuesAccessorData);
     }
 
 
@@ -586,6 +863,9 @@ public final class GltfModelV2 implements GltfModel {
      * Initialize the {@link AnimationModel} instances
      */
     private void initAnimationModels() {
+        if (loadOptions.isSkipAnimations()) {
+            return;
+        }
         List<Animation> animations = Optionals.of(gltf.getAnimations());
         for (int i = 0; i < animations.size(); i++) {
             Animation animation = animations.get(i);
@@ -594,6 +874,9 @@ public final class GltfModelV2 implements GltfModel {
             List<AnimationChannel> channels =
                     Optionals.of(animation.getChannels());
             for (AnimationChannel animationChannel : channels) {
+                if (!isUsedTarget(animationChannel)) {
+                    continue;
+                }
                 Channel channel = createChannel(animation, animationChannel);
                 animationModel.addChannel(channel);
             }
@@ -666,18 +949,53 @@ public final class GltfModelV2 implements GltfModel {
             bufferModel.setName(buffer.getName());
             if (i == 0 && binaryData != null) {
                 bufferModel.setBufferData(binaryData);
+            } else if (MeshoptDecoder.isFallbackBuffer(buffer)) {
+                int bufferIndex = i;
+                int byteLength = buffer.getByteLength();
+                bufferModel.setBufferDataSupplier(
+                        () -> createFallbackBufferData(
+                                bufferIndex, byteLength));
+            } else if (buffer.getUri() == null) {
+                logger.warning("Buffer " + i + " has no URI");
             } else {
                 String uri = buffer.getUri();
-                if (IO.isDataUriString(uri)) {
-                    byte[] data = IO.readDataUri(uri);
-                    ByteBuffer bufferData = Buffers.create(data);
-                    bufferModel.setBufferData(bufferData);
-                } else {
-                    ByteBuffer bufferData = gltfAsset.getReferenceData(uri);
-                    bufferModel.setBufferData(bufferData);
-                }
+                bufferModel.setBufferDataSupplier(
+                        () -> resolveData(uri));
+            }
+        }
+    }
+
+    /**
+     * Create the data for the <code>EXT_meshopt_compression</code> fallback
+     * buffer with the given index.<br>
+     * <br>
+     * The data of a fallback buffer is not loaded. Instead, it is assembled
+     * from the decoded data of all compressed buffer views that refer to
+     * the buffer. This way, the buffer contains valid data for clients that
+     * access it directly, for example, when the model is written.
+     *
+     * @param bufferIndex The buffer index
+     * @param byteLength  The byte length of the buffer
+     * @return The buffer data
+     */
+    private ByteBuffer createFallbackBufferData(
+            int bufferIndex, int byteLength) {
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Assembling data of " + MeshoptDecoder.EXTENSION_NAME
+                    + " fallback buffer " + bufferIndex);
+        }
+        ByteBuffer bufferData = Buffers.create(byteLength);
+        BufferModel bufferModel = bufferModels.get(bufferIndex);
+        for (DefaultBufferViewModel bufferViewModel :
+                compressedBufferViewModels) {
+            if (bufferViewModel.getBufferModel() != bufferModel) {
+                continue;
             }
+            bufferData.position(bufferViewModel.getByteOffset());
+            bufferData.put(bufferViewModel.getBufferViewData());
         }
+        bufferData.position(0);
+        return bufferData;
     }
 
 
@@ -695,9 +1013,111 @@ public final class GltfModelV2 implements GltfModel {
             int bufferIndex = bufferView.getBuffer();
             BufferModel bufferModel = bufferModels.get(bufferIndex);
             bufferViewModel.setBufferModel(bufferModel);
+
+            Map<String, Object> extensions = bufferView.getExtensions();
+            if (extensions != null) {
+                Object meshoptExtension =
+                        extensions.get(MeshoptDecoder.EXTENSION_NAME);
+                if (meshoptExtension != null) {
+                    initMeshoptBufferViewModel(
+                            i, meshoptExtension, bufferViewModel);
+                }
+            }
         }
     }
 
+    /**
+     * Initialize the given {@link BufferViewModel} for a buffer view that
+     * has an <code>EXT_meshopt_compression</code> extension object. The
+     * buffer view model will obtain its data by decoding the compressed
+     * data when it is accessed for the first time.
+     *
+     * @param bufferViewIndex  The buffer view index, for log messages
+     * @param extensionObject  The extension object
+     * @param bufferViewModel  The {@link BufferViewModel}
+     */
+    private void initMeshoptBufferViewModel(int bufferViewIndex,
+                                            Object extensionObject, DefaultBufferViewModel bufferViewModel) {
+        if (!(extensionObject instanceof Map<?, ?>)) {
+            logger.warning("The " + MeshoptDecoder.EXTENSION_NAME
+                    + " extension of buffer view " + bufferViewIndex
+                    + " is not an object");
+            return;
+        }
+        Map<?, ?> extension = (Map<?, ?>) extensionObject;
+        Object buffer = extension.get("buffer");
+        Object byteOffset = extension.get("byteOffset");
+        Object byteLength = extension.get("byteLength");
+        Object byteStride = extension.get("byteStride");
+        Object count = extension.get("count");
+        Object mode = extension.get("mode");
+        Object filter = extension.get("filter");
+        if (!(buffer instanceof Number)
+                || !(byteLength instanceof Number)
+                || !(byteStride instanceof Number)
+                || !(count instanceof Number)
+                || !(mode instanceof String)) {
+            logger.warning("The " + MeshoptDecoder.EXTENSION_NAME
+                    + " extension of buffer view " + bufferViewIndex
+                    + " does not contain the required properties");
+            return;
+        }
+        BufferModel compressedBufferModel =
+                bufferModels.get(((Number) buffer).intValue());
+        int compressedByteOffset = byteOffset instanceof Number ?
+                ((Number) byteOffset).intValue() : 0;
+        int compressedByteLength = ((Number) byteLength).intValue();
+        int elementByteStride = ((Number) byteStride).intValue();
+        int elementCount = ((Number) count).intValue();
+        String modeString = (String) mode;
+        String filterString = filter instanceof String ?
+                (String) filter : MeshoptDecoder.FILTER_NONE;
+
+        bufferViewModel.setBufferViewDataSupplier(() -> {
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine("Decoding " + MeshoptDecoder.EXTENSION_NAME
+                        + " data of buffer view " + bufferViewIndex);
+            }
+            ByteBuffer compressedData = Buffers.createSlice(
+                    compressedBufferModel.getBufferData(),
+                    compressedByteOffset, compressedByteLength);
+            return MeshoptDecoder.decode(compressedData, elementCount,
+                    elementByteStride, modeString, filterString);
+        });
+        compressedBufferViewModels.add(bufferViewModel);
+    }
+
+    /**
+     * Decode the data of all buffer views that are compressed, for example,
+     * with the <code>EXT_meshopt_compression</code> extension.<br>
+     * <br>
+     * By default, the data of compressed buffer views is decoded when it
+     * is accessed for the first time. This method may be called to decode
+     * the data of all these buffer views in parallel, using the given
+     * executor. The buffer views are independent of each other, and are
+     * decoded in separate tasks. This method will block until all buffer
+     * views have been decoded.
+     *
+     * @param executor The executor. If this is <code>null</code>, then
+     *                 the {@link GltfReferenceResolver#getDefaultExecutor()
+     *                 default executor} will be used.
+     * @throws CompletionException If decoding one of the buffer views
+     *                             caused an exception. This exception will have the original
+     *                             exception as its cause.
+     */
+    public void decodeCompressedBufferViews(Executor executor) {
+        Executor actualExecutor = executor == null ?
+                GltfReferenceResolver.getDefaultExecutor() : executor;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (DefaultBufferViewModel bufferViewModel :
+                compressedBufferViewModels) {
+            futures.add(CompletableFuture.runAsync(
+                    bufferViewModel::getBufferViewData, actualExecutor));
+        }
+        CompletableFuture.allOf(
+                futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
 
     /**
      * Initialize the {@link MeshModel} instances
@@ -705,6 +1125,9 @@ public final class GltfModelV2 implements GltfModel {
     private void initMeshModels() {
         List<Mesh> meshes = Optionals.of(gltf.getMeshes());
         for (int i = 0; i < meshes.size(); i++) {
+            if (!usedMeshes[i]) {
+                continue;
+            }
             Mesh mesh = meshes.get(i);
             DefaultMeshModel meshModel = meshModels.get(i);
             meshModel.setName(mesh.getName());
@@ -739,6 +1162,14 @@ public final class GltfModelV2 implements GltfModel {
         DefaultMeshPrimitiveModel meshPrimitiveModel =
                 new DefaultMeshPrimitiveModel(mode);
 
+        Map<String, Object> extensions = meshPrimitive.getExtensions();
+        if (extensions != null
+                && extensions.containsKey(DRACO_EXTENSION_NAME)) {
+            logger.warning("Mesh primitive uses " + DRACO_EXTENSION_NAME
+                    + ", which can not be decoded. The accessors of the "
+                    + "primitive do not contain the mesh data");
+        }
+
         Integer indicesIndex = meshPrimitive.getIndices();
         if (indicesIndex != null) {
             AccessorModel indices = accessorModels.get(indicesIndex);
@@ -755,6 +1186,9 @@ public final class GltfModelV2 implements GltfModel {
 
         List<Map<String, Integer>> morphTargets =
                 Optionals.of(meshPrimitive.getTargets());
+        if (loadOptions.isSkipMorphTargets()) {
+            morphTargets = Collections.emptyList();
+        }
         for (Map<String, Integer> morphTarget : morphTargets) {
             Map<String, AccessorModel> morphTargetModel =
                     new LinkedHashMap<>();
@@ -778,6 +1212,9 @@ public final class GltfModelV2 implements GltfModel {
     private void initNodeModels() {
         List<Node> nodes = Optionals.of(gltf.getNodes());
         for (int i = 0; i < nodes.size(); i++) {
+            if (!usedNodes[i]) {
+                continue;
+            }
             Node node = nodes.get(i);
 
             DefaultNodeModel nodeModel = nodeModels.get(i);
@@ -796,7 +1233,7 @@ public final class GltfModelV2 implements GltfModel {
             }
 
             Integer skinIndex = node.getSkin();
-            if (skinIndex != null) {
+            if (skinIndex != null && usedSkins[skinIndex]) {
                 SkinModel skinModel = skinModels.get(skinIndex);
                 nodeModel.setSkinModel(skinModel);
             }
@@ -828,6 +1265,9 @@ public final class GltfModelV2 implements GltfModel {
     private void initSceneModels() {
         List<Scene> scenes = Optionals.of(gltf.getScenes());
         for (int i = 0; i < scenes.size(); i++) {
+            if (!usedScenes[i]) {
+                continue;
+            }
             Scene scene = scenes.get(i);
 
             DefaultSceneModel sceneModel = sceneModels.get(i);
@@ -847,6 +1287,9 @@ public final class GltfModelV2 implements GltfModel {
     private void initSkinModels() {
         List<Skin> skins = Optionals.of(gltf.getSkins());
         for (int i = 0; i < skins.size(); i++) {
+            if (!usedSkins[i]) {
+                continue;
+            }
             Skin skin = skins.get(i);
             DefaultSkinModel skinModel = skinModels.get(i);
             skinModel.setName(skin.getName());
@@ -875,9 +1318,38 @@ public final class GltfModelV2 implements GltfModel {
             textureModel.setName(texture.getName());
 
             Integer imageIndex = texture.getSource();
-            DefaultImageModel imageModel = imageModels.get(imageIndex);
-            textureModel.setImageModel(imageModel);
+            if (imageIndex == null) {
+                imageIndex = getBasisuSource(texture);
+            }
+            if (imageIndex != null) {
+                DefaultImageModel imageModel = imageModels.get(imageIndex);
+                textureModel.setImageModel(imageModel);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the KTX2 image that is referred to by the
+     * <code>KHR_texture_basisu</code> extension of the given texture,
+     * or <code>null</code> if the texture does not have this extension.
+     *
+     * @param texture The {@link Texture}
+     * @return The image index
+     */
+    private static Integer getBasisuSource(Texture texture) {
+        Map<String, Object> extensions = texture.getExtensions();
+        if (extensions == null) {
+            return null;
         }
+        Object extension = extensions.get("KHR_texture_basisu");
+        if (!(extension instanceof Map<?, ?>)) {
+            return null;
+        }
+        Object source = ((Map<?, ?>) extension).get("source");
+        if (!(source instanceof Number)) {
+            return null;
+        }
+        return ((Number) source).intValue();
     }
 
     /**
@@ -895,20 +1367,34 @@ public final class GltfModelV2 implements GltfModel {
                 BufferViewModel bufferViewModel =
                         bufferViewModels.get(bufferViewIndex);
                 imageModel.setBufferViewModel(bufferViewModel);
-            } else {
+            } else if (!loadOptions.isSkipImageData()) {
                 String uri = image.getUri();
-                if (IO.isDataUriString(uri)) {
-                    byte[] data = IO.readDataUri(uri);
-                    ByteBuffer imageData = Buffers.create(data);
-                    imageModel.setImageData(imageData);
-                } else {
-                    ByteBuffer imageData = gltfAsset.getReferenceData(uri);
-                    imageModel.setImageData(imageData);
-                }
+                imageModel.setImageDataSupplier(
+                        () -> resolveData(uri));
             }
         }
     }
 
+    /**
+     * Resolve the data for the given URI string of a buffer or image.
+     * If the given string is a data URI, then the data will be decoded.
+     * Otherwise, the data will be obtained from the
+     * {@link GltfAssetV2#getReferenceData(String) reference data} of
+     * the asset.<br>
+     * <br>
+     * This is called when the data is accessed for the first time, so
+     * that data that is never accessed is never decoded or loaded.
+     *
+     * @param uri The URI string
+     * @return The data
+     */
+    private ByteBuffer resolveData(String uri) {
+        if (IO.isDataUriString(uri)) {
+            return IO.readDataUriAsBuffer(uri);
+        }
+        return gltfAsset.getReferenceData(uri);
+    }
+
 
     /**
      * Create the {@link CameraModel} instances. This has to be be called
@@ -920,6 +1406,9 @@ public final class GltfModelV2 implements GltfModel {
         List<Node> nodes = Optionals.of(gltf.getNodes());
         List<Camera> cameras = Optionals.of(gltf.getCameras());
         for (int i = 0; i < nodes.size(); i++) {
+            if (!usedNodes[i]) {
+                continue;
+            }
             Node node = nodes.get(i);
 
             Integer cameraIndex = node.getCamera();
@@ -964,9 +1453,15 @@ public final class GltfModelV2 implements GltfModel {
      * {@link #instantiateMaterialModels(Mesh, MeshModel, int)}
      */
     private void instantiateMaterialModels() {
+        if (loadOptions.isSkipMaterials()) {
+            return;
+        }
         List<Node> nodes = Optionals.of(gltf.getNodes());
         List<Mesh> meshes = Optionals.of(gltf.getMeshes());
         for (int i = 0; i < nodes.size(); i++) {
+            if (!usedNodes[i]) {
+                continue;
+            }
             Node node = nodes.get(i);
 
             Integer meshIndex = node.getMesh();
@@ -976,7 +1471,7 @@ public final class GltfModelV2 implements GltfModel {
 
                 int numJoints = 0;
                 Integer skinIndex = node.getSkin();
-                if (skinIndex != null) {
+                if (skinIndex != null && usedSkins[skinIndex]) {
                     SkinModel skinModel = skinModels.get(skinIndex);
                     numJoints = skinModel.getJoints().size();
                 }
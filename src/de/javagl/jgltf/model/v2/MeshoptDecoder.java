@@ -0,0 +1,861 @@
+package de.javagl.jgltf.model.v2;
+
+import de.javagl.jgltf.impl.v2.Buffer;
+import de.javagl.jgltf.model.io.Buffers;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Methods for decoding data that was compressed with the
+ * <code>EXT_meshopt_compression</code> extension.<br>
+ * <br>
+ * This supports the <code>"ATTRIBUTES"</code>, <code>"TRIANGLES"</code>
+ * and <code>"INDICES"</code> modes, and the <code>"OCTAHEDRAL"</code>,
+ * <code>"QUATERNION"</code> and <code>"EXPONENTIAL"</code> filters, as
+ * described in the specification of the extension. The decoding
+ * follows the reference implementation of the meshoptimizer library.
+ */
+public final class MeshoptDecoder {
+    /**
+     * The name of the <code>EXT_meshopt_compression</code> extension
+     */
+    public static final String EXTENSION_NAME = "EXT_meshopt_compression";
+
+    /**
+     * The mode for vertex attribute data
+     */
+    public static final String MODE_ATTRIBUTES = "ATTRIBUTES";
+
+    /**
+     * The mode for triangle index data
+     */
+    public static final String MODE_TRIANGLES = "TRIANGLES";
+
+    /**
+     * The mode for general index data
+     */
+    public static final String MODE_INDICES = "INDICES";
+
+    /**
+     * The filter that indicates that no filter should be applied
+     */
+    public static final String FILTER_NONE = "NONE";
+
+    /**
+     * The filter for octahedral encoded unit vectors
+     */
+    public static final String FILTER_OCTAHEDRAL = "OCTAHEDRAL";
+
+    /**
+     * The filter for encoded unit quaternions
+     */
+    public static final String FILTER_QUATERNION = "QUATERNION";
+
+    /**
+     * The filter for exponentially encoded floating point values
+     */
+    public static final String FILTER_EXPONENTIAL = "EXPONENTIAL";
+
+    /**
+     * The header of vertex buffer data, in the upper 4 bits
+     */
+    private static final int VERTEX_HEADER = 0xA0;
+
+    /**
+     * The header of triangle index buffer data, in the upper 4 bits
+     */
+    private static final int INDEX_HEADER = 0xE0;
+
+    /**
+     * The header of index sequence data, in the upper 4 bits
+     */
+    private static final int SEQUENCE_HEADER = 0xD0;
+
+    /**
+     * The number of bytes in one group of the vertex data
+     */
+    private static final int BYTE_GROUP_SIZE = 16;
+
+    /**
+     * The maximum number of bytes that are read for one byte group
+     */
+    private static final int BYTE_GROUP_DECODE_LIMIT = 24;
+
+    /**
+     * The maximum number of bytes in one block of vertex data
+     */
+    private static final int VERTEX_BLOCK_SIZE_BYTES = 8192;
+
+    /**
+     * The maximum number of vertices in one block of vertex data
+     */
+    private static final int VERTEX_BLOCK_MAX_SIZE = 256;
+
+    /**
+     * The minimum size of the tail of vertex data
+     */
+    private static final int TAIL_MAX_SIZE = 32;
+
+    /**
+     * Decode the given compressed data.<br>
+     * <br>
+     * The compressed data is read from the given buffer, from its position
+     * to its limit. The result will be a new buffer with little-endian byte
+     * order, containing <code>count * byteStride</code> bytes.
+     *
+     * @param source     The compressed data
+     * @param count      The number of elements
+     * @param byteStride The size of one element, in bytes
+     * @param mode       The mode, one of the <code>MODE_</code> constants
+     * @param filter     The filter, one of the <code>FILTER_</code>
+     *                   constants. This may be <code>null</code>, which is
+     *                   equivalent to {@link #FILTER_NONE}
+     * @return The decoded data
+     * @throws IllegalArgumentException If the given mode or filter is not
+     *                                  valid, if the filter or the byte stride is not valid for the
+     *                                  mode, or if the data can not be decoded
+     */
+    public static ByteBuffer decode(ByteBuffer source, int count,
+                                    int byteStride, String mode, String filter) {
+        byte[] input = new byte[source.remaining()];
+        source.slice().get(input);
+        byte[] output = new byte[Math.multiplyExact(count, byteStride)];
+        if (MODE_ATTRIBUTES.equals(mode)) {
+            decodeVertexBuffer(output, count, byteStride, input);
+        } else if (MODE_TRIANGLES.equals(mode)) {
+            decodeIndexBuffer(output, count, byteStride, input);
+        } else if (MODE_INDICES.equals(mode)) {
+            decodeIndexSequence(output, count, byteStride, input);
+        } else {
+            throw new IllegalArgumentException("Invalid mode: " + mode);
+        }
+        if (filter != null && !FILTER_NONE.equals(filter)) {
+            if (!MODE_ATTRIBUTES.equals(mode)) {
+                throw new IllegalArgumentException("The filter " + filter
+                        + " can not be applied to data with mode " + mode);
+            }
+            applyFilter(output, count, byteStride, filter);
+        }
+        return Buffers.create(output);
+    }
+
+    /**
+     * Returns whether the given {@link Buffer} is a fallback buffer of
+     * the <code>EXT_meshopt_compression</code> extension. The data of
+     * such a buffer is only used by clients that do not support the
+     * extension, so it does not have to be loaded, and it may not
+     * have a URI at all.
+     *
+     * @param buffer The {@link Buffer}
+     * @return Whether the buffer is a fallback buffer
+     */
+    public static boolean isFallbackBuffer(Buffer buffer) {
+        Map<String, Object> extensions = buffer.getExtensions();
+        if (extensions == null) {
+            return false;
+        }
+        Object extension = extensions.get(EXTENSION_NAME);
+        if (!(extension instanceof Map<?, ?>)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(((Map<?, ?>) extension).get("fallback"));
+    }
+
+    /**
+     * Apply the specified filter to the given decoded vertex data
+     *
+     * @param data       The data
+     * @param count      The number of elements
+     * @param byteStride The byte stride
+     * @param filter     The filter
+     * @throws IllegalArgumentException If the filter is not valid, or not
+     *                                  valid for the byte stride
+     */
+    static void applyFilter(
+            byte[] data, int count, int byteStride, String filter) {
+        if (FILTER_OCTAHEDRAL.equals(filter)) {
+            if (byteStride == 4) {
+                decodeFilterOctahedral8(data, count);
+            } else if (byteStride == 8) {
+                decodeFilterOctahedral16(data, count);
+            } else {
+                throw new IllegalArgumentException("The byte stride for the "
+                        + filter + " filter must be 4 or 8, but is "
+                        + byteStride);
+            }
+        } else if (FILTER_QUATERNION.equals(filter)) {
+            if (byteStride != 8) {
+                throw new IllegalArgumentException("The byte stride for the "
+                        + filter + " filter must be 8, but is " + byteStride);
+            }
+            decodeFilterQuaternion(data, count);
+        } else if (FILTER_EXPONENTIAL.equals(filter)) {
+            if (byteStride % 4 != 0) {
+                throw new IllegalArgumentException("The byte stride for the "
+                        + filter + " filter must be divisible by 4, but is "
+                        + byteStride);
+            }
+            decodeFilterExponential(data, count * byteStride / 4);
+        } else {
+            throw new IllegalArgumentException("Invalid filter: " + filter);
+        }
+    }
+
+    /**
+     * Decode vertex data
+     *
+     * @param output     The output
+     * @param count      The number of vertices
+     * @param byteStride The size of one vertex, in bytes
+     * @param input      The input
+     * @throws IllegalArgumentException If the data can not be decoded
+     */
+    private static void decodeVertexBuffer(
+            byte[] output, int count, int byteStride, byte[] input) {
+        if (byteStride <= 0 || byteStride > 256 || byteStride % 4 != 0) {
+            throw new IllegalArgumentException("The byte stride for vertex "
+                    + "data must be a multiple of 4 that is not larger "
+                    + "than 256, but is " + byteStride);
+        }
+        if (input.length < 1 + byteStride) {
+            throw invalidData("The vertex data is too short");
+        }
+        int header = input[0] & 0xFF;
+        if ((header & 0xF0) != VERTEX_HEADER) {
+            throw invalidData("Invalid vertex data header: " + header);
+        }
+        int version = header & 0x0F;
+        if (version > 0) {
+            throw invalidData("Unsupported vertex data version: " + version);
+        }
+        byte[] lastVertex = new byte[byteStride];
+        System.arraycopy(input, input.length - byteStride,
+                lastVertex, 0, byteStride);
+
+        int blockSize = Math.min(
+                (VERTEX_BLOCK_SIZE_BYTES / byteStride) & ~(BYTE_GROUP_SIZE - 1),
+                VERTEX_BLOCK_MAX_SIZE);
+        byte[] buffer = new byte[VERTEX_BLOCK_MAX_SIZE];
+        int position = 1;
+        for (int offset = 0; offset < count; offset += blockSize) {
+            int blockCount = Math.min(blockSize, count - offset);
+            int alignedCount = (blockCount + BYTE_GROUP_SIZE - 1)
+                    & ~(BYTE_GROUP_SIZE - 1);
+            int blockStart = offset * byteStride;
+            for (int k = 0; k < byteStride; k++) {
+                position = decodeBytes(input, position, buffer, alignedCount);
+                int index = blockStart + k;
+                byte p = lastVertex[k];
+                for (int i = 0; i < blockCount; i++) {
+                    int v = buffer[i] & 0xFF;
+                    p = (byte) (((-(v & 1)) ^ (v >>> 1)) + p);
+                    output[index] = p;
+                    index += byteStride;
+                }
+                lastVertex[k] = p;
+            }
+        }
+        int tailSize = Math.max(byteStride, TAIL_MAX_SIZE);
+        if (input.length - position != tailSize) {
+            throw invalidData("Unexpected size of the vertex data");
+        }
+    }
+
+    /**
+     * Decode the bytes for one component of a block of vertices
+     *
+     * @param input      The input
+     * @param position   The position in the input
+     * @param buffer     The buffer for the decoded bytes
+     * @param bufferSize The number of bytes to decode, a multiple of 16
+     * @return The new position in the input
+     * @throws IllegalArgumentException If the data can not be decoded
+     */
+    private static int decodeBytes(
+            byte[] input, int position, byte[] buffer, int bufferSize) {
+        int headerPosition = position;
+        int headerSize = (bufferSize / BYTE_GROUP_SIZE + 3) / 4;
+        int p = position + headerSize;
+        for (int i = 0; i < bufferSize; i += BYTE_GROUP_SIZE) {
+            if (input.length - p < BYTE_GROUP_DECODE_LIMIT) {
+                throw invalidData("The vertex data is too short");
+            }
+            int groupIndex = i / BYTE_GROUP_SIZE;
+            int headerByte = input[headerPosition + groupIndex / 4] & 0xFF;
+            int bitsLog2 = (headerByte >>> ((groupIndex % 4) * 2)) & 3;
+            p = decodeBytesGroup(input, p, buffer, i, bitsLog2);
+        }
+        return p;
+    }
+
+    /**
+     * Decode a group of 16 bytes
+     *
+     * @param input        The input
+     * @param position     The position in the input
+     * @param buffer       The buffer for the decoded bytes
+     * @param bufferOffset The offset in the buffer
+     * @param bitsLog2     The base 2 logarithm of the number of bits that
+     *                     are used for each byte (0, 1, 2 or 3)
+     * @return The new position in the input
+     */
+    private static int decodeBytesGroup(byte[] input, int position,
+                                        byte[] buffer, int bufferOffset, int bitsLog2) {
+        switch (bitsLog2) {
+            case 0:
+                for (int i = 0; i < BYTE_GROUP_SIZE; i++) {
+                    buffer[bufferOffset + i] = 0;
+                }
+                return position;
+            case 1:
+                return decodeBytesGroupPacked(input, position, buffer,
+                        bufferOffset, 2);
+            case 2:
+                return decodeBytesGroupPacked(input, position, buffer,
+                        bufferOffset, 4);
+            default:
+                System.arraycopy(input, position,
+                        buffer, bufferOffset, BYTE_GROUP_SIZE);
+                return position + BYTE_GROUP_SIZE;
+        }
+    }
+
+    /**
+     * Decode a group of 16 bytes, where each byte is stored with the
+     * given number of bits, starting at the most significant bits of
+     * the input bytes. The bytes where all bits are set are stored as
+     * full bytes after the packed bits.
+     *
+     * @param input        The input
+     * @param position     The position in the input
+     * @param buffer       The buffer for the decoded bytes
+     * @param bufferOffset The offset in the buffer
+     * @param bits         The number of bits, 2 or 4
+     * @return The new position in the input
+     */
+    private static int decodeBytesGroupPacked(byte[] input, int position,
+                                              byte[] buffer, int bufferOffset, int bits) {
+        int packedSize = BYTE_GROUP_SIZE * bits / 8;
+        int valuesPerByte = 8 / bits;
+        int sentinel = (1 << bits) - 1;
+        int extra = position + packedSize;
+        int index = bufferOffset;
+        for (int i = 0; i < packedSize; i++) {
+            int packed = input[position + i] & 0xFF;
+            for (int j = 0; j < valuesPerByte; j++) {
+                int shift = 8 - bits * (j + 1);
+                int value = (packed >>> shift) & sentinel;
+                if (value == sentinel) {
+                    buffer[index++] = input[extra++];
+                } else {
+                    buffer[index++] = (byte) value;
+                }
+            }
+        }
+        return extra;
+    }
+
+    /**
+     * Decode triangle index data
+     *
+     * @param output     The output
+     * @param count      The number of indices
+     * @param byteStride The size of one index, in bytes
+     * @param input      The input
+     * @throws IllegalArgumentException If the data can not be decoded
+     */
+    private static void decodeIndexBuffer(
+            byte[] output, int count, int byteStride, byte[] input) {
+        validateIndexByteStride(byteStride);
+        if (count % 3 != 0) {
+            throw new IllegalArgumentException("The count for triangle "
+                    + "index data must be divisible by 3, but is " + count);
+        }
+        if (input.length < 1 + count / 3 + 16) {
+            throw invalidData("The index data is too short");
+        }
+        int header = input[0] & 0xFF;
+        if ((header & 0xF0) != INDEX_HEADER) {
+            throw invalidData("Invalid index data header: " + header);
+        }
+        int version = header & 0x0F;
+        if (version > 1) {
+            throw invalidData("Unsupported index data version: " + version);
+        }
+
+        int[] edgeFifo = new int[32];
+        Arrays.fill(edgeFifo, -1);
+        int[] vertexFifo = new int[16];
+        Arrays.fill(vertexFifo, -1);
+        int edgeFifoOffset = 0;
+        int vertexFifoOffset = 0;
+
+        int next = 0;
+        int last = 0;
+        int feMax = version >= 1 ? 13 : 15;
+
+        // The triangle codes are followed by the data, and the
+        // 16 bytes of the auxiliary code table at the end
+        int code = 1;
+        int[] data = {code + count / 3};
+        int dataSafeEnd = input.length - 16;
+        int codeAuxTable = dataSafeEnd;
+
+        for (int i = 0; i < count; i += 3) {
+            // Each triangle reads at most 16 bytes of data
+            if (data[0] > dataSafeEnd) {
+                throw invalidData("The index data is too short");
+            }
+            int codeTri = input[code++] & 0xFF;
+            if (codeTri < 0xF0) {
+                int fe = codeTri >>> 4;
+                int edge = ((edgeFifoOffset - 1 - fe) & 15) * 2;
+                int a = edgeFifo[edge];
+                int b = edgeFifo[edge + 1];
+                int fec = codeTri & 15;
+                int c;
+                if (fec < feMax) {
+                    if (fec == 0) {
+                        c = next++;
+                        vertexFifo[vertexFifoOffset] = c;
+                        vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                    } else {
+                        c = vertexFifo[(vertexFifoOffset - 1 - fec) & 15];
+                    }
+                } else {
+                    // The values 13 and 14 encode the offsets -1 and 1
+                    // to the last free index (only in version 1)
+                    if (fec != 15) {
+                        c = last + (fec - (fec ^ 3));
+                    } else {
+                        c = decodeIndex(input, data, last);
+                    }
+                    last = c;
+                    vertexFifo[vertexFifoOffset] = c;
+                    vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                }
+                writeTriangle(output, i, byteStride, a, b, c);
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, c, b);
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, a, c);
+            } else if (codeTri < 0xFE) {
+                // The auxiliary code is looked up in the table, and
+                // can not refer to free indices
+                int codeAux = input[codeAuxTable + (codeTri & 15)] & 0xFF;
+                int feb = codeAux >>> 4;
+                int fec = codeAux & 15;
+
+                int a = next++;
+                int b = feb == 0 ?
+                        next++ : vertexFifo[(vertexFifoOffset - feb) & 15];
+                int c = fec == 0 ?
+                        next++ : vertexFifo[(vertexFifoOffset - fec) & 15];
+
+                writeTriangle(output, i, byteStride, a, b, c);
+                vertexFifo[vertexFifoOffset] = a;
+                vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                if (feb == 0) {
+                    vertexFifo[vertexFifoOffset] = b;
+                    vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                }
+                if (fec == 0) {
+                    vertexFifo[vertexFifoOffset] = c;
+                    vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                }
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, b, a);
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, c, b);
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, a, c);
+            } else {
+                // The auxiliary code is stored as a full byte
+                int codeAux = input[data[0]++] & 0xFF;
+                int fea = codeTri == 0xFE ? 0 : 15;
+                int feb = codeAux >>> 4;
+                int fec = codeAux & 15;
+
+                // An auxiliary code of 0 that is not stored in the
+                // table indicates a reset
+                if (codeAux == 0) {
+                    next = 0;
+                }
+
+                int a = fea == 0 ? next++ : 0;
+                int b = feb == 0 ?
+                        next++ : vertexFifo[(vertexFifoOffset - feb) & 15];
+                int c = fec == 0 ?
+                        next++ : vertexFifo[(vertexFifoOffset - fec) & 15];
+                if (fea == 15) {
+                    a = decodeIndex(input, data, last);
+                    last = a;
+                }
+                if (feb == 15) {
+                    b = decodeIndex(input, data, last);
+                    last = b;
+                }
+                if (fec == 15) {
+                    c = decodeIndex(input, data, last);
+                    last = c;
+                }
+
+                writeTriangle(output, i, byteStride, a, b, c);
+                vertexFifo[vertexFifoOffset] = a;
+                vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                if (feb == 0 || feb == 15) {
+                    vertexFifo[vertexFifoOffset] = b;
+                    vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                }
+                if (fec == 0 || fec == 15) {
+                    vertexFifo[vertexFifoOffset] = c;
+                    vertexFifoOffset = (vertexFifoOffset + 1) & 15;
+                }
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, b, a);
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, c, b);
+                edgeFifoOffset = pushEdge(
+                        edgeFifo, edgeFifoOffset, a, c);
+            }
+        }
+        if (data[0] != dataSafeEnd) {
+            throw invalidData("Unexpected size of the index data");
+        }
+    }
+
+    /**
+     * Push the given edge into the given edge FIFO
+     *
+     * @param edgeFifo The edge FIFO, with 16 pairs of vertex indices
+     * @param offset   The current offset in the FIFO
+     * @param a        The first vertex
+     * @param b        The second vertex
+     * @return The new offset
+     */
+    private static int pushEdge(int[] edgeFifo, int offset, int a, int b) {
+        edgeFifo[offset * 2] = a;
+        edgeFifo[offset * 2 + 1] = b;
+        return (offset + 1) & 15;
+    }
+
+    /**
+     * Write the given triangle indices into the given output
+     *
+     * @param output     The output
+     * @param index      The index of the first vertex index
+     * @param byteStride The size of one index, 2 or 4
+     * @param a          The first vertex index
+     * @param b          The second vertex index
+     * @param c          The third vertex index
+     */
+    private static void writeTriangle(byte[] output, int index,
+                                      int byteStride, int a, int b, int c) {
+        writeIndex(output, index, byteStride, a);
+        writeIndex(output, index + 1, byteStride, b);
+        writeIndex(output, index + 2, byteStride, c);
+    }
+
+    /**
+     * Write the given value as an index with the given size, in
+     * little-endian order
+     *
+     * @param output     The output
+     * @param index      The index
+     * @param byteStride The size of one index, 2 or 4
+     * @param value      The value
+     */
+    private static void writeIndex(
+            byte[] output, int index, int byteStride, int value) {
+        int offset = index * byteStride;
+        output[offset] = (byte) value;
+        output[offset + 1] = (byte) (value >>> 8);
+        if (byteStride == 4) {
+            output[offset + 2] = (byte) (value >>> 16);
+            output[offset + 3] = (byte) (value >>> 24);
+        }
+    }
+
+    /**
+     * Decode a free index, which is stored as a zigzag-encoded delta to
+     * the given last index
+     *
+     * @param input    The input
+     * @param position The position in the input, as a single-element
+     *                 array that will be updated
+     * @param last     The last index
+     * @return The index
+     */
+    private static int decodeIndex(byte[] input, int[] position, int last) {
+        int v = decodeVByte(input, position);
+        return last + ((v >>> 1) ^ -(v & 1));
+    }
+
+    /**
+     * Decode a variable-length integer, which is stored in up to 5 bytes,
+     * with 7 bits per byte, and the highest bit indicating whether
+     * another byte follows
+     *
+     * @param input    The input
+     * @param position The position in the input, as a single-element
+     *                 array that will be updated
+     * @return The value
+     */
+    private static int decodeVByte(byte[] input, int[] position) {
+        int lead = input[position[0]++] & 0xFF;
+        if (lead < 128) {
+            return lead;
+        }
+        int result = lead & 127;
+        int shift = 7;
+        for (int i = 0; i < 4; i++) {
+            int group = input[position[0]++] & 0xFF;
+            result |= (group & 127) << shift;
+            shift += 7;
+            if (group < 128) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode index sequence data
+     *
+     * @param output     The output
+     * @param count      The number of indices
+     * @param byteStride The size of one index, in bytes
+     * @param input      The input
+     * @throws IllegalArgumentException If the data can not be decoded
+     */
+    private static void decodeIndexSequence(
+            byte[] output, int count, int byteStride, byte[] input) {
+        validateIndexByteStride(byteStride);
+        if (input.length < 1 + count + 4) {
+            throw invalidData("The index data is too short");
+        }
+        int header = input[0] & 0xFF;
+        if ((header & 0xF0) != SEQUENCE_HEADER) {
+            throw invalidData("Invalid index sequence header: " + header);
+        }
+        int version = header & 0x0F;
+        if (version > 1) {
+            throw invalidData("Unsupported index sequence version: "
+                    + version);
+        }
+        int[] data = {1};
+        int dataSafeEnd = input.length - 4;
+        int[] last = new int[2];
+        for (int i = 0; i < count; i++) {
+            // Each index reads at most 5 bytes of data
+            if (data[0] >= dataSafeEnd) {
+                throw invalidData("The index data is too short");
+            }
+            int v = decodeVByte(input, data);
+
+            // The lowest bit selects the baseline, and the
+            // remaining bits are a zigzag-encoded delta
+            int current = v & 1;
+            v >>>= 1;
+            int index = last[current] + ((v >>> 1) ^ -(v & 1));
+            last[current] = index;
+            writeIndex(output, i, byteStride, index);
+        }
+        if (data[0] != dataSafeEnd) {
+            throw invalidData("Unexpected size of the index data");
+        }
+    }
+
+    /**
+     * Make sure that the given byte stride is valid for index data
+     *
+     * @param byteStride The byte stride
+     * @throws IllegalArgumentException If the byte stride is not 2 or 4
+     */
+    private static void validateIndexByteStride(int byteStride) {
+        if (byteStride != 2 && byteStride != 4) {
+            throw new IllegalArgumentException("The byte stride for index "
+                    + "data must be 2 or 4, but is " + byteStride);
+        }
+    }
+
+    /**
+     * Apply the octahedral filter to the given data, consisting of
+     * 4 signed bytes per element
+     *
+     * @param data  The data
+     * @param count The number of elements
+     */
+    private static void decodeFilterOctahedral8(byte[] data, int count) {
+        float max = 127.0f;
+        for (int i = 0; i < count; i++) {
+            int offset = i * 4;
+            float[] xyz = decodeOctahedral(data[offset], data[offset + 1],
+                    data[offset + 2], max);
+            data[offset] = (byte) round(xyz[0]);
+            data[offset + 1] = (byte) round(xyz[1]);
+            data[offset + 2] = (byte) round(xyz[2]);
+        }
+    }
+
+    /**
+     * Apply the octahedral filter to the given data, consisting of
+     * 4 signed shorts per element
+     *
+     * @param data  The data
+     * @param count The number of elements
+     */
+    private static void decodeFilterOctahedral16(byte[] data, int count) {
+        float max = 32767.0f;
+        for (int i = 0; i < count; i++) {
+            int offset = i * 8;
+            float[] xyz = decodeOctahedral(readShort(data, offset),
+                    readShort(data, offset + 2),
+                    readShort(data, offset + 4), max);
+            writeShort(data, offset, round(xyz[0]));
+            writeShort(data, offset + 2, round(xyz[1]));
+            writeShort(data, offset + 4, round(xyz[2]));
+        }
+    }
+
+    /**
+     * Decode the given octahedral coordinates into a vector with the
+     * given length. The third coordinate is the value that represents
+     * 1.0, with the same number of bits as the other coordinates.
+     *
+     * @param ex  The first octahedral coordinate
+     * @param ey  The second octahedral coordinate
+     * @param ez  The value representing 1.0
+     * @param max The length of the resulting vector
+     * @return The vector
+     */
+    private static float[] decodeOctahedral(
+            float ex, float ey, float ez, float max) {
+        float x = ex;
+        float y = ey;
+        float z = ez - Math.abs(x) - Math.abs(y);
+
+        // Fix up the octahedral coordinates for z < 0
+        float t = z >= 0.0f ? 0.0f : z;
+        x += x >= 0.0f ? t : -t;
+        y += y >= 0.0f ? t : -t;
+
+        float l = (float) Math.sqrt(x * x + y * y + z * z);
+        float s = max / l;
+        return new float[]{x * s, y * s, z * s};
+    }
+
+    /**
+     * Apply the quaternion filter to the given data, consisting of
+     * 4 signed shorts per element
+     *
+     * @param data  The data
+     * @param count The number of elements
+     */
+    private static void decodeFilterQuaternion(byte[] data, int count) {
+        float scale = (float) (1.0 / Math.sqrt(2.0));
+        for (int i = 0; i < count; i++) {
+            int offset = i * 8;
+            int s3 = readShort(data, offset + 6);
+
+            // The scale is stored in the upper bits of the last component,
+            // and the index of the largest component in the lowest 2 bits
+            int sf = s3 | 3;
+            float ss = scale / sf;
+            float x = readShort(data, offset) * ss;
+            float y = readShort(data, offset + 2) * ss;
+            float z = readShort(data, offset + 4) * ss;
+
+            // Reconstruct the largest component, clamping to 0 to avoid
+            // NaN due to precision errors
+            float ww = 1.0f - x * x - y * y - z * z;
+            float w = (float) Math.sqrt(ww >= 0.0f ? ww : 0.0f);
+
+            int qc = s3 & 3;
+            writeShort(data, offset + ((qc + 1) & 3) * 2, round(x * 32767.0f));
+            writeShort(data, offset + ((qc + 2) & 3) * 2, round(y * 32767.0f));
+            writeShort(data, offset + ((qc + 3) & 3) * 2, round(z * 32767.0f));
+            writeShort(data, offset + qc * 2, (int) (w * 32767.0f + 0.5f));
+        }
+    }
+
+    /**
+     * Apply the exponential filter to the given data, consisting of
+     * 32 bit values, each with an 8 bit exponent and a 24 bit mantissa
+     *
+     * @param data  The data
+     * @param count The number of 32 bit values
+     */
+    private static void decodeFilterExponential(byte[] data, int count) {
+        for (int i = 0; i < count; i++) {
+            int offset = i * 4;
+            int v = (data[offset] & 0xFF)
+                    | ((data[offset + 1] & 0xFF) << 8)
+                    | ((data[offset + 2] & 0xFF) << 16)
+                    | (data[offset + 3] << 24);
+            int m = (v << 8) >> 8;
+            int e = v >> 24;
+            float f = Float.intBitsToFloat((e + 127) << 23) * m;
+            int bits = Float.floatToRawIntBits(f);
+            data[offset] = (byte) bits;
+            data[offset + 1] = (byte) (bits >>> 8);
+            data[offset + 2] = (byte) (bits >>> 16);
+            data[offset + 3] = (byte) (bits >>> 24);
+        }
+    }
+
+    /**
+     * Round the given value to the nearest integer, with ties rounded
+     * away from zero
+     *
+     * @param value The value
+     * @return The rounded value
+     */
+    private static int round(float value) {
+        return (int) (value + (value >= 0.0f ? 0.5f : -0.5f));
+    }
+
+    /**
+     * Read a signed little-endian short value from the given data
+     *
+     * @param data   The data
+     * @param offset The offset
+     * @return The value
+     */
+    private static short readShort(byte[] data, int offset) {
+        return (short) ((data[offset] & 0xFF) | (data[offset + 1] << 8));
+    }
+
+    /**
+     * Write the given value as a little-endian short value into the
+     * given data
+     *
+     * @param data   The data
+     * @param offset The offset
+     * @param value  The value
+     */
+    private static void writeShort(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >>> 8);
+    }
+
+    /**
+     * Returns an exception indicating that the data is not valid
+     *
+     * @param message The message
+     * @return The exception
+     */
+    private static IllegalArgumentException invalidData(String message) {
+        return new IllegalArgumentException(
+                "Invalid " + EXTENSION_NAME + " data: " + message);
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MeshoptDecoder() {
+        // Private constructor to prevent instantiation
+    }
+}
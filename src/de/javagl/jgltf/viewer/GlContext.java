@@ -1,6 +1,7 @@
 package de.javagl.jgltf.viewer;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 /**
  * An interface intended as a minimal abstraction layer for different
@@ -189,6 +190,30 @@ public interface GlContext
     int createGlTexture(ByteBuffer pixelData, 
         int internalFormat, int width, int height, int format, int type);
 
+    /**
+     * Create an OpenGL texture from the given mip levels. The first
+     * element of the given list is the data of the base level. The width 
+     * and height of each following level are half of those of the previous
+     * level, rounded down, but at least 1. The rows of the pixel data of 
+     * each level are tightly packed.<br>
+     * <br>
+     * The default implementation only uses the base level.
+     * 
+     * @param levelDatas The pixel data of the mip levels
+     * @param internalFormat The internal format
+     * @param width The width of the base level
+     * @param height The height of the base level
+     * @param format The format
+     * @param type The type
+     * @return The GL texture
+     */
+    default int createGlTexture(List<ByteBuffer> levelDatas, 
+        int internalFormat, int width, int height, int format, int type)
+    {
+        return createGlTexture(levelDatas.get(0), 
+            internalFormat, width, height, format, type);
+    }
+
     /**
      * Set the parameters for the given GL texture
      * 
@@ -16,6 +16,7 @@ import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.TextureModel;
 import de.javagl.jgltf.model.gl.ProgramModel;
 import de.javagl.jgltf.model.gl.ShaderModel;
+import de.javagl.jgltf.model.io.Ktx2DataReader;
 
 /**
  * A class maintaining the data for rendering a glTF with OpenGL.<br>
@@ -205,17 +206,33 @@ class GltfRenderData
         
         ImageModel imageModel = textureModel.getImageModel();
         ByteBuffer imageData = imageModel.getImageData();
-        PixelData pixelData = PixelDatas.create(imageData);
-        if (pixelData == null)
+        boolean ktx2 = Ktx2DataReader.isKtx2(imageData);
+        Integer ktx2GlTexture = null;
+        if (ktx2)
         {
-            logger.warning("Could not extract pixel data from image");
-            pixelData = PixelDatas.createErrorPixelData();
+            // KTX2 data contains the mip levels that are uploaded
+            // directly, without decoding them into a BufferedImage
+            ktx2GlTexture = Ktx2Textures.createGlTexture(glContext, imageData);
+        }
+        int glTexture;
+        if (ktx2GlTexture != null)
+        {
+            glTexture = ktx2GlTexture;
+        }
+        else
+        {
+            PixelData pixelData = ktx2 ? null : PixelDatas.create(imageData);
+            if (pixelData == null)
+            {
+                logger.warning("Could not extract pixel data from image");
+                pixelData = PixelDatas.createErrorPixelData();
+            }
+            int width = pixelData.getWidth();
+            int height = pixelData.getHeight();
+            ByteBuffer pixelsRGBA = pixelData.getPixelsRGBA();
+            glTexture = glContext.createGlTexture(
+                pixelsRGBA, internalFormat, width, height, format, type);
         }
-        int width = pixelData.getWidth();
-        int height = pixelData.getHeight();
-        ByteBuffer pixelsRGBA = pixelData.getPixelsRGBA();
-        int glTexture = glContext.createGlTexture(
-            pixelsRGBA, internalFormat, width, height, format, type);
 
         int minFilter = Optionals.of(
             textureModel.getMinFilter(), 
@@ -0,0 +1,203 @@
+package de.javagl.jgltf.viewer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import de.javagl.jgltf.logging.Logger;
+
+import de.javagl.jgltf.model.io.Ktx2Data;
+import de.javagl.jgltf.model.io.Ktx2DataReader;
+
+/**
+ * Utility methods for creating GL textures from KTX2 image data
+ */
+class Ktx2Textures
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+        Logger.getLogger(Ktx2Textures.class);
+
+    /**
+     * The GL_RED constant
+     */
+    private static final int GL_RED = 0x1903;
+
+    /**
+     * The GL_RG constant
+     */
+    private static final int GL_RG = 0x8227;
+
+    /**
+     * The GL_RGB constant
+     */
+    private static final int GL_RGB = 0x1907;
+
+    /**
+     * The GL_RGBA constant
+     */
+    private static final int GL_RGBA = 0x1908;
+
+    /**
+     * The GL_R8 constant
+     */
+    private static final int GL_R8 = 0x8229;
+
+    /**
+     * The GL_RG8 constant
+     */
+    private static final int GL_RG8 = 0x822B;
+
+    /**
+     * The GL_RGB8 constant
+     */
+    private static final int GL_RGB8 = 0x8051;
+
+    /**
+     * The GL_RGBA8 constant
+     */
+    private static final int GL_RGBA8 = 0x8058;
+
+    /**
+     * The GL_SRGB8 constant
+     */
+    private static final int GL_SRGB8 = 0x8C41;
+
+    /**
+     * The GL_SRGB8_ALPHA8 constant
+     */
+    private static final int GL_SRGB8_ALPHA8 = 0x8C43;
+
+    /**
+     * The GL_RGBA16F constant
+     */
+    private static final int GL_RGBA16F = 0x881A;
+
+    /**
+     * The GL_RGBA32F constant
+     */
+    private static final int GL_RGBA32F = 0x8814;
+
+    /**
+     * The GL_UNSIGNED_BYTE constant
+     */
+    private static final int GL_UNSIGNED_BYTE = 0x1401;
+
+    /**
+     * The GL_HALF_FLOAT constant
+     */
+    private static final int GL_HALF_FLOAT = 0x140B;
+
+    /**
+     * The GL_FLOAT constant
+     */
+    private static final int GL_FLOAT = 0x1406;
+
+    /**
+     * Create a GL texture from the given KTX2 image data, uploading all
+     * mip levels that are contained in the data.<br>
+     * <br>
+     * Only 2D textures with uncompressed 8 bit, 16 bit float or 32 bit
+     * float formats are supported. If the texture cannot be created, then
+     * a warning is printed and <code>null</code> is returned.
+     *
+     * @param glContext The {@link GlContext}
+     * @param imageData The KTX2 image data
+     * @return The GL texture, or <code>null</code>
+     */
+    static Integer createGlTexture(GlContext glContext, ByteBuffer imageData)
+    {
+        Ktx2Data ktx2Data = null;
+        try
+        {
+            ktx2Data = Ktx2DataReader.read(imageData);
+        }
+        catch (IOException e)
+        {
+            logger.warning("Could not read KTX2 data: " + e.getMessage());
+            return null;
+        }
+        if (ktx2Data.getSupercompressionScheme() ==
+            Ktx2Data.SUPERCOMPRESSION_BASIS_LZ ||
+            ktx2Data.getVkFormat() == 0)
+        {
+            logger.warning("Basis Universal KTX2 data is not supported");
+            return null;
+        }
+        if (ktx2Data.getPixelDepth() > 0 ||
+            ktx2Data.getLayerCount() > 0 ||
+            ktx2Data.getFaceCount() != 1)
+        {
+            logger.warning("Only 2D KTX2 textures are supported");
+            return null;
+        }
+        int[] glFormat = toGlFormat(ktx2Data.getVkFormat());
+        if (glFormat == null)
+        {
+            logger.warning("Unsupported KTX2 format: VkFormat "
+                + ktx2Data.getVkFormat());
+            return null;
+        }
+        List<ByteBuffer> levelDatas = new ArrayList<ByteBuffer>();
+        for (int i = 0; i < ktx2Data.getLevelCount(); i++)
+        {
+            levelDatas.add(ktx2Data.getLevelData(i));
+        }
+        int width = ktx2Data.getPixelWidth();
+        int height = Math.max(1, ktx2Data.getPixelHeight());
+        return glContext.createGlTexture(levelDatas,
+            glFormat[0], width, height, glFormat[1], glFormat[2]);
+    }
+
+    /**
+     * Returns the GL internal format, format and type for the given
+     * Vulkan format, or <code>null</code> if the format is not supported
+     *
+     * @param vkFormat The Vulkan format
+     * @return The internal format, format and type
+     */
+    private static int[] toGlFormat(int vkFormat)
+    {
+        switch (vkFormat)
+        {
+            // VK_FORMAT_R8_UNORM
+            case 9: return new int[] { GL_R8, GL_RED, GL_UNSIGNED_BYTE };
+
+            // VK_FORMAT_R8G8_UNORM
+            case 16: return new int[] { GL_RG8, GL_RG, GL_UNSIGNED_BYTE };
+
+            // VK_FORMAT_R8G8B8_UNORM
+            case 23: return new int[] { GL_RGB8, GL_RGB, GL_UNSIGNED_BYTE };
+
+            // VK_FORMAT_R8G8B8_SRGB
+            case 29: return new int[] { GL_SRGB8, GL_RGB, GL_UNSIGNED_BYTE };
+
+            // VK_FORMAT_R8G8B8A8_UNORM
+            case 37: return new int[] { GL_RGBA8, GL_RGBA, GL_UNSIGNED_BYTE };
+
+            // VK_FORMAT_R8G8B8A8_SRGB
+            case 43: return new int[]
+                { GL_SRGB8_ALPHA8, GL_RGBA, GL_UNSIGNED_BYTE };
+
+            // VK_FORMAT_R16G16B16A16_SFLOAT
+            case 97: return new int[] { GL_RGBA16F, GL_RGBA, GL_HALF_FLOAT };
+
+            // VK_FORMAT_R32G32B32A32_SFLOAT
+            case 109: return new int[] { GL_RGBA32F, GL_RGBA, GL_FLOAT };
+
+            default:
+                break;
+        }
+        return null;
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Ktx2Textures()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
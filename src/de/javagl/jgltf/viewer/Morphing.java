@@ -10,12 +10,15 @@ import de.javagl.jgltf.logging.Logger;
 
 import de.javagl.jgltf.impl.v2.BufferView;
 import de.javagl.jgltf.model.AccessorData;
+import de.javagl.jgltf.model.AccessorDatas;
 import de.javagl.jgltf.model.AccessorFloatData;
 import de.javagl.jgltf.model.AccessorModel;
 import de.javagl.jgltf.model.BufferModel;
 import de.javagl.jgltf.model.BufferViewModel;
 import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
 import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.SparseAccessorData;
 import de.javagl.jgltf.model.impl.DefaultAccessorModel;
 import de.javagl.jgltf.model.impl.DefaultBufferModel;
 import de.javagl.jgltf.model.impl.DefaultBufferViewModel;
@@ -35,6 +38,12 @@ class Morphing
     private static final Logger logger =
         Logger.getLogger(Morphing.class);
     
+    /**
+     * The number of elements that are read and written at once when 
+     * the morphed data is computed
+     */
+    private static final int CHUNK_SIZE = 4096;
+    
     /**
      * A class representing an attribute to which morphing can be applied.
      */
@@ -52,9 +61,22 @@ class Morphing
         private final AccessorModel baseAccessorModel;
         
         /**
-         * The accessor data of the morph targets 
+         * The accessor data of the morph targets. These are either
+         * {@link AccessorFloatData} or {@link SparseAccessorData} objects
+         */
+        private final List<AccessorData> targetAccessorDatas;
+
+        /**
+         * The array that receives the morphed values of one chunk of 
+         * elements. It is reused for all updates.
+         */
+        private final float[] resultChunk;
+        
+        /**
+         * The array that receives the values of one chunk of elements of 
+         * a morph target. It is reused for all targets and updates.
          */
-        private final List<AccessorFloatData> targetAccessorFloatDatas;
+        private final float[] deltasChunk;
 
         /**
          * Creates a new isntance
@@ -67,18 +89,31 @@ class Morphing
          * called
          * @param baseAccessorModel The base {@link AccessorModel} for the 
          * attribute
-         * @param targetAccessorFloatDatas The {@link AccessorFloatData} 
-         * elements that have been obtained from the morph target accessors
+         * @param targetAccessorDatas The {@link AccessorFloatData} or 
+         * {@link SparseAccessorData} elements that have been obtained from 
+         * the morph target accessors
          */
         private MorphableAttribute(AccessorModel morphedAccessorModel,
             AccessorModel baseAccessorModel,
-            Collection<? extends AccessorFloatData> targetAccessorFloatDatas)
+            Collection<? extends AccessorData> targetAccessorDatas)
         {
             this.baseAccessorModel = baseAccessorModel;
             this.morphedAccessorModel = morphedAccessorModel;
-            this.targetAccessorFloatDatas = 
+            this.targetAccessorDatas = 
                 Collections.unmodifiableList(
-                    new ArrayList<AccessorFloatData>(targetAccessorFloatDatas));
+                    new ArrayList<AccessorData>(targetAccessorDatas));
+            
+            int chunkSize = Math.min(CHUNK_SIZE, baseAccessorModel.getCount());
+            int numBaseComponents = 
+                baseAccessorModel.getElementType().getNumComponents();
+            int maxNumTargetComponents = 0;
+            for (AccessorData targetAccessorData : targetAccessorDatas)
+            {
+                maxNumTargetComponents = Math.max(maxNumTargetComponents, 
+                    targetAccessorData.getNumComponentsPerElement());
+            }
+            this.resultChunk = new float[chunkSize * numBaseComponents];
+            this.deltasChunk = new float[chunkSize * maxNumTargetComponents];
         }
 
         /**
@@ -103,7 +138,7 @@ class Morphing
          */
         int getNumTargets()
         {
-            return targetAccessorFloatDatas.size();
+            return targetAccessorDatas.size();
         }
         
         /**
@@ -117,13 +152,15 @@ class Morphing
             AccessorFloatData morphedAccessorData = 
                 (AccessorFloatData) morphedAccessorModel.getAccessorData();
             AccessorFloatData baseAccessorData = 
-                (AccessorFloatData) baseAccessorModel.getAccessorData();
+                AccessorDatas.createFloat(baseAccessorModel);
             
             combine3D(
                 morphedAccessorData, 
                 baseAccessorData, 
-                targetAccessorFloatDatas, 
-                weights);
+                targetAccessorDatas, 
+                weights, 
+                resultChunk, 
+                deltasChunk);
         }
     }
     /**
@@ -165,11 +202,13 @@ class Morphing
             if (targetAccessorModel != null)
             {
                 hasMorphTargetsForSemantic = true;
-                if (targetAccessorModel.getComponentDataType() != float.class)
+                if (!AccessorDatas.isFloatCompatibleType(
+                    targetAccessorModel.getComponentType()))
                 {
                     logger.severe("Morph target accessor for " + semantic 
                         + "does not have float component type, but "
-                        + targetAccessorModel.getComponentDataType());
+                        + GltfConstants.stringFor(
+                            targetAccessorModel.getComponentType()));
                     return false;
                 }
             }
@@ -180,11 +219,13 @@ class Morphing
         // not necessary)
         if (hasMorphTargetsForSemantic)
         {
-            if (accessorModel.getComponentDataType() != float.class)
+            if (!AccessorDatas.isFloatCompatibleType(
+                accessorModel.getComponentType()))
             {
                 logger.severe("Accessor for " + semantic 
                     +" does not have float component type, but "
-                    + accessorModel.getComponentDataType());
+                    + GltfConstants.stringFor(
+                        accessorModel.getComponentType()));
                 return false;
             }
         }
@@ -213,25 +254,38 @@ class Morphing
             meshPrimitiveModel.getAttributes();
         AccessorModel baseAccessorModel = meshPrimitiveAttributes.get(semantic);
         
-        List<AccessorFloatData> targetAccessorFloatDatas = 
-            new ArrayList<AccessorFloatData>();
+        List<AccessorData> targetAccessorDatas = 
+            new ArrayList<AccessorData>();
         List<Map<String, AccessorModel>> morphTargets =
             meshPrimitiveModel.getTargets();
         for (Map<String, AccessorModel> morphTarget : morphTargets)
         {
             AccessorModel targetAccessorModel = morphTarget.get(semantic);
-            AccessorData targetAccessorData = 
-                targetAccessorModel.getAccessorData();
-            AccessorFloatData targetAccessorFloatData = 
-                (AccessorFloatData)targetAccessorData;
-            targetAccessorFloatDatas.add(targetAccessorFloatData);
+            
+            // Sparse float targets without base data only contain the
+            // displacements of few vertices. They are not densified.
+            SparseAccessorData sparseAccessorData = 
+                targetAccessorModel.getSparseAccessorData();
+            if (sparseAccessorData != null && 
+                sparseAccessorData.getBaseAccessorData() == null &&
+                targetAccessorModel.getComponentType() == 
+                    GltfConstants.GL_FLOAT)
+            {
+                targetAccessorDatas.add(sparseAccessorData);
+            }
+            else
+            {
+                AccessorFloatData targetAccessorFloatData = 
+                    AccessorDatas.createFloat(targetAccessorModel);
+                targetAccessorDatas.add(targetAccessorFloatData);
+            }
         }
         
         AccessorModel instantiatedAccessorModel =
             instantiate(baseAccessorModel, 
                 "buffer_for_morphed_attribute_" + semantic + ".bin");
         return new MorphableAttribute(instantiatedAccessorModel,
-            baseAccessorModel, targetAccessorFloatDatas);
+            baseAccessorModel, targetAccessorDatas);
     }
     
     /**
@@ -241,16 +295,26 @@ class Morphing
      * <pre><code>
      *  morphed = base + targets[i] * weights[i]  (for all i)
      * </code></pre>
-     * assuming that the elements of the accessors are at least 3D vectors. 
+     * assuming that the elements of the accessors are at least 3D vectors.
+     * <br>
+     * <br>
+     * The data is processed in chunks of elements, using the given arrays,
+     * so that no memory has to be allocated for each update.
      * 
      * @param morphed The morphed accessor data
      * @param base The base accessor data
-     * @param targets The targets accessor data
+     * @param targets The targets accessor data. These are either 
+     * {@link AccessorFloatData} or {@link SparseAccessorData} objects
      * @param weights The weights
+     * @param resultChunk The array for the morphed values of one chunk of
+     * elements
+     * @param deltasChunk The array for the target values of one chunk of
+     * elements
      */
     private static void combine3D(
             AccessorFloatData morphed, AccessorFloatData base,
-            List<? extends AccessorFloatData> targets, float[] weights)
+            List<? extends AccessorData> targets, float[] weights,
+            float[] resultChunk, float[] deltasChunk)
     {
         // The number of components is fixed to be 3 here: Accessors that 
         // refer to tangents may have 4 components, but the values that 
@@ -259,19 +323,57 @@ class Morphing
         // which cannot be morphed.
         int numComponents = 3;
         int numElements = morphed.getNumElements();
-        for (int e = 0; e < numElements; e++)
+        int numBaseComponents = base.getNumComponentsPerElement();
+        for (int first = 0; first < numElements; first += CHUNK_SIZE)
         {
-            for (int c = 0; c < numComponents; c++)
+            int count = Math.min(CHUNK_SIZE, numElements - first);
+            base.readInto(resultChunk, first, count);
+            for (int i = 0; i < weights.length; i++)
+            {
+                float w = weights[i];
+                AccessorData targetData = targets.get(i);
+                if (w == 0.0f || targetData instanceof SparseAccessorData)
+                {
+                    continue;
+                }
+                AccessorFloatData target = (AccessorFloatData) targetData;
+                int numTargetComponents = target.getNumComponentsPerElement();
+                target.readInto(deltasChunk, first, count);
+                for (int e = 0; e < count; e++)
+                {
+                    int r = e * numBaseComponents;
+                    int d = e * numTargetComponents;
+                    for (int c = 0; c < numComponents; c++)
+                    {
+                        resultChunk[r + c] += w * deltasChunk[d + c];
+                    }
+                }
+            }
+            morphed.writeFrom(resultChunk, first, count);
+        }
+        
+        // Sparse targets only affect few elements, which are updated
+        // after the dense data has been written
+        for (int i = 0; i < weights.length; i++)
+        {
+            float w = weights[i];
+            AccessorData targetData = targets.get(i);
+            if (w == 0.0f || !(targetData instanceof SparseAccessorData))
+            {
+                continue;
+            }
+            SparseAccessorData sparseTarget = 
+                (SparseAccessorData) targetData;
+            AccessorFloatData values = 
+                (AccessorFloatData) sparseTarget.getSparseValues();
+            for (int s = 0; s < sparseTarget.getNumSparseElements(); s++)
             {
-                float r = base.get(e, c);
-                for (int i = 0; i < weights.length; i++)
+                int index = sparseTarget.getSparseIndex(s);
+                for (int c = 0; c < numComponents; c++)
                 {
-                    float w = weights[i];
-                    AccessorFloatData target = targets.get(i);
-                    float d = target.get(e, c);
-                    r += w * d;
+                    morphed.set(index, c, 
+                        morphed.get(index, c) + w * values.get(s, c));
                 }
-                morphed.set(e, c, r);
             }
         }
     }
@@ -284,8 +386,9 @@ class Morphing
      * {@link BufferViewModel} and a newly created {@link BufferModel} that
      * contain exactly the data for the accessor.<br>
      * <br>
-     * The given {@link AccessorModel} is assumed to have a <code>float</code>
-     * component type.
+     * The returned {@link AccessorModel} will have a <code>float</code>
+     * component type. The given {@link AccessorModel} is assumed to have
+     * a component type that can be accessed as <code>float</code> data.
      * 
      * @param accessorModel The {@link AccessorModel}
      * @param bufferUriString The URI string for the {@link BufferModel}
@@ -295,11 +398,11 @@ class Morphing
         AccessorModel accessorModel, String bufferUriString)
     {
         AccessorModel instantiatedAccessorModel = createAccessorModel(
-            accessorModel.getComponentType(), accessorModel.getCount(),
+            GltfConstants.GL_FLOAT, accessorModel.getCount(),
             accessorModel.getElementType(), bufferUriString);
 
-        AccessorData accessorData = accessorModel.getAccessorData();
-        AccessorFloatData accessorFloatData = (AccessorFloatData)accessorData;
+        AccessorFloatData accessorFloatData = 
+            AccessorDatas.createFloat(accessorModel);
         
         AccessorData instantiatedAccessorData =
             instantiatedAccessorModel.getAccessorData();
@@ -382,6 +485,19 @@ class Morphing
         int numComponents = Math.min(
             target.getNumComponentsPerElement(),
             source.getNumComponentsPerElement());
+        if (target.getNumComponentsPerElement() == numComponents &&
+            source.getNumComponentsPerElement() == numComponents)
+        {
+            float[] values = 
+                new float[Math.min(CHUNK_SIZE, numElements) * numComponents];
+            for (int first = 0; first < numElements; first += CHUNK_SIZE)
+            {
+                int count = Math.min(CHUNK_SIZE, numElements - first);
+                source.readInto(values, first, count);
+                target.writeFrom(values, first, count);
+            }
+            return;
+        }
         for (int e = 0; e < numElements; e++)
         {
             for (int c = 0; c < numComponents; c++)
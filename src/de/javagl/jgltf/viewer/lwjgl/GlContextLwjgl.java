@@ -9,6 +9,7 @@ import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL12.GL_TEXTURE_BASE_LEVEL;
@@ -368,6 +369,8 @@ public class GlContextLwjgl implements GlContext {
         int glTexture = glGenTextures();
 
         glBindTexture(GL_TEXTURE_2D, glTexture);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, 0);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, 0);
         glTexImage2D(
                 GL_TEXTURE_2D, 0, internalFormat, width, height,
                 0, format, type, pixelData);
@@ -375,12 +378,35 @@ public class GlContextLwjgl implements GlContext {
         return glTexture;
     }
 
+    @Override
+    public int createGlTexture(
+            List<ByteBuffer> levelDatas, int internalFormat,
+            int width, int height, int format, int type) {
+        int glTexture = glGenTextures();
+
+        glBindTexture(GL_TEXTURE_2D, glTexture);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, 0);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL,
+                levelDatas.size() - 1);
+        int oldUnpackAlignment = glGetInteger(GL_UNPACK_ALIGNMENT);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        for (int level = 0; level < levelDatas.size(); level++) {
+            int levelWidth = Math.max(1, width >> level);
+            int levelHeight = Math.max(1, height >> level);
+            glTexImage2D(
+                    GL_TEXTURE_2D, level, internalFormat,
+                    levelWidth, levelHeight,
+                    0, format, type, levelDatas.get(level));
+        }
+        glPixelStorei(GL_UNPACK_ALIGNMENT, oldUnpackAlignment);
+
+        return glTexture;
+    }
+
     @Override
     public void setGlTextureParameters(int glTexture,
                                        int minFilter, int magFilter, int wrapS, int wrapT) {
         glBindTexture(GL_TEXTURE_2D, glTexture);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, 0);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, 0);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, minFilter);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, magFilter);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, wrapS);
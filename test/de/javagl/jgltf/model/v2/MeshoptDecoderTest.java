@@ -0,0 +1,282 @@
+package de.javagl.jgltf.model.v2;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link MeshoptDecoder}.<br>
+ * <br>
+ * Unless noted otherwise, the test vectors are the ones that are used in
+ * the tests of the meshoptimizer library.
+ */
+@SuppressWarnings("javadoc")
+public class MeshoptDecoderTest {
+    /**
+     * The indices that are encoded in {@link #INDEX_DATA_V0}
+     */
+    private static final int[] INDEX_BUFFER = {
+            0, 1, 2, 2, 1, 3, 4, 6, 5, 7, 8, 9
+    };
+
+    /**
+     * Version 0 of the encoded {@link #INDEX_BUFFER}
+     */
+    private static final byte[] INDEX_DATA_V0 = bytes(
+            0xe0, 0xf0, 0x10, 0xfe, 0xff, 0xf0, 0x0c, 0xff, 0x02, 0x02,
+            0x02, 0x00, 0x76, 0x87, 0x56, 0x67, 0x78, 0xa9, 0x86, 0x65,
+            0x89, 0x68, 0x98, 0x01, 0x69, 0x00, 0x00);
+
+    /**
+     * The indices that are encoded in {@link #INDEX_DATA_V1}
+     */
+    private static final int[] INDEX_BUFFER_V1 = {
+            0, 1, 2, 2, 1, 3, 4, 6, 5, 5, 6, 7, 0, 1, 2, 0, 2, 6, 0, 6, 10
+    };
+
+    /**
+     * Version 1 of the encoded {@link #INDEX_BUFFER_V1}. This was created
+     * for this test, and covers the features that are specific for
+     * version 1: A third vertex that is the last index plus or minus one,
+     * a third vertex that is a free index, and a restart.
+     */
+    private static final byte[] INDEX_DATA_V1 = bytes(
+            0xe1, 0xf0, 0x10, 0xfe, 0x1e, 0xfe, 0x0d, 0x0f, 0xf0, 0x0c,
+            0x00, 0x08, 0x00, 0x76, 0x87, 0x56, 0x67, 0x78, 0xa9, 0x86,
+            0x65, 0x89, 0x68, 0x98, 0x01, 0x69, 0x00, 0x00);
+
+    /**
+     * The indices that are encoded in {@link #INDEX_SEQUENCE_DATA}
+     */
+    private static final int[] INDEX_SEQUENCE = {
+            0, 1, 51, 2, 49, 1000
+    };
+
+    /**
+     * The encoded {@link #INDEX_SEQUENCE}
+     */
+    private static final byte[] INDEX_SEQUENCE_DATA = bytes(
+            0xd1, 0x00, 0x04, 0xcd, 0x01, 0x04, 0x07, 0x98, 0x1f, 0x00,
+            0x00, 0x00, 0x00);
+
+    /**
+     * The vertices that are encoded in {@link #VERTEX_DATA_V0}. Each
+     * vertex consists of 3 unsigned short positions, 2 unsigned byte
+     * normal components, and 2 unsigned short texture coordinates.
+     */
+    private static final byte[] VERTEX_BUFFER = shorts(
+            0, 0, 0, 0, 0, 0,
+            300, 0, 0, 0, 500, 0,
+            0, 300, 0, 0, 0, 500,
+            300, 300, 0, 0, 500, 500);
+
+    /**
+     * Version 0 of the encoded {@link #VERTEX_BUFFER}
+     */
+    private static final byte[] VERTEX_DATA_V0 = bytes(
+            0xa0, 0x01, 0x3f, 0x00, 0x00, 0x00, 0x58, 0x57, 0x58, 0x01,
+            0x26, 0x00, 0x00, 0x00, 0x01, 0x0c, 0x00, 0x00, 0x00, 0x58,
+            0x01, 0x08, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01,
+            0x3f, 0x00, 0x00, 0x00, 0x17, 0x18, 0x17, 0x01, 0x26, 0x00,
+            0x00, 0x00, 0x01, 0x0c, 0x00, 0x00, 0x00, 0x17, 0x01, 0x08,
+            0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+            0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+            0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+            0x00, 0x00, 0x00, 0x00, 0x00);
+
+    @Test
+    public void testDecodeVertexBufferV0() {
+        ByteBuffer decoded = MeshoptDecoder.decode(
+                ByteBuffer.wrap(VERTEX_DATA_V0), 4, 12,
+                MeshoptDecoder.MODE_ATTRIBUTES, null);
+        assertArrayEquals(VERTEX_BUFFER, toArray(decoded));
+    }
+
+    @Test
+    public void testDecodeIndexBufferV0() {
+        assertArrayEquals(INDEX_BUFFER, decodeInts(INDEX_DATA_V0,
+                INDEX_BUFFER.length, MeshoptDecoder.MODE_TRIANGLES));
+    }
+
+    @Test
+    public void testDecodeIndexBufferV0Short() {
+        ByteBuffer decoded = MeshoptDecoder.decode(
+                ByteBuffer.wrap(INDEX_DATA_V0), INDEX_BUFFER.length, 2,
+                MeshoptDecoder.MODE_TRIANGLES, null);
+        assertArrayEquals(shorts(INDEX_BUFFER), toArray(decoded));
+    }
+
+    @Test
+    public void testDecodeIndexBufferV1() {
+        assertArrayEquals(INDEX_BUFFER_V1, decodeInts(INDEX_DATA_V1,
+                INDEX_BUFFER_V1.length, MeshoptDecoder.MODE_TRIANGLES));
+    }
+
+    @Test
+    public void testDecodeIndexSequence() {
+        assertArrayEquals(INDEX_SEQUENCE, decodeInts(INDEX_SEQUENCE_DATA,
+                INDEX_SEQUENCE.length, MeshoptDecoder.MODE_INDICES));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeIndexBufferTruncated() {
+        byte[] data = new byte[INDEX_DATA_V0.length - 1];
+        System.arraycopy(INDEX_DATA_V0, 0, data, 0, data.length);
+        decodeInts(data, INDEX_BUFFER.length, MeshoptDecoder.MODE_TRIANGLES);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeVertexBufferTruncated() {
+        byte[] data = new byte[VERTEX_DATA_V0.length - 1];
+        System.arraycopy(VERTEX_DATA_V0, 0, data, 0, data.length);
+        MeshoptDecoder.decode(ByteBuffer.wrap(data), 4, 12,
+                MeshoptDecoder.MODE_ATTRIBUTES, null);
+    }
+
+    @Test
+    public void testFilterOctahedral8() {
+        byte[] data = bytes(
+                0, 1, 127, 0,
+                0, 187, 127, 1,
+                255, 1, 127, 0,
+                14, 130, 127, 1);
+        byte[] expected = bytes(
+                0, 1, 127, 0,
+                0, 159, 82, 1,
+                255, 1, 127, 0,
+                1, 130, 241, 1);
+        MeshoptDecoder.applyFilter(
+                data, 4, 4, MeshoptDecoder.FILTER_OCTAHEDRAL);
+        assertArrayEquals(expected, data);
+    }
+
+    @Test
+    public void testFilterOctahedral12() {
+        byte[] data = shorts(
+                0, 1, 2047, 0,
+                0, 1870, 2047, 1,
+                2017, 1, 2047, 0,
+                14, 1300, 2047, 1);
+        byte[] expected = shorts(
+                0, 16, 32767, 0,
+                0, 32621, 3088, 1,
+                32764, 16, 471, 0,
+                307, 28541, 16093, 1);
+        MeshoptDecoder.applyFilter(
+                data, 4, 8, MeshoptDecoder.FILTER_OCTAHEDRAL);
+        assertArrayEquals(expected, data);
+    }
+
+    @Test
+    public void testFilterQuaternion12() {
+        byte[] data = shorts(
+                0, 1, 0, 0x7fc,
+                0, 1870, 0, 0x7fd,
+                2017, 1, 0, 0x7fe,
+                14, 1300, 0, 0x7ff);
+        byte[] expected = shorts(
+                32767, 0, 11, 0,
+                0, 25013, 0, 21166,
+                11, 0, 23504, 22830,
+                158, 14715, 0, 29277);
+        MeshoptDecoder.applyFilter(
+                data, 4, 8, MeshoptDecoder.FILTER_QUATERNION);
+        assertArrayEquals(expected, data);
+    }
+
+    @Test
+    public void testFilterExponential() {
+        byte[] data = ints(
+                0, 0xff000003, 0x02fffff7, 0xfe7fffff);
+        byte[] expected = ints(
+                0, 0x3fc00000, 0xc2100000, 0x49fffffe);
+        MeshoptDecoder.applyFilter(
+                data, 1, 16, MeshoptDecoder.FILTER_EXPONENTIAL);
+        assertArrayEquals(expected, data);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFilterForIndicesIsRejected() {
+        MeshoptDecoder.decode(ByteBuffer.wrap(INDEX_DATA_V0),
+                INDEX_BUFFER.length, 4, MeshoptDecoder.MODE_TRIANGLES,
+                MeshoptDecoder.FILTER_OCTAHEDRAL);
+    }
+
+    /**
+     * Decode the given data into 32 bit indices
+     *
+     * @param data  The data
+     * @param count The number of indices
+     * @param mode  The mode
+     * @return The indices
+     */
+    private static int[] decodeInts(byte[] data, int count, String mode) {
+        ByteBuffer decoded = MeshoptDecoder.decode(
+                ByteBuffer.wrap(data), count, 4, mode, null);
+        decoded.order(ByteOrder.LITTLE_ENDIAN);
+        int[] result = new int[count];
+        decoded.asIntBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * Returns the remaining contents of the given buffer as an array
+     *
+     * @param buffer The buffer
+     * @return The array
+     */
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.slice().get(result);
+        return result;
+    }
+
+    /**
+     * Create a byte array from the given unsigned byte values
+     *
+     * @param values The values
+     * @return The array
+     */
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    /**
+     * Create a byte array from the given unsigned short values, in
+     * little-endian byte order
+     *
+     * @param values The values
+     * @return The array
+     */
+    private static byte[] shorts(int... values) {
+        ByteBuffer result = ByteBuffer.allocate(values.length * 2)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int value : values) {
+            result.putShort((short) value);
+        }
+        return result.array();
+    }
+
+    /**
+     * Create a byte array from the given int values, in little-endian
+     * byte order
+     *
+     * @param values The values
+     * @return The array
+     */
+    private static byte[] ints(int... values) {
+        ByteBuffer result = ByteBuffer.allocate(values.length * 4)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int value : values) {
+            result.putInt(value);
+        }
+        return result.array();
+    }
+}